@@ -16,8 +16,6 @@
 
 package org.wso2.carbon.email.mgt;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -28,6 +26,9 @@ import org.wso2.carbon.email.mgt.exceptions.I18nEmailMgtInternalException;
 import org.wso2.carbon.email.mgt.exceptions.I18nEmailMgtServerException;
 import org.wso2.carbon.email.mgt.exceptions.I18nMgtEmailConfigException;
 import org.wso2.carbon.email.mgt.internal.I18nMgtDataHolder;
+import org.wso2.carbon.email.mgt.internal.NotificationTemplateCache;
+import org.wso2.carbon.email.mgt.internal.NotificationTemplateClusterNotifier;
+import org.wso2.carbon.email.mgt.internal.TemplateLocaleResolver;
 import org.wso2.carbon.email.mgt.model.EmailTemplate;
 import org.wso2.carbon.email.mgt.util.I18nEmailUtil;
 import org.wso2.carbon.identity.base.IdentityRuntimeException;
@@ -48,10 +49,11 @@ import org.wso2.carbon.registry.core.Resource;
 import org.wso2.carbon.registry.core.ResourceImpl;
 import org.wso2.carbon.registry.core.exceptions.RegistryException;
 
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 import static org.wso2.carbon.email.mgt.constants.I18nMgtConstants.DEFAULT_EMAIL_LOCALE;
 import static org.wso2.carbon.email.mgt.constants.I18nMgtConstants.DEFAULT_SMS_NOTIFICATION_LOCALE;
@@ -72,6 +74,9 @@ public class EmailTemplateManagerImpl implements EmailTemplateManager, Notificat
 
     private I18nMgtDataHolder dataHolder = I18nMgtDataHolder.getInstance();
     private RegistryResourceMgtService resourceMgtService = dataHolder.getRegistryResourceMgtService();
+    private NotificationTemplateCache templateCache = NotificationTemplateCache.getInstance();
+    private TemplateLocaleResolver localeResolver = TemplateLocaleResolver.getInstance();
+    private NotificationTemplateClusterNotifier clusterNotifier = NotificationTemplateClusterNotifier.getInstance();
 
     private static final Log log = LogFactory.getLog(EmailTemplateManagerImpl.class);
 
@@ -150,6 +155,14 @@ public class EmailTemplateManagerImpl implements EmailTemplateManager, Notificat
 
         try {
             resourceMgtService.deleteIdentityResource(path, tenantDomain);
+            templateCache.invalidate(tenantDomain, NotificationChannels.EMAIL_CHANNEL.getChannelType(), templateType,
+                    null);
+            localeResolver.onTemplateDeleted(tenantDomain, NotificationChannels.EMAIL_CHANNEL.getChannelType(),
+                    templateType, null);
+            clusterNotifier.sendInvalidation(tenantDomain, NotificationChannels.EMAIL_CHANNEL.getChannelType(),
+                    templateType, null, null);
+            notifyTemplateChange(tenantDomain, NotificationChannels.EMAIL_CHANNEL.getChannelType(), templateType,
+                    null);
         } catch (IdentityRuntimeException ex) {
             String errorMsg = String.format
                     ("Error deleting email template type %s from %s tenant.", emailTemplateDisplayName, tenantDomain);
@@ -278,6 +291,10 @@ public class EmailTemplateManagerImpl implements EmailTemplateManager, Notificat
 
     /**
      * Return the notification template from the tenant registry which matches the given channel and template name.
+     * If the template is not available in the given locale, the template of the first locale of its fallback chain
+     * which has a template is returned. The locale is resolved by the {@link TemplateLocaleResolver} and the template
+     * is served from the {@link NotificationTemplateCache}, hence the tenant registry is read once per template no
+     * matter how many threads ask for it, and is not read at all for locales without a template.
      *
      * @param notificationChannel Notification Channel Name (Eg: SMS or EMAIL)
      * @param templateType        Type of the template
@@ -290,9 +307,79 @@ public class EmailTemplateManagerImpl implements EmailTemplateManager, Notificat
             String tenantDomain) throws NotificationTemplateManagerException {
 
         // Resolve channel to either SMS or EMAIL.
-        notificationChannel = resolveNotificationChannel(notificationChannel);
+        String resolvedChannel = resolveNotificationChannel(notificationChannel);
         validateTemplateLocale(locale);
         validateDisplayNameOfTemplateType(templateType);
+
+        String defaultLocale = getDefaultNotificationLocale(resolvedChannel);
+        String resolvedLocale = localeResolver.resolveLocale(tenantDomain, resolvedChannel, templateType, locale,
+                defaultLocale, () -> getAvailableLocales(resolvedChannel, templateType, locale, tenantDomain));
+        if (resolvedLocale == null) {
+            // Template is not available in the default locale. Therefore, breaking the flow at the consuming side
+            // to avoid NPE.
+            String error = String.format(IdentityMgtConstants.ErrorMessages.ERROR_CODE_NO_TEMPLATE_FOUND.getMessage(),
+                    templateType, defaultLocale, tenantDomain);
+            throw new NotificationTemplateManagerServerException(
+                    IdentityMgtConstants.ErrorMessages.ERROR_CODE_NO_TEMPLATE_FOUND.getCode(), error);
+        }
+        if (log.isDebugEnabled() && !StringUtils.equalsIgnoreCase(resolvedLocale, locale)) {
+            log.debug(String.format("'%s' template in '%s' locale was not found in '%s' tenant. Returning the " +
+                    "template in the fallback locale : '%s'", templateType, locale, tenantDomain, resolvedLocale));
+        }
+        return templateCache.getValueFromCache(tenantDomain, resolvedChannel, templateType, resolvedLocale,
+                () -> loadNotificationTemplate(resolvedChannel, templateType, resolvedLocale, tenantDomain));
+    }
+
+    /**
+     * Get the locales in which templates of the given template type exist in the tenant registry.
+     *
+     * @param notificationChannel Notification channel (SMS or EMAIL)
+     * @param templateType        Type of the template
+     * @param locale              Requested locale
+     * @param tenantDomain        Tenant Domain
+     * @return Locales in lower case, or an empty set if the template type does not exist
+     * @throws NotificationTemplateManagerException Error reading the template type from the registry
+     */
+    private Set<String> getAvailableLocales(String notificationChannel, String templateType, String locale,
+                                            String tenantDomain) throws NotificationTemplateManagerException {
+
+        String path = buildTemplateRootDirectoryPath(I18nEmailUtil.getNormalizedName(templateType),
+                notificationChannel);
+        Set<String> locales = new HashSet<>();
+        try {
+            Resource templateTypeResource = resourceMgtService.getIdentityResource(path, tenantDomain);
+            if (templateTypeResource instanceof Collection) {
+                for (String templatePath : ((Collection) templateTypeResource).getChildren()) {
+                    locales.add(templatePath.substring(templatePath.lastIndexOf(PATH_SEPARATOR) + 1)
+                            .toLowerCase(Locale.ENGLISH));
+                }
+            }
+        } catch (IdentityRuntimeException | RegistryException exception) {
+            String error = String
+                    .format(IdentityMgtConstants.ErrorMessages.ERROR_CODE_ERROR_RETRIEVING_TEMPLATE_FROM_REGISTRY
+                            .getMessage(), templateType, locale, tenantDomain);
+            throw new NotificationTemplateManagerServerException(
+                    IdentityMgtConstants.ErrorMessages.ERROR_CODE_ERROR_RETRIEVING_TEMPLATE_FROM_REGISTRY.getCode(),
+                    error, exception);
+        }
+        return locales;
+    }
+
+    /**
+     * Read the notification template from the tenant registry, falling back to the default locale of the channel if
+     * the template is no longer available in the given locale.
+     *
+     * @param notificationChannel Notification channel (SMS or EMAIL)
+     * @param templateType        Type of the template
+     * @param locale              Locale
+     * @param tenantDomain        Tenant Domain
+     * @return Notification template
+     * @throws NotificationTemplateManagerException Error getting the notification template
+     */
+    private NotificationTemplate loadNotificationTemplate(String notificationChannel, String templateType,
+                                                          String locale, String tenantDomain)
+            throws NotificationTemplateManagerException {
+
         NotificationTemplate notificationTemplate = null;
 
         // Get notification template registry path.
@@ -406,13 +493,12 @@ public class EmailTemplateManagerImpl implements EmailTemplateManager, Notificat
         try {
             Object content = templateResource.getContent();
             if (content != null) {
-                byte[] templateContentArray = (byte[]) content;
-                String templateContent = new String(templateContentArray, Charset.forName("UTF-8"));
-
                 String[] templateContentElements;
                 try {
-                    templateContentElements = new Gson().fromJson(templateContent, String[].class);
-                } catch (JsonSyntaxException exception) {
+                    templateContentElements = I18nEmailUtil.getTemplateContentElements((byte[]) content,
+                            templateResource.getProperty(I18nMgtConstants.TEMPLATE_CONTENT_CODEC), displayName,
+                            locale);
+                } catch (I18nEmailMgtServerException exception) {
                     String error = String.format(IdentityMgtConstants.ErrorMessages.
                             ERROR_CODE_DESERIALIZING_TEMPLATE_FROM_TENANT_REGISTRY.getMessage(), displayName, locale);
                     throw new NotificationTemplateManagerServerException(IdentityMgtConstants.ErrorMessages.
@@ -502,10 +588,8 @@ public class EmailTemplateManagerImpl implements EmailTemplateManager, Notificat
             templateContent = new String[]{body};
         }
         templateResource.setMediaType(RegistryConstants.TAG_MEDIA_TYPE);
-        String content = new Gson().toJson(templateContent);
         try {
-            byte[] contentByteArray = content.getBytes(StandardCharsets.UTF_8);
-            templateResource.setContent(contentByteArray);
+            I18nEmailUtil.setTemplateContent(templateResource, templateContent);
         } catch (RegistryException e) {
             String code =
                     I18nEmailUtil.prependOperationScenarioToErrorCode(
@@ -544,6 +628,11 @@ public class EmailTemplateManagerImpl implements EmailTemplateManager, Notificat
                 }
             }
             resourceMgtService.putIdentityResource(templateResource, path, tenantDomain, locale);
+            templateCache.invalidate(tenantDomain, notificationChannel, type, locale);
+            localeResolver.onTemplateAdded(tenantDomain, notificationChannel, type, locale);
+            clusterNotifier.sendInvalidation(tenantDomain, notificationChannel, type, locale,
+                    I18nEmailUtil.getTemplateRevision(notificationTemplate));
+            notifyTemplateChange(tenantDomain, notificationChannel, type, locale);
         } catch (IdentityRuntimeException e) {
             String code = I18nEmailUtil.prependOperationScenarioToErrorCode(
                     I18nMgtConstants.ErrorMessages.ERROR_CODE_ERROR_ERROR_ADDING_TEMPLATE.getCode(),
@@ -595,6 +684,14 @@ public class EmailTemplateManagerImpl implements EmailTemplateManager, Notificat
 
         try {
             resourceMgtService.deleteIdentityResource(path, tenantDomain, localeCode);
+            templateCache.invalidate(tenantDomain, NotificationChannels.EMAIL_CHANNEL.getChannelType(), templateType,
+                    localeCode);
+            localeResolver.onTemplateDeleted(tenantDomain, NotificationChannels.EMAIL_CHANNEL.getChannelType(),
+                    templateType, localeCode);
+            clusterNotifier.sendInvalidation(tenantDomain, NotificationChannels.EMAIL_CHANNEL.getChannelType(),
+                    templateType, localeCode, null);
+            notifyTemplateChange(tenantDomain, NotificationChannels.EMAIL_CHANNEL.getChannelType(), templateType,
+                    localeCode);
         } catch (IdentityRuntimeException ex) {
             String msg = String.format("Error deleting %s:%s template from %s tenant registry.", templateTypeName,
                     localeCode, tenantDomain);
@@ -857,6 +954,29 @@ public class EmailTemplateManagerImpl implements EmailTemplateManager, Notificat
         return templateList;
     }
 
+    /**
+     * Notify the registered template change listeners about a template change in the tenant registry.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel (EMAIL or SMS)
+     * @param templateType        Normalized template type
+     * @param locale              Locale of the changed template, or null if the whole template type is changed
+     */
+    private void notifyTemplateChange(String tenantDomain, String notificationChannel, String templateType,
+                                      String locale) {
+
+        for (NotificationTemplateChangeListener listener : dataHolder.getTemplateChangeListeners()) {
+            try {
+                listener.onTemplateChange(tenantDomain, notificationChannel, templateType, locale);
+            } catch (RuntimeException e) {
+                String message = "Error while notifying the change of template type : %s in locale : %s of tenant " +
+                        ": %s to the listener : %s";
+                log.error(String.format(message, templateType, locale, tenantDomain,
+                        listener.getClass().getName()), e);
+            }
+        }
+    }
+
     private void handleServerException(String errorMsg, Throwable ex) throws I18nEmailMgtServerException {
 
         log.error(errorMsg);
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.email.mgt;
+
+/**
+ * Listener which is notified by the notification template manager after a notification template is added, updated
+ * or deleted. Listeners registered as OSGi services are picked by the I18n management component.
+ */
+public interface NotificationTemplateChangeListener {
+
+    /**
+     * Invoked after notification templates of a template type are changed in the tenant registry.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel (EMAIL or SMS)
+     * @param templateType        Normalized template type
+     * @param locale              Locale of the changed template, or null if all the templates of the template type
+     *                            are changed
+     */
+    void onTemplateChange(String tenantDomain, String notificationChannel, String templateType, String locale);
+}
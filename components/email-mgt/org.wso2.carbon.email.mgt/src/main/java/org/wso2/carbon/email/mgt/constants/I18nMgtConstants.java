@@ -47,11 +47,30 @@ public class I18nMgtConstants {
     public static final String TEMPLATE_TYPE_DISPLAY_NAME = "display";
     public static final String TEMPLATE_LOCALE = "locale";
     public static final String TEMPLATE_CONTENT_TYPE = "emailContentType";
+    public static final String TEMPLATE_CONTENT_CODEC = "contentCodec";
 
     public static final String TEMPLATE_SUBJECT = "subject";
     public static final String TEMPLATE_BODY = "body";
     public static final String TEMPLATE_FOOTER = "footer";
 
+    // Constants related to the cache of notification templates.
+    public static final String TEMPLATE_CACHE_CAPACITY_PROPERTY = "NotificationTemplateManager.TemplateCache.Capacity";
+    public static final int DEFAULT_TEMPLATE_CACHE_CAPACITY = 1000;
+    public static final String LOCALE_FALLBACK_PROPERTY = "NotificationTemplateManager.LocaleFallback";
+    public static final String LOCALE_TABLE_CAPACITY_PROPERTY = "NotificationTemplateManager.LocaleTable.Capacity";
+    public static final int DEFAULT_LOCALE_TABLE_CAPACITY = 1000;
+
+    // Constants related to the storage format of notification template content.
+    public static final String BINARY_CONTENT_FORMAT_PROPERTY = "NotificationTemplateManager.BinaryContentFormat";
+    public static final String CONTENT_COMPRESSION_ENABLE_PROPERTY =
+            "NotificationTemplateManager.ContentCompression.Enable";
+    public static final String CONTENT_COMPRESSION_THRESHOLD_PROPERTY =
+            "NotificationTemplateManager.ContentCompression.Threshold";
+    public static final int DEFAULT_CONTENT_COMPRESSION_THRESHOLD = 1024;
+    public static final String CONTENT_STATISTICS_REPORT_INTERVAL_PROPERTY =
+            "NotificationTemplateManager.ContentStatistics.ReportInterval";
+    public static final int DEFAULT_CONTENT_STATISTICS_REPORT_INTERVAL_SECONDS = 300;
+
     public static final String EMAIL_TEMPLATE_TYPE_REGEX = "[a-zA-Z0-9\\s]+";
     public static final String ERROR_CODE_DELIMITER = "-";
 
@@ -16,6 +16,8 @@
 
 package org.wso2.carbon.email.mgt.internal;
 
+import org.apache.axis2.clustering.ClusteringAgent;
+import org.wso2.carbon.email.mgt.NotificationTemplateChangeListener;
 import org.wso2.carbon.identity.core.persistence.registry.RegistryResourceMgtService;
 import org.wso2.carbon.identity.governance.model.NotificationTemplate;
 import org.wso2.carbon.registry.core.service.RegistryService;
@@ -23,6 +25,7 @@ import org.wso2.carbon.user.core.service.RealmService;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class I18nMgtDataHolder{
     private RealmService realmService;
@@ -30,6 +33,8 @@ public class I18nMgtDataHolder{
     private RegistryResourceMgtService registryResourceMgtService;
     private List<NotificationTemplate> defaultEmailTemplates = new ArrayList<>();
     private List<NotificationTemplate> defaultSMSTemplates = new ArrayList<>();
+    private List<NotificationTemplateChangeListener> templateChangeListeners = new CopyOnWriteArrayList<>();
+    private volatile ClusteringAgent clusteringAgent;
 
     private static I18nMgtDataHolder instance = new I18nMgtDataHolder();
 
@@ -93,4 +98,34 @@ public class I18nMgtDataHolder{
 
         return defaultSMSTemplates;
     }
+
+    public void addTemplateChangeListener(NotificationTemplateChangeListener templateChangeListener) {
+
+        this.templateChangeListeners.add(templateChangeListener);
+    }
+
+    public void removeTemplateChangeListener(NotificationTemplateChangeListener templateChangeListener) {
+
+        this.templateChangeListeners.remove(templateChangeListener);
+    }
+
+    public List<NotificationTemplateChangeListener> getTemplateChangeListeners() {
+
+        return templateChangeListeners;
+    }
+
+    /**
+     * Get the clustering agent of the server.
+     *
+     * @return Clustering agent, or null if clustering is not enabled
+     */
+    public ClusteringAgent getClusteringAgent() {
+
+        return clusteringAgent;
+    }
+
+    public void setClusteringAgent(ClusteringAgent clusteringAgent) {
+
+        this.clusteringAgent = clusteringAgent;
+    }
 }
@@ -28,12 +28,16 @@ import org.osgi.service.component.ComponentContext;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.email.mgt.EmailTemplateManager;
 import org.wso2.carbon.email.mgt.EmailTemplateManagerImpl;
+import org.wso2.carbon.email.mgt.NotificationTemplateChangeListener;
 import org.wso2.carbon.email.mgt.SMSProviderPayloadTemplateManager;
 import org.wso2.carbon.email.mgt.SMSProviderPayloadTemplateManagerImpl;
 import org.wso2.carbon.email.mgt.constants.I18nMgtConstants;
 import org.wso2.carbon.email.mgt.exceptions.I18nEmailMgtException;
 import org.wso2.carbon.email.mgt.model.SMSProviderTemplate;
+import org.wso2.carbon.email.mgt.util.TemplateContentCodec;
+import org.wso2.carbon.email.mgt.util.TemplateContentCompressor;
 import org.wso2.carbon.identity.core.persistence.registry.RegistryResourceMgtService;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.governance.exceptions.notiification.NotificationTemplateManagerException;
 import org.wso2.carbon.identity.governance.model.NotificationTemplate;
 import org.wso2.carbon.identity.governance.service.notification.NotificationChannels;
@@ -41,6 +45,7 @@ import org.wso2.carbon.identity.governance.service.notification.NotificationTemp
 import org.wso2.carbon.registry.core.service.RegistryService;
 import org.wso2.carbon.stratos.common.listeners.TenantMgtListener;
 import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.utils.ConfigurationContextService;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -84,6 +89,27 @@ public class I18nMgtServiceComponent {
     protected void activate(ComponentContext context) {
         try {
             BundleContext bundleCtx = context.getBundleContext();
+            NotificationTemplateClusterNotifier.getInstance().start();
+
+            NotificationTemplateCache.getInstance().setCapacity(getIntProperty(
+                    I18nMgtConstants.TEMPLATE_CACHE_CAPACITY_PROPERTY,
+                    I18nMgtConstants.DEFAULT_TEMPLATE_CACHE_CAPACITY));
+            TemplateLocaleResolver.getInstance().setCapacity(getIntProperty(
+                    I18nMgtConstants.LOCALE_TABLE_CAPACITY_PROPERTY, I18nMgtConstants.DEFAULT_LOCALE_TABLE_CAPACITY));
+            TemplateLocaleResolver.getInstance().setFallbackLocales(
+                    IdentityUtil.getProperty(I18nMgtConstants.LOCALE_FALLBACK_PROPERTY));
+            String binaryContentFormat = IdentityUtil.getProperty(I18nMgtConstants.BINARY_CONTENT_FORMAT_PROPERTY);
+            if (StringUtils.isNotBlank(binaryContentFormat)) {
+                TemplateContentCodec.setBinaryFormatEnabled(Boolean.parseBoolean(binaryContentFormat.trim()));
+            }
+            TemplateContentCompressor.getInstance().setEnabled(Boolean.parseBoolean(StringUtils.trim(
+                    IdentityUtil.getProperty(I18nMgtConstants.CONTENT_COMPRESSION_ENABLE_PROPERTY))));
+            TemplateContentCompressor.getInstance().setThreshold(getIntProperty(
+                    I18nMgtConstants.CONTENT_COMPRESSION_THRESHOLD_PROPERTY,
+                    I18nMgtConstants.DEFAULT_CONTENT_COMPRESSION_THRESHOLD));
+            TemplateContentCompressor.getInstance().startReporting(getIntProperty(
+                    I18nMgtConstants.CONTENT_STATISTICS_REPORT_INTERVAL_PROPERTY,
+                    I18nMgtConstants.DEFAULT_CONTENT_STATISTICS_REPORT_INTERVAL_SECONDS));
 
             // Register Email Mgt Service as an OSGi service.
             EmailTemplateManagerImpl emailTemplateManager = new EmailTemplateManagerImpl();
@@ -336,8 +362,32 @@ public class I18nMgtServiceComponent {
                 I18nMgtConstants.EMAIL_CONF_DIRECTORY + File.separator + I18nMgtConstants.EMAIL_ADMIN_CONF_FILE;
     }
 
+    /**
+     * Get an integer property configured in identity.xml, such as the capacity of a notification template cache.
+     *
+     * @param property     identity.xml property
+     * @param defaultValue Value used if the property is not configured or is invalid
+     * @return Configured value
+     */
+    private int getIntProperty(String property, int defaultValue) {
+
+        String value = IdentityUtil.getProperty(property);
+        if (StringUtils.isNotBlank(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value: " + value + " configured for: " + property + ". Using the default value: " +
+                        defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     @Deactivate
     protected void deactivate(ComponentContext context) {
+
+        NotificationTemplateClusterNotifier.getInstance().shutdown();
+        TemplateContentCompressor.getInstance().stopReporting();
         if (log.isDebugEnabled()) {
             log.debug("I18n Management bundle is de-activated");
         }
@@ -402,5 +452,48 @@ public class I18nMgtServiceComponent {
         }
         dataHolder.setRegistryResourceMgtService(null);
     }
+
+    @Reference(
+             name = "notification.template.change.listener",
+             service = org.wso2.carbon.email.mgt.NotificationTemplateChangeListener.class,
+             cardinality = ReferenceCardinality.MULTIPLE,
+             policy = ReferencePolicy.DYNAMIC,
+             unbind = "unsetTemplateChangeListener")
+    protected void setTemplateChangeListener(NotificationTemplateChangeListener templateChangeListener) {
+        if (log.isDebugEnabled()) {
+            log.debug("Setting the Notification Template Change Listener : " +
+                    templateChangeListener.getClass().getName());
+        }
+        dataHolder.addTemplateChangeListener(templateChangeListener);
+    }
+
+    protected void unsetTemplateChangeListener(NotificationTemplateChangeListener templateChangeListener) {
+        if (log.isDebugEnabled()) {
+            log.debug("UnSetting the Notification Template Change Listener : " +
+                    templateChangeListener.getClass().getName());
+        }
+        dataHolder.removeTemplateChangeListener(templateChangeListener);
+    }
+
+    @Reference(
+             name = "config.context.service",
+             service = org.wso2.carbon.utils.ConfigurationContextService.class,
+             cardinality = ReferenceCardinality.OPTIONAL,
+             policy = ReferencePolicy.DYNAMIC,
+             unbind = "unsetClusteringAgent")
+    protected void setClusteringAgent(ConfigurationContextService configurationContextService) {
+        if (log.isDebugEnabled()) {
+            log.debug("Setting the Clustering Agent");
+        }
+        dataHolder.setClusteringAgent(
+                configurationContextService.getServerConfigContext().getAxisConfiguration().getClusteringAgent());
+    }
+
+    protected void unsetClusteringAgent(ConfigurationContextService configurationContextService) {
+        if (log.isDebugEnabled()) {
+            log.debug("UnSetting the Clustering Agent");
+        }
+        dataHolder.setClusteringAgent(null);
+    }
 }
 
@@ -0,0 +1,393 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.email.mgt.internal;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.email.mgt.constants.I18nMgtConstants;
+import org.wso2.carbon.email.mgt.util.I18nEmailUtil;
+import org.wso2.carbon.identity.governance.IdentityMgtConstants;
+import org.wso2.carbon.identity.governance.exceptions.notiification.NotificationTemplateManagerException;
+import org.wso2.carbon.identity.governance.exceptions.notiification.NotificationTemplateManagerServerException;
+import org.wso2.carbon.identity.governance.model.NotificationTemplate;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of the notification templates of all the tenants, keyed by tenant domain, notification channel,
+ * template type and the requested locale. Concurrent misses of the same key share a single load, so only one registry
+ * read is made for a template no matter how many threads ask for it at once. Failed loads are not cached.
+ * <p>
+ * The cache is bounded by the configured capacity. When it is full, entries which were not read since the previous
+ * eviction pass are evicted first. Entries are evicted by the template manager through
+ * {@link #invalidate(String, String, String, String)} whenever templates are added or deleted.
+ */
+public class NotificationTemplateCache {
+
+    private static final Log log = LogFactory.getLog(NotificationTemplateCache.class);
+
+    private static final NotificationTemplateCache instance = new NotificationTemplateCache();
+
+    private final Map<TemplateCacheKey, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private volatile int capacity = I18nMgtConstants.DEFAULT_TEMPLATE_CACHE_CAPACITY;
+
+    private NotificationTemplateCache() {
+
+    }
+
+    public static NotificationTemplateCache getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Loads a notification template from the tenant registry.
+     */
+    public interface TemplateLoader {
+
+        /**
+         * Load the notification template.
+         *
+         * @return Notification template
+         * @throws NotificationTemplateManagerException If an error occurred while loading the template
+         */
+        NotificationTemplate load() throws NotificationTemplateManagerException;
+    }
+
+    /**
+     * Set the maximum number of templates kept in the cache. A capacity of zero or less disables the cache.
+     *
+     * @param capacity Maximum number of cached templates
+     */
+    public void setCapacity(int capacity) {
+
+        this.capacity = capacity;
+        if (capacity <= 0) {
+            cache.clear();
+        } else {
+            evictIfFull();
+        }
+    }
+
+    /**
+     * Get the notification template of the given template type and locale, loading it with the given loader if it is
+     * not cached. A copy of the cached template is returned, hence callers are free to change it.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel
+     * @param templateType        Template type
+     * @param locale              Requested locale
+     * @param loader              Loader of the template
+     * @return Notification template
+     * @throws NotificationTemplateManagerException If an error occurred while loading the template
+     */
+    public NotificationTemplate getValueFromCache(String tenantDomain, String notificationChannel,
+                                                  String templateType, String locale, TemplateLoader loader)
+            throws NotificationTemplateManagerException {
+
+        if (capacity <= 0) {
+            return loader.load();
+        }
+        TemplateCacheKey key = new TemplateCacheKey(tenantDomain, notificationChannel, templateType, locale);
+        CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            CacheEntry newEntry = new CacheEntry(loader);
+            entry = cache.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                // This thread won the race for the key, hence it loads the template for all the waiting threads.
+                entry = newEntry;
+                loadCount.incrementAndGet();
+                evictIfFull();
+                newEntry.load();
+            } else {
+                hitCount.incrementAndGet();
+            }
+        } else {
+            hitCount.incrementAndGet();
+        }
+        entry.referenced = true;
+        try {
+            return copy(entry.get());
+        } catch (NotificationTemplateManagerException | RuntimeException e) {
+            cache.remove(key, entry);
+            throw e;
+        }
+    }
+
+    /**
+     * Evict the templates of the given template type. Entries which were resolved to the changed locale through a
+     * fallback, and entries which are still being loaded, are evicted as well.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel
+     * @param templateType        Template type
+     * @param locale              Changed locale, or null to evict all the locales of the template type
+     */
+    public void invalidate(String tenantDomain, String notificationChannel, String templateType, String locale) {
+
+        invalidate(tenantDomain, notificationChannel, templateType, locale, null);
+    }
+
+    /**
+     * Evict the templates of the given template type unless they are already of the given revision. This makes the
+     * eviction idempotent when a change is reported more than once, such as by the other nodes of a cluster.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel
+     * @param templateType        Template type
+     * @param locale              Changed locale, or null to evict all the locales of the template type
+     * @param revision            Revision of the changed template, or null if the template was deleted
+     */
+    public void invalidate(String tenantDomain, String notificationChannel, String templateType, String locale,
+                           String revision) {
+
+        TemplateCacheKey changedKey = new TemplateCacheKey(tenantDomain, notificationChannel, templateType, locale);
+        Iterator<Map.Entry<TemplateCacheKey, CacheEntry>> iterator = cache.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<TemplateCacheKey, CacheEntry> entry = iterator.next();
+            TemplateCacheKey key = entry.getKey();
+            if (!key.isSameTemplateType(changedKey)) {
+                continue;
+            }
+            if (revision != null && entry.getValue().isRevision(revision)) {
+                continue;
+            }
+            if (changedKey.locale == null || changedKey.locale.equals(key.locale)
+                    || entry.getValue().isResolvedTo(changedKey.locale)) {
+                iterator.remove();
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Evicted cached templates of type: " + templateType + " of channel: " + notificationChannel +
+                    " for locale: " + locale + " in tenant: " + tenantDomain);
+        }
+    }
+
+    /**
+     * Evict the templates of all the template types of a tenant.
+     *
+     * @param tenantDomain Tenant domain
+     */
+    public void clearTenant(String tenantDomain) {
+
+        cache.keySet().removeIf(key -> Objects.equals(key.tenantDomain, tenantDomain));
+    }
+
+    /**
+     * Evict the templates of all the tenants.
+     */
+    public void clear() {
+
+        cache.clear();
+    }
+
+    /**
+     * Get the number of requests which were served by a cached or an in-flight load.
+     *
+     * @return Number of cache hits
+     */
+    public long getHitCount() {
+
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of templates loaded from the registry through the cache.
+     *
+     * @return Number of loads
+     */
+    public long getLoadCount() {
+
+        return loadCount.get();
+    }
+
+    public int size() {
+
+        return cache.size();
+    }
+
+    private void evictIfFull() {
+
+        if (cache.size() <= capacity) {
+            return;
+        }
+        // Entries read since the previous pass get a second chance. Their flag is cleared as the pass goes over them.
+        Iterator<CacheEntry> iterator = cache.values().iterator();
+        while (cache.size() > capacity && iterator.hasNext()) {
+            CacheEntry entry = iterator.next();
+            if (entry.referenced) {
+                entry.referenced = false;
+            } else {
+                iterator.remove();
+            }
+        }
+        iterator = cache.values().iterator();
+        while (cache.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static NotificationTemplate copy(NotificationTemplate template) {
+
+        if (template == null) {
+            return null;
+        }
+        NotificationTemplate copy = new NotificationTemplate();
+        copy.setNotificationChannel(template.getNotificationChannel());
+        copy.setContentType(template.getContentType());
+        copy.setDisplayName(template.getDisplayName());
+        copy.setType(template.getType());
+        copy.setLocale(template.getLocale());
+        copy.setSubject(template.getSubject());
+        copy.setBody(template.getBody());
+        copy.setFooter(template.getFooter());
+        return copy;
+    }
+
+    /**
+     * Cached template, or the load of a template shared by all the threads which asked for it.
+     */
+    private static final class CacheEntry {
+
+        private final FutureTask<NotificationTemplate> future;
+        private volatile boolean referenced = true;
+
+        private CacheEntry(TemplateLoader loader) {
+
+            this.future = new FutureTask<>(loader::load);
+        }
+
+        private void load() {
+
+            future.run();
+        }
+
+        private NotificationTemplate get() throws NotificationTemplateManagerException {
+
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NotificationTemplateManagerServerException(IdentityMgtConstants.ErrorMessages.
+                        ERROR_CODE_ERROR_RETRIEVING_TEMPLATE_FROM_REGISTRY.getCode(),
+                        "Interrupted while waiting for the notification template to be loaded.", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof NotificationTemplateManagerException) {
+                    throw (NotificationTemplateManagerException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new NotificationTemplateManagerServerException(IdentityMgtConstants.ErrorMessages.
+                        ERROR_CODE_ERROR_RETRIEVING_TEMPLATE_FROM_REGISTRY.getCode(),
+                        "Error while loading the notification template.", cause);
+            }
+        }
+
+        private boolean isRevision(String revision) {
+
+            if (!future.isDone()) {
+                return false;
+            }
+            try {
+                NotificationTemplate template = future.get();
+                return template != null && revision.equals(I18nEmailUtil.getTemplateRevision(template));
+            } catch (InterruptedException | ExecutionException e) {
+                return false;
+            }
+        }
+
+        private boolean isResolvedTo(String locale) {
+
+            if (!future.isDone()) {
+                // The load may read the changed template, hence an in-flight load is treated as resolved to it.
+                return true;
+            }
+            try {
+                NotificationTemplate template = future.get();
+                return template != null && StringUtils.equalsIgnoreCase(locale, template.getLocale());
+            } catch (InterruptedException | ExecutionException e) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Cache key of a template. Template types and locales are compared in their normalized form, since both are case
+     * insensitive in the template manager.
+     */
+    private static final class TemplateCacheKey {
+
+        private final String tenantDomain;
+        private final String notificationChannel;
+        private final String templateType;
+        private final String locale;
+
+        private TemplateCacheKey(String tenantDomain, String notificationChannel, String templateType,
+                                 String locale) {
+
+            this.tenantDomain = tenantDomain;
+            this.notificationChannel = notificationChannel;
+            this.templateType = templateType != null ?
+                    StringUtils.deleteWhitespace(templateType).toLowerCase(Locale.ENGLISH) : null;
+            this.locale = locale != null ? locale.toLowerCase(Locale.ENGLISH) : null;
+        }
+
+        private boolean isSameTemplateType(TemplateCacheKey other) {
+
+            return Objects.equals(tenantDomain, other.tenantDomain)
+                    && Objects.equals(notificationChannel, other.notificationChannel)
+                    && Objects.equals(templateType, other.templateType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateCacheKey)) {
+                return false;
+            }
+            TemplateCacheKey that = (TemplateCacheKey) o;
+            return isSameTemplateType(that) && Objects.equals(locale, that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(tenantDomain, notificationChannel, templateType, locale);
+        }
+    }
+}
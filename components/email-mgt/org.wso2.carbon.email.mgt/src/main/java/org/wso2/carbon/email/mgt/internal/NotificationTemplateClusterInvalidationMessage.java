@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.email.mgt.internal;
+
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.ClusteringMessage;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.base.api.IdempotentMessage;
+import org.wso2.carbon.email.mgt.NotificationTemplateChangeListener;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+
+/**
+ * Cluster message sent when a notification template is added or deleted, so that the other nodes evict exactly the
+ * changed template from their caches. Executing the message more than once has no further effect, and a node which
+ * already caches the given revision of the template keeps it.
+ */
+@IdempotentMessage
+public class NotificationTemplateClusterInvalidationMessage extends ClusteringMessage {
+
+    private static final Log log = LogFactory.getLog(NotificationTemplateClusterInvalidationMessage.class);
+    private static final long serialVersionUID = -6520911738735829404L;
+
+    private final int tenantId;
+    private final String notificationChannel;
+    private final String templateType;
+    private final String locale;
+    private final String revision;
+
+    /**
+     * Create the message of a template change.
+     *
+     * @param tenantId            Tenant ID
+     * @param notificationChannel Notification channel (EMAIL or SMS)
+     * @param templateType        Normalized template type
+     * @param locale              Locale of the changed template, or null if the template type was deleted
+     * @param revision            Revision of the added template, or null if the template was deleted
+     */
+    public NotificationTemplateClusterInvalidationMessage(int tenantId, String notificationChannel,
+                                                          String templateType, String locale, String revision) {
+
+        this.tenantId = tenantId;
+        this.notificationChannel = notificationChannel;
+        this.templateType = templateType;
+        this.locale = locale;
+        this.revision = revision;
+    }
+
+    @Override
+    public ClusteringCommand getResponse() {
+
+        return null;
+    }
+
+    @Override
+    public void execute(ConfigurationContext configurationContext) {
+
+        String tenantDomain = IdentityTenantUtil.getTenantDomain(tenantId);
+        if (log.isDebugEnabled()) {
+            log.debug("Received " + this + " for tenant: " + tenantDomain);
+        }
+        NotificationTemplateCache.getInstance().invalidate(tenantDomain, notificationChannel, templateType, locale,
+                revision);
+        if (revision != null) {
+            TemplateLocaleResolver.getInstance().onTemplateAdded(tenantDomain, notificationChannel, templateType,
+                    locale);
+        } else {
+            TemplateLocaleResolver.getInstance().onTemplateDeleted(tenantDomain, notificationChannel, templateType,
+                    locale);
+        }
+        for (NotificationTemplateChangeListener listener :
+                I18nMgtDataHolder.getInstance().getTemplateChangeListeners()) {
+            try {
+                listener.onTemplateChange(tenantDomain, notificationChannel, templateType, locale);
+            } catch (RuntimeException e) {
+                log.error("Error while notifying the cluster wide change of template type : " + templateType +
+                        " in locale : " + locale + " of tenant : " + tenantDomain + " to the listener : " +
+                        listener.getClass().getName(), e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return "NotificationTemplateClusterInvalidationMessage{tenantId=" + tenantId + ", notificationChannel=" +
+                notificationChannel + ", templateType=" + templateType + ", locale=" + locale + ", revision=" +
+                revision + "}";
+    }
+}
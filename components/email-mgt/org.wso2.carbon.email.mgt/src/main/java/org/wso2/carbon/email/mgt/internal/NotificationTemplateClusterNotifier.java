@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.email.mgt.internal;
+
+import org.apache.axis2.clustering.ClusteringAgent;
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the {@link NotificationTemplateClusterInvalidationMessage} of template changes to the other nodes of the
+ * cluster. Messages are sent in order by a single background thread, so that the template manager does not wait for
+ * the cluster, and a message which can not be sent is retried a few times before it is dropped. The thread pool is
+ * created when the bundle is activated and shut down when it is deactivated, so that the notifier works again once
+ * the bundle is restarted.
+ */
+public class NotificationTemplateClusterNotifier {
+
+    private static final Log log = LogFactory.getLog(NotificationTemplateClusterNotifier.class);
+
+    private static final NotificationTemplateClusterNotifier instance = new NotificationTemplateClusterNotifier();
+
+    private static final int MAX_RETRY_COUNT = 3;
+    private static final long RETRY_INTERVAL_MILLIS = 2000;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private volatile ExecutorService executor;
+
+    private NotificationTemplateClusterNotifier() {
+
+    }
+
+    public static NotificationTemplateClusterNotifier getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Create the thread pool which sends the messages, unless it is already running.
+     */
+    public synchronized void start() {
+
+        if (executor != null) {
+            return;
+        }
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "NotificationTemplateClusterNotifier");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // The thread is only kept while there are template changes to send.
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        executor = threadPoolExecutor;
+    }
+
+    /**
+     * Send the change of a template to the other nodes of the cluster, if clustering is enabled.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel (EMAIL or SMS)
+     * @param templateType        Normalized template type
+     * @param locale              Locale of the changed template, or null if the template type was deleted
+     * @param revision            Revision of the added template, or null if the template was deleted
+     */
+    public void sendInvalidation(String tenantDomain, String notificationChannel, String templateType, String locale,
+                                 String revision) {
+
+        if (I18nMgtDataHolder.getInstance().getClusteringAgent() == null) {
+            return;
+        }
+        NotificationTemplateClusterInvalidationMessage message = new NotificationTemplateClusterInvalidationMessage(
+                IdentityTenantUtil.getTenantId(tenantDomain), notificationChannel, templateType, locale, revision);
+        ExecutorService notifierExecutor = executor;
+        if (notifierExecutor == null) {
+            log.warn("Could not send " + message + " as the notification template manager is not active.");
+            return;
+        }
+        try {
+            notifierExecutor.execute(() -> send(message));
+        } catch (RejectedExecutionException e) {
+            log.warn("Could not send " + message + " as the notification template manager is shutting down.");
+        }
+    }
+
+    /**
+     * Stop sending messages after the pending messages are sent.
+     */
+    public void shutdown() {
+
+        ExecutorService notifierExecutor;
+        synchronized (this) {
+            notifierExecutor = executor;
+            executor = null;
+        }
+        if (notifierExecutor == null) {
+            return;
+        }
+        notifierExecutor.shutdown();
+        try {
+            if (!notifierExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                notifierExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            notifierExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(NotificationTemplateClusterInvalidationMessage message) {
+
+        for (int attempt = 1; attempt <= MAX_RETRY_COUNT; attempt++) {
+            ClusteringAgent clusteringAgent = I18nMgtDataHolder.getInstance().getClusteringAgent();
+            if (clusteringAgent == null) {
+                return;
+            }
+            try {
+                clusteringAgent.sendMessage(message, true);
+                if (log.isDebugEnabled()) {
+                    log.debug("Sent [" + message + "]");
+                }
+                return;
+            } catch (ClusteringFault e) {
+                if (attempt == MAX_RETRY_COUNT) {
+                    log.error("Could not send cluster invalidation message for notification template change. " +
+                            "Several retries failed. Request: " + message, e);
+                    return;
+                }
+                log.warn("Could not send cluster invalidation message for notification template change. Retry " +
+                        "will be attempted in " + RETRY_INTERVAL_MILLIS + "ms. Request: " + message, e);
+                try {
+                    Thread.sleep(RETRY_INTERVAL_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.email.mgt.internal;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.email.mgt.constants.I18nMgtConstants;
+import org.wso2.carbon.identity.governance.IdentityMgtConstants;
+import org.wso2.carbon.identity.governance.exceptions.notiification.NotificationTemplateManagerException;
+import org.wso2.carbon.identity.governance.exceptions.notiification.NotificationTemplateManagerServerException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Resolves the locale of the notification template served for a requested locale. The requested locale is looked up
+ * along its fallback chain, which follows the configured fallback of each locale and ends with the default locale of
+ * the channel, such as {@code fr_CA -> fr_FR -> en_US}.
+ * <p>
+ * The locales in which templates exist are remembered per tenant, notification channel and template type, so that
+ * locales without a template are resolved without reading the registry. The table of a template type is read from
+ * the registry once, and is then kept up to date by the template manager through
+ * {@link #onTemplateAdded(String, String, String, String)} and {@link #onTemplateDeleted(String, String, String,
+ * String)}. Concurrent lookups of a template type which is not known yet share a single registry read, which is made
+ * outside of the table, and failed reads are not remembered.
+ * <p>
+ * The table is bounded by the configured capacity. When it is full, template types without templates are evicted
+ * first, followed by the template types which were not looked up since the previous eviction pass.
+ */
+public class TemplateLocaleResolver {
+
+    private static final Log log = LogFactory.getLog(TemplateLocaleResolver.class);
+
+    private static final TemplateLocaleResolver instance = new TemplateLocaleResolver();
+
+    private static final String FALLBACK_SEPARATOR = ",";
+    private static final String LOCALE_SEPARATOR = ":";
+
+    private final Map<TemplateTypeKey, LocaleEntry> availableLocales = new ConcurrentHashMap<>();
+    private volatile Map<String, String> fallbackLocales = Collections.emptyMap();
+    private volatile int capacity = I18nMgtConstants.DEFAULT_LOCALE_TABLE_CAPACITY;
+
+    private TemplateLocaleResolver() {
+
+    }
+
+    public static TemplateLocaleResolver getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Loads the locales in which templates of a template type exist in the tenant registry.
+     */
+    public interface LocaleLoader {
+
+        /**
+         * Load the locales of the template type.
+         *
+         * @return Locales in lower case, or an empty set if the template type does not exist
+         * @throws NotificationTemplateManagerException If an error occurred while reading the registry
+         */
+        Set<String> load() throws NotificationTemplateManagerException;
+    }
+
+    /**
+     * Set the maximum number of template types whose locales are remembered. A capacity of zero or less disables the
+     * table, and the locales are read from the registry on every lookup.
+     *
+     * @param capacity Maximum number of template types
+     */
+    public void setCapacity(int capacity) {
+
+        this.capacity = capacity;
+        if (capacity <= 0) {
+            availableLocales.clear();
+        } else {
+            evictIfFull();
+        }
+    }
+
+    /**
+     * Set the fallback of each locale from a comma separated list of {@code locale:fallbackLocale} pairs, such as
+     * {@code fr_CA:fr_FR,pt_BR:pt_PT}.
+     *
+     * @param fallbackConfig Fallback locales, or null to fall back to the default locale only
+     */
+    public void setFallbackLocales(String fallbackConfig) {
+
+        Map<String, String> fallbacks = new HashMap<>();
+        if (StringUtils.isNotBlank(fallbackConfig)) {
+            for (String pair : fallbackConfig.split(FALLBACK_SEPARATOR)) {
+                String[] locales = pair.split(LOCALE_SEPARATOR);
+                if (locales.length != 2 || StringUtils.isBlank(locales[0]) || StringUtils.isBlank(locales[1])) {
+                    log.warn("Ignoring the invalid locale fallback: " + pair);
+                    continue;
+                }
+                fallbacks.put(normalize(locales[0]), locales[1].trim());
+            }
+        }
+        this.fallbackLocales = fallbacks;
+        if (log.isDebugEnabled()) {
+            log.debug("Configured notification template locale fallbacks: " + fallbacks);
+        }
+    }
+
+    /**
+     * Get the locales looked up for a requested locale, in order.
+     *
+     * @param locale        Requested locale
+     * @param defaultLocale Default locale of the notification channel
+     * @return Fallback chain, starting with the requested locale and ending with the default locale
+     */
+    public List<String> getFallbackChain(String locale, String defaultLocale) {
+
+        Set<String> seen = new HashSet<>();
+        List<String> chain = new ArrayList<>();
+        String current = locale;
+        // A locale which is already in the chain ends it, hence a cyclic configuration can not loop.
+        while (current != null && seen.add(normalize(current))) {
+            chain.add(current);
+            current = fallbackLocales.get(normalize(current));
+        }
+        if (defaultLocale != null && seen.add(normalize(defaultLocale))) {
+            chain.add(defaultLocale);
+        }
+        return chain;
+    }
+
+    /**
+     * Resolve the locale of the template served for the requested locale. The locales of the template type are
+     * loaded with the given loader if they are not known yet, and are remembered afterwards, including when the
+     * template type has no templates at all.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel
+     * @param templateType        Template type
+     * @param locale              Requested locale
+     * @param defaultLocale       Default locale of the notification channel
+     * @param loader              Loader of the locales of the template type
+     * @return First locale of the fallback chain in which a template exists, or null if there is none
+     * @throws NotificationTemplateManagerException If an error occurred while loading the locales
+     */
+    public String resolveLocale(String tenantDomain, String notificationChannel, String templateType, String locale,
+                                String defaultLocale, LocaleLoader loader) throws NotificationTemplateManagerException {
+
+        Set<String> locales = getAvailableLocales(new TemplateTypeKey(tenantDomain, notificationChannel,
+                templateType), loader);
+        for (String candidate : getFallbackChain(locale, defaultLocale)) {
+            if (locales.contains(normalize(candidate))) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Record that a template was added in the given locale.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel
+     * @param templateType        Template type
+     * @param locale              Locale of the added template
+     */
+    public void onTemplateAdded(String tenantDomain, String notificationChannel, String templateType, String locale) {
+
+        // Locales of a template type which are not known yet are read from the registry on the next lookup.
+        availableLocales.computeIfPresent(new TemplateTypeKey(tenantDomain, notificationChannel, templateType),
+                (key, entry) -> {
+                    Set<String> locales = entry.getLoadedLocales();
+                    if (locales == null) {
+                        // A read in flight may not see the added template, hence the locales are read again.
+                        return null;
+                    }
+                    Set<String> updated = new HashSet<>(locales);
+                    updated.add(normalize(locale));
+                    return new LocaleEntry(Collections.unmodifiableSet(updated));
+                });
+    }
+
+    /**
+     * Record that the template of the given locale, or all the templates of the template type, were deleted.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel
+     * @param templateType        Template type
+     * @param locale              Locale of the deleted template, or null if the template type was deleted
+     */
+    public void onTemplateDeleted(String tenantDomain, String notificationChannel, String templateType,
+                                  String locale) {
+
+        TemplateTypeKey typeKey = new TemplateTypeKey(tenantDomain, notificationChannel, templateType);
+        if (locale == null) {
+            availableLocales.remove(typeKey);
+            return;
+        }
+        availableLocales.computeIfPresent(typeKey, (key, entry) -> {
+            Set<String> locales = entry.getLoadedLocales();
+            if (locales == null) {
+                return null;
+            }
+            Set<String> updated = new HashSet<>(locales);
+            updated.remove(normalize(locale));
+            return new LocaleEntry(Collections.unmodifiableSet(updated));
+        });
+    }
+
+    /**
+     * Forget the locales of all the template types of a tenant.
+     *
+     * @param tenantDomain Tenant domain
+     */
+    public void clearTenant(String tenantDomain) {
+
+        availableLocales.keySet().removeIf(key -> Objects.equals(key.tenantDomain, tenantDomain));
+    }
+
+    /**
+     * Forget the locales of all the template types of all the tenants.
+     */
+    public void clear() {
+
+        availableLocales.clear();
+    }
+
+    public int size() {
+
+        return availableLocales.size();
+    }
+
+    private Set<String> getAvailableLocales(TemplateTypeKey typeKey, LocaleLoader loader)
+            throws NotificationTemplateManagerException {
+
+        if (capacity <= 0) {
+            return Collections.unmodifiableSet(new HashSet<>(loader.load()));
+        }
+        LocaleEntry entry = availableLocales.get(typeKey);
+        if (entry == null) {
+            LocaleEntry newEntry = new LocaleEntry(loader);
+            entry = availableLocales.putIfAbsent(typeKey, newEntry);
+            if (entry == null) {
+                // This thread won the race for the template type, hence it reads the locales for all the waiting
+                // threads.
+                entry = newEntry;
+                evictIfFull();
+                newEntry.load();
+            }
+        }
+        entry.referenced = true;
+        try {
+            return entry.get();
+        } catch (NotificationTemplateManagerException | RuntimeException e) {
+            availableLocales.remove(typeKey, entry);
+            throw e;
+        }
+    }
+
+    private void evictIfFull() {
+
+        if (availableLocales.size() <= capacity) {
+            return;
+        }
+        // Template types without templates are evicted first, as they are the cheapest to read again.
+        Iterator<LocaleEntry> iterator = availableLocales.values().iterator();
+        while (availableLocales.size() > capacity && iterator.hasNext()) {
+            Set<String> locales = iterator.next().getLoadedLocales();
+            if (locales != null && locales.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        // Entries read since the previous pass get a second chance. Their flag is cleared as the pass goes over them.
+        iterator = availableLocales.values().iterator();
+        while (availableLocales.size() > capacity && iterator.hasNext()) {
+            LocaleEntry entry = iterator.next();
+            if (entry.referenced) {
+                entry.referenced = false;
+            } else {
+                iterator.remove();
+            }
+        }
+        iterator = availableLocales.values().iterator();
+        while (availableLocales.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String normalize(String locale) {
+
+        return locale.trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Locales of a template type, or the read of the locales shared by all the threads which looked them up.
+     */
+    private static final class LocaleEntry {
+
+        private final FutureTask<Set<String>> future;
+        private volatile boolean referenced = true;
+
+        private LocaleEntry(LocaleLoader loader) {
+
+            this.future = new FutureTask<>(() -> Collections.unmodifiableSet(new HashSet<>(loader.load())));
+        }
+
+        private LocaleEntry(Set<String> locales) {
+
+            this.future = new FutureTask<>(() -> locales);
+            this.future.run();
+        }
+
+        private void load() {
+
+            future.run();
+        }
+
+        private Set<String> get() throws NotificationTemplateManagerException {
+
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NotificationTemplateManagerServerException(IdentityMgtConstants.ErrorMessages.
+                        ERROR_CODE_ERROR_RETRIEVING_TEMPLATE_FROM_REGISTRY.getCode(),
+                        "Interrupted while waiting for the locales of the template type to be read.", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof NotificationTemplateManagerException) {
+                    throw (NotificationTemplateManagerException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new NotificationTemplateManagerServerException(IdentityMgtConstants.ErrorMessages.
+                        ERROR_CODE_ERROR_RETRIEVING_TEMPLATE_FROM_REGISTRY.getCode(),
+                        "Error while reading the locales of the template type.", cause);
+            }
+        }
+
+        /**
+         * Get the locales if they are read.
+         *
+         * @return Locales, or null if they are still being read or the read failed
+         */
+        private Set<String> getLoadedLocales() {
+
+            if (!future.isDone()) {
+                return null;
+            }
+            try {
+                return future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Key of the locales of a template type. Template types are compared in their normalized form, since they are
+     * case insensitive in the template manager.
+     */
+    private static final class TemplateTypeKey {
+
+        private final String tenantDomain;
+        private final String notificationChannel;
+        private final String templateType;
+
+        private TemplateTypeKey(String tenantDomain, String notificationChannel, String templateType) {
+
+            this.tenantDomain = tenantDomain;
+            this.notificationChannel = notificationChannel;
+            this.templateType = templateType != null ?
+                    StringUtils.deleteWhitespace(templateType).toLowerCase(Locale.ENGLISH) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateTypeKey)) {
+                return false;
+            }
+            TemplateTypeKey that = (TemplateTypeKey) o;
+            return Objects.equals(tenantDomain, that.tenantDomain)
+                    && Objects.equals(notificationChannel, that.notificationChannel)
+                    && Objects.equals(templateType, that.templateType);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(tenantDomain, notificationChannel, templateType);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.wso2.carbon.identity.governance.service.notification.NotificationTemp
 import org.wso2.carbon.stratos.common.beans.TenantInfoBean;
 import org.wso2.carbon.stratos.common.exception.StratosException;
 import org.wso2.carbon.stratos.common.listeners.TenantMgtListener;
+import org.wso2.carbon.user.api.UserStoreException;
 
 public class TenantManagementListener implements TenantMgtListener {
 
@@ -69,7 +70,19 @@ public class TenantManagementListener implements TenantMgtListener {
 
     @Override
     public void onPreDelete(int tenantId) throws StratosException {
-        // It is not required to implement this method for I18n mgt.
+
+        // Templates of the tenant are evicted while the tenant domain can still be resolved.
+        try {
+            String tenantDomain = I18nMgtDataHolder.getInstance().getRealmService().getTenantManager()
+                    .getDomain(tenantId);
+            if (tenantDomain != null) {
+                NotificationTemplateCache.getInstance().clearTenant(tenantDomain);
+                TemplateLocaleResolver.getInstance().clearTenant(tenantDomain);
+            }
+        } catch (UserStoreException e) {
+            log.error("Error while resolving the domain of the tenant : " + tenantId + " to evict its notification " +
+                    "templates from the cache.", e);
+        }
     }
 
     @Override
@@ -16,8 +16,6 @@
 
 package org.wso2.carbon.email.mgt.util;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,11 +33,10 @@ import org.wso2.carbon.registry.core.Resource;
 import org.wso2.carbon.registry.core.ResourceImpl;
 import org.wso2.carbon.registry.core.exceptions.RegistryException;
 
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 public class I18nEmailUtil {
 
@@ -125,12 +122,10 @@ public class I18nEmailUtil {
         templateResource.setMediaType(RegistryConstants.TAG_MEDIA_TYPE);
 
         String contentArray[] = {subject, body, footer};
-        String content = new Gson().toJson(contentArray);
 
         try {
-            byte[] contentByteArray = content.getBytes("UTF-8");
-            templateResource.setContent(contentByteArray);
-        } catch (RegistryException | UnsupportedEncodingException e) {
+            setTemplateContent(templateResource, contentArray);
+        } catch (RegistryException e) {
             String error = "Error creating a registry resource from contents of %s email template type in %s locale.";
             throw new I18nEmailMgtServerException(String.format(error, templateDisplayName, locale), e);
         }
@@ -166,16 +161,9 @@ public class I18nEmailUtil {
             // process email template content
             Object content = templateResource.getContent();
             if (content != null) {
-                byte templateContentArray[] = (byte[]) content;
-                String templateContent = new String(templateContentArray, Charset.forName("UTF-8"));
-
-                String[] templateContentElements;
-                try {
-                    templateContentElements = new Gson().fromJson(templateContent, String[].class);
-                } catch (JsonSyntaxException ex) {
-                    String error = "Error deserializing '%s:%s' template from tenant registry.";
-                    throw new I18nEmailMgtServerException(String.format(error, templateDisplayName, locale), ex);
-                }
+                String[] templateContentElements = getTemplateContentElements((byte[]) content,
+                        templateResource.getProperty(I18nMgtConstants.TEMPLATE_CONTENT_CODEC), templateDisplayName,
+                        locale);
 
                 if (templateContentElements == null || templateContentElements.length != 3) {
                     String errorMsg = "Template %s:%s body is in invalid format. Missing subject,body or footer.";
@@ -197,6 +185,80 @@ public class I18nEmailUtil {
         return emailTemplate;
     }
 
+    /**
+     * Get the revision of a notification template, which is a hash of its content. Templates with the same content
+     * type, subject, body and footer have the same revision, whether they are built to be stored or read back from
+     * the registry.
+     *
+     * @param notificationTemplate Notification template
+     * @return Hex encoded revision
+     */
+    public static String getTemplateRevision(NotificationTemplate notificationTemplate) {
+
+        String contentType = notificationTemplate.getContentType();
+        // The charset is added to the content type when the template is read, hence it is added here as well.
+        if (contentType != null && !contentType.toLowerCase(Locale.ENGLISH).contains(CHARSET_CONSTANT)) {
+            contentType = contentType + "; " + CHARSET_UTF_8;
+        }
+        return TemplateContentCodec.hash(contentType, notificationTemplate.getSubject(), notificationTemplate.getBody(),
+                notificationTemplate.getFooter());
+    }
+
+    /**
+     * Encode the sections of a template into the content of a registry resource. The content is compressed if it is
+     * larger than the compression threshold, in which case the codec property of the resource is set.
+     *
+     * @param templateResource Registry resource of the template
+     * @param sections         Template sections, such as the subject, body and footer of an email template
+     * @throws RegistryException If the content could not be set
+     */
+    public static void setTemplateContent(Resource templateResource, String[] sections) throws RegistryException {
+
+        byte[] content = TemplateContentCodec.encode(sections);
+        byte[] compressedContent = TemplateContentCompressor.getInstance().compress(content);
+        if (compressedContent != null) {
+            templateResource.setProperty(I18nMgtConstants.TEMPLATE_CONTENT_CODEC,
+                    TemplateContentCompressor.GZIP_CONTENT_CODEC);
+            templateResource.setContent(compressedContent);
+        } else {
+            templateResource.setContent(content);
+        }
+    }
+
+    /**
+     * Decode the content of a template registry resource into the sections of the template, such as the subject,
+     * body and footer of an email template. Content written in the binary format and in the earlier JSON format are
+     * both accepted, and compressed content is decompressed according to the codec property of the resource. The
+     * content hash is only verified for content which is not compressed, as the checksum of the compressed content
+     * already covers it.
+     *
+     * @param content      Content of the registry resource
+     * @param contentCodec Codec property of the registry resource, or null if the content is not compressed
+     * @param displayName  Display name of the template
+     * @param locale       Locale of the template
+     * @return Template sections, or null if the content holds no sections
+     * @throws I18nEmailMgtServerException If the content could not be decoded
+     */
+    public static String[] getTemplateContentElements(byte[] content, String contentCodec, String displayName,
+                                                      String locale) throws I18nEmailMgtServerException {
+
+        TemplateContentCompressor compressor = TemplateContentCompressor.getInstance();
+        long startTime = System.nanoTime();
+        try {
+            TemplateContentCodec.TemplateContent templateContent =
+                    TemplateContentCodec.decode(compressor.decompress(content, contentCodec));
+            if (contentCodec == null) {
+                templateContent.verifyContentHash();
+            }
+            String[] sections = templateContent.getSections();
+            compressor.recordDecode(contentCodec != null, System.nanoTime() - startTime);
+            return sections;
+        } catch (I18nEmailMgtServerException e) {
+            String error = "Error deserializing '%s:%s' template from tenant registry.";
+            throw new I18nEmailMgtServerException(String.format(error, displayName, locale), e);
+        }
+    }
+
     /**
      * @param normalizedTemplateName
      * @param templateDisplayName
@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.email.mgt.util;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import org.wso2.carbon.email.mgt.exceptions.I18nEmailMgtServerException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Encodes and decodes the content of the notification template registry resources. Templates are stored as a JSON
+ * array of the sections unless the binary format is enabled, in which case they are stored as:
+ * <pre>
+ * magic (4 bytes) | version (1 byte) | content hash (8 bytes)
+ * section count (int) | sections (length prefixed UTF-8, a length of -1 marks a null section)
+ * </pre>
+ * The binary format is opt-in, as nodes of an earlier version can only read the JSON format. Both formats are always
+ * decoded. The content hash is the same {@link #hash(String...)} used for the revisions of the templates, and is only
+ * verified when a reader asks for it, since a truncated content is already rejected by the length prefixes.
+ * <p>
+ * The header has no index of the placeholders. Placeholders are looked up when the notification handler compiles a
+ * template, which it does once per template and caches, and the compiler scans the sections in a single pass to
+ * split them into literals and placeholders anyway. An index stored here would have to follow the placeholder syntax
+ * of the handler, and a stale index would go unnoticed, while it would not save the scan.
+ */
+public final class TemplateContentCodec {
+
+    public static final int JSON_FORMAT_VERSION = 0;
+    public static final int BINARY_FORMAT_VERSION = 1;
+
+    // The first byte of the magic can not start a JSON document, hence the formats can not be mistaken.
+    private static final byte[] MAGIC = {0, 'N', 'T', 'C'};
+    private static final int CONTENT_HASH_LENGTH = 8;
+    private static final int NULL_LENGTH = -1;
+    private static final String CONTENT_HASH_ALGORITHM = "SHA-256";
+    private static final Gson GSON = new Gson();
+
+    private static volatile boolean binaryFormatEnabled = false;
+
+    private TemplateContentCodec() {
+
+    }
+
+    /**
+     * Enable or disable writing templates in the binary format. Templates are written as a JSON array when it is
+     * disabled, so that they can be read by nodes which only support that format, hence it should only be enabled
+     * once all the nodes of a cluster are upgraded.
+     *
+     * @param enabled Whether templates are written in the binary format
+     */
+    public static void setBinaryFormatEnabled(boolean enabled) {
+
+        binaryFormatEnabled = enabled;
+    }
+
+    public static boolean isBinaryFormatEnabled() {
+
+        return binaryFormatEnabled;
+    }
+
+    /**
+     * Encode the sections of a template, such as the subject, body and footer of an email template.
+     *
+     * @param sections Template sections
+     * @return Encoded content
+     */
+    public static byte[] encode(String[] sections) {
+
+        if (!binaryFormatEnabled) {
+            return GSON.toJson(sections).getBytes(StandardCharsets.UTF_8);
+        }
+        byte[][] encodedSections = toBytes(sections);
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeByte(BINARY_FORMAT_VERSION);
+            out.write(digest(encodedSections));
+            out.writeInt(encodedSections.length);
+            for (byte[] section : encodedSections) {
+                writeSection(out, section);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Writes to a byte array can not fail.
+            throw new IllegalStateException("Error while encoding the template content.", e);
+        }
+    }
+
+    /**
+     * Decode the content of a template written in any of the supported formats. The content hash is not verified,
+     * see {@link TemplateContent#verifyContentHash()}.
+     *
+     * @param content Encoded content
+     * @return Decoded content
+     * @throws I18nEmailMgtServerException If the content is not in a supported format or is corrupted
+     */
+    public static TemplateContent decode(byte[] content) throws I18nEmailMgtServerException {
+
+        if (!isBinaryFormat(content)) {
+            return decodeJson(content);
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(content, MAGIC.length, content.length - MAGIC.length);
+            int version = buffer.get();
+            if (version != BINARY_FORMAT_VERSION) {
+                throw new I18nEmailMgtServerException("Unsupported template content format version: " + version);
+            }
+            byte[] contentHash = new byte[CONTENT_HASH_LENGTH];
+            buffer.get(contentHash);
+            int sectionCount = readCount(buffer);
+            String[] sections = new String[sectionCount];
+            for (int i = 0; i < sectionCount; i++) {
+                byte[] section = readSection(buffer);
+                sections[i] = section != null ? new String(section, StandardCharsets.UTF_8) : null;
+            }
+            return new TemplateContent(version, sections, contentHash);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new I18nEmailMgtServerException("Template content is truncated or corrupted.", e);
+        }
+    }
+
+    /**
+     * Check whether the content is written in the binary format.
+     *
+     * @param content Encoded content
+     * @return True if the content is in the binary format
+     */
+    public static boolean isBinaryFormat(byte[] content) {
+
+        if (content == null || content.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (content[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static TemplateContent decodeJson(byte[] content) throws I18nEmailMgtServerException {
+
+        String[] sections;
+        try {
+            sections = GSON.fromJson(new String(content, StandardCharsets.UTF_8), String[].class);
+        } catch (JsonSyntaxException e) {
+            throw new I18nEmailMgtServerException("Template content is not a valid JSON array.", e);
+        }
+        return new TemplateContent(JSON_FORMAT_VERSION, sections, null);
+    }
+
+    /**
+     * Hash the given parts of a template, such as its sections, or its content type and sections for the revision of
+     * the template. This is the only template hash, hence templates with the same parts have the same hash wherever
+     * it is computed.
+     *
+     * @param parts Parts of the template, which may be null
+     * @return Hex encoded hash
+     */
+    public static String hash(String... parts) {
+
+        return toHex(digest(toBytes(parts)));
+    }
+
+    private static byte[][] toBytes(String[] parts) {
+
+        byte[][] bytes = new byte[parts.length][];
+        for (int i = 0; i < parts.length; i++) {
+            bytes[i] = parts[i] != null ? parts[i].getBytes(StandardCharsets.UTF_8) : null;
+        }
+        return bytes;
+    }
+
+    private static void writeSection(DataOutputStream out, byte[] section) throws IOException {
+
+        if (section == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(section.length);
+        out.write(section);
+    }
+
+    private static int readCount(ByteBuffer buffer) {
+
+        int count = buffer.getInt();
+        // Each entry takes at least the four bytes of its length.
+        if (count < 0 || count > buffer.remaining() / 4) {
+            throw new IllegalArgumentException("Invalid entry count: " + count);
+        }
+        return count;
+    }
+
+    private static byte[] readSection(ByteBuffer buffer) {
+
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid section length: " + length);
+        }
+        byte[] section = new byte[length];
+        buffer.get(section);
+        return section;
+    }
+
+    private static byte[] digest(byte[][] sections) {
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+            for (byte[] section : sections) {
+                // Each section is prefixed with its length so that moving text between the sections changes the hash.
+                digest.update(ByteBuffer.allocate(4).putInt(section != null ? section.length : NULL_LENGTH).array());
+                if (section != null) {
+                    digest.update(section);
+                }
+            }
+            return Arrays.copyOf(digest.digest(), CONTENT_HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(CONTENT_HASH_ALGORITHM + " is not supported by the JVM.", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Decoded content of a notification template.
+     */
+    public static final class TemplateContent {
+
+        private final int formatVersion;
+        private final String[] sections;
+        private final byte[] storedContentHash;
+
+        private TemplateContent(int formatVersion, String[] sections, byte[] storedContentHash) {
+
+            this.formatVersion = formatVersion;
+            this.sections = sections;
+            this.storedContentHash = storedContentHash;
+        }
+
+        /**
+         * Get the format the content was written in.
+         *
+         * @return Version of the binary format, or {@link #JSON_FORMAT_VERSION} for the JSON array format
+         */
+        public int getFormatVersion() {
+
+            return formatVersion;
+        }
+
+        /**
+         * Get the sections of the template, such as the subject, body and footer of an email template.
+         *
+         * @return Template sections, or null if the content holds no sections
+         */
+        public String[] getSections() {
+
+            return sections;
+        }
+
+        /**
+         * Get the hash of the sections of the template. The hash stored with the content is returned as is, and the
+         * hash of content without one is computed on each invocation.
+         *
+         * @return Hex encoded content hash, or null if the content holds no sections
+         */
+        public String getContentHash() {
+
+            if (storedContentHash != null) {
+                return toHex(storedContentHash);
+            }
+            return sections != null ? hash(sections) : null;
+        }
+
+        /**
+         * Verify that the sections match the hash stored with the content. Content without a stored hash always
+         * matches.
+         *
+         * @throws I18nEmailMgtServerException If the sections do not match the stored hash
+         */
+        public void verifyContentHash() throws I18nEmailMgtServerException {
+
+            if (storedContentHash != null && !MessageDigest.isEqual(storedContentHash, digest(toBytes(sections)))) {
+                throw new I18nEmailMgtServerException("Template content does not match its content hash.");
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.email.mgt.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.email.mgt.constants.I18nMgtConstants;
+import org.wso2.carbon.email.mgt.exceptions.I18nEmailMgtServerException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the content of the notification template registry resources. Email templates usually hold HTML with
+ * inline styles, which is stored per tenant and locale, hence content larger than the configured threshold is
+ * compressed with GZIP when compression is enabled. Compressed content is marked by the
+ * {@link #GZIP_CONTENT_CODEC} codec property of the resource, and is decompressed on read whether compression is
+ * enabled or not.
+ * <p>
+ * The sizes of the compressed content and the time taken to decode the content are recorded, so that the saving of
+ * the compression can be verified against its cost. The statistics are logged at the interval configured in
+ * identity.xml while templates are being written or read.
+ */
+public final class TemplateContentCompressor {
+
+    public static final String GZIP_CONTENT_CODEC = "gzip";
+
+    private static final Log log = LogFactory.getLog(TemplateContentCompressor.class);
+
+    private static final TemplateContentCompressor instance = new TemplateContentCompressor();
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private volatile boolean enabled;
+    private volatile int threshold = I18nMgtConstants.DEFAULT_CONTENT_COMPRESSION_THRESHOLD;
+
+    private final AtomicLong compressedCount = new AtomicLong();
+    private final AtomicLong uncompressedSize = new AtomicLong();
+    private final AtomicLong compressedSize = new AtomicLong();
+    private final AtomicLong compressedDecodeCount = new AtomicLong();
+    private final AtomicLong compressedDecodeNanos = new AtomicLong();
+    private final AtomicLong uncompressedDecodeCount = new AtomicLong();
+    private final AtomicLong uncompressedDecodeNanos = new AtomicLong();
+
+    private ScheduledThreadPoolExecutor reporter;
+    private long reportedCount = -1;
+
+    private TemplateContentCompressor() {
+
+    }
+
+    public static TemplateContentCompressor getInstance() {
+
+        return instance;
+    }
+
+    public void setEnabled(boolean enabled) {
+
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Set the size above which the template content is compressed.
+     *
+     * @param threshold Size in bytes. Negative values are taken as zero
+     */
+    public void setThreshold(int threshold) {
+
+        this.threshold = Math.max(threshold, 0);
+    }
+
+    public int getThreshold() {
+
+        return threshold;
+    }
+
+    /**
+     * Compress the encoded content of a template, if compression is enabled and the content is larger than the
+     * threshold.
+     *
+     * @param content Encoded template content
+     * @return Compressed content, or null if the content is not compressed
+     */
+    public byte[] compress(byte[] content) {
+
+        if (!enabled || content == null || content.length <= threshold) {
+            return null;
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(content.length / 2 + 1);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(content);
+        } catch (IOException e) {
+            log.warn("Error while compressing the template content. The content is stored uncompressed.", e);
+            return null;
+        }
+        byte[] compressed = outputStream.toByteArray();
+        if (compressed.length >= content.length) {
+            // Content which does not compress, such as short text, is stored as it is.
+            return null;
+        }
+        compressedCount.incrementAndGet();
+        uncompressedSize.addAndGet(content.length);
+        compressedSize.addAndGet(compressed.length);
+        if (log.isDebugEnabled()) {
+            log.debug("Compressed template content of " + content.length + " bytes to " + compressed.length +
+                    " bytes. Compression ratio: " + String.format("%.2f", (double) compressed.length / content.length));
+        }
+        return compressed;
+    }
+
+    /**
+     * Decompress the content of a template registry resource according to the codec property of the resource.
+     *
+     * @param content      Content of the registry resource
+     * @param contentCodec Codec property of the resource, or null if the content is not compressed
+     * @return Encoded template content
+     * @throws I18nEmailMgtServerException If the codec is not supported or the content could not be decompressed
+     */
+    public byte[] decompress(byte[] content, String contentCodec) throws I18nEmailMgtServerException {
+
+        if (contentCodec == null) {
+            return content;
+        }
+        if (!GZIP_CONTENT_CODEC.equalsIgnoreCase(contentCodec.trim())) {
+            throw new I18nEmailMgtServerException("Unsupported template content codec: " + contentCodec);
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(content.length * 4);
+        try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = gzipInputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new I18nEmailMgtServerException("Compressed template content is truncated or corrupted.", e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Record the time taken to decompress and decode the content of a template.
+     *
+     * @param compressed  Whether the content was compressed
+     * @param decodeNanos Time taken in nanoseconds
+     */
+    public void recordDecode(boolean compressed, long decodeNanos) {
+
+        if (compressed) {
+            compressedDecodeCount.incrementAndGet();
+            compressedDecodeNanos.addAndGet(decodeNanos);
+        } else {
+            uncompressedDecodeCount.incrementAndGet();
+            uncompressedDecodeNanos.addAndGet(decodeNanos);
+        }
+    }
+
+    /**
+     * Get the number of template contents which were compressed.
+     *
+     * @return Number of compressed contents
+     */
+    public long getCompressedCount() {
+
+        return compressedCount.get();
+    }
+
+    /**
+     * Get the ratio of the compressed size to the uncompressed size of the template contents which were compressed.
+     *
+     * @return Compression ratio, or 1 if no content was compressed
+     */
+    public double getCompressionRatio() {
+
+        long uncompressed = uncompressedSize.get();
+        return uncompressed == 0 ? 1 : (double) compressedSize.get() / uncompressed;
+    }
+
+    /**
+     * Get the number of bytes saved by compressing the template contents.
+     *
+     * @return Saved bytes
+     */
+    public long getSavedBytes() {
+
+        return uncompressedSize.get() - compressedSize.get();
+    }
+
+    /**
+     * Get the average time taken to decode a template content, including the decompression of compressed content.
+     *
+     * @param compressed Whether to get the time of compressed or uncompressed content
+     * @return Average decode time in nanoseconds, or 0 if no such content was decoded
+     */
+    public long getAverageDecodeNanos(boolean compressed) {
+
+        long count = compressed ? compressedDecodeCount.get() : uncompressedDecodeCount.get();
+        long nanos = compressed ? compressedDecodeNanos.get() : uncompressedDecodeNanos.get();
+        return count == 0 ? 0 : nanos / count;
+    }
+
+    /**
+     * Get a summary of the compression statistics, to be logged.
+     *
+     * @return Compression statistics
+     */
+    public String getStatistics() {
+
+        return "Compressed template contents: " + getCompressedCount() + ", compression ratio: " +
+                String.format("%.2f", getCompressionRatio()) + ", saved bytes: " + getSavedBytes() +
+                ", average decode time of compressed contents: " + getAverageDecodeNanos(true) +
+                "ns, average decode time of uncompressed contents: " + getAverageDecodeNanos(false) + "ns";
+    }
+
+    /**
+     * Start logging the statistics at the given interval, if it is positive.
+     *
+     * @param intervalSeconds Report interval in seconds
+     */
+    public synchronized void startReporting(int intervalSeconds) {
+
+        if (intervalSeconds <= 0 || reporter != null) {
+            return;
+        }
+        reporter = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "TemplateContentCompressorReporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleWithFixedDelay(this::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop logging the statistics.
+     */
+    public synchronized void stopReporting() {
+
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    private synchronized void report() {
+
+        // The statistics are only logged when templates were written or read since the last report.
+        long count = compressedCount.get() + compressedDecodeCount.get() + uncompressedDecodeCount.get();
+        if (count == reportedCount) {
+            return;
+        }
+        reportedCount = count;
+        log.info("Template content statistics - " + getStatistics());
+    }
+
+    /**
+     * Reset the compression statistics.
+     */
+    public void resetStatistics() {
+
+        compressedCount.set(0);
+        uncompressedSize.set(0);
+        compressedSize.set(0);
+        compressedDecodeCount.set(0);
+        compressedDecodeNanos.set(0);
+        uncompressedDecodeCount.set(0);
+        uncompressedDecodeNanos.set(0);
+    }
+}
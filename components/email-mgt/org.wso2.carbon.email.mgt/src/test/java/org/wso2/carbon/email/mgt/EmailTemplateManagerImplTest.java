@@ -20,6 +20,9 @@ import static org.powermock.api.mockito.PowerMockito.doCallRealMethod;
 import static org.powermock.api.mockito.PowerMockito.doNothing;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.impl.builder.StAXOMBuilder;
@@ -43,6 +46,8 @@ import static org.testng.Assert.*;
 import org.wso2.carbon.email.mgt.constants.I18nMgtConstants;
 import org.wso2.carbon.email.mgt.internal.I18nMgtDataHolder;
 import org.wso2.carbon.email.mgt.internal.I18nMgtServiceComponent;
+import org.wso2.carbon.email.mgt.internal.NotificationTemplateCache;
+import org.wso2.carbon.email.mgt.internal.TemplateLocaleResolver;
 import org.wso2.carbon.email.mgt.util.I18nEmailUtil;
 import org.wso2.carbon.identity.base.IdentityRuntimeException;
 import org.wso2.carbon.identity.base.IdentityValidationUtil;
@@ -51,6 +56,7 @@ import org.wso2.carbon.identity.governance.IdentityMgtConstants;
 import org.wso2.carbon.identity.governance.exceptions.notiification.NotificationTemplateManagerException;
 import org.wso2.carbon.identity.governance.model.NotificationTemplate;
 import org.wso2.carbon.identity.governance.service.notification.NotificationChannels;
+import org.wso2.carbon.registry.core.Collection;
 import org.wso2.carbon.registry.core.Resource;
 import org.wso2.carbon.utils.CarbonUtils;
 
@@ -60,8 +66,14 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
@@ -101,6 +113,9 @@ public class EmailTemplateManagerImplTest extends PowerMockTestCase {
 
         // Mock RegistryResourceMgtService.
         when(i18nMgtDataHolder.getRegistryResourceMgtService()).thenReturn(resourceMgtService);
+        NotificationTemplateCache.getInstance().clear();
+        TemplateLocaleResolver.getInstance().clear();
+        TemplateLocaleResolver.getInstance().setFallbackLocales(null);
         emailTemplateManager = new EmailTemplateManagerImpl();
     }
 
@@ -174,6 +189,114 @@ public class EmailTemplateManagerImplTest extends PowerMockTestCase {
         }
     }
 
+    /**
+     * Test that a cached notification template is served without reading the registry again, and that the template
+     * is read again once it is evicted.
+     *
+     * @throws Exception Error testing getNotificationTemplate implementation.
+     */
+    @Test
+    public void testGetNotificationTemplateFromCache() throws Exception {
+
+        String notificationChannel = NotificationChannels.EMAIL_CHANNEL.getChannelType();
+        String type = "accountconfirmation";
+        String locale = "en_US";
+        mockRegistryResource(notificationChannel, type, type, locale, "html/plain",
+                "[\"subject\",\"body\",\"footer\"]".getBytes("UTF-8"));
+        mockIsValidTemplate(true, true);
+
+        NotificationTemplate first = emailTemplateManager
+                .getNotificationTemplate(notificationChannel, type, locale, tenantDomain);
+        NotificationTemplate second = emailTemplateManager
+                .getNotificationTemplate(notificationChannel, type, locale, tenantDomain);
+        assertEquals(second.getBody(), first.getBody());
+        assertNotSame(second, first, "Callers should get a copy of the cached template");
+        verify(resourceMgtService, times(1)).getIdentityResource(Matchers.anyString(), Matchers.anyString(),
+                Matchers.anyString());
+
+        NotificationTemplateCache.getInstance().invalidate(tenantDomain, notificationChannel, type, locale);
+        emailTemplateManager.getNotificationTemplate(notificationChannel, type, locale, tenantDomain);
+        verify(resourceMgtService, times(2)).getIdentityResource(Matchers.anyString(), Matchers.anyString(),
+                Matchers.anyString());
+    }
+
+    /**
+     * Test that concurrent misses of the same template share a single registry read.
+     *
+     * @throws Exception Error testing getNotificationTemplate implementation.
+     */
+    @Test
+    public void testGetNotificationTemplateConcurrentMisses() throws Exception {
+
+        String notificationChannel = NotificationChannels.EMAIL_CHANNEL.getChannelType();
+        String type = "accountconfirmation";
+        String locale = "en_US";
+        int threadCount = 8;
+        mockRegistryResource(notificationChannel, type, type, locale, "html/plain",
+                "[\"subject\",\"body\",\"footer\"]".getBytes("UTF-8"));
+        mockIsValidTemplate(true, true);
+
+        CountDownLatch started = new CountDownLatch(threadCount);
+        // The registry read is held until all the threads asked for the template, so that they miss together.
+        when(resourceMgtService.getIdentityResource(Matchers.anyString(), Matchers.anyString(), Matchers.anyString()))
+                .thenAnswer(invocation -> {
+                    started.await(10, TimeUnit.SECONDS);
+                    Thread.sleep(100);
+                    return resource;
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<NotificationTemplate>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    return emailTemplateManager.getNotificationTemplate(notificationChannel, type, locale,
+                            tenantDomain);
+                }));
+            }
+            for (Future<NotificationTemplate> result : results) {
+                assertEquals(result.get(30, TimeUnit.SECONDS).getBody(), "body");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(resourceMgtService, times(1)).getIdentityResource(Matchers.anyString(), Matchers.anyString(),
+                Matchers.anyString());
+    }
+
+    /**
+     * Test that a locale without a template resolves along its fallback chain, and that the locales of the template
+     * type are read from the registry only once.
+     *
+     * @throws Exception Error testing getNotificationTemplate implementation.
+     */
+    @Test
+    public void testGetNotificationTemplateWithLocaleFallback() throws Exception {
+
+        String notificationChannel = NotificationChannels.EMAIL_CHANNEL.getChannelType();
+        String type = "accountconfirmation";
+        mockRegistryResource(notificationChannel, type, type, "fr_FR", "html/plain",
+                "[\"subject\",\"body\",\"footer\"]".getBytes("UTF-8"), "en_us", "fr_fr");
+        mockIsValidTemplate(true, true);
+        TemplateLocaleResolver.getInstance().setFallbackLocales("fr_CA:fr_FR");
+
+        NotificationTemplate template = emailTemplateManager
+                .getNotificationTemplate(notificationChannel, type, "fr_CA", tenantDomain);
+        assertEquals(template.getLocale(), "fr_FR");
+        verify(resourceMgtService, times(1)).getIdentityResource(Matchers.anyString(), Matchers.anyString(),
+                Matchers.eq("fr_FR"));
+
+        // Locales without a template and without a configured fallback resolve to the default locale.
+        emailTemplateManager.getNotificationTemplate(notificationChannel, type, "de_DE", tenantDomain);
+        emailTemplateManager.getNotificationTemplate(notificationChannel, type, "de_AT", tenantDomain);
+        verify(resourceMgtService, times(1)).getIdentityResource(Matchers.anyString(), Matchers.anyString(),
+                Matchers.eq(I18nMgtConstants.DEFAULT_EMAIL_LOCALE));
+        verify(resourceMgtService, never()).getIdentityResource(Matchers.anyString(), Matchers.anyString(),
+                Matchers.eq("de_DE"));
+        verify(resourceMgtService, times(1)).getIdentityResource(Matchers.anyString(), Matchers.anyString());
+    }
+
     /**
      * Test error scenarios of adding a notification template type.
      *
@@ -396,6 +519,34 @@ public class EmailTemplateManagerImplTest extends PowerMockTestCase {
     private void mockRegistryResource(String notificationChannel, String displayName, String templateType,
             String locale, String contentType, byte[] templateContent) throws Exception {
 
+        mockRegistryResource(notificationChannel, displayName, templateType, locale, contentType, templateContent,
+                locale.toLowerCase());
+    }
+
+    /**
+     * Mock registry resource for notification template, in a template type which has templates in the given locales.
+     *
+     * @param notificationChannel Notification channel
+     * @param displayName         Notification template displayName
+     * @param templateType        Notification template type
+     * @param locale              Notification template locale
+     * @param contentType         Notification template content type
+     * @param templateContent     Notification template content (Subject,body,footer etc)
+     * @param availableLocales    Locales in which the template type has templates
+     * @throws Exception Error mocking notification template
+     */
+    private void mockRegistryResource(String notificationChannel, String displayName, String templateType,
+            String locale, String contentType, byte[] templateContent, String... availableLocales) throws Exception {
+
+        String[] templatePaths = new String[availableLocales.length];
+        for (int i = 0; i < availableLocales.length; i++) {
+            templatePaths[i] = templateType + "/" + availableLocales[i];
+        }
+        Collection templateTypeCollection = mock(Collection.class);
+        when(templateTypeCollection.getChildren()).thenReturn(templatePaths);
+        when(resourceMgtService.getIdentityResource(Matchers.anyString(), Matchers.anyString()))
+                .thenReturn(templateTypeCollection);
+
         when(resourceMgtService.getIdentityResource(Matchers.anyString(), Matchers.anyString(), Matchers.anyString()))
                 .thenReturn(resource);
 
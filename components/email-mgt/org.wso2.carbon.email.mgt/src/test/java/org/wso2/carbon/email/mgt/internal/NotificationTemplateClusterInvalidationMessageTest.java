@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.email.mgt.internal;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.testng.PowerMockTestCase;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.email.mgt.util.I18nEmailUtil;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.governance.exceptions.notiification.NotificationTemplateManagerException;
+import org.wso2.carbon.identity.governance.model.NotificationTemplate;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+/**
+ * Tests that a cluster invalidation message evicts only the changed template from the caches of a node.
+ */
+@PrepareForTest({IdentityTenantUtil.class})
+public class NotificationTemplateClusterInvalidationMessageTest extends PowerMockTestCase {
+
+    private static final int TENANT_ID = 1;
+    private static final String TENANT_DOMAIN = "wso2.com";
+    private static final String OTHER_TENANT_DOMAIN = "abc.com";
+    private static final String CHANNEL = "EMAIL";
+    private static final String TYPE = "accountconfirmation";
+    private static final String OTHER_TYPE = "passwordreset";
+    private static final String LOCALE = "en_US";
+    private static final String OTHER_LOCALE = "fr_FR";
+
+    private final NotificationTemplateCache cache = NotificationTemplateCache.getInstance();
+    private final TemplateLocaleResolver localeResolver = TemplateLocaleResolver.getInstance();
+
+    @BeforeMethod
+    public void setUp() {
+
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantDomain(TENANT_ID)).thenReturn(TENANT_DOMAIN);
+        cache.clear();
+        localeResolver.clear();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        cache.clear();
+        localeResolver.clear();
+    }
+
+    @Test
+    public void testExecuteEvictsOnlyTheChangedTemplate() throws Exception {
+
+        AtomicInteger changedLoads = new AtomicInteger();
+        AtomicInteger otherLocaleLoads = new AtomicInteger();
+        AtomicInteger otherTypeLoads = new AtomicInteger();
+        AtomicInteger otherTenantLoads = new AtomicInteger();
+        getTemplate(TENANT_DOMAIN, TYPE, LOCALE, "Old body", changedLoads);
+        getTemplate(TENANT_DOMAIN, TYPE, OTHER_LOCALE, "Body", otherLocaleLoads);
+        getTemplate(TENANT_DOMAIN, OTHER_TYPE, LOCALE, "Body", otherTypeLoads);
+        getTemplate(OTHER_TENANT_DOMAIN, TYPE, LOCALE, "Body", otherTenantLoads);
+
+        String revision = I18nEmailUtil.getTemplateRevision(createTemplate(TYPE, LOCALE, "New body"));
+        new NotificationTemplateClusterInvalidationMessage(TENANT_ID, CHANNEL, TYPE, LOCALE, revision)
+                .execute(null);
+
+        getTemplate(TENANT_DOMAIN, TYPE, LOCALE, "New body", changedLoads);
+        getTemplate(TENANT_DOMAIN, TYPE, OTHER_LOCALE, "Body", otherLocaleLoads);
+        getTemplate(TENANT_DOMAIN, OTHER_TYPE, LOCALE, "Body", otherTypeLoads);
+        getTemplate(OTHER_TENANT_DOMAIN, TYPE, LOCALE, "Body", otherTenantLoads);
+        Assert.assertEquals(changedLoads.get(), 2, "The changed template should be read again.");
+        Assert.assertEquals(otherLocaleLoads.get(), 1, "Other locales of the template type should stay cached.");
+        Assert.assertEquals(otherTypeLoads.get(), 1, "Other template types should stay cached.");
+        Assert.assertEquals(otherTenantLoads.get(), 1, "Templates of other tenants should stay cached.");
+    }
+
+    @Test
+    public void testExecuteKeepsTheCachedRevision() throws Exception {
+
+        AtomicInteger loads = new AtomicInteger();
+        NotificationTemplate cached = getTemplate(TENANT_DOMAIN, TYPE, LOCALE, "Body", loads);
+
+        NotificationTemplateClusterInvalidationMessage message = new NotificationTemplateClusterInvalidationMessage(
+                TENANT_ID, CHANNEL, TYPE, LOCALE, I18nEmailUtil.getTemplateRevision(cached));
+        message.execute(null);
+        // The message is idempotent, hence executing it again has no further effect.
+        message.execute(null);
+
+        getTemplate(TENANT_DOMAIN, TYPE, LOCALE, "Body", loads);
+        Assert.assertEquals(loads.get(), 1, "A template already of the sent revision should stay cached.");
+    }
+
+    @Test
+    public void testExecuteAddsTheLocaleToTheLocaleTable() throws Exception {
+
+        AtomicInteger changedLoads = new AtomicInteger();
+        AtomicInteger otherTenantLoads = new AtomicInteger();
+        Assert.assertEquals(resolveLocale(TENANT_DOMAIN, TYPE, OTHER_LOCALE, changedLoads, LOCALE), LOCALE);
+        Assert.assertEquals(resolveLocale(OTHER_TENANT_DOMAIN, TYPE, OTHER_LOCALE, otherTenantLoads, LOCALE),
+                LOCALE);
+
+        String revision = I18nEmailUtil.getTemplateRevision(createTemplate(TYPE, OTHER_LOCALE, "Body"));
+        new NotificationTemplateClusterInvalidationMessage(TENANT_ID, CHANNEL, TYPE, OTHER_LOCALE, revision)
+                .execute(null);
+
+        Assert.assertEquals(resolveLocale(TENANT_DOMAIN, TYPE, OTHER_LOCALE, changedLoads, LOCALE), OTHER_LOCALE,
+                "The added locale should be resolved.");
+        Assert.assertEquals(resolveLocale(OTHER_TENANT_DOMAIN, TYPE, OTHER_LOCALE, otherTenantLoads, LOCALE),
+                LOCALE, "The locale table of other tenants should not change.");
+        Assert.assertEquals(changedLoads.get(), 1, "The locales should be updated without reading the registry.");
+        Assert.assertEquals(otherTenantLoads.get(), 1);
+    }
+
+    @Test
+    public void testExecuteRemovesOnlyTheDeletedTemplateType() throws Exception {
+
+        AtomicInteger deletedLoads = new AtomicInteger();
+        AtomicInteger otherTypeLoads = new AtomicInteger();
+        AtomicInteger cachedLoads = new AtomicInteger();
+        resolveLocale(TENANT_DOMAIN, TYPE, LOCALE, deletedLoads, LOCALE);
+        resolveLocale(TENANT_DOMAIN, OTHER_TYPE, LOCALE, otherTypeLoads, LOCALE);
+        getTemplate(TENANT_DOMAIN, OTHER_TYPE, LOCALE, "Body", cachedLoads);
+
+        new NotificationTemplateClusterInvalidationMessage(TENANT_ID, CHANNEL, TYPE, null, null).execute(null);
+
+        Assert.assertNull(resolveLocale(TENANT_DOMAIN, TYPE, LOCALE, deletedLoads),
+                "The locales of the deleted template type should be read again.");
+        resolveLocale(TENANT_DOMAIN, OTHER_TYPE, LOCALE, otherTypeLoads, LOCALE);
+        getTemplate(TENANT_DOMAIN, OTHER_TYPE, LOCALE, "Body", cachedLoads);
+        Assert.assertEquals(deletedLoads.get(), 2);
+        Assert.assertEquals(otherTypeLoads.get(), 1, "The locales of other template types should stay known.");
+        Assert.assertEquals(cachedLoads.get(), 1, "Templates of other template types should stay cached.");
+    }
+
+    private NotificationTemplate getTemplate(String tenantDomain, String type, String locale, String body,
+                                             AtomicInteger loads) throws NotificationTemplateManagerException {
+
+        return cache.getValueFromCache(tenantDomain, CHANNEL, type, locale, () -> {
+            loads.incrementAndGet();
+            return createTemplate(type, locale, body);
+        });
+    }
+
+    private String resolveLocale(String tenantDomain, String type, String locale, AtomicInteger loads,
+                                 String... availableLocales) throws NotificationTemplateManagerException {
+
+        Set<String> locales = new HashSet<>();
+        for (String availableLocale : availableLocales) {
+            locales.add(availableLocale.toLowerCase());
+        }
+        return localeResolver.resolveLocale(tenantDomain, CHANNEL, type, locale, LOCALE, () -> {
+            loads.incrementAndGet();
+            return Collections.unmodifiableSet(locales);
+        });
+    }
+
+    private static NotificationTemplate createTemplate(String type, String locale, String body) {
+
+        NotificationTemplate template = new NotificationTemplate();
+        template.setNotificationChannel(CHANNEL);
+        template.setType(type);
+        template.setLocale(locale);
+        template.setContentType("text/html");
+        template.setSubject("Subject");
+        template.setBody(body);
+        template.setFooter("Footer");
+        return template;
+    }
+}
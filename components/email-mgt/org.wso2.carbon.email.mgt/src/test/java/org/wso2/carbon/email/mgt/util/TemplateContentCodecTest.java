@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.email.mgt.util;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.email.mgt.exceptions.I18nEmailMgtServerException;
+import org.wso2.carbon.identity.governance.model.NotificationTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Test cases of the encoding and decoding of notification template content.
+ */
+public class TemplateContentCodecTest {
+
+    private static final String[] SECTIONS = {"Hi {{user-name}}", "Bonjour {{user-name}}, {{confirmation-code}} \u00e9",
+            null};
+
+    @AfterMethod
+    public void tearDown() {
+
+        TemplateContentCodec.setBinaryFormatEnabled(false);
+    }
+
+    @Test
+    public void testJsonFormatIsWrittenByDefault() throws Exception {
+
+        byte[] content = TemplateContentCodec.encode(SECTIONS);
+        Assert.assertFalse(TemplateContentCodec.isBinaryFormat(content));
+
+        TemplateContentCodec.TemplateContent decoded = TemplateContentCodec.decode(content);
+        Assert.assertEquals(decoded.getFormatVersion(), TemplateContentCodec.JSON_FORMAT_VERSION);
+        Assert.assertEquals(decoded.getSections(), SECTIONS);
+        Assert.assertEquals(decoded.getContentHash(), TemplateContentCodec.hash(SECTIONS));
+    }
+
+    @Test
+    public void testBinaryFormatRoundTrip() throws Exception {
+
+        TemplateContentCodec.setBinaryFormatEnabled(true);
+        byte[] content = TemplateContentCodec.encode(SECTIONS);
+        Assert.assertTrue(TemplateContentCodec.isBinaryFormat(content));
+
+        TemplateContentCodec.TemplateContent decoded = TemplateContentCodec.decode(content);
+        Assert.assertEquals(decoded.getFormatVersion(), TemplateContentCodec.BINARY_FORMAT_VERSION);
+        Assert.assertEquals(decoded.getSections(), SECTIONS);
+        // Both formats of the same sections have the same content hash.
+        Assert.assertEquals(decoded.getContentHash(), TemplateContentCodec.hash(SECTIONS));
+        decoded.verifyContentHash();
+    }
+
+    @Test
+    public void testJsonFormatIsDecoded() throws Exception {
+
+        byte[] content = "[\"Subject\",\"Body {{user-name}}\",\"Footer\"]".getBytes(StandardCharsets.UTF_8);
+        TemplateContentCodec.TemplateContent decoded = TemplateContentCodec.decode(content);
+        Assert.assertEquals(decoded.getFormatVersion(), TemplateContentCodec.JSON_FORMAT_VERSION);
+        Assert.assertEquals(decoded.getSections(), new String[]{"Subject", "Body {{user-name}}", "Footer"});
+    }
+
+    @Test
+    public void testRevisionIsTheContentHash() {
+
+        NotificationTemplate template = new NotificationTemplate();
+        template.setContentType("text/html; charset=UTF-8");
+        template.setSubject(SECTIONS[0]);
+        template.setBody(SECTIONS[1]);
+        template.setFooter(SECTIONS[2]);
+        Assert.assertEquals(I18nEmailUtil.getTemplateRevision(template),
+                TemplateContentCodec.hash("text/html; charset=UTF-8", SECTIONS[0], SECTIONS[1], SECTIONS[2]));
+        Assert.assertNotEquals(TemplateContentCodec.hash("ab", "c"), TemplateContentCodec.hash("a", "bc"));
+    }
+
+    @Test(expectedExceptions = I18nEmailMgtServerException.class)
+    public void testCorruptedContentIsRejected() throws Exception {
+
+        TemplateContentCodec.setBinaryFormatEnabled(true);
+        byte[] content = TemplateContentCodec.encode(SECTIONS);
+        content[content.length - 1] ^= 1;
+        TemplateContentCodec.decode(content).verifyContentHash();
+    }
+
+    @Test(expectedExceptions = I18nEmailMgtServerException.class)
+    public void testCorruptedContentIsRejectedWhenRead() throws Exception {
+
+        TemplateContentCodec.setBinaryFormatEnabled(true);
+        byte[] content = TemplateContentCodec.encode(SECTIONS);
+        content[content.length - 1] ^= 1;
+        I18nEmailUtil.getTemplateContentElements(content, null, "Account Confirmation", "en_us");
+    }
+
+    @Test(expectedExceptions = I18nEmailMgtServerException.class)
+    public void testUnknownFormatVersionIsRejected() throws Exception {
+
+        TemplateContentCodec.setBinaryFormatEnabled(true);
+        byte[] content = TemplateContentCodec.encode(SECTIONS);
+        // The version follows the four bytes of the magic.
+        content[4] = TemplateContentCodec.BINARY_FORMAT_VERSION + 1;
+        TemplateContentCodec.decode(content);
+    }
+
+    @Test(expectedExceptions = I18nEmailMgtServerException.class)
+    public void testTruncatedContentIsRejected() throws Exception {
+
+        TemplateContentCodec.setBinaryFormatEnabled(true);
+        byte[] content = TemplateContentCodec.encode(SECTIONS);
+        TemplateContentCodec.decode(Arrays.copyOf(content, content.length - 3));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.email.mgt.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.email.mgt.constants.I18nMgtConstants;
+import org.wso2.carbon.email.mgt.exceptions.I18nEmailMgtServerException;
+
+import java.util.Arrays;
+
+/**
+ * Test cases of the compression of notification template content.
+ */
+public class TemplateContentCompressorTest {
+
+    private static final String[] SECTIONS = {"Hi {{user-name}}",
+            StringUtils.repeat("<p style=\"font-family: Arial; color: #333333;\">{{confirmation-code}}</p>", 50),
+            "Thanks"};
+
+    private TemplateContentCompressor compressor = TemplateContentCompressor.getInstance();
+
+    @BeforeMethod
+    public void setUp() {
+
+        compressor.setEnabled(true);
+        compressor.setThreshold(I18nMgtConstants.DEFAULT_CONTENT_COMPRESSION_THRESHOLD);
+        compressor.resetStatistics();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        compressor.setEnabled(false);
+        compressor.resetStatistics();
+    }
+
+    @Test
+    public void testCompressionRoundTrip() throws Exception {
+
+        byte[] content = TemplateContentCodec.encode(SECTIONS);
+        byte[] compressed = compressor.compress(content);
+        Assert.assertNotNull(compressed);
+        Assert.assertTrue(compressed.length < content.length);
+
+        String[] sections = I18nEmailUtil.getTemplateContentElements(compressed,
+                TemplateContentCompressor.GZIP_CONTENT_CODEC, "Account Confirmation", "en_us");
+        Assert.assertEquals(sections, SECTIONS);
+        Assert.assertEquals(compressor.getCompressedCount(), 1);
+        Assert.assertTrue(compressor.getCompressionRatio() < 1);
+        Assert.assertEquals(compressor.getSavedBytes(), content.length - compressed.length);
+        Assert.assertTrue(compressor.getAverageDecodeNanos(true) > 0);
+    }
+
+    @Test
+    public void testContentNotCompressed() throws Exception {
+
+        byte[] content = TemplateContentCodec.encode(new String[]{"Subject", "Body", "Footer"});
+        Assert.assertNull(compressor.compress(content), "Content below the threshold should not be compressed.");
+
+        compressor.setEnabled(false);
+        Assert.assertNull(compressor.compress(TemplateContentCodec.encode(SECTIONS)),
+                "Content should not be compressed when compression is disabled.");
+
+        Assert.assertEquals(I18nEmailUtil.getTemplateContentElements(content, null, "Account Confirmation",
+                "en_us"), new String[]{"Subject", "Body", "Footer"});
+        Assert.assertEquals(compressor.getCompressedCount(), 0);
+        Assert.assertEquals(compressor.getCompressionRatio(), 1.0);
+    }
+
+    @Test
+    public void testDecompressWhenDisabled() throws Exception {
+
+        byte[] compressed = compressor.compress(TemplateContentCodec.encode(SECTIONS));
+        compressor.setEnabled(false);
+
+        Assert.assertEquals(I18nEmailUtil.getTemplateContentElements(compressed,
+                TemplateContentCompressor.GZIP_CONTENT_CODEC, "Account Confirmation", "en_us"), SECTIONS);
+    }
+
+    @Test(expectedExceptions = I18nEmailMgtServerException.class)
+    public void testDecompressCorruptedContent() throws Exception {
+
+        byte[] compressed = compressor.compress(TemplateContentCodec.encode(SECTIONS));
+        compressor.decompress(Arrays.copyOf(compressed, compressed.length / 2),
+                TemplateContentCompressor.GZIP_CONTENT_CODEC);
+    }
+
+    @Test(expectedExceptions = I18nEmailMgtServerException.class)
+    public void testUnsupportedCodec() throws Exception {
+
+        compressor.decompress(TemplateContentCodec.encode(SECTIONS), "zstd");
+    }
+}
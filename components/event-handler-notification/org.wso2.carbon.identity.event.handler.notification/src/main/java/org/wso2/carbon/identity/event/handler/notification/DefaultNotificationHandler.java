@@ -21,28 +21,34 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.email.mgt.exceptions.I18nEmailMgtException;
-import org.wso2.carbon.email.mgt.model.EmailTemplate;
 import org.wso2.carbon.email.mgt.util.I18nEmailUtil;
-import org.wso2.carbon.event.stream.core.EventStreamService;
 import org.wso2.carbon.identity.base.IdentityRuntimeException;
 import org.wso2.carbon.identity.core.handler.InitConfig;
 import org.wso2.carbon.identity.event.IdentityEventConstants;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.AsyncNotificationDispatcher;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.BatchingEventPublisher;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.NotificationDeduplicator;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.NotificationPriority;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.PriorityMapping;
 import org.wso2.carbon.identity.event.handler.notification.email.bean.Notification;
 import org.wso2.carbon.identity.event.handler.notification.exception.NotificationRuntimeException;
-import org.wso2.carbon.identity.event.handler.notification.internal.NotificationHandlerDataHolder;
+import org.wso2.carbon.identity.event.handler.notification.template.CompiledNotificationTemplate;
+import org.wso2.carbon.identity.event.handler.notification.template.PlaceholderContext;
+import org.wso2.carbon.identity.event.handler.notification.template.TemplatePlaceholder;
 import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
 import org.wso2.carbon.identity.governance.IdentityGovernanceUtil;
 import org.wso2.carbon.identity.governance.exceptions.notiification.NotificationTemplateManagerException;
-import org.wso2.carbon.identity.governance.model.NotificationTemplate;
 import org.wso2.carbon.identity.governance.service.notification.NotificationChannels;
+import org.wso2.carbon.user.core.UserStoreManager;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * DefaultNotificationHandler is based on simple key/value parameters which was send by an event to any given stream.
@@ -50,22 +56,106 @@ import java.util.Set;
  * We can define the streamid and the notification template from the config file (identity-event.properties)
  * But notification template is not implemented as the default implementation.
  *
+ * Notifications are sent on the caller's thread unless asynchronous dispatch is enabled through the module properties
+ * of the handler. See {@link AsyncNotificationDispatcher}. Asynchronous notifications are queued by the priority
+ * class of their template type. See {@link PriorityMapping}.
+ *
  */
 public class DefaultNotificationHandler extends AbstractEventHandler {
 
     private static final Log log = LogFactory.getLog(DefaultNotificationHandler.class);
 
-    private static final String STREAM_DEFINITION_ID = "stream" ;
-    private static final String NOTIFICATION_TEMPLATE_TYPE = "notification_template" ;
     private static final String DEFAULT_STREAM_ID = "id_gov_notify_stream:1.0.0";
 
+    private volatile AsyncNotificationDispatcher asyncDispatcher;
+    private volatile PriorityMapping priorityMapping = PriorityMapping.fromProperties(null, null);
+    private final Map<String, SubscriptionDescriptor> subscriptionDescriptors = new ConcurrentHashMap<>();
+
+    @Override
+    public void init(InitConfig configuration) throws IdentityRuntimeException {
+
+        super.init(configuration);
+        subscriptionDescriptors.clear();
+        priorityMapping = PriorityMapping.fromProperties(getName(), configs != null ? configs.getModuleProperties() :
+                null);
+        AsyncNotificationDispatcher previousDispatcher = asyncDispatcher;
+        asyncDispatcher = configs != null ?
+                AsyncNotificationDispatcher.fromProperties(getName(), configs.getModuleProperties()) : null;
+        if (previousDispatcher != null) {
+            previousDispatcher.shutdown();
+        }
+    }
+
     @Override
     public void handleEvent(Event event) throws IdentityEventException {
 
+        AsyncNotificationDispatcher dispatcher = asyncDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(event, getPriority(event), this::sendNotification);
+            return;
+        }
+        sendNotification(event);
+    }
+
+    /**
+     * Build the notification of the event and publish it. This is invoked on the caller's thread, or on a worker
+     * thread if asynchronous dispatch is enabled for the handler.
+     *
+     * @param event Event
+     * @throws IdentityEventException Error building or publishing the notification
+     */
+    protected void sendNotification(Event event) throws IdentityEventException {
+
         Map<String, String> arbitraryDataMap = buildNotificationData(event);
         publishToStream(arbitraryDataMap, event);
     }
 
+    /**
+     * Resolve the priority class of the notification of an event from its template type.
+     *
+     * @param event Event
+     * @return Priority class of the notification
+     * @throws IdentityEventException Error resolving the template type of the event
+     */
+    protected NotificationPriority getPriority(Event event) throws IdentityEventException {
+
+        return getPriority(getTemplateType(event));
+    }
+
+    /**
+     * Resolve the priority class of a notification from its template type.
+     *
+     * @param templateType Template type of the notification
+     * @return Priority class of the notification
+     */
+    protected NotificationPriority getPriority(String templateType) {
+
+        return priorityMapping.getPriority(templateType);
+    }
+
+    /**
+     * Get the asynchronous dispatcher of the handler, which exposes the queue depth and the wait time of each
+     * priority class.
+     *
+     * @return Dispatcher, or null if asynchronous dispatch is not enabled for the handler
+     */
+    public AsyncNotificationDispatcher getAsyncDispatcher() {
+
+        return asyncDispatcher;
+    }
+
+    /**
+     * Stop the asynchronous dispatch of the handler, after sending the queued notifications.
+     */
+    public void shutdown() {
+
+        AsyncNotificationDispatcher dispatcher = asyncDispatcher;
+        asyncDispatcher = null;
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
     /**
      * Resolve notification channel to server supported notification channel (SMS or EMAIL).
      *
@@ -97,28 +187,21 @@ public class DefaultNotificationHandler extends AbstractEventHandler {
      */
     protected Map<String, String> buildNotificationData(Event event) throws IdentityEventException {
 
-        Map<String, String> arbitraryDataMap = new HashMap<>();
-        for (Map.Entry<String, Object> entry : event.getEventProperties().entrySet()) {
-            if (entry.getValue() instanceof String) {
-                arbitraryDataMap.put(entry.getKey(), (String) entry.getValue());
-            }
-        }
+        // The String valued event properties are read through the context instead of being copied.
+        PlaceholderContext arbitraryDataMap = new PlaceholderContext(event.getEventProperties());
 
         // Read the send-to parameter which was set by the notification senders.
         String sendTo = arbitraryDataMap.get(NotificationConstants.EmailNotification.ARBITRARY_SEND_TO);
         Map<String, String> userClaims = new HashMap<>();
+        SubscriptionDescriptor subscription = getSubscriptionDescriptor(event);
+        Map<String, String> arbitraryDataClaims = subscription.getClaimMappings();
 
-        String notificationTemplateName = getNotificationTemplate(event);
-        if (StringUtils.isEmpty(notificationTemplateName)) {
-            notificationTemplateName = (String) event.getEventProperties()
-                    .get(NotificationConstants.EmailNotification.EMAIL_TEMPLATE_TYPE);
-        }
+        String notificationTemplateName = getTemplateType(event);
 
         if(StringUtils.isNotEmpty(notificationTemplateName)) {
 
             String username = (String) event.getEventProperties().get(IdentityEventConstants.EventProperty.USER_NAME);
-            org.wso2.carbon.user.core.UserStoreManager userStoreManager = (org.wso2.carbon.user.core.UserStoreManager)
-                    event.getEventProperties().get(
+            UserStoreManager userStoreManager = (UserStoreManager) event.getEventProperties().get(
                     IdentityEventConstants.EventProperty.USER_STORE_MANAGER);
             String userStoreDomainName = (String) event.getEventProperties().get(
                     IdentityEventConstants.EventProperty.USER_STORE_DOMAIN);
@@ -131,11 +214,26 @@ public class DefaultNotificationHandler extends AbstractEventHandler {
             String notificationChannel = resolveNotificationChannel(
                     (String) event.getEventProperties().get(IdentityEventConstants.EventProperty.NOTIFICATION_CHANNEL));
 
-            if (StringUtils.isNotBlank(username) && userStoreManager != null) {
-                userClaims = NotificationUtil.getUserClaimValues(username, userStoreManager);
-            } else if (StringUtils.isNotBlank(username) && StringUtils.isNotBlank(userStoreDomainName) &&
-                    StringUtils.isNotBlank(tenantDomain)) {
-                userClaims = NotificationUtil.getUserClaimValues(username, userStoreDomainName, tenantDomain);
+            // Only the claims required to resolve the locale, the send-to address and the claim subscription
+            // properties are read before the template is known.
+            Set<String> requiredClaims = new HashSet<>(arbitraryDataClaims.values());
+            requiredClaims.add(NotificationConstants.EmailNotification.CLAIM_URI_LOCALE);
+            if (StringUtils.isEmpty(sendTo)) {
+                requiredClaims.add(NotificationConstants.EmailNotification.CLAIM_URI_EMAIL);
+            }
+            boolean isUserResolved = StringUtils.isNotBlank(username) && (userStoreManager != null ||
+                    (StringUtils.isNotBlank(userStoreDomainName) && StringUtils.isNotBlank(tenantDomain)));
+            CompiledNotificationTemplate defaultLocaleTemplate = null;
+            if (isUserResolved) {
+                // The claims of the default locale template are read in the same call, so that the common case
+                // needs a single user store round trip.
+                defaultLocaleTemplate = getDefaultLocaleTemplate(notificationChannel, notificationTemplateName,
+                        tenantDomain);
+                if (defaultLocaleTemplate != null) {
+                    addClaimUris(defaultLocaleTemplate, requiredClaims);
+                }
+                userClaims = getUserClaims(username, userStoreManager, userStoreDomainName, tenantDomain,
+                        requiredClaims);
             }
 
             // Resolve notification template locale according to the notification channel.
@@ -156,59 +254,130 @@ public class DefaultNotificationHandler extends AbstractEventHandler {
                 }
             }
 
-            NotificationTemplate notificationTemplate;
-            try {
-                notificationTemplate = NotificationHandlerDataHolder.getInstance().getNotificationTemplateManager()
-                        .getNotificationTemplate(notificationChannel, notificationTemplateName, locale, tenantDomain);
-            } catch (NotificationTemplateManagerException exception) {
-                String message = "Error when retrieving template from tenant registry.";
-                throw NotificationRuntimeException.error(message, exception);
+            CompiledNotificationTemplate notificationTemplate;
+            if (defaultLocaleTemplate != null &&
+                    NotificationConstants.EmailNotification.LOCALE_DEFAULT.equals(locale)) {
+                notificationTemplate = defaultLocaleTemplate;
+            } else {
+                try {
+                    notificationTemplate = NotificationUtil.getCompiledNotificationTemplate(notificationChannel,
+                            notificationTemplateName, locale, tenantDomain);
+                } catch (NotificationTemplateManagerException exception) {
+                    String message = "Error when retrieving template from tenant registry.";
+                    throw NotificationRuntimeException.error(message, exception);
+                }
+            }
+            arbitraryDataMap.presize(notificationTemplate);
+
+            // Read the claims referred by the template placeholders which are not read already. This is only needed
+            // if the template of the user's locale refers to claims that the default locale template does not.
+            if (isUserResolved) {
+                Set<String> templateClaims = new HashSet<>();
+                addClaimUris(notificationTemplate, templateClaims);
+                templateClaims.removeAll(requiredClaims);
+                if (!templateClaims.isEmpty()) {
+                    userClaims.putAll(getUserClaims(username, userStoreManager, userStoreDomainName, tenantDomain,
+                            templateClaims));
+                }
             }
 
             // Add template properties for arbitraryDataMap.
             addNotificationTemplateDataToArbitraryDataMap(notificationTemplate, notificationTemplateName, sendTo,
-                    sendFrom, arbitraryDataMap, userClaims);
+                    sendFrom, arbitraryDataMap, isUserResolved ? userClaims : null);
         }
-        Map<String, String> arbitraryDataClaims = getArbitraryDataClaimsFromProperties(event);
-        Set<String> keys = arbitraryDataClaims.keySet();
-        for (String key : keys) {
-            String claim = arbitraryDataClaims.get(key);
-            String value = userClaims.get(claim);
-            arbitraryDataMap.put(key, value);
+        for (Map.Entry<String, String> claimMapping : arbitraryDataClaims.entrySet()) {
+            arbitraryDataMap.put(claimMapping.getKey(), userClaims.get(claimMapping.getValue()));
         }
-        Map<String, String> arbitraryDataFromProperties = getArbitraryDataFromProperties(event);
-        arbitraryDataMap.putAll(arbitraryDataFromProperties);
+        arbitraryDataMap.setOverlay(subscription.getStaticData());
         return arbitraryDataMap ;
     }
 
+    /**
+     * Get the compiled template of the default locale, which is used to prefetch the claims referred by the template
+     * placeholders.
+     *
+     * @param notificationChannel Notification channel
+     * @param templateType        Notification template type
+     * @param tenantDomain        Tenant domain
+     * @return Compiled template of the default locale, or null if it cannot be retrieved
+     */
+    private CompiledNotificationTemplate getDefaultLocaleTemplate(String notificationChannel, String templateType,
+                                                                  String tenantDomain) {
+
+        try {
+            return NotificationUtil.getCompiledNotificationTemplate(notificationChannel, templateType,
+                    NotificationConstants.EmailNotification.LOCALE_DEFAULT, tenantDomain);
+        } catch (NotificationTemplateManagerException | NotificationRuntimeException e) {
+            // The template of the user's locale is retrieved later, which reports the error if it is not found.
+            if (log.isDebugEnabled()) {
+                log.debug("Default locale template of type: " + templateType + " was not found to prefetch the "
+                        + "claims of its placeholders.", e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Add the URIs of the claims referred by the placeholders of a template to the given set.
+     *
+     * @param notificationTemplate Compiled notification template
+     * @param claimUris            Set of claim URIs to add to
+     */
+    private void addClaimUris(CompiledNotificationTemplate notificationTemplate, Set<String> claimUris) {
+
+        for (TemplatePlaceholder placeholder : notificationTemplate.getPlaceholderIndex()) {
+            if (placeholder.getClaimUri() != null) {
+                claimUris.add(placeholder.getClaimUri());
+            }
+        }
+    }
+
+    /**
+     * Read the given claims of the user either from the user store manager of the event or from the user store
+     * manager resolved by the user store domain and tenant domain.
+     *
+     * @param username            Username
+     * @param userStoreManager    User store manager of the event
+     * @param userStoreDomainName User store domain of the user
+     * @param tenantDomain        Tenant domain of the user
+     * @param claimUris           URIs of the claims to be read
+     * @return Map of claim URIs and claim values
+     * @throws IdentityEventException Error resolving the user store manager of the user
+     */
+    private Map<String, String> getUserClaims(String username, UserStoreManager userStoreManager,
+            String userStoreDomainName, String tenantDomain, Set<String> claimUris) throws IdentityEventException {
+
+        if (userStoreManager != null) {
+            return NotificationUtil.getUserClaimValues(username, userStoreManager, claimUris);
+        }
+        return NotificationUtil.getUserClaimValues(username, userStoreDomainName, tenantDomain, claimUris);
+    }
+
     /**
      * Add the notification template data to the arbitrary data map.
      *
-     * @param notificationTemplate     {@link
-     *                                 org.wso2.carbon.identity.governance.service.notification.NotificationTemplateManager}
-     *                                 object
+     * @param notificationTemplate     {@link CompiledNotificationTemplate} object
      * @param notificationTemplateName Notification template
      * @param sendTo                   Notification send to address
      * @param sendFrom                 Notification send from address
      * @param arbitraryDataMap         Arbitrary data map
-     * @param userClaims               User claims
+     * @param userClaims               User claims, or null if the user of the event is not known
      */
-    private void addNotificationTemplateDataToArbitraryDataMap(NotificationTemplate notificationTemplate,
+    private void addNotificationTemplateDataToArbitraryDataMap(CompiledNotificationTemplate notificationTemplate,
             String notificationTemplateName, String sendTo, String sendFrom, Map<String, String> arbitraryDataMap,
             Map<String, String> userClaims) {
 
         // Build Notification object using notification template data.
         // todo: Refer to https://github.com/wso2/product-is/issues/7006
-        EmailTemplate emailTemplate = buildEmailTemplate(notificationTemplate);
-        Notification notification = buildEmailNotification(emailTemplate, arbitraryDataMap, userClaims, sendTo,
+        Notification notification = buildEmailNotification(notificationTemplate, arbitraryDataMap, userClaims, sendTo,
                 sendFrom);
 
         // Add values to the arbitrary data map.
         arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_EVENT_TYPE,
                 I18nEmailUtil.getNormalizedName(notificationTemplateName));
         arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SEND_FROM, notification.getSendFrom());
-        arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_BODY_TEMPLATE, notification.
-                getTemplate().getBody());
+        NotificationUtil.addTemplateData(arbitraryDataMap, notificationTemplate,
+                arbitraryDataMap.get(IdentityEventConstants.EventProperty.TENANT_DOMAIN));
         arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_LOCALE, notification.getTemplate().
                 getLocale());
         arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SEND_TO, notification.getSendTo());
@@ -216,10 +385,6 @@ public class DefaultNotificationHandler extends AbstractEventHandler {
 
         // Additional properties if the notification channel is not SMS.
         if (!NotificationChannels.SMS_CHANNEL.getChannelType().equals(notificationTemplate.getNotificationChannel())) {
-            arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SUBJECT_TEMPLATE, notification.
-                    getTemplate().getSubject());
-            arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_FOOTER_TEMPLATE, notification.
-                    getTemplate().getFooter());
             arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_CONTENT_TYPE, notification.
                     getTemplate().getEmailContentType());
             arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SUBJECT, notification.getSubject());
@@ -228,47 +393,22 @@ public class DefaultNotificationHandler extends AbstractEventHandler {
     }
 
     /**
-     * Build an Email Template object using SMS template data.
-     *
-     * @param notificationTemplate {@link
-     *                             org.wso2.carbon.identity.governance.service.notification.NotificationTemplateManager}
-     *                             object
-     * @return {@link org.wso2.carbon.email.mgt.model.EmailTemplate} object
-     */
-    private EmailTemplate buildEmailTemplate(NotificationTemplate notificationTemplate) {
-
-        // Build an email template using SMS template data.
-        EmailTemplate emailTemplate = new EmailTemplate();
-        emailTemplate.setTemplateDisplayName(notificationTemplate.getDisplayName());
-        emailTemplate.setTemplateType(notificationTemplate.getType());
-        emailTemplate.setLocale(notificationTemplate.getLocale());
-        emailTemplate.setBody(notificationTemplate.getBody());
-
-        if (NotificationChannels.EMAIL_CHANNEL.getChannelType().equals(notificationTemplate.getNotificationChannel())) {
-            emailTemplate.setSubject(notificationTemplate.getSubject());
-            emailTemplate.setFooter(notificationTemplate.getFooter());
-            emailTemplate.setEmailContentType(notificationTemplate.getContentType());
-        }
-        return emailTemplate;
-    }
-
-    /**
-     * Build Email Notification from the emailTemplate and the arbitrary data.
+     * Build Email Notification from the compiled template and the arbitrary data.
      *
-     * @param emailTemplate    {@link org.wso2.carbon.email.mgt.model.EmailTemplate} object
+     * @param compiledTemplate {@link CompiledNotificationTemplate} object
      * @param arbitraryDataMap Arbitrary data map
      * @param userClaims       User claims
      * @param sendTo           Notification send to address
      * @param sendFrom         Notification send from address
      * @return {@link org.wso2.carbon.identity.event.handler.notification.email.bean.Notification} object
      */
-    private Notification buildEmailNotification(EmailTemplate emailTemplate, Map<String, String> arbitraryDataMap,
-            Map<String, String> userClaims, String sendTo, String sendFrom) {
+    private Notification buildEmailNotification(CompiledNotificationTemplate compiledTemplate,
+            Map<String, String> arbitraryDataMap, Map<String, String> userClaims, String sendTo, String sendFrom) {
 
-        NotificationUtil.getPlaceholderValues(emailTemplate, arbitraryDataMap, userClaims);
+        NotificationUtil.getPlaceholderValues(compiledTemplate, arbitraryDataMap, userClaims);
         Notification.EmailNotificationBuilder builder = new Notification.EmailNotificationBuilder(sendTo);
         builder.setSendFrom(sendFrom);
-        builder.setTemplate(emailTemplate);
+        builder.setCompiledTemplate(compiledTemplate);
         builder.setPlaceHolderData(arbitraryDataMap);
         return builder.build();
     }
@@ -283,7 +423,6 @@ public class DefaultNotificationHandler extends AbstractEventHandler {
      */
     protected void publishToStream(Map<String, String> dataMap, Event event) throws IdentityEventException{
 
-        EventStreamService service = NotificationHandlerDataHolder.getInstance().getEventStreamService();
         org.wso2.carbon.databridge.commons.Event databridgeEvent = new org.wso2.carbon.databridge.commons.Event();
         databridgeEvent.setTimeStamp(System.currentTimeMillis());
 
@@ -294,55 +433,43 @@ public class DefaultNotificationHandler extends AbstractEventHandler {
                     "identity-event.properties file for " + event.getEventName());
         }
 
-        databridgeEvent.setArbitraryDataMap(dataMap);
-        service.publish(databridgeEvent);
-    }
-
-    private Map<String, String> getArbitraryDataClaimsFromProperties(Event event) throws IdentityEventException {
-        Map<String, String> claimMap = new HashMap<>();
-        String tmpKeyStartWith = this.getName() + ".subscription." + event.getEventName() + "." + "claim" ;
-        Properties subscriptionProperties = getSubscriptionProperties(event.getEventName());
-        Set<Object> subscriptionPropertyKeys = subscriptionProperties.keySet();
-        for (Object subscriptionPropertyKey : subscriptionPropertyKeys) {
-            String key = (String)subscriptionPropertyKey;
-            if(key.startsWith(tmpKeyStartWith)){
-                String attribute = key.substring(tmpKeyStartWith.length() + 1);
-                String value = (String)subscriptionProperties.get(key);
-                claimMap.put(attribute, value);
-            }
+        // The placeholder context is flattened only here, as the published data has to be a self contained map.
+        Map<String, String> arbitraryDataMap = dataMap instanceof PlaceholderContext ?
+                ((PlaceholderContext) dataMap).toFlatMap() : dataMap;
+        if (NotificationDeduplicator.getInstance().isDuplicate(databridgeEvent.getStreamId(),
+                arbitraryDataMap)) {
+            return;
         }
-        return claimMap;
+        databridgeEvent.setArbitraryDataMap(arbitraryDataMap);
+        BatchingEventPublisher.getInstance().publish(databridgeEvent, getPriority(event));
     }
 
-    private Map<String, String> getArbitraryDataFromProperties(Event event) throws IdentityEventException {
-        Map<String, String> dataMap = new HashMap<>();
-        String streamIdKey =  this.getName() + ".subscription." + event.getEventName() + "." + STREAM_DEFINITION_ID;
-        String templateType =  this.getName() + ".subscription." + event.getEventName() + "." + NOTIFICATION_TEMPLATE_TYPE;
-        String claimKeyStartWith = this.getName() + ".subscription." + event.getEventName() + "." + "claim" ;
-
-        Properties subscriptionProperties = getSubscriptionProperties(event.getEventName());
-        Set<Object> subscriptionPropertyKeys = subscriptionProperties.keySet();
-        for (Object subscriptionPropertyKey : subscriptionPropertyKeys) {
-            String key = (String)subscriptionPropertyKey;
-            if(!key.startsWith(claimKeyStartWith) && !key.equalsIgnoreCase(streamIdKey) &&
-                    !key.equalsIgnoreCase(templateType)){
-                String keyPrefix = this.getName() + ".subscription." + event.getEventName();
-                String attribute = key.substring(keyPrefix.length() + 1);
-                String value = (String)subscriptionProperties.get(key);
-                dataMap.put(attribute, value);
-            }
+    /**
+     * Get the subscription of the handler to the event. Subscriptions are parsed once per event, and parsed again
+     * once the handler is initialized with a new configuration.
+     *
+     * @param event Event
+     * @return Subscription descriptor of the event
+     * @throws IdentityEventException Error reading the subscription properties of the event
+     */
+    protected SubscriptionDescriptor getSubscriptionDescriptor(Event event) throws IdentityEventException {
+
+        SubscriptionDescriptor descriptor = subscriptionDescriptors.get(event.getEventName());
+        if (descriptor == null) {
+            descriptor = SubscriptionDescriptor.build(getName(), event.getEventName(),
+                    getSubscriptionProperties(event.getEventName()));
+            subscriptionDescriptors.put(event.getEventName(), descriptor);
         }
-        return dataMap;
+        return descriptor;
     }
 
-
     @Override
     public String getName() {
         return "default.notification.sender";
     }
 
     protected String getStreamDefinitionID(Event event) throws IdentityEventException {
-        String streamDefinitionID = getSubscriptionProperty(STREAM_DEFINITION_ID, event.getEventName());
+        String streamDefinitionID = getSubscriptionDescriptor(event).getStreamId();
         if(StringUtils.isEmpty(streamDefinitionID)){
             streamDefinitionID = DEFAULT_STREAM_ID ;
         }
@@ -350,6 +477,24 @@ public class DefaultNotificationHandler extends AbstractEventHandler {
     }
 
     protected String getNotificationTemplate(Event event) throws IdentityEventException {
-        return getSubscriptionProperty(NOTIFICATION_TEMPLATE_TYPE, event.getEventName());
+        return getSubscriptionDescriptor(event).getTemplateType();
+    }
+
+    /**
+     * Get the template type of the notification of an event, which is the template type of the subscription if one
+     * is configured, or else the template type given by the event.
+     *
+     * @param event Event
+     * @return Template type, or null if the event does not have a template type
+     * @throws IdentityEventException Error reading the subscription of the event
+     */
+    protected String getTemplateType(Event event) throws IdentityEventException {
+
+        String templateType = getNotificationTemplate(event);
+        if (StringUtils.isEmpty(templateType)) {
+            templateType = (String) event.getEventProperties()
+                    .get(NotificationConstants.EmailNotification.EMAIL_TEMPLATE_TYPE);
+        }
+        return templateType;
     }
 }
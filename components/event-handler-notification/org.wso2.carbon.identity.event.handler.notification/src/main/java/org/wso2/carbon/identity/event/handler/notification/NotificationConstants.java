@@ -31,6 +31,82 @@ public class NotificationConstants {
     public static final String ARBITRARY_BODY = "body";
     public static final String DEFAULT_NOTIFICATION_LOCALE = "en_US";
 
+    // identity.xml property to configure the maximum number of compiled notification templates kept in memory.
+    public static final String TEMPLATE_CACHE_CAPACITY_PROPERTY = "NotificationTemplateCache.Capacity";
+    public static final int DEFAULT_TEMPLATE_CACHE_CAPACITY = 1000;
+
+    // identity.xml properties to configure the cache of user claims used to render notifications.
+    public static final String USER_CLAIM_CACHE_ENABLE_PROPERTY = "NotificationUserClaimCache.Enable";
+    public static final String USER_CLAIM_CACHE_CAPACITY_PROPERTY = "NotificationUserClaimCache.Capacity";
+    public static final String USER_CLAIM_CACHE_TIMEOUT_PROPERTY = "NotificationUserClaimCache.Timeout";
+    public static final int DEFAULT_USER_CLAIM_CACHE_CAPACITY = 5000;
+    public static final int DEFAULT_USER_CLAIM_CACHE_TIMEOUT_SECONDS = 60;
+
+    // identity.xml property to configure the interval in seconds at which the statistics of the notification caches
+    // are logged. The statistics are not logged if the interval is not positive.
+    public static final String STATISTICS_REPORT_INTERVAL_PROPERTY = "NotificationStatistics.ReportInterval";
+    public static final int DEFAULT_STATISTICS_REPORT_INTERVAL_SECONDS = 300;
+
+    // identity.xml property to configure the time in seconds the resolved user store managers are kept.
+    public static final String USER_STORE_MANAGER_CACHE_TIMEOUT_PROPERTY = "NotificationUserStoreManagerCache.Timeout";
+    public static final int DEFAULT_USER_STORE_MANAGER_CACHE_TIMEOUT_SECONDS = 300;
+
+    // identity.xml property to configure the maximum number of tenants for which the endpoint URLs are kept.
+    public static final String URL_CACHE_CAPACITY_PROPERTY = "NotificationUrlCache.Capacity";
+    public static final int DEFAULT_URL_CACHE_CAPACITY = 1000;
+
+    // identity.xml properties to configure the threads and the chunk size used to send bulk notifications.
+    public static final String BULK_NOTIFICATION_POOL_SIZE_PROPERTY = "NotificationBulkSender.PoolSize";
+    public static final String BULK_NOTIFICATION_CHUNK_SIZE_PROPERTY = "NotificationBulkSender.ChunkSize";
+    public static final int DEFAULT_BULK_NOTIFICATION_CHUNK_SIZE = 500;
+
+    // identity.xml properties to configure the batching of the events published to the event streams.
+    public static final String PUBLISHER_BATCHING_ENABLE_PROPERTY = "NotificationEventPublisher.Batching.Enable";
+    public static final String PUBLISHER_BATCH_SIZE_PROPERTY = "NotificationEventPublisher.Batching.BatchSize";
+    public static final String PUBLISHER_LINGER_TIME_PROPERTY = "NotificationEventPublisher.Batching.LingerTime";
+    public static final String PUBLISHER_QUEUE_DEPTH_PROPERTY = "NotificationEventPublisher.Batching.QueueDepth";
+    public static final int DEFAULT_PUBLISHER_BATCH_SIZE = 100;
+    public static final int DEFAULT_PUBLISHER_LINGER_TIME_MILLIS = 20;
+    public static final int DEFAULT_PUBLISHER_QUEUE_DEPTH = 10000;
+
+    // identity.xml property to publish a template reference instead of the raw template content with the events.
+    public static final String PUBLISHER_TEMPLATE_REFERENCE_PAYLOAD_PROPERTY =
+            "NotificationEventPublisher.TemplateReferencePayload";
+
+    // identity.xml properties to configure the suppression of identical notifications sent within a time window.
+    public static final String DEDUPLICATION_ENABLE_PROPERTY = "NotificationDeduplication.Enable";
+    public static final String DEDUPLICATION_WINDOW_PROPERTY = "NotificationDeduplication.Window";
+    public static final String DEDUPLICATION_CAPACITY_PROPERTY = "NotificationDeduplication.Capacity";
+    public static final String DEDUPLICATION_CODE_PROPERTY = "NotificationDeduplication.CodeProperty";
+    public static final int DEFAULT_DEDUPLICATION_WINDOW_SECONDS = 30;
+    public static final int DEFAULT_DEDUPLICATION_CAPACITY = 65536;
+    public static final String DEFAULT_DEDUPLICATION_CODE_PROPERTY = "confirmation-code";
+
+    // identity.xml properties to configure the local journal of the notification events which are not yet published.
+    public static final String OUTBOX_ENABLE_PROPERTY = "NotificationOutbox.Enable";
+    public static final String OUTBOX_DIRECTORY_PROPERTY = "NotificationOutbox.Directory";
+    public static final String OUTBOX_SEGMENT_SIZE_PROPERTY = "NotificationOutbox.SegmentSize";
+    public static final String OUTBOX_FLUSH_INTERVAL_PROPERTY = "NotificationOutbox.FlushInterval";
+    public static final String OUTBOX_SYNC_COMMIT_PROPERTY = "NotificationOutbox.SyncCommit";
+    public static final int DEFAULT_OUTBOX_SEGMENT_SIZE = 16 * 1024 * 1024;
+    public static final int DEFAULT_OUTBOX_FLUSH_INTERVAL_MILLIS = 10;
+
+    // identity.xml properties to configure the retries of the notification events which could not be published. The
+    // maximum attempts are configured per priority class, as NotificationRetry.MaxAttempts.<class>.
+    public static final String RETRY_ENABLE_PROPERTY = "NotificationRetry.Enable";
+    public static final String RETRY_INITIAL_BACKOFF_PROPERTY = "NotificationRetry.InitialBackoff";
+    public static final String RETRY_MAX_BACKOFF_PROPERTY = "NotificationRetry.MaxBackoff";
+    public static final String RETRY_MAX_ATTEMPTS_PROPERTY = "NotificationRetry.MaxAttempts";
+    public static final String RETRY_QUEUE_SIZE_PROPERTY = "NotificationRetry.QueueSize";
+    public static final int DEFAULT_RETRY_INITIAL_BACKOFF_MILLIS = 500;
+    public static final int DEFAULT_RETRY_MAX_BACKOFF_MILLIS = 60000;
+    public static final int DEFAULT_RETRY_QUEUE_SIZE = 10000;
+
+    // identity.xml properties to configure the store of the notification events which could not be published.
+    public static final String DEAD_LETTER_CAPACITY_PROPERTY = "NotificationDeadLetter.Capacity";
+    public static final String DEAD_LETTER_DIRECTORY_PROPERTY = "NotificationDeadLetter.Directory";
+    public static final int DEFAULT_DEAD_LETTER_CAPACITY = 1000;
+
     public static class EmailNotification {
         public static final String EMAIL_TEMPLATE_PATH = "identity/Email/";
         public static final String EMAIL_TEMPLATE_TYPE = "TEMPLATE_TYPE";
@@ -73,6 +149,7 @@ public class NotificationConstants {
         public static final String ARBITRARY_SUBJECT = "subject";
         public static final String ARBITRARY_BODY = "body";
         public static final String ARBITRARY_FOOTER = "footer";
+        public static final String ARBITRARY_TEMPLATE_REFERENCE = "template-reference";
 
         public static final String CARBON_PRODUCT_URL_TEMPLATE_PLACEHOLDER = "carbon.product-url";
         public static final String ACCOUNT_RECOVERY_ENDPOINT_PLACEHOLDER = "account.recovery.endpoint-url";
@@ -22,16 +22,20 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
-import org.wso2.carbon.event.stream.core.EventStreamService;
 import org.wso2.carbon.identity.base.IdentityRuntimeException;
 import org.wso2.carbon.identity.core.handler.InitConfig;
 import org.wso2.carbon.identity.event.IdentityEventConstants;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.BatchingEventPublisher;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.NotificationDeduplicator;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.NotificationPriority;
 import org.wso2.carbon.identity.event.handler.notification.email.bean.Notification;
-import org.wso2.carbon.identity.event.handler.notification.internal.NotificationHandlerDataHolder;
+import org.wso2.carbon.identity.event.handler.notification.template.PlaceholderContext;
+import org.wso2.carbon.identity.event.handler.notification.template.TemplateReference;
 import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+import org.wso2.carbon.email.mgt.model.EmailTemplate;
 import org.wso2.carbon.email.mgt.util.I18nEmailUtil;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
@@ -47,9 +51,11 @@ public class NotificationHandler extends DefaultNotificationHandler {
 
     private static final Log log = LogFactory.getLog(NotificationHandler.class);
     private static final String STREAM_ID = "id_gov_notify_stream:1.0.0";
+    // Number of notification properties added to the placeholder data when publishing.
+    private static final int NOTIFICATION_PROPERTY_COUNT = 15;
 
     @Override
-    public void handleEvent(Event event) throws IdentityEventException {
+    protected void sendNotification(Event event) throws IdentityEventException {
         //We can set the notification template from the identity-even.properties file as a property of the subscription
         //property. Then it will get the first priority.
         String notificationTemplate = getNotificationTemplate(event);
@@ -57,12 +63,7 @@ public class NotificationHandler extends DefaultNotificationHandler {
             event.getEventProperties().put(NotificationConstants.EmailNotification.EMAIL_TEMPLATE_TYPE,
                     notificationTemplate);
         }
-        Map<String, String> arbitraryDataMap = new HashMap<>();
-        for (Map.Entry<String, Object> entry : event.getEventProperties().entrySet()) {
-            if (entry.getValue() instanceof String) {
-                arbitraryDataMap.put(entry.getKey(), (String) entry.getValue());
-            }
-        }
+        Map<String, String> arbitraryDataMap = new PlaceholderContext(event.getEventProperties());
         Notification notification = NotificationUtil.buildNotification(event, arbitraryDataMap);
 
         //Stream definition will be read from the the identity-even.properties file as a property of the subscription
@@ -73,34 +74,59 @@ public class NotificationHandler extends DefaultNotificationHandler {
         publishToStream(notification, arbitraryDataMap);
     }
 
+    /**
+     * Publish the notification with the priority class of its template type.
+     *
+     * @param notification       Notification
+     * @param placeHolderDataMap Placeholder data of the notification
+     */
     protected void publishToStream(Notification notification, Map<String, String> placeHolderDataMap) {
 
-        EventStreamService service = NotificationHandlerDataHolder.getInstance().getEventStreamService();
+        EmailTemplate template = notification.getTemplate();
+        String templateType = StringUtils.isNotEmpty(template.getTemplateType()) ? template.getTemplateType() :
+                I18nEmailUtil.getNormalizedName(template.getTemplateDisplayName());
+        publishToStream(notification, placeHolderDataMap, getPriority(templateType));
+    }
+
+    /**
+     * Publish the notification with the given priority class.
+     *
+     * @param notification       Notification
+     * @param placeHolderDataMap Placeholder data of the notification
+     * @param priority           Priority class of the notification
+     */
+    protected void publishToStream(Notification notification, Map<String, String> placeHolderDataMap,
+                                   NotificationPriority priority) {
 
         org.wso2.carbon.databridge.commons.Event databridgeEvent = new org.wso2.carbon.databridge.commons.Event();
         databridgeEvent.setTimeStamp(System.currentTimeMillis());
-        Map<String, String> arbitraryDataMap = new HashMap<>();
-
         databridgeEvent.setStreamId(placeHolderDataMap.remove("tmp-stream-id"));
 
-        arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_EVENT_TYPE, I18nEmailUtil.
-                getNormalizedName(notification.getTemplate().getTemplateDisplayName()));
-        arbitraryDataMap.put(IdentityEventConstants.EventProperty.USER_NAME,
-                placeHolderDataMap.get(IdentityEventConstants.EventProperty.USER_NAME));
-        arbitraryDataMap.put(IdentityEventConstants.EventProperty.USER_STORE_DOMAIN,
-                placeHolderDataMap.get(IdentityEventConstants.EventProperty.USER_STORE_DOMAIN));
-        arbitraryDataMap.put(IdentityEventConstants.EventProperty.TENANT_DOMAIN,
-                placeHolderDataMap.get(IdentityEventConstants.EventProperty.TENANT_DOMAIN));
-        arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SEND_FROM, notification.getSendFrom());
-        for (Map.Entry<String, String> placeHolderDataEntry : placeHolderDataMap.entrySet()) {
-            arbitraryDataMap.put(placeHolderDataEntry.getKey(), placeHolderDataEntry.getValue());
+        // The placeholder data is flattened once into the published map, with room for the notification properties.
+        Map<String, String> arbitraryDataMap = placeHolderDataMap instanceof PlaceholderContext ?
+                ((PlaceholderContext) placeHolderDataMap).toFlatMap(NOTIFICATION_PROPERTY_COUNT) :
+                new HashMap<>(placeHolderDataMap);
+
+        // Placeholder data takes precedence over these properties.
+        putIfNotPresent(arbitraryDataMap, NotificationConstants.EmailNotification.ARBITRARY_EVENT_TYPE,
+                I18nEmailUtil.getNormalizedName(notification.getTemplate().getTemplateDisplayName()));
+        putIfNotPresent(arbitraryDataMap, IdentityEventConstants.EventProperty.USER_NAME, null);
+        putIfNotPresent(arbitraryDataMap, IdentityEventConstants.EventProperty.USER_STORE_DOMAIN, null);
+        putIfNotPresent(arbitraryDataMap, IdentityEventConstants.EventProperty.TENANT_DOMAIN, null);
+        putIfNotPresent(arbitraryDataMap, NotificationConstants.EmailNotification.ARBITRARY_SEND_FROM,
+                notification.getSendFrom());
+        if (NotificationUtil.isTemplateReferencePayloadEnabled()) {
+            arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_TEMPLATE_REFERENCE,
+                    TemplateReference.of(arbitraryDataMap.get(IdentityEventConstants.EventProperty.TENANT_DOMAIN),
+                            notification.getCompiledTemplate()).toString());
+        } else {
+            arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SUBJECT_TEMPLATE, notification.
+                    getTemplate().getSubject());
+            arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_BODY_TEMPLATE, notification.
+                    getTemplate().getBody());
+            arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_FOOTER_TEMPLATE, notification.
+                    getTemplate().getFooter());
         }
-        arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SUBJECT_TEMPLATE, notification.
-                getTemplate().getSubject());
-        arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_BODY_TEMPLATE, notification.
-                getTemplate().getBody());
-        arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_FOOTER_TEMPLATE, notification.
-                getTemplate().getFooter());
         arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_LOCALE, notification.getTemplate().
                 getLocale());
         arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_CONTENT_TYPE, notification.
@@ -111,8 +137,20 @@ public class NotificationHandler extends DefaultNotificationHandler {
         arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_FOOTER, notification.getFooter());
 
 
+        if (NotificationDeduplicator.getInstance().isDuplicate(databridgeEvent.getStreamId(),
+                arbitraryDataMap)) {
+            return;
+        }
         databridgeEvent.setArbitraryDataMap(arbitraryDataMap);
-        service.publish(databridgeEvent);
+        BatchingEventPublisher.getInstance().publish(databridgeEvent, priority != null ? priority :
+                NotificationPriority.NORMAL);
+    }
+
+    private static void putIfNotPresent(Map<String, String> map, String key, String value) {
+
+        if (!map.containsKey(key)) {
+            map.put(key, value);
+        }
     }
 
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Subscription of a notification handler to an event, as configured in identity-event.properties. The subscription
+ * properties are parsed once per event into the stream ID, the notification template type, the claims to be added to
+ * the published data and the static data to be added to the published data.
+ */
+public final class SubscriptionDescriptor {
+
+    private static final String STREAM_DEFINITION_ID = "stream";
+    private static final String NOTIFICATION_TEMPLATE_TYPE = "notification_template";
+    private static final String CLAIM = "claim";
+
+    private final String streamId;
+    private final String templateType;
+    private final Map<String, String> claimMappings;
+    private final Map<String, String> staticData;
+
+    private SubscriptionDescriptor(String streamId, String templateType, Map<String, String> claimMappings,
+                                   Map<String, String> staticData) {
+
+        this.streamId = streamId;
+        this.templateType = templateType;
+        this.claimMappings = Collections.unmodifiableMap(claimMappings);
+        this.staticData = Collections.unmodifiableMap(staticData);
+    }
+
+    /**
+     * Parse the subscription properties of a handler for an event.
+     *
+     * @param handlerName            Name of the handler
+     * @param eventName              Name of the event
+     * @param subscriptionProperties Subscription properties of the handler for the event
+     * @return Subscription descriptor
+     */
+    public static SubscriptionDescriptor build(String handlerName, String eventName,
+                                               Properties subscriptionProperties) {
+
+        String keyPrefix = handlerName + ".subscription." + eventName;
+        String streamIdKey = keyPrefix + "." + STREAM_DEFINITION_ID;
+        String templateTypeKey = keyPrefix + "." + NOTIFICATION_TEMPLATE_TYPE;
+        String claimKeyPrefix = keyPrefix + "." + CLAIM;
+
+        Map<String, String> claimMappings = new HashMap<>();
+        Map<String, String> staticData = new HashMap<>();
+        for (String key : subscriptionProperties.stringPropertyNames()) {
+            if (key.length() <= keyPrefix.length()) {
+                continue;
+            }
+            String value = subscriptionProperties.getProperty(key);
+            if (key.startsWith(claimKeyPrefix)) {
+                if (key.length() > claimKeyPrefix.length()) {
+                    claimMappings.put(key.substring(claimKeyPrefix.length() + 1), value);
+                }
+            } else if (!key.equalsIgnoreCase(streamIdKey) && !key.equalsIgnoreCase(templateTypeKey)) {
+                staticData.put(key.substring(keyPrefix.length() + 1), value);
+            }
+        }
+        return new SubscriptionDescriptor(subscriptionProperties.getProperty(streamIdKey),
+                subscriptionProperties.getProperty(templateTypeKey), claimMappings, staticData);
+    }
+
+    /**
+     * Get the stream to which the notifications of the event are published.
+     *
+     * @return Stream ID, or null if a stream is not configured
+     */
+    public String getStreamId() {
+
+        return streamId;
+    }
+
+    /**
+     * Get the notification template type of the event.
+     *
+     * @return Template type, or null if a template type is not configured
+     */
+    public String getTemplateType() {
+
+        return templateType;
+    }
+
+    /**
+     * Get the claims to be added to the published data.
+     *
+     * @return Unmodifiable map of attribute names and claim URIs
+     */
+    public Map<String, String> getClaimMappings() {
+
+        return claimMappings;
+    }
+
+    /**
+     * Get the static data to be added to the published data.
+     *
+     * @return Unmodifiable map of attribute names and values
+     */
+    public Map<String, String> getStaticData() {
+
+        return staticData;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.base.IdentityRuntimeException;
+import org.wso2.carbon.identity.core.bean.context.MessageContext;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.bean.IdentityEventMessageContext;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.event.handler.notification.cache.UserClaimCache;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+import org.wso2.carbon.user.api.UserStoreException;
+import org.wso2.carbon.user.api.UserStoreManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Evicts the cached claims of a user from the {@link UserClaimCache} when the claims of the user are updated or the
+ * user is deleted. The handler subscribes to the user operation events by itself, hence it does not need to be
+ * configured in identity-event.properties.
+ */
+public class UserClaimCacheInvalidationHandler extends AbstractEventHandler {
+
+    private static final Log log = LogFactory.getLog(UserClaimCacheInvalidationHandler.class);
+
+    private static final Set<String> INVALIDATING_EVENTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            IdentityEventConstants.Event.POST_SET_USER_CLAIMS,
+            IdentityEventConstants.Event.POST_SET_USER_CLAIM,
+            IdentityEventConstants.Event.POST_DELETE_USER_CLAIMS,
+            IdentityEventConstants.Event.POST_DELETE_USER_CLAIM,
+            IdentityEventConstants.Event.POST_DELETE_USER)));
+
+    @Override
+    public boolean canHandle(MessageContext messageContext) throws IdentityRuntimeException {
+
+        if (!UserClaimCache.getInstance().isEnabled() || !(messageContext instanceof IdentityEventMessageContext)) {
+            return false;
+        }
+        Event event = ((IdentityEventMessageContext) messageContext).getEvent();
+        return event != null && INVALIDATING_EVENTS.contains(event.getEventName());
+    }
+
+    @Override
+    public void handleEvent(Event event) throws IdentityEventException {
+
+        String userName = (String) event.getEventProperties().get(IdentityEventConstants.EventProperty.USER_NAME);
+        if (StringUtils.isBlank(userName)) {
+            return;
+        }
+        UserStoreManager userStoreManager = (UserStoreManager) event.getEventProperties().get(
+                IdentityEventConstants.EventProperty.USER_STORE_MANAGER);
+        int tenantId;
+        String domainName;
+        if (userStoreManager != null) {
+            try {
+                tenantId = userStoreManager.getTenantId();
+            } catch (UserStoreException e) {
+                throw new IdentityEventException("Error when getting the tenant id of the user store manager.", e);
+            }
+            domainName = NotificationUtil.getUserStoreDomainName(userStoreManager);
+        } else {
+            String tenantDomain = (String) event.getEventProperties().get(
+                    IdentityEventConstants.EventProperty.TENANT_DOMAIN);
+            if (StringUtils.isBlank(tenantDomain)) {
+                return;
+            }
+            tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+            domainName = (String) event.getEventProperties().get(
+                    IdentityEventConstants.EventProperty.USER_STORE_DOMAIN);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Evicting cached claims of user: " + userName + " on event: " + event.getEventName());
+        }
+        UserClaimCache.getInstance().clearCacheEntry(tenantId, domainName, userName);
+    }
+
+    @Override
+    public String getName() {
+
+        return "notification.user.claim.cache.invalidator";
+    }
+}
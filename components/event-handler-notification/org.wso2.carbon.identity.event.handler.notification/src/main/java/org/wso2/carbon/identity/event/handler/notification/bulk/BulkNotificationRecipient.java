@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.bulk;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.user.core.UserCoreConstants;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Recipient of a bulk notification. A recipient is either a user, whose claims are used to resolve the claim
+ * placeholders of the template and the send-to address, or a plain send-to address.
+ */
+public class BulkNotificationRecipient {
+
+    private final String userName;
+    private final String userStoreDomain;
+    private final String sendTo;
+    private final Map<String, String> properties;
+
+    /**
+     * Create a recipient which is a user of the tenant of the bulk notification.
+     *
+     * @param userName        Username without the user store domain
+     * @param userStoreDomain User store domain of the user, or null for the primary user store
+     * @param sendTo          Send-to address, or null to use the email address claim of the user
+     * @param properties      Placeholder values specific to the recipient, or null if there are none
+     */
+    public BulkNotificationRecipient(String userName, String userStoreDomain, String sendTo,
+                                     Map<String, String> properties) {
+
+        this.userName = userName;
+        this.userStoreDomain = StringUtils.isNotBlank(userStoreDomain) ? userStoreDomain :
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME;
+        this.sendTo = sendTo;
+        this.properties = properties != null ? Collections.unmodifiableMap(new HashMap<>(properties)) :
+                Collections.<String, String>emptyMap();
+    }
+
+    /**
+     * Create a recipient which is only known by its send-to address.
+     *
+     * @param sendTo Send-to address
+     */
+    public BulkNotificationRecipient(String sendTo) {
+
+        this(null, null, sendTo, null);
+    }
+
+    public String getUserName() {
+
+        return userName;
+    }
+
+    public String getUserStoreDomain() {
+
+        return userStoreDomain;
+    }
+
+    public String getSendTo() {
+
+        return sendTo;
+    }
+
+    public Map<String, String> getProperties() {
+
+        return properties;
+    }
+
+    public boolean isUser() {
+
+        return StringUtils.isNotBlank(userName);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.bulk;
+
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.governance.service.notification.NotificationChannels;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Template and common data of a bulk notification, which is sent to all the recipients of the notification.
+ */
+public class BulkNotificationRequest {
+
+    private final String tenantDomain;
+    private final String notificationChannel;
+    private final String templateType;
+    private final String locale;
+    private final String streamId;
+    private final String sendFrom;
+    private final Map<String, String> properties;
+
+    private BulkNotificationRequest(Builder builder) {
+
+        this.tenantDomain = builder.tenantDomain;
+        this.notificationChannel = builder.notificationChannel;
+        this.templateType = builder.templateType;
+        this.locale = builder.locale;
+        this.streamId = builder.streamId;
+        this.sendFrom = builder.sendFrom;
+        this.properties = Collections.unmodifiableMap(new HashMap<>(builder.properties));
+    }
+
+    public String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    public String getNotificationChannel() {
+
+        return notificationChannel;
+    }
+
+    public String getTemplateType() {
+
+        return templateType;
+    }
+
+    public String getLocale() {
+
+        return locale;
+    }
+
+    public String getStreamId() {
+
+        return streamId;
+    }
+
+    public String getSendFrom() {
+
+        return sendFrom;
+    }
+
+    /**
+     * Get the placeholder values which are common to all the recipients.
+     *
+     * @return Unmodifiable map of placeholder names and values
+     */
+    public Map<String, String> getProperties() {
+
+        return properties;
+    }
+
+    public static class Builder {
+
+        // mandatory attributes
+        private final String tenantDomain;
+        private final String templateType;
+
+        // optional attributes
+        private String notificationChannel = NotificationChannels.EMAIL_CHANNEL.getChannelType();
+        private String locale = NotificationConstants.EmailNotification.LOCALE_DEFAULT;
+        private String streamId = NotificationConstants.EmailNotification.STREAM_ID;
+        private String sendFrom;
+        private Map<String, String> properties = new HashMap<>();
+
+        public Builder(String tenantDomain, String templateType) {
+
+            this.tenantDomain = tenantDomain;
+            this.templateType = templateType;
+        }
+
+        public Builder setNotificationChannel(String notificationChannel) {
+
+            this.notificationChannel = notificationChannel;
+            return this;
+        }
+
+        public Builder setLocale(String locale) {
+
+            this.locale = locale;
+            return this;
+        }
+
+        public Builder setStreamId(String streamId) {
+
+            this.streamId = streamId;
+            return this;
+        }
+
+        public Builder setSendFrom(String sendFrom) {
+
+            this.sendFrom = sendFrom;
+            return this;
+        }
+
+        public Builder setProperties(Map<String, String> properties) {
+
+            this.properties = properties != null ? properties : new HashMap<String, String>();
+            return this;
+        }
+
+        public BulkNotificationRequest build() {
+
+            return new BulkNotificationRequest(this);
+        }
+    }
+}
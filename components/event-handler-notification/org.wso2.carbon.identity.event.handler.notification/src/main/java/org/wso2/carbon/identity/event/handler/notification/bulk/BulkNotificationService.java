@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.bulk;
+
+import org.wso2.carbon.identity.event.IdentityEventException;
+
+import java.util.Iterator;
+
+/**
+ * Service to send the same notification template to many recipients, without raising an event per recipient.
+ */
+public interface BulkNotificationService {
+
+    /**
+     * Render the template of the request for each recipient and publish the notifications to the stream of the
+     * request. The template is resolved and compiled once, and the recipients are processed in chunks in parallel.
+     * Recipients are consumed lazily, hence the iterator can stream them from the source.
+     *
+     * @param request    Template and common data of the notification
+     * @param recipients Recipients of the notification
+     * @return Number of notifications published
+     * @throws IdentityEventException If the template cannot be resolved or the sending is interrupted
+     */
+    int sendNotifications(BulkNotificationRequest request, Iterator<BulkNotificationRecipient> recipients)
+            throws IdentityEventException;
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.bulk;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.email.mgt.util.I18nEmailUtil;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.BatchingEventPublisher;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.NotificationPriority;
+import org.wso2.carbon.identity.event.handler.notification.template.CompiledNotificationTemplate;
+import org.wso2.carbon.identity.event.handler.notification.template.CompiledTemplateSection;
+import org.wso2.carbon.identity.event.handler.notification.template.TemplatePlaceholder;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+import org.wso2.carbon.identity.governance.exceptions.notiification.NotificationTemplateManagerException;
+import org.wso2.carbon.identity.governance.service.notification.NotificationChannels;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default implementation of {@link BulkNotificationService}. Recipients are split into chunks, and each chunk is
+ * handled by a worker of a fixed pool, which reads the claims of the users of the chunk in a single user store call,
+ * renders the notifications into buffers reused by the worker and publishes the notifications of the chunk.
+ */
+public class BulkNotificationServiceImpl implements BulkNotificationService {
+
+    private static final Log log = LogFactory.getLog(BulkNotificationServiceImpl.class);
+
+    private static final int INITIAL_BUFFER_CAPACITY = 4096;
+    // Buffers larger than this are not retained by the worker, so that one large notification does not pin memory.
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+
+            return new StringBuilder(INITIAL_BUFFER_CAPACITY);
+        }
+    };
+
+    private final ExecutorService executor;
+    private final int poolSize;
+    private final int chunkSize;
+
+    public BulkNotificationServiceImpl() {
+
+        int poolSize = NotificationUtil.getIntProperty(NotificationConstants.BULK_NOTIFICATION_POOL_SIZE_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+        int chunkSize = NotificationUtil.getIntProperty(NotificationConstants.BULK_NOTIFICATION_CHUNK_SIZE_PROPERTY,
+                NotificationConstants.DEFAULT_BULK_NOTIFICATION_CHUNK_SIZE);
+        this.poolSize = poolSize > 0 ? poolSize : 1;
+        this.chunkSize = chunkSize > 0 ? chunkSize : NotificationConstants.DEFAULT_BULK_NOTIFICATION_CHUNK_SIZE;
+        this.executor = Executors.newFixedThreadPool(this.poolSize, new BulkNotificationThreadFactory());
+    }
+
+    @Override
+    public int sendNotifications(BulkNotificationRequest request, Iterator<BulkNotificationRecipient> recipients)
+            throws IdentityEventException {
+
+        if (StringUtils.isBlank(request.getTenantDomain()) || StringUtils.isBlank(request.getTemplateType())) {
+            throw new IdentityEventException("Tenant domain and template type are mandatory to send bulk " +
+                    "notifications.");
+        }
+        CompiledNotificationTemplate template;
+        try {
+            template = NotificationUtil.getCompiledNotificationTemplate(request.getNotificationChannel(),
+                    request.getTemplateType(), request.getLocale(), request.getTenantDomain());
+        } catch (NotificationTemplateManagerException e) {
+            throw new IdentityEventException("Error when retrieving template: " + request.getTemplateType() +
+                    " of tenant: " + request.getTenantDomain(), e);
+        }
+        Set<String> claimUris = getRequiredClaims(template);
+        String contextTenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+
+        // At most two chunks per worker are kept in memory, so that the recipients are consumed at the rate at
+        // which they are sent.
+        Semaphore inFlightChunks = new Semaphore(poolSize * 2);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            while (recipients.hasNext()) {
+                List<BulkNotificationRecipient> chunk = new ArrayList<>(chunkSize);
+                while (recipients.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(recipients.next());
+                }
+                inFlightChunks.acquire();
+                try {
+                    results.add(executor.submit(new ChunkSender(request, template, claimUris, contextTenantDomain,
+                            chunk, inFlightChunks)));
+                } catch (RejectedExecutionException e) {
+                    inFlightChunks.release();
+                    throw new IdentityEventException("Bulk notification sender is shut down.", e);
+                }
+            }
+            int published = 0;
+            for (Future<Integer> result : results) {
+                try {
+                    published += result.get();
+                } catch (ExecutionException e) {
+                    log.error("Error while sending a chunk of bulk notifications of template: " +
+                            request.getTemplateType() + " in tenant: " + request.getTenantDomain(), e.getCause());
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Published " + published + " notifications of template: " + request.getTemplateType() +
+                        " in tenant: " + request.getTenantDomain());
+            }
+            return published;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<Integer> result : results) {
+                result.cancel(true);
+            }
+            throw new IdentityEventException("Interrupted while sending bulk notifications of template: " +
+                    request.getTemplateType(), e);
+        }
+    }
+
+    /**
+     * Stop the workers. Chunks which are being sent are interrupted.
+     */
+    public void shutdown() {
+
+        executor.shutdownNow();
+    }
+
+    private static Set<String> getRequiredClaims(CompiledNotificationTemplate template) {
+
+        Set<String> claimUris = new HashSet<>();
+        for (TemplatePlaceholder placeholder : template.getPlaceholderIndex()) {
+            if (placeholder.getClaimUri() != null) {
+                claimUris.add(placeholder.getClaimUri());
+            }
+        }
+        if (NotificationChannels.EMAIL_CHANNEL.getChannelType().equals(template.getNotificationChannel())) {
+            claimUris.add(NotificationConstants.EmailNotification.CLAIM_URI_EMAIL);
+        }
+        return claimUris;
+    }
+
+    /**
+     * Sends the notifications of one chunk of recipients.
+     */
+    private static final class ChunkSender implements Callable<Integer> {
+
+        private final BulkNotificationRequest request;
+        private final CompiledNotificationTemplate template;
+        private final Set<String> claimUris;
+        private final String contextTenantDomain;
+        private final List<BulkNotificationRecipient> chunk;
+        private final Semaphore inFlightChunks;
+
+        private ChunkSender(BulkNotificationRequest request, CompiledNotificationTemplate template,
+                            Set<String> claimUris, String contextTenantDomain, List<BulkNotificationRecipient> chunk,
+                            Semaphore inFlightChunks) {
+
+            this.request = request;
+            this.template = template;
+            this.claimUris = claimUris;
+            this.contextTenantDomain = contextTenantDomain;
+            this.chunk = chunk;
+            this.inFlightChunks = inFlightChunks;
+        }
+
+        @Override
+        public Integer call() throws IdentityEventException {
+
+            try {
+                PrivilegedCarbonContext.startTenantFlow();
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(contextTenantDomain, true);
+                List<Event> events = renderChunk();
+                BatchingEventPublisher publisher = BatchingEventPublisher.getInstance();
+                for (Event event : events) {
+                    // Bulk notifications are informational, hence they get the fewest publish attempts.
+                    publisher.publish(event, NotificationPriority.LOW);
+                }
+                return events.size();
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+                inFlightChunks.release();
+            }
+        }
+
+        private List<Event> renderChunk() throws IdentityEventException {
+
+            Map<String, Map<String, Map<String, String>>> claimsByDomain = readClaims();
+            StringBuilder buffer = RENDER_BUFFER.get();
+            List<Event> events = new ArrayList<>(chunk.size());
+            try {
+                for (BulkNotificationRecipient recipient : chunk) {
+                    Map<String, String> userClaims = null;
+                    if (recipient.isUser()) {
+                        userClaims = claimsByDomain.get(recipient.getUserStoreDomain()).get(recipient.getUserName());
+                    }
+                    String sendTo = recipient.getSendTo();
+                    if (StringUtils.isEmpty(sendTo) && userClaims != null) {
+                        sendTo = userClaims.get(NotificationConstants.EmailNotification.CLAIM_URI_EMAIL);
+                    }
+                    if (StringUtils.isEmpty(sendTo)) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Send-to address is not available for recipient: " +
+                                    recipient.getUserName() + ". Skipping the notification.");
+                        }
+                        continue;
+                    }
+                    events.add(buildEvent(recipient, userClaims, sendTo, buffer));
+                }
+            } finally {
+                if (buffer.capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+                    RENDER_BUFFER.remove();
+                }
+            }
+            return events;
+        }
+
+        private Map<String, Map<String, Map<String, String>>> readClaims() throws IdentityEventException {
+
+            Map<String, List<String>> usersByDomain = new HashMap<>();
+            for (BulkNotificationRecipient recipient : chunk) {
+                if (recipient.isUser()) {
+                    List<String> userNames = usersByDomain.get(recipient.getUserStoreDomain());
+                    if (userNames == null) {
+                        userNames = new ArrayList<>();
+                        usersByDomain.put(recipient.getUserStoreDomain(), userNames);
+                    }
+                    userNames.add(recipient.getUserName());
+                }
+            }
+            Map<String, Map<String, Map<String, String>>> claimsByDomain = new HashMap<>();
+            for (Map.Entry<String, List<String>> entry : usersByDomain.entrySet()) {
+                claimsByDomain.put(entry.getKey(), NotificationUtil.getUsersClaimValues(entry.getValue(),
+                        entry.getKey(), request.getTenantDomain(), claimUris));
+            }
+            return claimsByDomain;
+        }
+
+        private Event buildEvent(BulkNotificationRecipient recipient, Map<String, String> userClaims, String sendTo,
+                                 StringBuilder buffer) {
+
+            Map<String, String> dataMap = new HashMap<>(request.getProperties());
+            dataMap.putAll(recipient.getProperties());
+            dataMap.put(IdentityEventConstants.EventProperty.TENANT_DOMAIN, request.getTenantDomain());
+            if (recipient.isUser()) {
+                dataMap.put(IdentityEventConstants.EventProperty.USER_NAME, recipient.getUserName());
+                dataMap.put(IdentityEventConstants.EventProperty.USER_STORE_DOMAIN, recipient.getUserStoreDomain());
+            }
+            NotificationUtil.getPlaceholderValues(template, dataMap, userClaims);
+
+            // The content is rendered before the notification properties are added, as in the event handlers.
+            boolean isSms = NotificationChannels.SMS_CHANNEL.getChannelType().equals(template.getNotificationChannel());
+            String body = render(template.getBody(), dataMap, buffer);
+            String subject = isSms ? null : render(template.getSubject(), dataMap, buffer);
+            String footer = isSms ? null : render(template.getFooter(), dataMap, buffer);
+
+            dataMap.put(NotificationConstants.EmailNotification.ARBITRARY_EVENT_TYPE,
+                    I18nEmailUtil.getNormalizedName(request.getTemplateType()));
+            dataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SEND_FROM, request.getSendFrom());
+            NotificationUtil.addTemplateData(dataMap, template, request.getTenantDomain());
+            dataMap.put(NotificationConstants.EmailNotification.ARBITRARY_LOCALE, template.getLocale());
+            dataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SEND_TO, sendTo);
+            dataMap.put(NotificationConstants.EmailNotification.ARBITRARY_BODY, body);
+            if (!isSms) {
+                dataMap.put(NotificationConstants.EmailNotification.ARBITRARY_CONTENT_TYPE, template.getContentType());
+                dataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SUBJECT, subject);
+                dataMap.put(NotificationConstants.EmailNotification.ARBITRARY_FOOTER, footer);
+            }
+
+            Event event = new Event();
+            event.setTimeStamp(System.currentTimeMillis());
+            event.setStreamId(request.getStreamId());
+            event.setArbitraryDataMap(dataMap);
+            return event;
+        }
+
+        private static String render(CompiledTemplateSection section, Map<String, String> dataMap,
+                                     StringBuilder buffer) {
+
+            if (section == null) {
+                return null;
+            }
+            buffer.setLength(0);
+            try {
+                section.render(dataMap, buffer);
+            } catch (IOException e) {
+                // Appending to a StringBuilder does not throw an IOException.
+                throw new IllegalStateException(e);
+            }
+            return buffer.toString();
+        }
+    }
+
+    /**
+     * Creates the daemon worker threads of the bulk notification sender.
+     */
+    private static final class BulkNotificationThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+
+            Thread thread = new Thread(runnable, "NotificationBulkSender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
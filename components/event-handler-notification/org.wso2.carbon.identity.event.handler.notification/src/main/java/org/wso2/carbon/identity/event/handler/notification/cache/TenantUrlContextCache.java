@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.cache;
+
+import org.wso2.carbon.identity.application.authentication.framework.config.ConfigurationFacade;
+import org.wso2.carbon.identity.core.ServiceURLBuilder;
+import org.wso2.carbon.identity.core.URLBuilderException;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the server and endpoint URLs which are added to the placeholder data of every notification. The URLs only
+ * depend on the deployment configuration and, when tenant qualified URLs are enabled, on the tenant of the flow and
+ * the tenant of the user. Entries of a tenant are evicted when the tenant is updated, deactivated or deleted.
+ */
+public class TenantUrlContextCache {
+
+    private static final TenantUrlContextCache instance = new TenantUrlContextCache();
+
+    private final Map<TenantKey, TenantUrlContext> cache = new ConcurrentHashMap<>();
+    private final int capacity;
+
+    private TenantUrlContextCache() {
+
+        this.capacity = NotificationUtil.getIntProperty(NotificationConstants.URL_CACHE_CAPACITY_PROPERTY,
+                NotificationConstants.DEFAULT_URL_CACHE_CAPACITY);
+    }
+
+    public static TenantUrlContextCache getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Get the URLs for the tenant of the current flow and the given user tenant. The URLs are built on the first
+     * request and reused afterwards.
+     *
+     * @param userTenantDomain Tenant domain of the user the notification is sent to
+     * @return URL context
+     * @throws URLBuilderException If building the server URLs fails
+     */
+    public TenantUrlContext getTenantUrlContext(String userTenantDomain) throws URLBuilderException {
+
+        boolean tenantQualifiedUrlsEnabled = IdentityTenantUtil.isTenantQualifiedUrlsEnabled();
+        TenantKey key = tenantQualifiedUrlsEnabled ?
+                new TenantKey(IdentityTenantUtil.getTenantDomainFromContext(), userTenantDomain) :
+                TenantKey.DEPLOYMENT;
+        TenantUrlContext urlContext = cache.get(key);
+        if (urlContext == null) {
+            urlContext = buildTenantUrlContext(userTenantDomain, tenantQualifiedUrlsEnabled);
+            addToCache(key, urlContext);
+        }
+        return urlContext;
+    }
+
+    /**
+     * Evict the URLs built for the given tenant, either as the tenant of the flow or as the tenant of the user.
+     *
+     * @param tenantDomain Tenant domain
+     */
+    public void clearTenant(String tenantDomain) {
+
+        cache.keySet().removeIf(key -> Objects.equals(key.contextTenantDomain, tenantDomain)
+                || Objects.equals(key.userTenantDomain, tenantDomain));
+    }
+
+    /**
+     * Evict the URLs of all the tenants.
+     */
+    public void clear() {
+
+        cache.clear();
+    }
+
+    private void addToCache(TenantKey key, TenantUrlContext urlContext) {
+
+        if (capacity <= 0) {
+            return;
+        }
+        if (cache.size() >= capacity) {
+            Iterator<TenantKey> iterator = cache.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        cache.put(key, urlContext);
+    }
+
+    private static TenantUrlContext buildTenantUrlContext(String userTenantDomain,
+                                                          boolean tenantQualifiedUrlsEnabled)
+            throws URLBuilderException {
+
+        String accountRecoveryEndpointURL = ConfigurationFacade.getInstance().getAccountRecoveryEndpointPath();
+        String authenticationEndpointURL = ConfigurationFacade.getInstance().getAuthenticationEndpointURL();
+        String serverURL = ServiceURLBuilder.create().build().getAbsolutePublicURL();
+        String carbonUrlWithUserTenant = ServiceURLBuilder.create().build().getAbsolutePublicUrlWithoutPath();
+        if (tenantQualifiedUrlsEnabled) {
+            carbonUrlWithUserTenant = carbonUrlWithUserTenant + "/t" + "/" + userTenantDomain;
+        }
+        return new TenantUrlContext(serverURL, carbonUrlWithUserTenant, accountRecoveryEndpointURL,
+                authenticationEndpointURL);
+    }
+
+    /**
+     * Server and endpoint URLs used in notifications.
+     */
+    public static final class TenantUrlContext {
+
+        private final String serverUrl;
+        private final String serverUrlWithUserTenant;
+        private final String accountRecoveryEndpointUrl;
+        private final String authenticationEndpointUrl;
+
+        private TenantUrlContext(String serverUrl, String serverUrlWithUserTenant,
+                                 String accountRecoveryEndpointUrl, String authenticationEndpointUrl) {
+
+            this.serverUrl = serverUrl;
+            this.serverUrlWithUserTenant = serverUrlWithUserTenant;
+            this.accountRecoveryEndpointUrl = accountRecoveryEndpointUrl;
+            this.authenticationEndpointUrl = authenticationEndpointUrl;
+        }
+
+        public String getServerUrl() {
+
+            return serverUrl;
+        }
+
+        public String getServerUrlWithUserTenant() {
+
+            return serverUrlWithUserTenant;
+        }
+
+        public String getAccountRecoveryEndpointUrl() {
+
+            return accountRecoveryEndpointUrl;
+        }
+
+        public String getAuthenticationEndpointUrl() {
+
+            return authenticationEndpointUrl;
+        }
+    }
+
+    /**
+     * Cache key of the URLs, made of the tenant of the flow and the tenant of the user.
+     */
+    private static final class TenantKey {
+
+        // All the URLs are the same for all the tenants when tenant qualified URLs are disabled.
+        private static final TenantKey DEPLOYMENT = new TenantKey(null, null);
+
+        private final String contextTenantDomain;
+        private final String userTenantDomain;
+
+        private TenantKey(String contextTenantDomain, String userTenantDomain) {
+
+            this.contextTenantDomain = contextTenantDomain;
+            this.userTenantDomain = userTenantDomain;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TenantKey)) {
+                return false;
+            }
+            TenantKey that = (TenantKey) o;
+            return Objects.equals(contextTenantDomain, that.contextTenantDomain)
+                    && Objects.equals(userTenantDomain, that.userTenantDomain);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(contextTenantDomain, userTenantDomain);
+        }
+    }
+}
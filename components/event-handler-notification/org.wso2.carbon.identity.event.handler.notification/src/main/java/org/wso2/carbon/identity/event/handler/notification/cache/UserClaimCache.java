@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, time limited cache of the user claims read to render notifications, keyed by tenant id, user store
+ * domain and username. Only the claims which were requested for a user are cached, along with the URIs of the
+ * requested claims so that claims without a value are not read again. Entries are evicted when the claims of the user
+ * are updated or the user is deleted.
+ *
+ * Each user maps to a generation which is incremented whenever the user is evicted, and claims are only cached if
+ * the generation of the user did not change while they were read, so that claims read before an update are not
+ * cached after the eviction of the update. Users share a fixed number of generations, hence an eviction can also
+ * keep the claims of another user from being cached once.
+ *
+ * The cache is disabled unless it is enabled in identity.xml. Entries are only evicted on the node on which the claims
+ * were updated, hence the other nodes of a cluster can use the previous claims until the entry expires.
+ */
+public class UserClaimCache {
+
+    private static final Log log = LogFactory.getLog(UserClaimCache.class);
+
+    private static final UserClaimCache instance = new UserClaimCache();
+
+    // Number of generations shared by the users, which must be a power of two.
+    private static final int GENERATION_COUNT = 256;
+
+    private final Map<UserKey, CachedClaims> cache = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_COUNT);
+    private final boolean enabled;
+    private final int capacity;
+    private final long timeoutNanos;
+
+    private UserClaimCache() {
+
+        this(NotificationUtil.getBooleanProperty(NotificationConstants.USER_CLAIM_CACHE_ENABLE_PROPERTY, false),
+                NotificationUtil.getIntProperty(NotificationConstants.USER_CLAIM_CACHE_CAPACITY_PROPERTY,
+                        NotificationConstants.DEFAULT_USER_CLAIM_CACHE_CAPACITY),
+                NotificationUtil.getIntProperty(NotificationConstants.USER_CLAIM_CACHE_TIMEOUT_PROPERTY,
+                        NotificationConstants.DEFAULT_USER_CLAIM_CACHE_TIMEOUT_SECONDS));
+    }
+
+    UserClaimCache(boolean enabled, int capacity, int timeout) {
+
+        this.capacity = capacity;
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeout);
+        this.enabled = enabled && capacity > 0 && timeout > 0;
+    }
+
+    public static UserClaimCache getInstance() {
+
+        return instance;
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Get the cached values of the given claims of the user. The lookup is counted as a hit only if all the given
+     * claims were read for the user before.
+     *
+     * @param tenantId   Tenant id of the user
+     * @param domainName User store domain of the user
+     * @param userName   Username
+     * @param claimUris  URIs of the requested claims
+     * @return Cached claims of the user, or null if none of the claims of the user are cached
+     */
+    public CachedClaims getValueFromCache(int tenantId, String domainName, String userName,
+                                          Collection<String> claimUris) {
+
+        if (!enabled) {
+            return null;
+        }
+        UserKey key = new UserKey(tenantId, domainName, userName);
+        CachedClaims cachedClaims = cache.get(key);
+        if (cachedClaims != null && cachedClaims.isExpired()) {
+            cache.remove(key, cachedClaims);
+            cachedClaims = null;
+        }
+        if (cachedClaims != null && cachedClaims.claimUris.containsAll(claimUris)) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return cachedClaims;
+    }
+
+    /**
+     * Get the generation of the user, which must be taken before the claims of the user are read from the user store
+     * and passed to {@link #addToCache(int, String, String, Collection, Map, long)}.
+     *
+     * @param tenantId   Tenant id of the user
+     * @param domainName User store domain of the user
+     * @param userName   Username
+     * @return Generation of the user
+     */
+    public long getGeneration(int tenantId, String domainName, String userName) {
+
+        return generations.get(getGenerationIndex(new UserKey(tenantId, domainName, userName)));
+    }
+
+    /**
+     * Add the claims read from the user store to the cache. The claims are merged with the claims already cached for
+     * the user, while the expiry time of the cached entry is retained. The claims are not cached if the user was
+     * evicted since the given generation was taken, as they can be older than the update which evicted the user.
+     *
+     * @param tenantId       Tenant id of the user
+     * @param domainName     User store domain of the user
+     * @param userName       Username
+     * @param claimUris      URIs of the claims which were read
+     * @param claims         Claim values which were read
+     * @param readGeneration Generation of the user taken before the claims were read
+     */
+    public void addToCache(int tenantId, String domainName, String userName, Collection<String> claimUris,
+                           Map<String, String> claims, long readGeneration) {
+
+        if (!enabled) {
+            return;
+        }
+        UserKey key = new UserKey(tenantId, domainName, userName);
+        int generationIndex = getGenerationIndex(key);
+        if (generations.get(generationIndex) != readGeneration) {
+            return;
+        }
+        CachedClaims existing = cache.get(key);
+        CachedClaims updated;
+        if (existing == null || existing.isExpired()) {
+            ensureCapacity();
+            updated = new CachedClaims(claimUris, claims, System.nanoTime() + timeoutNanos);
+        } else {
+            updated = existing.merge(claimUris, claims);
+        }
+        cache.put(key, updated);
+        // The user can be evicted between the check and the put, in which case the claims are removed again.
+        if (generations.get(generationIndex) != readGeneration) {
+            cache.remove(key, updated);
+        }
+    }
+
+    /**
+     * Evict the cached claims of the user.
+     *
+     * @param tenantId   Tenant id of the user
+     * @param domainName User store domain of the user
+     * @param userName   Username
+     */
+    public void clearCacheEntry(int tenantId, String domainName, String userName) {
+
+        if (!enabled) {
+            return;
+        }
+        UserKey key = new UserKey(tenantId, domainName, userName);
+        generations.incrementAndGet(getGenerationIndex(key));
+        cache.remove(key);
+        if (log.isDebugEnabled()) {
+            log.debug("Evicted cached claims of user: " + userName + " of user store: " + domainName
+                    + " in tenant: " + tenantId);
+        }
+    }
+
+    /**
+     * Evict the cached claims of all the users of the tenant.
+     *
+     * @param tenantId Tenant id
+     */
+    public void clearTenant(int tenantId) {
+
+        for (int i = 0; i < GENERATION_COUNT; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.keySet().removeIf(key -> key.tenantId == tenantId);
+    }
+
+    public long getHitCount() {
+
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+
+        return missCount.get();
+    }
+
+    public int getSize() {
+
+        return cache.size();
+    }
+
+    private static int getGenerationIndex(UserKey key) {
+
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_COUNT - 1);
+    }
+
+    private void ensureCapacity() {
+
+        if (cache.size() < capacity) {
+            return;
+        }
+        cache.values().removeIf(CachedClaims::isExpired);
+        Iterator<UserKey> iterator = cache.keySet().iterator();
+        while (cache.size() >= capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Claims cached for a user.
+     */
+    public static final class CachedClaims {
+
+        private final Set<String> claimUris;
+        private final Map<String, String> claims;
+        private final long expiryTime;
+
+        private CachedClaims(Collection<String> claimUris, Map<String, String> claims, long expiryTime) {
+
+            this.claimUris = Collections.unmodifiableSet(new HashSet<>(claimUris));
+            this.claims = Collections.unmodifiableMap(new HashMap<>(claims));
+            this.expiryTime = expiryTime;
+        }
+
+        private CachedClaims merge(Collection<String> newClaimUris, Map<String, String> newClaims) {
+
+            Set<String> mergedClaimUris = new HashSet<>(claimUris);
+            mergedClaimUris.addAll(newClaimUris);
+            Map<String, String> mergedClaims = new HashMap<>(claims);
+            mergedClaims.putAll(newClaims);
+            return new CachedClaims(mergedClaimUris, mergedClaims, expiryTime);
+        }
+
+        private boolean isExpired() {
+
+            return System.nanoTime() - expiryTime >= 0;
+        }
+
+        /**
+         * Get the URIs of the claims which were read for the user, including the claims without a value.
+         *
+         * @return Unmodifiable set of claim URIs
+         */
+        public Set<String> getClaimUris() {
+
+            return claimUris;
+        }
+
+        /**
+         * Get the claim values of the user.
+         *
+         * @return Unmodifiable map of claim URIs and claim values
+         */
+        public Map<String, String> getClaims() {
+
+            return claims;
+        }
+    }
+
+    /**
+     * Cache key of a user. User store domains are case insensitive, hence compared in upper case.
+     */
+    private static final class UserKey {
+
+        private final int tenantId;
+        private final String domainName;
+        private final String userName;
+
+        private UserKey(int tenantId, String domainName, String userName) {
+
+            this.tenantId = tenantId;
+            this.domainName = domainName != null ? domainName.toUpperCase(Locale.ENGLISH) : null;
+            this.userName = userName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UserKey)) {
+                return false;
+            }
+            UserKey that = (UserKey) o;
+            return tenantId == that.tenantId && Objects.equals(domainName, that.domainName)
+                    && Objects.equals(userName, that.userName);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(tenantId, domainName, userName);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.internal.NotificationHandlerDataHolder;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+import org.wso2.carbon.user.api.UserRealm;
+import org.wso2.carbon.user.api.UserStoreException;
+import org.wso2.carbon.user.api.UserStoreManager;
+import org.wso2.carbon.user.core.service.RealmService;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the user store managers resolved by tenant domain and user store domain, so that notification threads do
+ * not look up the tenant and its user realm for each event.
+ * <p>
+ * Entries of a tenant are evicted when the tenant is updated, deactivated or deleted. An entry is also discarded when
+ * the user realm of the tenant has been reloaded, which is detected by comparing the realm the entry was resolved from
+ * with the realm currently held by the realm service. Secondary user store managers which are added, updated or
+ * deleted within the same realm are only picked up once the entry expires, as there is no notification of those
+ * changes to this bundle.
+ */
+public class UserStoreManagerCache {
+
+    private static final Log log = LogFactory.getLog(UserStoreManagerCache.class);
+
+    private static final UserStoreManagerCache instance = new UserStoreManagerCache();
+
+    private final Map<UserStoreKey, ResolvedUserStoreManager> cache = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+
+    private UserStoreManagerCache() {
+
+        int timeout = NotificationUtil.getIntProperty(NotificationConstants.USER_STORE_MANAGER_CACHE_TIMEOUT_PROPERTY,
+                NotificationConstants.DEFAULT_USER_STORE_MANAGER_CACHE_TIMEOUT_SECONDS);
+        this.timeoutNanos = TimeUnit.SECONDS.toNanos(timeout > 0 ? timeout :
+                NotificationConstants.DEFAULT_USER_STORE_MANAGER_CACHE_TIMEOUT_SECONDS);
+    }
+
+    public static UserStoreManagerCache getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Get the resolved user store manager of the given user store domain of the tenant.
+     *
+     * @param tenantDomain Tenant domain
+     * @param domainName   User store domain
+     * @return Resolved user store manager, or null if it is not cached or is no longer valid
+     */
+    public ResolvedUserStoreManager getValueFromCache(String tenantDomain, String domainName) {
+
+        UserStoreKey key = new UserStoreKey(tenantDomain, domainName);
+        ResolvedUserStoreManager resolved = cache.get(key);
+        if (resolved != null && !resolved.isValid()) {
+            if (log.isDebugEnabled()) {
+                log.debug("User store manager of domain: " + domainName + " of tenant: " + tenantDomain
+                        + " has expired or the user realm of the tenant has been reloaded. Evicting the cached user "
+                        + "store manager.");
+            }
+            cache.remove(key, resolved);
+            return null;
+        }
+        return resolved;
+    }
+
+    /**
+     * Add a resolved user store manager to the cache.
+     *
+     * @param tenantDomain             Tenant domain
+     * @param domainName               User store domain
+     * @param tenantId                 Tenant id
+     * @param userRealm                User realm of the tenant the user store manager was resolved from
+     * @param resolvedUserStoreManager User store manager of the user store domain
+     */
+    public void addToCache(String tenantDomain, String domainName, int tenantId, UserRealm userRealm,
+                           UserStoreManager resolvedUserStoreManager) {
+
+        if (resolvedUserStoreManager == null) {
+            return;
+        }
+        cache.put(new UserStoreKey(tenantDomain, domainName), new ResolvedUserStoreManager(tenantId, userRealm,
+                resolvedUserStoreManager, System.nanoTime() + timeoutNanos));
+    }
+
+    /**
+     * Evict the user store managers of all the user store domains of the tenant.
+     *
+     * @param tenantId Tenant id
+     */
+    public void clearTenant(int tenantId) {
+
+        cache.values().removeIf(resolved -> resolved.tenantId == tenantId);
+    }
+
+    /**
+     * User store manager resolved for a user store domain of a tenant.
+     */
+    public static final class ResolvedUserStoreManager {
+
+        private final int tenantId;
+        private final UserRealm userRealm;
+        private final UserStoreManager userStoreManager;
+        private final long expiryTime;
+
+        private ResolvedUserStoreManager(int tenantId, UserRealm userRealm, UserStoreManager userStoreManager,
+                                         long expiryTime) {
+
+            this.tenantId = tenantId;
+            this.userRealm = userRealm;
+            this.userStoreManager = userStoreManager;
+            this.expiryTime = expiryTime;
+        }
+
+        private boolean isValid() {
+
+            if (System.nanoTime() - expiryTime >= 0) {
+                return false;
+            }
+            // The realm service returns the realm it holds for the tenant, hence this is a reference comparison and
+            // does not walk the user store chain of the realm.
+            RealmService realmService = NotificationHandlerDataHolder.getInstance().getRealmService();
+            if (realmService == null) {
+                return false;
+            }
+            try {
+                return realmService.getTenantUserRealm(tenantId) == userRealm;
+            } catch (UserStoreException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Error while reading the user realm of tenant: " + tenantId, e);
+                }
+                return false;
+            }
+        }
+
+        public int getTenantId() {
+
+            return tenantId;
+        }
+
+        public UserStoreManager getUserStoreManager() {
+
+            return userStoreManager;
+        }
+    }
+
+    /**
+     * Cache key of a user store domain of a tenant. User store domains are case insensitive, hence compared in upper
+     * case.
+     */
+    private static final class UserStoreKey {
+
+        private final String tenantDomain;
+        private final String domainName;
+
+        private UserStoreKey(String tenantDomain, String domainName) {
+
+            this.tenantDomain = tenantDomain;
+            this.domainName = domainName != null ? domainName.toUpperCase(Locale.ENGLISH) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UserStoreKey)) {
+                return false;
+            }
+            UserStoreKey that = (UserStoreKey) o;
+            return Objects.equals(tenantDomain, that.tenantDomain) && Objects.equals(domainName, that.domainName);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(tenantDomain, domainName);
+        }
+    }
+}
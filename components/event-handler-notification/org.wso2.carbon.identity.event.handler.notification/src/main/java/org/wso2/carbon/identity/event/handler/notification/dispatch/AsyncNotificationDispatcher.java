@@ -0,0 +1,834 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.IdentityEventException;
+import org.wso2.carbon.identity.event.event.Event;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends the notifications of a handler on a dedicated worker pool, so that the thread which raised the event does not
+ * wait for the claims, the template, the rendering and the publishing of the notification.
+ * <p>
+ * Events are queued in a bounded lane per {@link NotificationPriority} class, and the configured
+ * {@link RejectionPolicy} is applied when the lane of an event is full. Workers always take the next event from the
+ * highest priority lane which has events, hence queued events of a higher class are sent before the queued events of
+ * the lower classes. Workers can be reserved for a class, in which case they only send events of that class and the
+ * higher classes, so that a backlog of lower priority events never occupies the whole pool.
+ * <p>
+ * The dispatcher is configured through the module properties of the handler in identity-event.properties:
+ * <pre>
+ * &lt;handler&gt;.async.enable=true
+ * &lt;handler&gt;.async.poolSize=4
+ * &lt;handler&gt;.async.queueSize=1000
+ * &lt;handler&gt;.async.rejectionPolicy=CALLER_RUNS
+ * &lt;handler&gt;.async.drainTimeout=30
+ * &lt;handler&gt;.async.callerRunsMaxWait=1000
+ * &lt;handler&gt;.async.tenantShare=50
+ * &lt;handler&gt;.async.high.queueSize=1000
+ * &lt;handler&gt;.async.high.reservedWorkers=1
+ * </pre>
+ * The priority class of an event is resolved from its template type. See {@link PriorityMapping}.
+ * <p>
+ * Within a lane, the events of each tenant are queued separately and the tenants with queued events are served in a
+ * weighted round robin, so that a backlog of one tenant does not delay the notifications of the other tenants. Events
+ * over the rate of their tenant are queued with a delay and are only taken once the delay has passed. See
+ * {@link TenantRateLimiter}. A tenant can hold at most the configured share, as a percentage, of the queue of a lane,
+ * and the events of a tenant over its share are rejected without affecting the other tenants. The delayed events of a
+ * tenant are bounded by the same share. With the {@link RejectionPolicy#CALLER_RUNS} policy, the caller waits up to
+ * the configured time, in milliseconds, for the rate of the tenant before the event is dropped.
+ */
+public class AsyncNotificationDispatcher {
+
+    private static final Log log = LogFactory.getLog(AsyncNotificationDispatcher.class);
+
+    public static final String ENABLE_PROPERTY = "async.enable";
+    public static final String POOL_SIZE_PROPERTY = "async.poolSize";
+    public static final String QUEUE_SIZE_PROPERTY = "async.queueSize";
+    public static final String REJECTION_POLICY_PROPERTY = "async.rejectionPolicy";
+    public static final String DRAIN_TIMEOUT_PROPERTY = "async.drainTimeout";
+    public static final String TENANT_SHARE_PROPERTY = "async.tenantShare";
+    public static final String CALLER_RUNS_MAX_WAIT_PROPERTY = "async.callerRunsMaxWait";
+    public static final String LANE_QUEUE_SIZE_PROPERTY = "queueSize";
+    public static final String LANE_RESERVED_WORKERS_PROPERTY = "reservedWorkers";
+
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+    private static final int DEFAULT_DRAIN_TIMEOUT_SECONDS = 30;
+    private static final int DEFAULT_TENANT_SHARE_PERCENTAGE = 50;
+    private static final int DEFAULT_HIGH_PRIORITY_RESERVED_WORKERS = 1;
+    private static final int DEFAULT_CALLER_RUNS_MAX_WAIT_MILLIS = 1000;
+    // Dropped events are logged at most once in this interval.
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final NotificationPriority[] PRIORITIES = NotificationPriority.values();
+
+    private final String handlerName;
+    private final RejectionPolicy rejectionPolicy;
+    private final long drainTimeoutSeconds;
+    private final long callerRunsMaxWaitMillis;
+    private final Lane[] lanes;
+    private final TenantRateLimiter rateLimiter;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final AtomicLong droppedSinceWarning = new AtomicLong();
+    private final AtomicLong lastDropWarningTime = new AtomicLong(System.nanoTime() - DROP_WARNING_INTERVAL_NANOS);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Workers wait on the condition of the lowest priority class they send.
+    private final Condition[] workAvailable;
+    private boolean shutdown;
+
+    private AsyncNotificationDispatcher(String handlerName, int poolSize, int[] queueSizes, int[] reservedWorkers,
+                                        int tenantSharePercentage, RejectionPolicy rejectionPolicy,
+                                        long drainTimeoutSeconds, long callerRunsMaxWaitMillis,
+                                        TenantRateLimiter rateLimiter) {
+
+        this.handlerName = handlerName;
+        this.rateLimiter = rateLimiter;
+        this.rejectionPolicy = rejectionPolicy;
+        this.drainTimeoutSeconds = drainTimeoutSeconds;
+        this.callerRunsMaxWaitMillis = callerRunsMaxWaitMillis;
+        this.lanes = new Lane[PRIORITIES.length];
+        this.workAvailable = new Condition[PRIORITIES.length];
+        for (NotificationPriority priority : PRIORITIES) {
+            int queueSize = queueSizes[priority.ordinal()];
+            lanes[priority.ordinal()] = new Lane(queueSize,
+                    (int) Math.max(1, (long) queueSize * tenantSharePercentage / 100));
+            workAvailable[priority.ordinal()] = lock.newCondition();
+        }
+        int lowest = PRIORITIES.length - 1;
+        int reserved = 0;
+        for (NotificationPriority priority : PRIORITIES) {
+            for (int i = 0; i < reservedWorkers[priority.ordinal()]; i++) {
+                startWorker(priority.ordinal(), priority.name().toLowerCase(Locale.ENGLISH) + "-" + (i + 1));
+                reserved++;
+            }
+        }
+        // Remaining workers send events of all the classes.
+        for (int i = 0; i < poolSize - reserved; i++) {
+            startWorker(lowest, String.valueOf(i + 1));
+        }
+    }
+
+    /**
+     * Create a dispatcher from the module properties of a handler.
+     *
+     * @param handlerName      Name of the handler
+     * @param moduleProperties Module properties of the handler
+     * @return Dispatcher, or null if asynchronous dispatch is not enabled for the handler
+     */
+    public static AsyncNotificationDispatcher fromProperties(String handlerName, Properties moduleProperties) {
+
+        if (moduleProperties == null || !Boolean.parseBoolean(getProperty(moduleProperties, handlerName,
+                ENABLE_PROPERTY))) {
+            return null;
+        }
+        int poolSize = getIntProperty(moduleProperties, handlerName, POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE);
+        int queueSize = getIntProperty(moduleProperties, handlerName, QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE);
+        int drainTimeout = getIntProperty(moduleProperties, handlerName, DRAIN_TIMEOUT_PROPERTY,
+                DEFAULT_DRAIN_TIMEOUT_SECONDS);
+        int tenantShare = getIntProperty(moduleProperties, handlerName, TENANT_SHARE_PROPERTY,
+                DEFAULT_TENANT_SHARE_PERCENTAGE);
+        int callerRunsMaxWait = getIntProperty(moduleProperties, handlerName, CALLER_RUNS_MAX_WAIT_PROPERTY,
+                DEFAULT_CALLER_RUNS_MAX_WAIT_MILLIS);
+        RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+        String policy = getProperty(moduleProperties, handlerName, REJECTION_POLICY_PROPERTY);
+        if (StringUtils.isNotBlank(policy)) {
+            try {
+                rejectionPolicy = RejectionPolicy.valueOf(policy.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid rejection policy: " + policy + " configured for handler: " + handlerName +
+                        ". Using " + rejectionPolicy + ".");
+            }
+        }
+        poolSize = poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE;
+        queueSize = queueSize > 0 ? queueSize : DEFAULT_QUEUE_SIZE;
+        if (tenantShare <= 0 || tenantShare > 100) {
+            log.warn("Invalid tenant share: " + tenantShare + " configured for handler: " + handlerName +
+                    ". Using " + DEFAULT_TENANT_SHARE_PERCENTAGE + ".");
+            tenantShare = DEFAULT_TENANT_SHARE_PERCENTAGE;
+        }
+
+        int[] queueSizes = new int[PRIORITIES.length];
+        int[] reservedWorkers = new int[PRIORITIES.length];
+        // At least one worker is left to send the events of the lowest class.
+        int available = poolSize - 1;
+        for (NotificationPriority priority : PRIORITIES) {
+            String lanePrefix = "async." + priority.name().toLowerCase(Locale.ENGLISH) + ".";
+            int laneQueueSize = getIntProperty(moduleProperties, handlerName,
+                    lanePrefix + LANE_QUEUE_SIZE_PROPERTY, queueSize);
+            queueSizes[priority.ordinal()] = laneQueueSize > 0 ? laneQueueSize : queueSize;
+            if (priority.ordinal() == PRIORITIES.length - 1) {
+                // Workers which are not reserved send the events of the lowest class.
+                break;
+            }
+            int defaultReserved = priority == NotificationPriority.HIGH ? DEFAULT_HIGH_PRIORITY_RESERVED_WORKERS : 0;
+            int reserved = Math.max(getIntProperty(moduleProperties, handlerName,
+                    lanePrefix + LANE_RESERVED_WORKERS_PROPERTY, defaultReserved), 0);
+            if (reserved > available) {
+                log.warn("Only " + available + " of the " + reserved + " workers configured for the " + priority +
+                        " priority notifications of handler: " + handlerName + " can be reserved.");
+                reserved = available;
+            }
+            reservedWorkers[priority.ordinal()] = reserved;
+            available -= reserved;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Asynchronous dispatch enabled for handler: " + handlerName + " with " + poolSize +
+                    " workers, queue size: " + queueSize + " and rejection policy: " + rejectionPolicy);
+        }
+        return new AsyncNotificationDispatcher(handlerName, poolSize, queueSizes, reservedWorkers, tenantShare,
+                rejectionPolicy, Math.max(drainTimeout, 0), Math.max(callerRunsMaxWait, 0),
+                TenantRateLimiter.fromProperties(handlerName, moduleProperties));
+    }
+
+    /**
+     * Queue the event to be sent by a worker. The event properties and the thread local context of the caller are
+     * copied, since the caller can change them once the event is handled. Events over the rate of their tenant are
+     * queued with a delay, and are dropped if the tenant already has the hard cap of delayed notifications. The
+     * rejection policy is applied if the lane is full or the tenant of the event holds its share of the lane.
+     *
+     * @param event    Event
+     * @param priority Priority class of the event
+     * @param sender   Sends the notification of the event
+     * @throws IdentityEventException If the event is rejected with the {@link RejectionPolicy#ABORT} policy, or if
+     *                                the notification fails when sent on the caller's thread
+     */
+    public void dispatch(Event event, NotificationPriority priority, NotificationSender sender)
+            throws IdentityEventException {
+
+        Event snapshot = new Event(event.getEventName(), new HashMap<>(event.getEventProperties()));
+        DispatchTask task = new DispatchTask(snapshot, priority, sender);
+        String tenantKey = task.tenantKey;
+        Lane lane = lanes[priority.ordinal()];
+        // The token of the tenant is taken before locking, so that the callers do not wait on each other while taking
+        // their tokens, and is returned if the event is not queued.
+        long delay = rateLimiter.acquire(tenantKey, lane.tenantCapacity);
+        if (delay == TenantRateLimiter.REJECTED) {
+            drop(lane, task, "the tenant is over the hard cap of delayed notifications");
+            return;
+        }
+        DispatchTask discarded = null;
+        lock.lock();
+        try {
+            if (shutdown) {
+                // Events raised while the bundle is stopping are sent on the caller's thread.
+                task = null;
+            } else {
+                boolean tenantFull = lane.getQueuedCount(tenantKey) >= lane.tenantCapacity;
+                if (!tenantFull && lane.size < lane.capacity) {
+                    queue(lane, task, delay);
+                    return;
+                } else if (rejectionPolicy == RejectionPolicy.DISCARD_OLDEST) {
+                    // A tenant over its share only discards its own events.
+                    discarded = tenantFull ? lane.pollOldest(tenantKey) : lane.pollOldest();
+                    queue(lane, task, delay);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (rejectionPolicy != RejectionPolicy.DISCARD_OLDEST || task == null) {
+            rateLimiter.release(tenantKey, delay);
+        }
+        if (task == null) {
+            sender.send(snapshot);
+            return;
+        }
+        lane.rejectedCount.incrementAndGet();
+        reject(task, discarded);
+    }
+
+    /**
+     * Queue the task in the lane with the delay of the tenant's rate. Must be invoked holding the lock.
+     *
+     * @param lane  Lane of the priority class of the task
+     * @param task  Task
+     * @param delay Nanoseconds the task has to be delayed to keep the tenant within its rate
+     */
+    private void queue(Lane lane, DispatchTask task, long delay) {
+
+        task.notBefore = System.nanoTime() + delay;
+        lane.add(task, rateLimiter.getWeight(task.tenantKey));
+        signalWorker(task.priority.ordinal());
+    }
+
+    /**
+     * Drop an event of a tenant over its rate. The dropped events are counted, and are logged at most once in
+     * {@link #DROP_WARNING_INTERVAL_NANOS}.
+     *
+     * @param lane   Lane of the priority class of the event
+     * @param task   Dropped task
+     * @param reason Reason the event is dropped
+     */
+    private void drop(Lane lane, DispatchTask task, String reason) {
+
+        lane.droppedCount.incrementAndGet();
+        droppedSinceWarning.incrementAndGet();
+        long now = System.nanoTime();
+        long lastWarningTime = lastDropWarningTime.get();
+        if (now - lastWarningTime >= DROP_WARNING_INTERVAL_NANOS &&
+                lastDropWarningTime.compareAndSet(lastWarningTime, now)) {
+            log.warn("Dropped " + droppedSinceWarning.getAndSet(0) + " notifications of handler: " + handlerName +
+                    " since the last warning. Dropped event: " + task.event.getEventName() + " of tenant: " +
+                    task.tenantKey + " as " + reason + ".");
+        } else if (log.isDebugEnabled()) {
+            log.debug("Dropping event: " + task.event.getEventName() + " of tenant: " + task.tenantKey + " of " +
+                    "handler: " + handlerName + " as " + reason + ".");
+        }
+    }
+
+    /**
+     * Stop accepting events and wait up to the drain timeout for the queued events to be sent.
+     */
+    public void shutdown() {
+
+        lock.lock();
+        try {
+            shutdown = true;
+            for (Condition condition : workAvailable) {
+                condition.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+        try {
+            for (Thread worker : workers) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining > 0) {
+                    worker.join(remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int pending = 0;
+        lock.lock();
+        try {
+            for (Lane lane : lanes) {
+                pending += lane.size;
+                lane.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        if (pending > 0) {
+            log.warn(pending + " queued notifications of handler: " + handlerName +
+                    " were not sent within the drain timeout of " + drainTimeoutSeconds + " seconds.");
+        }
+    }
+
+    /**
+     * Get the number of events waiting to be sent, in all the priority classes.
+     *
+     * @return Number of queued events
+     */
+    public int getQueueSize() {
+
+        int size = 0;
+        for (NotificationPriority priority : PRIORITIES) {
+            size += getQueueSize(priority);
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of events of a priority class waiting to be sent.
+     *
+     * @param priority Priority class
+     * @return Number of queued events of the class
+     */
+    public int getQueueSize(NotificationPriority priority) {
+
+        lock.lock();
+        try {
+            return lanes[priority.ordinal()].size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the average time the events of a priority class waited in the queue before a worker took them.
+     *
+     * @param priority Priority class
+     * @return Average wait time in milliseconds
+     */
+    public double getAverageWaitTimeMillis(NotificationPriority priority) {
+
+        Lane lane = lanes[priority.ordinal()];
+        long dequeued = lane.dequeuedCount.get();
+        return dequeued == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros(lane.totalWaitNanos.get()) / dequeued /
+                1000;
+    }
+
+    /**
+     * Get the longest time an event of a priority class waited in the queue before a worker took it.
+     *
+     * @param priority Priority class
+     * @return Maximum wait time in milliseconds
+     */
+    public long getMaxWaitTimeMillis(NotificationPriority priority) {
+
+        return TimeUnit.NANOSECONDS.toMillis(lanes[priority.ordinal()].maxWaitNanos.get());
+    }
+
+    /**
+     * Get the number of events of a priority class which were rejected because the queue of the class was full.
+     *
+     * @param priority Priority class
+     * @return Number of rejected events of the class
+     */
+    public long getRejectedCount(NotificationPriority priority) {
+
+        return lanes[priority.ordinal()].rejectedCount.get();
+    }
+
+    /**
+     * Get the number of events of a priority class which were dropped because their tenant was over its rate, either
+     * with the hard cap of delayed notifications or after the caller waited the maximum time for the rate.
+     *
+     * @param priority Priority class
+     * @return Number of dropped events of the class
+     */
+    public long getDroppedCount(NotificationPriority priority) {
+
+        return lanes[priority.ordinal()].droppedCount.get();
+    }
+
+    public int getActiveCount() {
+
+        return activeCount.get();
+    }
+
+    /**
+     * Get the per tenant rate limits of the dispatcher, which expose the delayed and dropped notifications of each
+     * tenant.
+     *
+     * @return Tenant rate limiter
+     */
+    public TenantRateLimiter getRateLimiter() {
+
+        return rateLimiter;
+    }
+
+    private void startWorker(int level, String suffix) {
+
+        Thread worker = new Thread(() -> work(level), handlerName + "-async-" + suffix);
+        worker.setDaemon(true);
+        workers.add(worker);
+        worker.start();
+    }
+
+    private void work(int level) {
+
+        while (true) {
+            DispatchTask task;
+            lock.lock();
+            try {
+                task = poll(level);
+                while (task == null) {
+                    if (shutdown) {
+                        return;
+                    }
+                    long waitNanos = getWaitTime(level);
+                    if (waitNanos == Long.MAX_VALUE) {
+                        workAvailable[level].await();
+                    } else {
+                        // Delayed events are queued, hence wake up once the earliest of them can be sent.
+                        workAvailable[level].awaitNanos(waitNanos);
+                    }
+                    task = poll(level);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            activeCount.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Take the next event of the highest priority class which the worker sends. Must be invoked holding the lock.
+     *
+     * @param level Ordinal of the lowest priority class which the worker sends
+     * @return Next event, or null if there are no queued events for the worker
+     */
+    private DispatchTask poll(int level) {
+
+        long now = System.nanoTime();
+        for (int i = 0; i <= level; i++) {
+            // Delayed events are sent without waiting once the dispatcher is shutting down.
+            DispatchTask task = lanes[i].poll(now, shutdown);
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the time until the earliest delayed event which the worker sends can be sent. Must be invoked holding the
+     * lock, right after {@link #poll(int)} found no events.
+     *
+     * @param level Ordinal of the lowest priority class which the worker sends
+     * @return Wait time in nanoseconds, or {@link Long#MAX_VALUE} if there are no queued events for the worker
+     */
+    private long getWaitTime(int level) {
+
+        long now = System.nanoTime();
+        long waitNanos = Long.MAX_VALUE;
+        for (int i = 0; i <= level; i++) {
+            if (lanes[i].size > 0) {
+                waitNanos = Math.min(waitNanos, Math.max(lanes[i].nextEligibleTime - now, 1));
+            }
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Wake up a waiting worker which sends events of the given class, preferring the workers reserved for the
+     * higher classes. Must be invoked holding the lock.
+     *
+     * @param priority Ordinal of the priority class of the queued event
+     */
+    private void signalWorker(int priority) {
+
+        for (int level = priority; level < workAvailable.length; level++) {
+            if (lock.hasWaiters(workAvailable[level])) {
+                workAvailable[level].signal();
+                return;
+            }
+        }
+    }
+
+    private void reject(DispatchTask task, DispatchTask discarded) throws IdentityEventException {
+
+        switch (rejectionPolicy) {
+            case ABORT:
+                throw new IdentityEventException("Notification queue of handler: " + handlerName + " is full. " +
+                        "Event: " + task.event.getEventName() + " is rejected.");
+            case DISCARD:
+                log.warn("Notification queue of handler: " + handlerName + " is full. Discarding event: " +
+                        task.event.getEventName());
+                return;
+            case DISCARD_OLDEST:
+                if (discarded != null) {
+                    log.warn("Notification queue of handler: " + handlerName + " is full. Discarding event: " +
+                            discarded.event.getEventName());
+                }
+                return;
+            case CALLER_RUNS:
+            default:
+                // The caller only sends the event once the tenant is within its rate, so that a tenant over its
+                // share does not bypass the rate limit. The caller waits up to the configured time for the rate.
+                long delay = rateLimiter.acquire(task.tenantKey, callerRunsMaxWaitMillis, TimeUnit.MILLISECONDS);
+                if (delay == TenantRateLimiter.REJECTED) {
+                    drop(lanes[task.priority.ordinal()], task, "the queue is full and the tenant is over its rate " +
+                            "for more than " + callerRunsMaxWaitMillis + " milliseconds");
+                    return;
+                }
+                if (delay > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(delay);
+                    } catch (InterruptedException e) {
+                        // The token is already taken, hence the event is still sent.
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                task.sender.send(task.event);
+        }
+    }
+
+    private static String getProperty(Properties moduleProperties, String handlerName, String property) {
+
+        return moduleProperties.getProperty(handlerName + "." + property);
+    }
+
+    private static int getIntProperty(Properties moduleProperties, String handlerName, String property,
+                                      int defaultValue) {
+
+        String value = getProperty(moduleProperties, handlerName, property);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value: " + value + " configured for property: " + handlerName + "." + property +
+                    ". Using the default value: " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Sends the notification of an event.
+     */
+    public interface NotificationSender {
+
+        void send(Event event) throws IdentityEventException;
+    }
+
+    /**
+     * Bounded queue of the events of a priority class, along with the wait time statistics of the class. The events
+     * of each tenant are queued separately, and the tenants are served in a weighted round robin.
+     */
+    private static final class Lane {
+
+        private final int capacity;
+        // Maximum number of events of a single tenant in the lane.
+        private final int tenantCapacity;
+        private final Map<String, TenantQueue> tenantQueues = new HashMap<>();
+        // Tenants with queued events, in the order they are served.
+        private final ArrayDeque<TenantQueue> tenants = new ArrayDeque<>();
+        private int size;
+        // Earliest time a delayed event can be sent, updated when no event can be taken from the lane.
+        private long nextEligibleTime;
+        private final AtomicLong dequeuedCount = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong rejectedCount = new AtomicLong();
+        private final AtomicLong droppedCount = new AtomicLong();
+
+        private Lane(int capacity, int tenantCapacity) {
+
+            this.capacity = capacity;
+            this.tenantCapacity = tenantCapacity;
+        }
+
+        private int getQueuedCount(String tenantKey) {
+
+            TenantQueue tenantQueue = tenantQueues.get(tenantKey);
+            return tenantQueue != null ? tenantQueue.tasks.size() : 0;
+        }
+
+        private void add(DispatchTask task, int weight) {
+
+            TenantQueue tenantQueue = tenantQueues.get(task.tenantKey);
+            if (tenantQueue == null) {
+                tenantQueue = new TenantQueue(task.tenantKey, weight);
+                tenantQueues.put(task.tenantKey, tenantQueue);
+                tenants.addLast(tenantQueue);
+            }
+            task.queuedTime = System.nanoTime();
+            tenantQueue.tasks.addLast(task);
+            size++;
+        }
+
+        /**
+         * Take the next event of the tenant at the head of the round robin which has an event that can be sent.
+         *
+         * @param now         Current time
+         * @param ignoreDelay Whether the delayed events can be sent
+         * @return Next event, or null if no event of the lane can be sent
+         */
+        private DispatchTask poll(long now, boolean ignoreDelay) {
+
+            long earliest = Long.MAX_VALUE;
+            for (int i = tenants.size(); i > 0; i--) {
+                TenantQueue tenantQueue = tenants.peekFirst();
+                // Events of a tenant are delayed in the order they are queued, hence only the first one is checked.
+                DispatchTask task = tenantQueue.tasks.peekFirst();
+                if (ignoreDelay || task.notBefore - now <= 0) {
+                    tenantQueue.tasks.pollFirst();
+                    size--;
+                    if (tenantQueue.tasks.isEmpty()) {
+                        tenants.pollFirst();
+                        tenantQueues.remove(tenantQueue.tenantDomain);
+                    } else if (++tenantQueue.served >= tenantQueue.weight) {
+                        tenantQueue.served = 0;
+                        tenants.addLast(tenants.pollFirst());
+                    }
+                    // The delay of the tenant's rate is not counted in the wait time of the class.
+                    long eligibleTime = task.notBefore - task.queuedTime > 0 ? task.notBefore : task.queuedTime;
+                    recordWait(Math.max(now - eligibleTime, 0));
+                    return task;
+                }
+                earliest = Math.min(earliest, task.notBefore);
+                tenantQueue.served = 0;
+                tenants.addLast(tenants.pollFirst());
+            }
+            nextEligibleTime = earliest;
+            return null;
+        }
+
+        /**
+         * Take the oldest event of the tenant with the most queued events.
+         *
+         * @return Discarded event, or null if the lane is empty
+         */
+        private DispatchTask pollOldest() {
+
+            TenantQueue largest = null;
+            for (TenantQueue tenantQueue : tenants) {
+                if (largest == null || tenantQueue.tasks.size() > largest.tasks.size()) {
+                    largest = tenantQueue;
+                }
+            }
+            if (largest == null) {
+                return null;
+            }
+            return pollOldest(largest);
+        }
+
+        /**
+         * Take the oldest event of the given tenant.
+         *
+         * @param tenantKey Tenant of the events
+         * @return Discarded event, or null if the tenant has no queued events
+         */
+        private DispatchTask pollOldest(String tenantKey) {
+
+            TenantQueue tenantQueue = tenantQueues.get(tenantKey);
+            return tenantQueue != null ? pollOldest(tenantQueue) : null;
+        }
+
+        private DispatchTask pollOldest(TenantQueue tenantQueue) {
+
+            DispatchTask task = tenantQueue.tasks.pollFirst();
+            size--;
+            if (tenantQueue.tasks.isEmpty()) {
+                tenants.remove(tenantQueue);
+                tenantQueues.remove(tenantQueue.tenantDomain);
+            }
+            return task;
+        }
+
+        private void clear() {
+
+            tenants.clear();
+            tenantQueues.clear();
+            size = 0;
+        }
+
+        private void recordWait(long waitNanos) {
+
+            dequeuedCount.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            if (waitNanos > maxWaitNanos.get()) {
+                maxWaitNanos.set(waitNanos);
+            }
+        }
+    }
+
+    /**
+     * Queued events of a tenant in a lane.
+     */
+    private static final class TenantQueue {
+
+        private final String tenantDomain;
+        private final int weight;
+        private final ArrayDeque<DispatchTask> tasks = new ArrayDeque<>();
+        // Events taken since the tenant came to the head of the round robin.
+        private int served;
+
+        private TenantQueue(String tenantDomain, int weight) {
+
+            this.tenantDomain = tenantDomain;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Event queued for dispatch, along with the thread local context of the thread which raised the event.
+     */
+    private final class DispatchTask implements Runnable {
+
+        private final Event event;
+        private final NotificationPriority priority;
+        private final NotificationSender sender;
+        private final String tenantDomain;
+        private final int tenantId;
+        private final Map<String, Object> threadLocalProperties;
+        // Tenant of the event, by which the event is rate limited and scheduled.
+        private final String tenantKey;
+        private long queuedTime;
+        private long notBefore;
+
+        private DispatchTask(Event event, NotificationPriority priority, NotificationSender sender) {
+
+            this.event = event;
+            this.priority = priority;
+            this.sender = sender;
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            this.tenantDomain = carbonContext.getTenantDomain();
+            this.tenantId = carbonContext.getTenantId();
+            // Claims of the flow, such as the identity claims of the user, are passed as thread local properties.
+            Map<String, Object> properties = IdentityUtil.threadLocalProperties.get();
+            this.threadLocalProperties = properties != null ? new HashMap<>(properties) :
+                    new HashMap<String, Object>();
+            Object eventTenantDomain = event.getEventProperties().get(
+                    IdentityEventConstants.EventProperty.TENANT_DOMAIN);
+            if (eventTenantDomain instanceof String && StringUtils.isNotBlank((String) eventTenantDomain)) {
+                this.tenantKey = (String) eventTenantDomain;
+            } else {
+                this.tenantKey = StringUtils.isNotBlank(tenantDomain) ? tenantDomain :
+                        MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+            }
+        }
+
+        @Override
+        public void run() {
+
+            PrivilegedCarbonContext.startTenantFlow();
+            try {
+                PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+                carbonContext.setTenantId(tenantId);
+                carbonContext.setTenantDomain(tenantDomain);
+                IdentityUtil.threadLocalProperties.set(threadLocalProperties);
+                sender.send(event);
+            } catch (IdentityEventException | RuntimeException e) {
+                log.error("Error while sending the " + priority + " priority notification of event: " +
+                        event.getEventName() + " by handler: " + handlerName, e);
+            } finally {
+                IdentityUtil.threadLocalProperties.remove();
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+        }
+    }
+}
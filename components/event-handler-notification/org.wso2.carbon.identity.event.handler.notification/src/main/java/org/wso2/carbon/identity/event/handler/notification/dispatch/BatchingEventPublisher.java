@@ -0,0 +1,612 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.event.stream.core.EventStreamService;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.internal.NotificationHandlerDataHolder;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes the notification events to the {@link EventStreamService}. When batching is enabled in identity.xml,
+ * events are queued and a single writer thread groups them by stream ID and publishes a batch of a stream once it
+ * reaches the batch size or once its first event has waited for the linger time. Events are queued per
+ * {@link NotificationPriority} class and the writer always takes the events of the higher classes first, so that a
+ * backlog of bulk notifications does not delay an OTP. When the queue of a class is full, or the writer is not running,
+ * events are published on the caller's thread. The event stream service resolves the stream
+ * of an event from the tenant of the thread, hence each event is published in the tenant flow of the thread that
+ * raised it, whichever thread publishes it.
+ * <p>
+ * When the {@link NotificationOutbox} is enabled, each event is journaled before it is published and acknowledged
+ * once the event stream service accepts it, and the events which were not acknowledged before the node stopped are
+ * published again by {@link #replayOutbox()}. When retries are enabled, events which the event stream service does not
+ * accept are retried with a backoff by the {@link PublishRetryScheduler}, and are moved to the {@link DeadLetterStore}
+ * once they fail all the attempts of their priority class.
+ */
+public class BatchingEventPublisher {
+
+    private static final Log log = LogFactory.getLog(BatchingEventPublisher.class);
+
+    private static final BatchingEventPublisher instance = new BatchingEventPublisher();
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int queueDepth;
+    private final PriorityQueues queue;
+    private final NotificationOutbox outbox = NotificationOutbox.getInstance();
+    private final PublishRetryScheduler retryScheduler;
+
+    private final AtomicLong publishedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+    // Events of the outbox which were not published before the node stopped, until they are replayed.
+    private List<NotificationOutbox.Entry> recoveredEntries = Collections.emptyList();
+
+    private BatchingEventPublisher() {
+
+        int batchSize = NotificationUtil.getIntProperty(NotificationConstants.PUBLISHER_BATCH_SIZE_PROPERTY,
+                NotificationConstants.DEFAULT_PUBLISHER_BATCH_SIZE);
+        int lingerMillis = NotificationUtil.getIntProperty(NotificationConstants.PUBLISHER_LINGER_TIME_PROPERTY,
+                NotificationConstants.DEFAULT_PUBLISHER_LINGER_TIME_MILLIS);
+        int queueDepth = NotificationUtil.getIntProperty(NotificationConstants.PUBLISHER_QUEUE_DEPTH_PROPERTY,
+                NotificationConstants.DEFAULT_PUBLISHER_QUEUE_DEPTH);
+        this.batchSize = batchSize > 0 ? batchSize : NotificationConstants.DEFAULT_PUBLISHER_BATCH_SIZE;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(lingerMillis, 0));
+        this.queueDepth = queueDepth > 0 ? queueDepth : NotificationConstants.DEFAULT_PUBLISHER_QUEUE_DEPTH;
+        this.enabled = NotificationUtil.getBooleanProperty(NotificationConstants.PUBLISHER_BATCHING_ENABLE_PROPERTY,
+                false);
+        this.queue = new PriorityQueues(this.queueDepth);
+        this.retryScheduler = new PublishRetryScheduler(this);
+    }
+
+    public static BatchingEventPublisher getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Start the writer thread, if batching is enabled.
+     */
+    public synchronized void start() {
+
+        retryScheduler.start();
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::write, "NotificationEventPublisher");
+        writer.setDaemon(true);
+        writer.start();
+        if (log.isDebugEnabled()) {
+            log.debug("Started the notification event publisher with batch size: " + batchSize + ", linger time: " +
+                    TimeUnit.NANOSECONDS.toMillis(lingerNanos) + "ms and queue depth: " + queueDepth);
+        }
+    }
+
+    /**
+     * Open the outbox, so that the events published from here on are journaled. The events which were not published
+     * before the node stopped are kept until {@link #replayOutbox()} is invoked.
+     */
+    public synchronized void openOutbox() {
+
+        recoveredEntries = outbox.open();
+    }
+
+    /**
+     * Publish the events of the outbox which were not published before the node stopped, each in the tenant flow of
+     * the tenant it was raised in. The event streams of the tenants are only available once the server has started,
+     * hence this should be invoked once the server startup is completed. The events are published through the writer
+     * if batching is enabled.
+     */
+    public void replayOutbox() {
+
+        List<NotificationOutbox.Entry> entries;
+        synchronized (this) {
+            entries = recoveredEntries;
+            recoveredEntries = Collections.emptyList();
+        }
+        for (NotificationOutbox.Entry entry : entries) {
+            try {
+                publish(new PendingEvent(entry.getEvent(), NotificationPriority.NORMAL, entry, entry.getTenantId(),
+                        entry.getTenantDomain()));
+            } catch (RuntimeException e) {
+                // The event stays in the outbox and is published again on the next start.
+                failedCount.incrementAndGet();
+                log.error("Error while publishing the recovered notification event to stream: " +
+                        entry.getEvent().getStreamId(), e);
+            }
+        }
+    }
+
+    /**
+     * Stop the writer thread after publishing the queued events.
+     */
+    public void shutdown() {
+
+        try {
+            stopWriter();
+            // Events waiting for a retry are moved to the dead letter store, which keeps them on the disk.
+            retryScheduler.shutdown();
+            DeadLetterStore.getInstance().shutdown();
+        } finally {
+            // Events which could not be published are kept in the outbox for the next start.
+            outbox.close();
+        }
+    }
+
+    private void stopWriter() {
+
+        Thread writerThread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            writerThread = writer;
+            writer = null;
+        }
+        queue.wakeUp();
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Events which the writer did not get to are published on this thread.
+        publishRemaining();
+        if (log.isDebugEnabled()) {
+            log.debug("Stopped the notification event publisher. Published events: " + getPublishedCount() +
+                    ", batches: " + getBatchCount() + ", overflows: " + getOverflowCount() + ", failures: " +
+                    getFailedCount());
+        }
+    }
+
+    /**
+     * Publish an event to the stream given by the stream ID of the event.
+     *
+     * @param event Databridge event
+     */
+    public void publish(Event event) {
+
+        publish(event, NotificationPriority.NORMAL);
+    }
+
+    /**
+     * Publish an event to the stream given by the stream ID of the event.
+     *
+     * @param event    Databridge event
+     * @param priority Priority class of the notification, which bounds the attempts made to publish it
+     */
+    public void publish(Event event, NotificationPriority priority) {
+
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        publish(event, priority, carbonContext.getTenantId(), carbonContext.getTenantDomain());
+    }
+
+    /**
+     * Publish an event of the given tenant, such as a dead letter which is replayed outside the flow of its tenant.
+     *
+     * @param event        Databridge event
+     * @param priority     Priority class of the notification
+     * @param tenantId     Id of the tenant the event was raised in
+     * @param tenantDomain Domain of the tenant the event was raised in
+     */
+    void publish(Event event, NotificationPriority priority, int tenantId, String tenantDomain) {
+
+        publish(new PendingEvent(event, priority, outbox.append(event, tenantId, tenantDomain), tenantId,
+                tenantDomain));
+    }
+
+    private void publish(PendingEvent pendingEvent) {
+
+        if (running) {
+            if (queue.offer(pendingEvent)) {
+                return;
+            }
+            overflowCount.incrementAndGet();
+        }
+        try {
+            publishNow(pendingEvent);
+        } catch (RuntimeException e) {
+            if (!retryScheduler.isEnabled()) {
+                throw e;
+            }
+            failedCount.incrementAndGet();
+            log.error("Error while publishing the notification event to stream: " +
+                    pendingEvent.getEvent().getStreamId() + ". The event will be retried.", e);
+            retryScheduler.retry(pendingEvent, e);
+        }
+    }
+
+    /**
+     * Publish an event on the caller's thread, in the tenant flow of the tenant the event was raised in, and
+     * acknowledge it in the outbox.
+     *
+     * @param pendingEvent Event
+     */
+    void publishNow(PendingEvent pendingEvent) {
+
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantId(pendingEvent.getTenantId());
+            carbonContext.setTenantDomain(pendingEvent.getTenantDomain());
+            NotificationHandlerDataHolder.getInstance().getEventStreamService().publish(pendingEvent.getEvent());
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        outbox.acknowledge(pendingEvent.getOutboxEntry());
+        publishedCount.incrementAndGet();
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    public int getBatchSize() {
+
+        return batchSize;
+    }
+
+    public long getLingerTimeMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(lingerNanos);
+    }
+
+    /**
+     * Get the maximum number of queued events of each priority class.
+     *
+     * @return Queue depth of a priority class
+     */
+    public int getQueueDepth() {
+
+        return queueDepth;
+    }
+
+    /**
+     * Get the number of events waiting in the queue to be grouped into batches.
+     *
+     * @return Number of queued events
+     */
+    public int getQueuedEventCount() {
+
+        return queue.size();
+    }
+
+    /**
+     * Get the number of events of a priority class waiting in the queue to be grouped into batches.
+     *
+     * @param priority Priority class
+     * @return Number of queued events of the class
+     */
+    public int getQueuedEventCount(NotificationPriority priority) {
+
+        return queue.size(priority);
+    }
+
+    public long getPublishedCount() {
+
+        return publishedCount.get();
+    }
+
+    public long getBatchCount() {
+
+        return batchCount.get();
+    }
+
+    /**
+     * Get the number of events which were published on the caller's thread because the queue was full.
+     *
+     * @return Number of overflowed events
+     */
+    public long getOverflowCount() {
+
+        return overflowCount.get();
+    }
+
+    public long getFailedCount() {
+
+        return failedCount.get();
+    }
+
+    /**
+     * Get the number of retries made to publish the events which failed.
+     *
+     * @return Number of retries
+     */
+    public long getRetriedCount() {
+
+        return retryScheduler.getRetriedCount();
+    }
+
+    /**
+     * Get the number of events which were moved to the dead letter store.
+     *
+     * @return Number of dead lettered events
+     */
+    public long getDeadLetteredCount() {
+
+        return retryScheduler.getDeadLetteredCount();
+    }
+
+    /**
+     * Get the average number of events published per batch.
+     *
+     * @return Average batch size
+     */
+    public double getAverageBatchSize() {
+
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : (double) publishedCount.get() / batches;
+    }
+
+    private void write() {
+
+        Map<String, Batch> batches = new LinkedHashMap<>();
+        List<PendingEvent> drained = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (queue.drainTo(drained, batchSize, getWaitTime(batches)) > 0) {
+                    for (PendingEvent drainedEvent : drained) {
+                        addToBatch(batches, drainedEvent);
+                    }
+                    drained.clear();
+                }
+                flushExpired(batches);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Error in the notification event publisher.", e);
+            }
+        }
+        for (Batch batch : batches.values()) {
+            publishBatch(batch.events);
+        }
+    }
+
+    private long getWaitTime(Map<String, Batch> batches) {
+
+        if (batches.isEmpty()) {
+            // The wait is bounded so that the writer notices a shutdown.
+            return Math.max(lingerNanos, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        long oldest = batches.values().iterator().next().createdTime;
+        for (Batch batch : batches.values()) {
+            if (batch.createdTime - oldest < 0) {
+                oldest = batch.createdTime;
+            }
+        }
+        return Math.max(oldest + lingerNanos - System.nanoTime(), 0);
+    }
+
+    private void addToBatch(Map<String, Batch> batches, PendingEvent event) {
+
+        String streamId = event.getEvent().getStreamId();
+        Batch batch = batches.get(streamId);
+        if (batch == null) {
+            batch = new Batch(batchSize);
+            batches.put(streamId, batch);
+        }
+        batch.events.add(event);
+        if (batch.events.size() >= batchSize) {
+            batches.remove(streamId);
+            publishBatch(batch.events);
+        }
+    }
+
+    private void flushExpired(Map<String, Batch> batches) {
+
+        long now = System.nanoTime();
+        Iterator<Batch> iterator = batches.values().iterator();
+        while (iterator.hasNext()) {
+            Batch batch = iterator.next();
+            if (now - batch.createdTime >= lingerNanos) {
+                iterator.remove();
+                publishBatch(batch.events);
+            }
+        }
+    }
+
+    private void publishRemaining() {
+
+        List<PendingEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining, Integer.MAX_VALUE);
+        for (PendingEvent event : remaining) {
+            publishBatch(Collections.singletonList(event));
+        }
+    }
+
+    private void publishBatch(List<PendingEvent> events) {
+
+        for (PendingEvent event : events) {
+            try {
+                publishNow(event);
+            } catch (RuntimeException e) {
+                failedCount.incrementAndGet();
+                log.error("Error while publishing the notification event to stream: " +
+                        event.getEvent().getStreamId(), e);
+                if (retryScheduler.isEnabled()) {
+                    retryScheduler.retry(event, e);
+                }
+            }
+        }
+        batchCount.incrementAndGet();
+    }
+
+    /**
+     * Events of a stream waiting to be published.
+     */
+    private static final class Batch {
+
+        private final List<PendingEvent> events;
+        private final long createdTime = System.nanoTime();
+
+        private Batch(int batchSize) {
+
+            this.events = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Bounded queues of the events of each priority class. Events are taken from the highest priority class which has
+     * events, and in the order they were queued within a class.
+     */
+    private static final class PriorityQueues {
+
+        private final int capacity;
+        private final List<ArrayDeque<PendingEvent>> queues = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private int size;
+
+        private PriorityQueues(int capacity) {
+
+            this.capacity = capacity;
+            for (int i = 0; i < NotificationPriority.values().length; i++) {
+                queues.add(new ArrayDeque<PendingEvent>());
+            }
+        }
+
+        /**
+         * Queue an event, unless the queue of its priority class is full.
+         *
+         * @param event Event
+         * @return True if the event is queued
+         */
+        private boolean offer(PendingEvent event) {
+
+            lock.lock();
+            try {
+                ArrayDeque<PendingEvent> classQueue = queues.get(event.getPriority().ordinal());
+                if (classQueue.size() >= capacity) {
+                    return false;
+                }
+                classQueue.addLast(event);
+                size++;
+                notEmpty.signal();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Take up to the given number of events, highest priority class first, waiting up to the given time for an
+         * event if there are none.
+         *
+         * @param drained   List to add the events to
+         * @param maxEvents Maximum number of events to take
+         * @param waitNanos Maximum time to wait for an event
+         * @return Number of events taken
+         * @throws InterruptedException If interrupted while waiting
+         */
+        private int drainTo(List<PendingEvent> drained, int maxEvents, long waitNanos) throws InterruptedException {
+
+            lock.lock();
+            try {
+                while (size == 0 && waitNanos > 0) {
+                    waitNanos = notEmpty.awaitNanos(waitNanos);
+                }
+                return drainTo(drained, maxEvents);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int drainTo(List<PendingEvent> drained, int maxEvents) {
+
+            lock.lock();
+            try {
+                int taken = 0;
+                for (ArrayDeque<PendingEvent> classQueue : queues) {
+                    while (taken < maxEvents && !classQueue.isEmpty()) {
+                        drained.add(classQueue.pollFirst());
+                        taken++;
+                    }
+                }
+                size -= taken;
+                return taken;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Wake up the writer waiting for events, so that it notices a shutdown.
+         */
+        private void wakeUp() {
+
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isEmpty() {
+
+            return size() == 0;
+        }
+
+        private int size() {
+
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size(NotificationPriority priority) {
+
+            lock.lock();
+            try {
+                return queues.get(priority.ordinal()).size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.wso2.carbon.databridge.commons.Event;
+
+/**
+ * Notification event which could not be published within the maximum attempts of its priority class, along with the
+ * tenant it was raised in.
+ */
+public final class DeadLetter {
+
+    private final Event event;
+    private final NotificationPriority priority;
+    private final int tenantId;
+    private final String tenantDomain;
+    private final int attempts;
+    private final String error;
+    private final long deadLetteredTime;
+
+    public DeadLetter(Event event, NotificationPriority priority, int tenantId, String tenantDomain, int attempts,
+                      String error, long deadLetteredTime) {
+
+        this.event = event;
+        this.priority = priority;
+        this.tenantId = tenantId;
+        this.tenantDomain = tenantDomain;
+        this.attempts = attempts;
+        this.error = error;
+        this.deadLetteredTime = deadLetteredTime;
+    }
+
+    public Event getEvent() {
+
+        return event;
+    }
+
+    public NotificationPriority getPriority() {
+
+        return priority;
+    }
+
+    /**
+     * Get the id of the tenant the event was raised in, which the event stream of the event belongs to.
+     *
+     * @return Tenant id
+     */
+    public int getTenantId() {
+
+        return tenantId;
+    }
+
+    public String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    /**
+     * Get the number of attempts made to publish the event.
+     *
+     * @return Number of attempts
+     */
+    public int getAttempts() {
+
+        return attempts;
+    }
+
+    /**
+     * Get the error of the last attempt to publish the event.
+     *
+     * @return Error message, or null if the error did not have a message
+     */
+    public String getError() {
+
+        return error;
+    }
+
+    public long getDeadLetteredTime() {
+
+        return deadLetteredTime;
+    }
+}
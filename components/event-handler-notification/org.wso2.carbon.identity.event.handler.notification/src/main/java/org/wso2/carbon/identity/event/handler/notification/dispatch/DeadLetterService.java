@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import java.util.List;
+
+/**
+ * Service to inspect and replay the notification events which could not be published within the maximum attempts of
+ * their priority class.
+ */
+public interface DeadLetterService {
+
+    /**
+     * Get the number of dead letters, including the dead letters spilled to the disk.
+     *
+     * @return Number of dead letters
+     */
+    long getDeadLetterCount();
+
+    /**
+     * Get the dead letters kept in memory, oldest first.
+     *
+     * @param limit Maximum number of dead letters to return
+     * @return Dead letters
+     */
+    List<DeadLetter> getDeadLetters(int limit);
+
+    /**
+     * Publish all the dead letters again. Dead letters which fail again are retried and dead lettered again, and
+     * dead letters which can not be handed to the publisher are kept in the store.
+     *
+     * @return Number of dead letters which were published again
+     */
+    int replayDeadLetters();
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+import org.wso2.carbon.utils.CarbonUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the notification events which could not be published within the maximum attempts of their priority class.
+ * Dead letters are kept in memory up to the configured capacity, and further dead letters are appended to a spill
+ * file. The dead letters in memory are spilled as well when the bundle stops, hence the dead letters are kept across
+ * restarts until they are replayed. Each dead letter is replayed in the tenant flow of the tenant it was raised in.
+ * The spill file is moved aside while it is replayed, and is only deleted once each of its dead letters is either
+ * published or stored again, hence a replay which fails part way does not lose the dead letters.
+ */
+public class DeadLetterStore implements DeadLetterService {
+
+    private static final Log log = LogFactory.getLog(DeadLetterStore.class);
+
+    private static final DeadLetterStore instance = new DeadLetterStore();
+
+    private static final String DEFAULT_DIRECTORY = "repository" + File.separator + "data" + File.separator +
+            "notification-dead-letter";
+    private static final String SPILL_FILE = "dead-letters.dat";
+    private static final String REPLAY_FILE_SUFFIX = ".replay";
+
+    private final int capacity;
+    private final ConcurrentLinkedDeque<DeadLetter> deadLetters = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger memoryCount = new AtomicInteger();
+    private final AtomicLong spilledCount = new AtomicLong(-1);
+    private final Object spillLock = new Object();
+    private final Consumer<DeadLetter> publisher;
+    private File spillFile;
+
+    private DeadLetterStore() {
+
+        this(NotificationUtil.getIntProperty(NotificationConstants.DEAD_LETTER_CAPACITY_PROPERTY,
+                NotificationConstants.DEFAULT_DEAD_LETTER_CAPACITY), null, letter -> BatchingEventPublisher
+                .getInstance().publish(letter.getEvent(), letter.getPriority(), letter.getTenantId(),
+                        letter.getTenantDomain()));
+    }
+
+    /**
+     * Create a dead letter store with the given spill file, which publishes the replayed dead letters with the given
+     * publisher.
+     *
+     * @param capacity  Number of dead letters kept in memory
+     * @param spillFile Spill file, or null to use the file configured in identity.xml
+     * @param publisher Publisher of the replayed dead letters
+     */
+    DeadLetterStore(int capacity, File spillFile, Consumer<DeadLetter> publisher) {
+
+        this.capacity = Math.max(capacity, 0);
+        this.spillFile = spillFile;
+        this.publisher = publisher;
+    }
+
+    public static DeadLetterStore getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Add a dead letter, spilling it to the disk if the store is full.
+     *
+     * @param deadLetter Dead letter
+     * @return True if the dead letter is stored, or false if it could not be spilled to the disk
+     */
+    public boolean add(DeadLetter deadLetter) {
+
+        log.warn("Notification event of stream: " + deadLetter.getEvent().getStreamId() + " of tenant: " +
+                deadLetter.getTenantDomain() + " could not be published within " + deadLetter.getAttempts() +
+                " attempts and is moved to the dead letter store. Error: " + deadLetter.getError());
+        return store(deadLetter);
+    }
+
+    private boolean store(DeadLetter deadLetter) {
+
+        if (memoryCount.incrementAndGet() <= capacity) {
+            deadLetters.addLast(deadLetter);
+            return true;
+        }
+        memoryCount.decrementAndGet();
+        return spill(Collections.singletonList(deadLetter));
+    }
+
+    @Override
+    public long getDeadLetterCount() {
+
+        synchronized (spillLock) {
+            return memoryCount.get() + getSpilledCount();
+        }
+    }
+
+    @Override
+    public List<DeadLetter> getDeadLetters(int limit) {
+
+        List<DeadLetter> result = new ArrayList<>(Math.min(Math.max(limit, 0), memoryCount.get()));
+        Iterator<DeadLetter> iterator = deadLetters.iterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    @Override
+    public int replayDeadLetters() {
+
+        List<DeadLetter> letters = new ArrayList<>();
+        DeadLetter deadLetter;
+        while ((deadLetter = deadLetters.pollFirst()) != null) {
+            memoryCount.decrementAndGet();
+            letters.add(deadLetter);
+        }
+        File replayFile;
+        synchronized (spillLock) {
+            File file = getSpillFile();
+            replayFile = new File(file.getPath() + REPLAY_FILE_SUFFIX);
+            // The spill file is moved aside, so that dead letters spilled during the replay are kept in a new file. A
+            // replay file which is still there is of a replay which did not complete, and is replayed first.
+            if (!replayFile.isFile() && file.isFile()) {
+                if (file.renameTo(replayFile)) {
+                    spilledCount.set(0);
+                } else {
+                    log.warn("Unable to move the notification dead letter file: " + file.getAbsolutePath() +
+                            " to be replayed. The dead letters of the file are kept until the next replay.");
+                }
+            }
+            if (replayFile.isFile()) {
+                letters.addAll(0, readSpillFile(replayFile));
+            }
+        }
+        int published = 0;
+        boolean stored = true;
+        RuntimeException error = null;
+        for (DeadLetter letter : letters) {
+            try {
+                publisher.accept(letter);
+                published++;
+            } catch (RuntimeException e) {
+                error = e;
+                // The dead letter is kept, so that it can be replayed again once the event stream is available.
+                stored &= store(letter);
+            }
+        }
+        if (error != null) {
+            log.error((letters.size() - published) + " of " + letters.size() + " notification dead letters could " +
+                    "not be published again and are kept in the dead letter store.", error);
+        }
+        synchronized (spillLock) {
+            if (!stored) {
+                log.error("Unable to keep all the notification dead letters which could not be published again. " +
+                        "The notification dead letter file: " + replayFile.getAbsolutePath() + " is kept, hence " +
+                        "its dead letters which were published may be replayed again.");
+            } else if (replayFile.isFile() && !replayFile.delete()) {
+                log.warn("Unable to delete the notification dead letter file: " + replayFile.getAbsolutePath() +
+                        ". Replayed dead letters may be replayed again.");
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(published + " notification dead letters are published again.");
+        }
+        return published;
+    }
+
+    /**
+     * Spill the dead letters kept in memory to the disk, so that they are kept until they are replayed.
+     */
+    public void shutdown() {
+
+        List<DeadLetter> remaining = new ArrayList<>();
+        DeadLetter deadLetter;
+        while ((deadLetter = deadLetters.pollFirst()) != null) {
+            memoryCount.decrementAndGet();
+            remaining.add(deadLetter);
+        }
+        if (!remaining.isEmpty()) {
+            spill(remaining);
+        }
+    }
+
+    /**
+     * Append dead letters to the spill file.
+     *
+     * @param letters Dead letters
+     * @return True if all the dead letters are written to the spill file
+     */
+    private boolean spill(List<DeadLetter> letters) {
+
+        synchronized (spillLock) {
+            File file = getSpillFile();
+            long count = getSpilledCount();
+            File directory = file.getParentFile();
+            if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+                log.error("Unable to create the notification dead letter directory: " + directory.getAbsolutePath() +
+                        ". " + letters.size() + " dead letters are discarded.");
+                return false;
+            }
+            boolean written = false;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file,
+                    true)))) {
+                for (DeadLetter letter : letters) {
+                    byte[] event = EventSerializer.serialize(letter.getEvent(), letter.getTenantId(),
+                            letter.getTenantDomain());
+                    out.writeUTF(letter.getPriority().name());
+                    out.writeInt(letter.getAttempts());
+                    EventSerializer.writeString(out, letter.getError());
+                    out.writeLong(letter.getDeadLetteredTime());
+                    out.writeInt(event.length);
+                    out.write(event);
+                    count++;
+                }
+                written = true;
+            } catch (IOException e) {
+                log.error("Unable to write the notification dead letters to: " + file.getAbsolutePath(), e);
+            }
+            spilledCount.set(count);
+            return written;
+        }
+    }
+
+    private List<DeadLetter> readSpillFile(File file) {
+
+        List<DeadLetter> letters = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                NotificationPriority priority;
+                try {
+                    priority = NotificationPriority.valueOf(in.readUTF());
+                } catch (EOFException e) {
+                    break;
+                }
+                int attempts = in.readInt();
+                String error = EventSerializer.readString(in);
+                long deadLetteredTime = in.readLong();
+                byte[] event = new byte[in.readInt()];
+                in.readFully(event);
+                EventSerializer.TenantEvent tenantEvent = EventSerializer.deserialize(event);
+                letters.add(new DeadLetter(tenantEvent.getEvent(), priority, tenantEvent.getTenantId(),
+                        tenantEvent.getTenantDomain(), attempts, error, deadLetteredTime));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // A record which was not completely written ends the file.
+            log.error("Unable to read all the notification dead letters from: " + file.getAbsolutePath() + ". " +
+                    letters.size() + " dead letters are read.", e);
+        }
+        return letters;
+    }
+
+    /**
+     * Get the number of dead letters in the spill file, counting them on first use. Must be invoked holding the spill
+     * lock.
+     *
+     * @return Number of spilled dead letters
+     */
+    private long getSpilledCount() {
+
+        long count = spilledCount.get();
+        if (count < 0) {
+            File file = getSpillFile();
+            count = file.isFile() ? readSpillFile(file).size() : 0;
+            spilledCount.set(count);
+        }
+        return count;
+    }
+
+    private File getSpillFile() {
+
+        if (spillFile == null) {
+            String directory = IdentityUtil.getProperty(NotificationConstants.DEAD_LETTER_DIRECTORY_PROPERTY);
+            spillFile = new File(StringUtils.isNotBlank(directory) ? new File(directory.trim()) :
+                    new File(CarbonUtils.getCarbonHome(), DEFAULT_DIRECTORY), SPILL_FILE);
+        }
+        return spillFile;
+    }
+}
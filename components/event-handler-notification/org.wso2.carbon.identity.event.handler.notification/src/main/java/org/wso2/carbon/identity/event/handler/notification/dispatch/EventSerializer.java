@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary form of the notification events kept on the local disk, along with the tenant the events were raised in. Only
+ * the stream ID, the timestamp and the arbitrary data are kept, as the notification handlers do not set the other
+ * fields of the events.
+ * <p>
+ * The form starts with a format version, and events of any other version are rejected.
+ */
+final class EventSerializer {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private EventSerializer() {
+
+    }
+
+    static byte[] serialize(Event event, int tenantId, String tenantDomain) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(tenantId);
+            writeString(out, tenantDomain);
+            out.writeLong(event.getTimeStamp());
+            writeString(out, event.getStreamId());
+            Map<String, String> arbitraryDataMap = event.getArbitraryDataMap();
+            out.writeInt(arbitraryDataMap != null ? arbitraryDataMap.size() : -1);
+            if (arbitraryDataMap != null) {
+                for (Map.Entry<String, String> entry : arbitraryDataMap.entrySet()) {
+                    writeString(out, entry.getKey());
+                    writeString(out, entry.getValue());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static TenantEvent deserialize(byte[] data) throws IOException {
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported notification event format version: " + version);
+            }
+            int tenantId = in.readInt();
+            String tenantDomain = readString(in);
+            Event event = new Event();
+            event.setTimeStamp(in.readLong());
+            event.setStreamId(readString(in));
+            int size = in.readInt();
+            if (size >= 0) {
+                Map<String, String> arbitraryDataMap = new HashMap<>(size * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    arbitraryDataMap.put(readString(in), readString(in));
+                }
+                event.setArbitraryDataMap(arbitraryDataMap);
+            }
+            return new TenantEvent(event, tenantId, tenantDomain);
+        }
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Event read from the local disk, along with the tenant it was raised in.
+     */
+    static final class TenantEvent {
+
+        private final Event event;
+        private final int tenantId;
+        private final String tenantDomain;
+
+        private TenantEvent(Event event, int tenantId, String tenantDomain) {
+
+            this.event = event;
+            this.tenantId = tenantId;
+            this.tenantDomain = tenantDomain;
+        }
+
+        Event getEvent() {
+
+            return event;
+        }
+
+        int getTenantId() {
+
+            return tenantId;
+        }
+
+        String getTenantDomain() {
+
+            return tenantDomain;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Suppresses identical notifications sent within a time window, such as the notifications of a user pressing the
+ * resend button repeatedly or of a client retrying a request. Notifications are identified by the stream they are
+ * published to, the tenant, the user, the recipient, the template type and either the confirmation code of the
+ * notification or, if there is no confirmation code, a hash of the rendered subject, body and footer.
+ * <p>
+ * Fingerprints of the notifications sent within the window are kept in a fixed size table of longs, each holding a
+ * part of the fingerprint and the time it was seen, which is updated with a compare and set. An entry is overwritten
+ * by a newer notification which maps to the same slot, hence a duplicate is sent rather than suppressed when the
+ * table is too small for the rate of notifications. Deduplication is enabled through identity.xml.
+ */
+public class NotificationDeduplicator {
+
+    private static final Log log = LogFactory.getLog(NotificationDeduplicator.class);
+
+    private static final NotificationDeduplicator instance = new NotificationDeduplicator();
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long TIME_MASK = 0xFFFFFFFFL;
+
+    private final boolean enabled;
+    private final long windowSeconds;
+    private final String codeProperty;
+    private final AtomicLongArray entries;
+    private final int mask;
+    private final LongSupplier clock;
+    // Entries hold the seconds elapsed since this time, starting from one so that an empty entry never matches.
+    private final long baseTime;
+    private final ConcurrentMap<String, AtomicLong> suppressedCounts = new ConcurrentHashMap<>();
+
+    private NotificationDeduplicator() {
+
+        this(NotificationUtil.getBooleanProperty(NotificationConstants.DEDUPLICATION_ENABLE_PROPERTY, false),
+                NotificationUtil.getIntProperty(NotificationConstants.DEDUPLICATION_WINDOW_PROPERTY,
+                        NotificationConstants.DEFAULT_DEDUPLICATION_WINDOW_SECONDS),
+                NotificationUtil.getIntProperty(NotificationConstants.DEDUPLICATION_CAPACITY_PROPERTY,
+                        NotificationConstants.DEFAULT_DEDUPLICATION_CAPACITY),
+                IdentityUtil.getProperty(NotificationConstants.DEDUPLICATION_CODE_PROPERTY), System::nanoTime);
+    }
+
+    /**
+     * Create a deduplicator with the given configuration.
+     *
+     * @param enabled      Whether notifications are deduplicated
+     * @param window       Window in seconds within which identical notifications are suppressed
+     * @param capacity     Number of notifications which can be tracked within the window
+     * @param codeProperty Property holding the confirmation code of a notification
+     * @param clock        Source of the current time in nanoseconds
+     */
+    NotificationDeduplicator(boolean enabled, int window, int capacity, String codeProperty, LongSupplier clock) {
+
+        this.enabled = enabled;
+        this.windowSeconds = window > 0 ? window : NotificationConstants.DEFAULT_DEDUPLICATION_WINDOW_SECONDS;
+        // The table size is rounded up to a power of two, so that a slot is selected by masking the fingerprint.
+        int size = Integer.highestOneBit(Math.max(Math.min(capacity, 1 << 24), 16) - 1) << 1;
+        this.mask = size - 1;
+        this.entries = new AtomicLongArray(enabled ? size : 0);
+        this.codeProperty = StringUtils.isNotBlank(codeProperty) ? codeProperty.trim() :
+                NotificationConstants.DEFAULT_DEDUPLICATION_CODE_PROPERTY;
+        this.clock = clock;
+        this.baseTime = clock.getAsLong() - TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public static NotificationDeduplicator getInstance() {
+
+        return instance;
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Check whether an identical notification was sent within the window, and record the notification otherwise.
+     *
+     * @param streamId         Id of the stream the notification is published to, since the same notification sent
+     *                         through different channels is not a duplicate
+     * @param arbitraryDataMap Data published with the notification
+     * @return True if the notification is a duplicate which should not be published
+     */
+    public boolean isDuplicate(String streamId, Map<String, String> arbitraryDataMap) {
+
+        if (!enabled) {
+            return false;
+        }
+        String templateType = arbitraryDataMap.get(NotificationConstants.TEMPLATE_TYPE);
+        if (StringUtils.isEmpty(templateType)) {
+            templateType = arbitraryDataMap.get(NotificationConstants.EmailNotification.ARBITRARY_EVENT_TYPE);
+        }
+        if (StringUtils.isEmpty(templateType)) {
+            // Only the notifications built from a template are deduplicated.
+            return false;
+        }
+
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, streamId);
+        hash = hash(hash, arbitraryDataMap.get(IdentityEventConstants.EventProperty.TENANT_DOMAIN));
+        hash = hash(hash, arbitraryDataMap.get(IdentityEventConstants.EventProperty.USER_STORE_DOMAIN));
+        hash = hash(hash, arbitraryDataMap.get(IdentityEventConstants.EventProperty.USER_NAME));
+        hash = hash(hash, templateType);
+        hash = hash(hash, arbitraryDataMap.get(NotificationConstants.EmailNotification.ARBITRARY_SEND_TO));
+        String code = arbitraryDataMap.get(codeProperty);
+        if (StringUtils.isNotEmpty(code)) {
+            hash = hash(hash, code);
+        } else {
+            hash = hash(hash, arbitraryDataMap.get(NotificationConstants.EmailNotification.ARBITRARY_SUBJECT));
+            hash = hash(hash, arbitraryDataMap.get(NotificationConstants.EmailNotification.ARBITRARY_BODY));
+            hash = hash(hash, arbitraryDataMap.get(NotificationConstants.EmailNotification.ARBITRARY_FOOTER));
+        }
+        hash = mix(hash);
+
+        if (!record(hash)) {
+            return false;
+        }
+        AtomicLong count = suppressedCounts.get(templateType);
+        if (count == null) {
+            AtomicLong newCount = new AtomicLong();
+            count = suppressedCounts.putIfAbsent(templateType, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+        count.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug("Suppressed a duplicate notification of template type: " + templateType + " sent within " +
+                    windowSeconds + " seconds.");
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of suppressed notifications of a template type.
+     *
+     * @param templateType Template type
+     * @return Number of suppressed notifications
+     */
+    public long getSuppressedCount(String templateType) {
+
+        AtomicLong count = suppressedCounts.get(templateType);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Get the number of suppressed notifications of each template type.
+     *
+     * @return Unmodifiable map of template types and suppressed notification counts
+     */
+    public Map<String, Long> getSuppressedCounts() {
+
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, AtomicLong> entry : suppressedCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    public long getWindowSeconds() {
+
+        return windowSeconds;
+    }
+
+    /**
+     * Record the fingerprint of a notification.
+     *
+     * @param fingerprint Fingerprint of the notification
+     * @return True if the fingerprint was recorded within the window
+     */
+    boolean record(long fingerprint) {
+
+        int slot = (int) fingerprint & mask;
+        // The lower bits select the slot, hence the upper bits are kept in the entry.
+        long tag = fingerprint >>> 32;
+        long now = TimeUnit.NANOSECONDS.toSeconds(clock.getAsLong() - baseTime) & TIME_MASK;
+        long update = (tag << 32) | now;
+        while (true) {
+            long entry = entries.get(slot);
+            if (entry != 0 && (entry >>> 32) == tag && ((now - (entry & TIME_MASK)) & TIME_MASK) < windowSeconds) {
+                return true;
+            }
+            if (entries.compareAndSet(slot, entry, update)) {
+                return false;
+            }
+        }
+    }
+
+    private static long hash(long hash, String value) {
+
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        // Fields are separated, so that moving characters between fields changes the hash.
+        return (hash ^ (value != null ? 0x1F : 0x1E)) * FNV_PRIME;
+    }
+
+    private static long mix(long hash) {
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
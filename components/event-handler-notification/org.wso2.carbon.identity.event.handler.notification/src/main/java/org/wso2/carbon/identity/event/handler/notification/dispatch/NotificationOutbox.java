@@ -0,0 +1,509 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.databridge.commons.Event;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+import org.wso2.carbon.utils.CarbonUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Local journal of the notification events which are not yet published, so that the notifications of a node which
+ * stops between handling an event and publishing it are published once the node starts again.
+ * <p>
+ * Events are appended to memory mapped segment files before they are published, and are marked as acknowledged in
+ * place once they are published. A new segment is started once the current one is full, and a segment is deleted once
+ * all of its events are acknowledged. The segments are forced to the disk by a single flusher thread at the flush
+ * interval, which commits all the events appended since the previous flush at once. Appending does not wait for the
+ * flush unless synchronous commit is enabled.
+ * <p>
+ * Each record of a segment is laid out as the length of the event, the status of the record, the CRC32 of the event
+ * and the event along with the tenant it was raised in, so that the event is published again in the flow of its
+ * tenant. A record with a zero length, or with a CRC32 which does not match, ends the segment. The outbox is
+ * enabled through identity.xml.
+ */
+public class NotificationOutbox {
+
+    private static final Log log = LogFactory.getLog(NotificationOutbox.class);
+
+    private static final NotificationOutbox instance = new NotificationOutbox();
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String DEFAULT_DIRECTORY = "repository" + File.separator + "data" + File.separator +
+            "notification-outbox";
+
+    private static final int HEADER_LENGTH = 9;
+    private static final int STATUS_OFFSET = 4;
+    private static final int CRC_OFFSET = 5;
+    private static final byte PENDING = 1;
+    private static final byte ACKNOWLEDGED = 2;
+
+    private final boolean enabled;
+    private final int segmentSize;
+    private final long flushIntervalMillis;
+    private final boolean syncCommit;
+
+    private final Object commitLock = new Object();
+    private final List<Segment> unflushedSegments = new ArrayList<>();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private long appendedCount;
+    private volatile long committedCount;
+    private File directory;
+    private Segment activeSegment;
+    private long nextSegmentIndex;
+    private volatile boolean open;
+    private Thread flusher;
+
+    private NotificationOutbox() {
+
+        this.enabled = NotificationUtil.getBooleanProperty(NotificationConstants.OUTBOX_ENABLE_PROPERTY, false);
+        int segmentSize = NotificationUtil.getIntProperty(NotificationConstants.OUTBOX_SEGMENT_SIZE_PROPERTY,
+                NotificationConstants.DEFAULT_OUTBOX_SEGMENT_SIZE);
+        this.segmentSize = segmentSize > HEADER_LENGTH ? segmentSize :
+                NotificationConstants.DEFAULT_OUTBOX_SEGMENT_SIZE;
+        int flushInterval = NotificationUtil.getIntProperty(NotificationConstants.OUTBOX_FLUSH_INTERVAL_PROPERTY,
+                NotificationConstants.DEFAULT_OUTBOX_FLUSH_INTERVAL_MILLIS);
+        this.flushIntervalMillis = flushInterval > 0 ? flushInterval :
+                NotificationConstants.DEFAULT_OUTBOX_FLUSH_INTERVAL_MILLIS;
+        this.syncCommit = NotificationUtil.getBooleanProperty(NotificationConstants.OUTBOX_SYNC_COMMIT_PROPERTY, false);
+    }
+
+    /**
+     * Create an enabled outbox in the given directory, regardless of the configuration in identity.xml.
+     *
+     * @param directory           Directory of the segment files
+     * @param segmentSize         Size of a segment file in bytes
+     * @param flushIntervalMillis Interval at which the segments are forced to the disk
+     * @param syncCommit          Whether appending waits for the flush
+     */
+    NotificationOutbox(File directory, int segmentSize, long flushIntervalMillis, boolean syncCommit) {
+
+        this.enabled = true;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.syncCommit = syncCommit;
+    }
+
+    public static NotificationOutbox getInstance() {
+
+        return instance;
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Open the journal and read the events which were not acknowledged before the node stopped.
+     *
+     * @return Entries of the events which are not yet acknowledged, in the order they were appended
+     */
+    public synchronized List<Entry> open() {
+
+        List<Entry> pending = new ArrayList<>();
+        if (!enabled || open) {
+            return pending;
+        }
+        if (directory == null) {
+            String configuredDirectory = IdentityUtil.getProperty(NotificationConstants.OUTBOX_DIRECTORY_PROPERTY);
+            directory = StringUtils.isNotBlank(configuredDirectory) ? new File(configuredDirectory.trim()) :
+                    new File(CarbonUtils.getCarbonHome(), DEFAULT_DIRECTORY);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            log.error("Unable to create the notification outbox directory: " + directory.getAbsolutePath() +
+                    ". Notification events are published without being journaled.");
+            return pending;
+        }
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) &&
+                name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                try {
+                    long index = Long.parseLong(file.getName().substring(SEGMENT_PREFIX.length(),
+                            file.getName().length() - SEGMENT_SUFFIX.length()));
+                    nextSegmentIndex = Math.max(nextSegmentIndex, index + 1);
+                    recover(file, pending);
+                } catch (NumberFormatException | IOException e) {
+                    log.error("Unable to read the notification outbox segment: " + file.getAbsolutePath(), e);
+                }
+            }
+        }
+        open = true;
+        flusher = new Thread(this::flush, "NotificationOutboxFlusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        if (!pending.isEmpty()) {
+            log.info(pending.size() + " notification events which were not published before the node stopped " +
+                    "are recovered from the notification outbox.");
+        }
+        return pending;
+    }
+
+    /**
+     * Append an event to the journal.
+     *
+     * @param event        Databridge event
+     * @param tenantId     Id of the tenant the event was raised in
+     * @param tenantDomain Domain of the tenant the event was raised in
+     * @return Entry of the event to be acknowledged once the event is published, or null if the event could not be
+     * journaled
+     */
+    public Entry append(Event event, int tenantId, String tenantDomain) {
+
+        if (!open) {
+            return null;
+        }
+        byte[] data;
+        try {
+            data = EventSerializer.serialize(event, tenantId, tenantDomain);
+        } catch (IOException e) {
+            log.error("Unable to journal the notification event of stream: " + event.getStreamId(), e);
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        Entry entry;
+        long sequence;
+        synchronized (commitLock) {
+            if (!open) {
+                return null;
+            }
+            try {
+                if (activeSegment == null || !activeSegment.hasRoom(data.length)) {
+                    rotate(data.length);
+                }
+            } catch (IOException e) {
+                log.error("Unable to create a notification outbox segment in: " + directory.getAbsolutePath(), e);
+                return null;
+            }
+            int offset = activeSegment.write(data, (int) crc.getValue());
+            entry = new Entry(event, tenantId, tenantDomain, activeSegment, offset);
+            sequence = ++appendedCount;
+        }
+        pendingCount.incrementAndGet();
+        if (syncCommit) {
+            awaitCommit(sequence);
+        }
+        return entry;
+    }
+
+    /**
+     * Mark the event of an entry as published, so that it is not published again once the node restarts.
+     *
+     * @param entry Entry of the event
+     */
+    public void acknowledge(Entry entry) {
+
+        if (entry != null && entry.acknowledged.compareAndSet(false, true)) {
+            entry.segment.acknowledge(entry.offset);
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Flush the journal and close it. Events which are not acknowledged are kept to be published on the next start.
+     */
+    public void close() {
+
+        Thread flusherThread;
+        synchronized (this) {
+            if (!open) {
+                return;
+            }
+            synchronized (commitLock) {
+                open = false;
+                commitLock.notifyAll();
+            }
+            flusherThread = flusher;
+            flusher = null;
+        }
+        try {
+            flusherThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (commitLock) {
+            forceSegments();
+            activeSegment = null;
+        }
+    }
+
+    /**
+     * Get the number of journaled events which are not yet acknowledged.
+     *
+     * @return Number of pending events
+     */
+    public long getPendingCount() {
+
+        return pendingCount.get();
+    }
+
+    public long getCommittedCount() {
+
+        return committedCount;
+    }
+
+    private void recover(File file, List<Entry> pending) throws IOException {
+
+        MappedByteBuffer buffer;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, randomAccessFile.length());
+        }
+        Segment segment = new Segment(file, buffer);
+        int position = 0;
+        while (position + HEADER_LENGTH <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_LENGTH + length > buffer.capacity()) {
+                break;
+            }
+            byte[] data = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(position + HEADER_LENGTH);
+            view.get(data);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            if ((int) crc.getValue() != buffer.getInt(position + CRC_OFFSET)) {
+                // The record was not completely written before the node stopped.
+                break;
+            }
+            if (buffer.get(position + STATUS_OFFSET) == PENDING) {
+                try {
+                    EventSerializer.TenantEvent tenantEvent = EventSerializer.deserialize(data);
+                    pending.add(new Entry(tenantEvent.getEvent(), tenantEvent.getTenantId(),
+                            tenantEvent.getTenantDomain(), segment, position));
+                    segment.pendingCount.incrementAndGet();
+                    pendingCount.incrementAndGet();
+                } catch (IOException e) {
+                    log.error("Discarding a corrupted notification event in outbox segment: " +
+                            file.getAbsolutePath(), e);
+                }
+            }
+            position += HEADER_LENGTH + length;
+        }
+        // Recovered segments are not appended to again.
+        segment.seal();
+    }
+
+    /**
+     * Start a new segment. Must be invoked holding the commit lock.
+     *
+     * @param length Length of the event to be appended
+     * @throws IOException Error creating the segment file
+     */
+    private void rotate(int length) throws IOException {
+
+        File file = new File(directory, String.format("%s%016d%s", SEGMENT_PREFIX, nextSegmentIndex++,
+                SEGMENT_SUFFIX));
+        int size = Math.max(segmentSize, length + HEADER_LENGTH);
+        MappedByteBuffer buffer;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(size);
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        if (activeSegment != null) {
+            // The previous segment is forced by the next flush and released once all of its events are published.
+            activeSegment.seal();
+        }
+        activeSegment = new Segment(file, buffer);
+        unflushedSegments.add(activeSegment);
+    }
+
+    private void flush() {
+
+        while (true) {
+            synchronized (commitLock) {
+                try {
+                    commitLock.wait(flushIntervalMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (committedCount != appendedCount) {
+                    forceSegments();
+                }
+                if (!open) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Force the segments appended to since the previous flush. Must be invoked holding the commit lock.
+     */
+    private void forceSegments() {
+
+        for (Segment segment : unflushedSegments) {
+            segment.buffer.force();
+        }
+        unflushedSegments.clear();
+        if (activeSegment != null) {
+            unflushedSegments.add(activeSegment);
+        }
+        committedCount = appendedCount;
+        commitLock.notifyAll();
+    }
+
+    private void awaitCommit(long sequence) {
+
+        synchronized (commitLock) {
+            while (committedCount < sequence && open) {
+                try {
+                    commitLock.wait(flushIntervalMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Journaled event, which is acknowledged once the event is published.
+     */
+    public static final class Entry {
+
+        private final Event event;
+        private final int tenantId;
+        private final String tenantDomain;
+        private final Segment segment;
+        private final int offset;
+        private final AtomicBoolean acknowledged = new AtomicBoolean();
+
+        private Entry(Event event, int tenantId, String tenantDomain, Segment segment, int offset) {
+
+            this.event = event;
+            this.tenantId = tenantId;
+            this.tenantDomain = tenantDomain;
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        public Event getEvent() {
+
+            return event;
+        }
+
+        /**
+         * Get the id of the tenant the event was raised in, which the event stream of the event belongs to.
+         *
+         * @return Tenant id
+         */
+        public int getTenantId() {
+
+            return tenantId;
+        }
+
+        public String getTenantDomain() {
+
+            return tenantDomain;
+        }
+    }
+
+    /**
+     * Memory mapped segment file of the journal.
+     */
+    private static final class Segment {
+
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean sealed;
+        private int position;
+
+        private Segment(File file, MappedByteBuffer buffer) {
+
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        private boolean hasRoom(int length) {
+
+            return position + HEADER_LENGTH + length <= buffer.capacity();
+        }
+
+        /**
+         * Write a record. Must be invoked holding the commit lock.
+         *
+         * @param data Serialized event
+         * @param crc  CRC32 of the serialized event
+         * @return Offset of the record
+         */
+        private int write(byte[] data, int crc) {
+
+            int offset = position;
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + HEADER_LENGTH);
+            view.put(data);
+            buffer.put(offset + STATUS_OFFSET, PENDING);
+            buffer.putInt(offset + CRC_OFFSET, crc);
+            // The length is written last, as a record with a length is read back on recovery.
+            buffer.putInt(offset, data.length);
+            position += HEADER_LENGTH + data.length;
+            pendingCount.incrementAndGet();
+            return offset;
+        }
+
+        private void acknowledge(int offset) {
+
+            buffer.put(offset + STATUS_OFFSET, ACKNOWLEDGED);
+            if (pendingCount.decrementAndGet() == 0 && sealed) {
+                release();
+            }
+        }
+
+        private void seal() {
+
+            sealed = true;
+            if (pendingCount.get() == 0) {
+                release();
+            }
+        }
+
+        private void release() {
+
+            if (released.compareAndSet(false, true) && !file.delete()) {
+                log.warn("Unable to delete the published notification outbox segment: " + file.getAbsolutePath());
+            }
+        }
+    }
+}
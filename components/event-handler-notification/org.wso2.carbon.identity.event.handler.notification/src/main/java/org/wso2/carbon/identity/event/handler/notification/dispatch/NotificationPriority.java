@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+/**
+ * Priority class of a notification. Classes are declared from the highest to the lowest priority.
+ */
+public enum NotificationPriority {
+
+    /**
+     * Notifications a user is waiting for, such as OTPs, password resets and account lock notifications.
+     */
+    HIGH,
+
+    /**
+     * Notifications without a configured priority class.
+     */
+    NORMAL,
+
+    /**
+     * Informational notifications which can be delayed, such as notifications sent in bulk.
+     */
+    LOW
+}
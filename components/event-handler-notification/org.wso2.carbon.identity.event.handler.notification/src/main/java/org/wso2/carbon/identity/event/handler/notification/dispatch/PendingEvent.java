@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.wso2.carbon.databridge.commons.Event;
+
+/**
+ * Event waiting to be published, along with its priority class, its outbox entry, the tenant it was raised in and the
+ * number of failed attempts to publish it.
+ */
+final class PendingEvent {
+
+    private final Event event;
+    private final NotificationPriority priority;
+    private final NotificationOutbox.Entry outboxEntry;
+    private final int tenantId;
+    private final String tenantDomain;
+    private int failedAttempts;
+
+    PendingEvent(Event event, NotificationPriority priority, NotificationOutbox.Entry outboxEntry, int tenantId,
+                 String tenantDomain) {
+
+        this.event = event;
+        this.priority = priority;
+        this.outboxEntry = outboxEntry;
+        this.tenantId = tenantId;
+        this.tenantDomain = tenantDomain;
+    }
+
+    Event getEvent() {
+
+        return event;
+    }
+
+    NotificationPriority getPriority() {
+
+        return priority;
+    }
+
+    NotificationOutbox.Entry getOutboxEntry() {
+
+        return outboxEntry;
+    }
+
+    /**
+     * Get the id of the tenant the event was raised in, which the event stream of the event belongs to.
+     *
+     * @return Tenant id
+     */
+    int getTenantId() {
+
+        return tenantId;
+    }
+
+    String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    int getFailedAttempts() {
+
+        return failedAttempts;
+    }
+
+    /**
+     * Count a failed attempt to publish the event. Attempts of an event are made one after the other.
+     *
+     * @return Number of failed attempts
+     */
+    int incrementFailedAttempts() {
+
+        return ++failedAttempts;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Priority classes of the notification template types of a handler, configured through the module properties of the
+ * handler in identity-event.properties, next to the subscriptions of the handler:
+ * <pre>
+ * &lt;handler&gt;.priority.default=NORMAL
+ * &lt;handler&gt;.priority.&lt;templateType&gt;=HIGH
+ * </pre>
+ * Template types are matched case insensitively. Template types which are not mapped have the default priority.
+ */
+public final class PriorityMapping {
+
+    private static final Log log = LogFactory.getLog(PriorityMapping.class);
+
+    public static final String PRIORITY_PROPERTY = "priority";
+    private static final String DEFAULT_PRIORITY_KEY = "default";
+
+    private final Map<String, NotificationPriority> priorities;
+    private final NotificationPriority defaultPriority;
+
+    private PriorityMapping(Map<String, NotificationPriority> priorities, NotificationPriority defaultPriority) {
+
+        this.priorities = Collections.unmodifiableMap(priorities);
+        this.defaultPriority = defaultPriority;
+    }
+
+    /**
+     * Read the priority classes of the template types from the module properties of a handler.
+     *
+     * @param handlerName      Name of the handler
+     * @param moduleProperties Module properties of the handler
+     * @return Priority mapping of the handler
+     */
+    public static PriorityMapping fromProperties(String handlerName, Properties moduleProperties) {
+
+        Map<String, NotificationPriority> priorities = new HashMap<>();
+        NotificationPriority defaultPriority = NotificationPriority.NORMAL;
+        if (moduleProperties != null) {
+            String keyPrefix = handlerName + "." + PRIORITY_PROPERTY + ".";
+            for (String key : moduleProperties.stringPropertyNames()) {
+                if (!key.startsWith(keyPrefix) || key.length() == keyPrefix.length()) {
+                    continue;
+                }
+                NotificationPriority priority = parsePriority(key, moduleProperties.getProperty(key));
+                if (priority == null) {
+                    continue;
+                }
+                String templateType = key.substring(keyPrefix.length()).toLowerCase(Locale.ENGLISH);
+                if (DEFAULT_PRIORITY_KEY.equals(templateType)) {
+                    defaultPriority = priority;
+                } else {
+                    priorities.put(templateType, priority);
+                }
+            }
+        }
+        return new PriorityMapping(priorities, defaultPriority);
+    }
+
+    /**
+     * Get the priority class of a template type.
+     *
+     * @param templateType Notification template type
+     * @return Priority class of the template type, or the default priority if the template type is not mapped
+     */
+    public NotificationPriority getPriority(String templateType) {
+
+        if (StringUtils.isEmpty(templateType) || priorities.isEmpty()) {
+            return defaultPriority;
+        }
+        NotificationPriority priority = priorities.get(templateType.toLowerCase(Locale.ENGLISH));
+        return priority != null ? priority : defaultPriority;
+    }
+
+    public NotificationPriority getDefaultPriority() {
+
+        return defaultPriority;
+    }
+
+    private static NotificationPriority parsePriority(String key, String value) {
+
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        try {
+            return NotificationPriority.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid priority class: " + value + " configured for property: " + key + ". The property is " +
+                    "ignored.");
+            return null;
+        }
+    }
+}
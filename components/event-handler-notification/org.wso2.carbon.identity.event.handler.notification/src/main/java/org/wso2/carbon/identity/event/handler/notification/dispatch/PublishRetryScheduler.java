@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retries the notification events which could not be published, with an exponential backoff and a random jitter so
+ * that the retries of the events which failed together are spread out. The maximum number of attempts depends on the
+ * priority class of the event, and events which fail all of their attempts are moved to the {@link DeadLetterStore}.
+ * Retries are made on a single scheduler thread, hence an outage of the event stream does not occupy the threads
+ * which publish the events. Retries are enabled through identity.xml.
+ */
+class PublishRetryScheduler {
+
+    private static final Log log = LogFactory.getLog(PublishRetryScheduler.class);
+
+    private static final int[] DEFAULT_MAX_ATTEMPTS = {6, 4, 2};
+
+    private final boolean enabled;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int queueSize;
+    private final int[] maxAttempts;
+    private final BatchingEventPublisher publisher;
+
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong deadLetteredCount = new AtomicLong();
+    // Retries which are scheduled and not yet started.
+    private final Set<RetryTask> scheduledTasks = ConcurrentHashMap.newKeySet();
+
+    private ScheduledThreadPoolExecutor executor;
+
+    PublishRetryScheduler(BatchingEventPublisher publisher) {
+
+        this.publisher = publisher;
+        this.enabled = NotificationUtil.getBooleanProperty(NotificationConstants.RETRY_ENABLE_PROPERTY, false);
+        int initialBackoff = NotificationUtil.getIntProperty(NotificationConstants.RETRY_INITIAL_BACKOFF_PROPERTY,
+                NotificationConstants.DEFAULT_RETRY_INITIAL_BACKOFF_MILLIS);
+        int maxBackoff = NotificationUtil.getIntProperty(NotificationConstants.RETRY_MAX_BACKOFF_PROPERTY,
+                NotificationConstants.DEFAULT_RETRY_MAX_BACKOFF_MILLIS);
+        int queueSize = NotificationUtil.getIntProperty(NotificationConstants.RETRY_QUEUE_SIZE_PROPERTY,
+                NotificationConstants.DEFAULT_RETRY_QUEUE_SIZE);
+        this.initialBackoffMillis = initialBackoff > 0 ? initialBackoff :
+                NotificationConstants.DEFAULT_RETRY_INITIAL_BACKOFF_MILLIS;
+        this.maxBackoffMillis = Math.max(maxBackoff, this.initialBackoffMillis);
+        this.queueSize = queueSize > 0 ? queueSize : NotificationConstants.DEFAULT_RETRY_QUEUE_SIZE;
+        NotificationPriority[] priorities = NotificationPriority.values();
+        this.maxAttempts = new int[priorities.length];
+        for (NotificationPriority priority : priorities) {
+            int attempts = NotificationUtil.getIntProperty(NotificationConstants.RETRY_MAX_ATTEMPTS_PROPERTY + "." +
+                    priority.name(), DEFAULT_MAX_ATTEMPTS[priority.ordinal()]);
+            this.maxAttempts[priority.ordinal()] = Math.max(attempts, 1);
+        }
+    }
+
+    boolean isEnabled() {
+
+        return enabled;
+    }
+
+    synchronized void start() {
+
+        if (!enabled || executor != null) {
+            return;
+        }
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "NotificationPublishRetry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Stop retrying. Events waiting for a retry are moved to the dead letter store.
+     */
+    void shutdown() {
+
+        ScheduledThreadPoolExecutor retryExecutor;
+        synchronized (this) {
+            retryExecutor = executor;
+            executor = null;
+        }
+        if (retryExecutor == null) {
+            return;
+        }
+        retryExecutor.shutdownNow();
+        try {
+            retryExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (RetryTask task : scheduledTasks) {
+            if (scheduledTasks.remove(task)) {
+                deadLetter(task.event, "Retry cancelled as the server is stopping.");
+            }
+        }
+    }
+
+    /**
+     * Schedule a retry of an event which could not be published, or move it to the dead letter store if it has no
+     * attempts left.
+     *
+     * @param event Event
+     * @param error Error of the failed attempt
+     */
+    void retry(PendingEvent event, RuntimeException error) {
+
+        int attempts = event.incrementFailedAttempts();
+        if (attempts >= maxAttempts[event.getPriority().ordinal()]) {
+            deadLetter(event, error.getMessage());
+            return;
+        }
+        ScheduledThreadPoolExecutor retryExecutor;
+        synchronized (this) {
+            retryExecutor = executor;
+        }
+        if (retryExecutor == null || scheduledTasks.size() >= queueSize) {
+            deadLetter(event, error.getMessage());
+            return;
+        }
+        long delay = getBackoff(attempts);
+        if (log.isDebugEnabled()) {
+            log.debug("Retrying the notification event of stream: " + event.getEvent().getStreamId() + " in " +
+                    delay + "ms after " + attempts + " failed attempts.");
+        }
+        RetryTask task = new RetryTask(event);
+        scheduledTasks.add(task);
+        try {
+            retryExecutor.schedule(task, delay, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            if (scheduledTasks.remove(task)) {
+                deadLetter(event, error.getMessage());
+            }
+        }
+    }
+
+    long getRetriedCount() {
+
+        return retriedCount.get();
+    }
+
+    long getDeadLetteredCount() {
+
+        return deadLetteredCount.get();
+    }
+
+    /**
+     * Get the backoff before the next attempt, which is between half and all of the exponential backoff of the
+     * number of failed attempts.
+     *
+     * @param attempts Number of failed attempts
+     * @return Backoff in milliseconds
+     */
+    private long getBackoff(int attempts) {
+
+        long backoff = initialBackoffMillis << Math.min(attempts - 1, 30);
+        if (backoff <= 0 || backoff > maxBackoffMillis) {
+            backoff = maxBackoffMillis;
+        }
+        long half = backoff / 2;
+        return half + ThreadLocalRandom.current().nextLong(backoff - half + 1);
+    }
+
+    private void deadLetter(PendingEvent event, String error) {
+
+        deadLetteredCount.incrementAndGet();
+        boolean stored = DeadLetterStore.getInstance().add(new DeadLetter(event.getEvent(), event.getPriority(),
+                event.getTenantId(), event.getTenantDomain(), event.getFailedAttempts(), error,
+                System.currentTimeMillis()));
+        if (stored) {
+            // The dead letter store keeps the event from here on.
+            NotificationOutbox.getInstance().acknowledge(event.getOutboxEntry());
+        } else if (event.getOutboxEntry() != null) {
+            log.warn("Notification event of stream: " + event.getEvent().getStreamId() + " is kept in the " +
+                    "notification outbox to be published on the next start, as it could not be dead lettered.");
+        }
+    }
+
+    /**
+     * Scheduled attempt to publish an event.
+     */
+    private final class RetryTask implements Runnable {
+
+        private final PendingEvent event;
+
+        private RetryTask(PendingEvent event) {
+
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+
+            if (!scheduledTasks.remove(this)) {
+                return;
+            }
+            retriedCount.incrementAndGet();
+            try {
+                publisher.publishNow(event);
+            } catch (RuntimeException e) {
+                retry(event, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+/**
+ * Action taken when an event cannot be queued for asynchronous dispatch because the queue is full.
+ */
+public enum RejectionPolicy {
+
+    /**
+     * Fail the event with an exception to the caller.
+     */
+    ABORT,
+
+    /**
+     * Send the notification on the caller's thread, which slows down the callers while the queue is full.
+     */
+    CALLER_RUNS,
+
+    /**
+     * Drop the event.
+     */
+    DISCARD,
+
+    /**
+     * Drop the oldest queued event and queue the event.
+     */
+    DISCARD_OLDEST
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per tenant token bucket limits of the notifications dispatched by a handler, along with the weight of each tenant
+ * in the fair scheduling of the queued notifications. The limits are configured through the module properties of the
+ * handler in identity-event.properties. Properties without a tenant domain apply to all the tenants, and properties
+ * with a tenant domain override them for that tenant:
+ * <pre>
+ * &lt;handler&gt;.async.tenantLimit.rate=50
+ * &lt;handler&gt;.async.tenantLimit.burst=100
+ * &lt;handler&gt;.async.tenantLimit.hardCap=10000
+ * &lt;handler&gt;.async.tenantLimit.weight=1
+ * &lt;handler&gt;.async.tenantLimit.&lt;tenantDomain&gt;.rate=200
+ * </pre>
+ * The rate is the number of notifications per second a tenant can send once its burst is used. Notifications over
+ * the rate are delayed rather than dropped, unless the tenant already has the hard cap of delayed notifications. The
+ * hard cap is further bounded by the caller, so that the delayed notifications of a tenant fit within the share of the
+ * queue the tenant can hold. A tenant without a rate is not limited.
+ * <p>
+ * The state of a bucket is a single theoretical arrival time, which is updated with a compare and set, hence
+ * acquiring a token does not lock.
+ */
+public class TenantRateLimiter {
+
+    private static final Log log = LogFactory.getLog(TenantRateLimiter.class);
+
+    public static final String TENANT_LIMIT_PROPERTY = "async.tenantLimit";
+    private static final String RATE = "rate";
+    private static final String BURST = "burst";
+    private static final String HARD_CAP = "hardCap";
+    private static final String WEIGHT = "weight";
+
+    private static final int DEFAULT_HARD_CAP = 10000;
+    private static final int DEFAULT_WEIGHT = 1;
+
+    // Returned by acquire if the notification is over the hard cap of the tenant.
+    public static final long REJECTED = -1;
+
+    private final TenantLimit defaultLimit;
+    private final Map<String, TenantLimit> tenantLimits;
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private TenantRateLimiter(TenantLimit defaultLimit, Map<String, TenantLimit> tenantLimits) {
+
+        this.defaultLimit = defaultLimit;
+        this.tenantLimits = tenantLimits;
+    }
+
+    /**
+     * Read the tenant limits from the module properties of a handler.
+     *
+     * @param handlerName      Name of the handler
+     * @param moduleProperties Module properties of the handler
+     * @return Rate limiter of the handler
+     */
+    public static TenantRateLimiter fromProperties(String handlerName, Properties moduleProperties) {
+
+        Map<String, Map<String, String>> tenantProperties = new HashMap<>();
+        Map<String, String> defaultProperties = new HashMap<>();
+        if (moduleProperties != null) {
+            String keyPrefix = handlerName + "." + TENANT_LIMIT_PROPERTY + ".";
+            for (String key : moduleProperties.stringPropertyNames()) {
+                if (!key.startsWith(keyPrefix)) {
+                    continue;
+                }
+                // Tenant domains can have dots, hence the attribute is the last segment of the key.
+                String name = key.substring(keyPrefix.length());
+                int separator = name.lastIndexOf('.');
+                if (separator < 0) {
+                    defaultProperties.put(name, moduleProperties.getProperty(key));
+                } else if (separator > 0) {
+                    String tenantDomain = name.substring(0, separator);
+                    Map<String, String> properties = tenantProperties.get(tenantDomain);
+                    if (properties == null) {
+                        properties = new HashMap<>();
+                        tenantProperties.put(tenantDomain, properties);
+                    }
+                    properties.put(name.substring(separator + 1), moduleProperties.getProperty(key));
+                }
+            }
+        }
+        TenantLimit defaultLimit = new TenantLimit(defaultProperties, null, handlerName);
+        Map<String, TenantLimit> tenantLimits = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> entry : tenantProperties.entrySet()) {
+            tenantLimits.put(entry.getKey(), new TenantLimit(entry.getValue(), defaultLimit, handlerName));
+        }
+        return new TenantRateLimiter(defaultLimit, tenantLimits);
+    }
+
+    /**
+     * Take a token of the tenant. No token is taken if the notification is rejected.
+     *
+     * @param tenantDomain Tenant domain of the notification
+     * @param maxDelayed   Maximum number of delayed notifications the tenant can have, which bounds the hard cap of
+     *                     the tenant. With zero, the token is only taken if the notification needs no delay.
+     * @return Nanoseconds the notification has to be delayed to keep the tenant within its rate, or
+     * {@link #REJECTED} if the tenant already has the hard cap of delayed notifications
+     */
+    public long acquire(String tenantDomain, int maxDelayed) {
+
+        TenantLimit limit = getLimit(tenantDomain);
+        return acquire(tenantDomain, limit, Math.min(limit.hardCap, Math.max(maxDelayed, 0)) * limit.intervalNanos);
+    }
+
+    /**
+     * Take a token of the tenant if the notification can be sent within the given delay. No token is taken if the
+     * notification is rejected.
+     *
+     * @param tenantDomain Tenant domain of the notification
+     * @param maxDelay     Maximum delay of the notification, which bounds the hard cap of the tenant
+     * @param unit         Time unit of the maximum delay
+     * @return Nanoseconds the notification has to be delayed to keep the tenant within its rate, or
+     * {@link #REJECTED} if the notification cannot be sent within the maximum delay
+     */
+    public long acquire(String tenantDomain, long maxDelay, TimeUnit unit) {
+
+        TenantLimit limit = getLimit(tenantDomain);
+        return acquire(tenantDomain, limit, Math.min(limit.hardCap * limit.intervalNanos,
+                Math.max(unit.toNanos(maxDelay), 0)));
+    }
+
+    /**
+     * Return a token taken for a notification which was not sent, so that the next notification of the tenant is not
+     * delayed for it.
+     *
+     * @param tenantDomain Tenant domain of the notification
+     * @param delay        Delay returned when the token was taken
+     */
+    public void release(String tenantDomain, long delay) {
+
+        TokenBucket bucket = buckets.get(tenantDomain);
+        if (bucket == null || delay == REJECTED) {
+            return;
+        }
+        bucket.release();
+        if (delay > 0) {
+            bucket.delayedCount.decrementAndGet();
+        }
+    }
+
+    private long acquire(String tenantDomain, TenantLimit limit, long hardCapNanos) {
+
+        if (limit.intervalNanos <= 0) {
+            return 0;
+        }
+        TokenBucket bucket = buckets.get(tenantDomain);
+        if (bucket == null) {
+            TokenBucket newBucket = new TokenBucket(limit);
+            bucket = buckets.putIfAbsent(tenantDomain, newBucket);
+            if (bucket == null) {
+                bucket = newBucket;
+            }
+        }
+        long delay = bucket.acquire(System.nanoTime(), hardCapNanos);
+        if (delay == REJECTED) {
+            long hardCap = hardCapNanos / limit.intervalNanos;
+            if (hardCap > 0 && bucket.throttled.compareAndSet(false, true)) {
+                log.warn("Tenant: " + tenantDomain + " has more than " + hardCap + " delayed notifications. " +
+                        "Notifications of the tenant are dropped until the backlog is sent.");
+            }
+        } else if (bucket.throttled.get()) {
+            bucket.throttled.set(false);
+        }
+        return delay;
+    }
+
+    /**
+     * Get the weight of the tenant in the fair scheduling of the queued notifications. A tenant with weight two gets
+     * twice the share of the workers of a tenant with weight one while both have queued notifications.
+     *
+     * @param tenantDomain Tenant domain
+     * @return Weight of the tenant
+     */
+    public int getWeight(String tenantDomain) {
+
+        return getLimit(tenantDomain).weight;
+    }
+
+    /**
+     * Get the number of notifications of the tenant which were delayed to keep the tenant within its rate.
+     *
+     * @param tenantDomain Tenant domain
+     * @return Number of delayed notifications
+     */
+    public long getDelayedCount(String tenantDomain) {
+
+        TokenBucket bucket = buckets.get(tenantDomain);
+        return bucket != null ? bucket.delayedCount.get() : 0;
+    }
+
+    /**
+     * Get the number of notifications of the tenant which were dropped because the tenant had the hard cap of
+     * delayed notifications.
+     *
+     * @param tenantDomain Tenant domain
+     * @return Number of dropped notifications
+     */
+    public long getDroppedCount(String tenantDomain) {
+
+        TokenBucket bucket = buckets.get(tenantDomain);
+        return bucket != null ? bucket.droppedCount.get() : 0;
+    }
+
+    private TenantLimit getLimit(String tenantDomain) {
+
+        TenantLimit limit = tenantDomain != null ? tenantLimits.get(tenantDomain) : null;
+        return limit != null ? limit : defaultLimit;
+    }
+
+    /**
+     * Limits of a tenant.
+     */
+    private static final class TenantLimit {
+
+        private final long intervalNanos;
+        private final int burst;
+        private final long burstNanos;
+        private final int hardCap;
+        private final int weight;
+
+        private TenantLimit(Map<String, String> properties, TenantLimit parent, String handlerName) {
+
+            double rate = getDouble(properties, RATE, parent != null && parent.intervalNanos > 0 ?
+                    (double) TimeUnit.SECONDS.toNanos(1) / parent.intervalNanos : 0, handlerName);
+            this.intervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+            this.burst = Math.max((int) getDouble(properties, BURST, parent != null ? parent.burst : 1,
+                    handlerName), 1);
+            this.burstNanos = burst * intervalNanos;
+            this.hardCap = Math.max((int) getDouble(properties, HARD_CAP, parent != null ? parent.hardCap :
+                    DEFAULT_HARD_CAP, handlerName), 0);
+            this.weight = Math.max((int) getDouble(properties, WEIGHT, parent != null ? parent.weight :
+                    DEFAULT_WEIGHT, handlerName), 1);
+        }
+
+        private static double getDouble(Map<String, String> properties, String name, double defaultValue,
+                                        String handlerName) {
+
+            String value = properties.get(name);
+            if (StringUtils.isBlank(value)) {
+                return defaultValue;
+            }
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value: " + value + " configured for the tenant limit: " + name + " of handler: " +
+                        handlerName + ". Using the value: " + defaultValue);
+                return defaultValue;
+            }
+        }
+    }
+
+    /**
+     * Token bucket of a tenant, kept as the theoretical arrival time of the next notification of the tenant.
+     */
+    private static final class TokenBucket {
+
+        private final TenantLimit limit;
+        private final AtomicLong arrivalTime;
+        private final AtomicLong delayedCount = new AtomicLong();
+        private final AtomicLong droppedCount = new AtomicLong();
+        private final AtomicBoolean throttled = new AtomicBoolean();
+
+        private TokenBucket(TenantLimit limit) {
+
+            this.limit = limit;
+            this.arrivalTime = new AtomicLong(System.nanoTime());
+        }
+
+        private long acquire(long now, long hardCapNanos) {
+
+            while (true) {
+                long current = arrivalTime.get();
+                long next = Math.max(current - now, 0) + now + limit.intervalNanos;
+                long delay = next - now - limit.burstNanos;
+                if (delay > hardCapNanos) {
+                    droppedCount.incrementAndGet();
+                    return REJECTED;
+                }
+                if (arrivalTime.compareAndSet(current, next)) {
+                    if (delay > 0) {
+                        delayedCount.incrementAndGet();
+                        return delay;
+                    }
+                    return 0;
+                }
+            }
+        }
+
+        private void release() {
+
+            // A token which is already in the past is not returned, as the bucket is already full.
+            while (true) {
+                long current = arrivalTime.get();
+                long now = System.nanoTime();
+                if (current - now <= 0 || arrivalTime.compareAndSet(current, Math.max(current - limit.intervalNanos,
+                        now))) {
+                    return;
+                }
+            }
+        }
+    }
+}
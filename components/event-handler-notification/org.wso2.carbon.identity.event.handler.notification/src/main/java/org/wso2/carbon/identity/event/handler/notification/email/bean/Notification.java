@@ -20,59 +20,68 @@ package org.wso2.carbon.identity.event.handler.notification.email.bean;
 
 
 import org.apache.commons.lang.StringUtils;
-import org.wso2.carbon.identity.event.handler.notification.exception.NotificationRuntimeException;
 import org.wso2.carbon.email.mgt.model.EmailTemplate;
+import org.wso2.carbon.identity.event.handler.notification.template.CompiledNotificationTemplate;
+import org.wso2.carbon.identity.event.handler.notification.template.CompiledTemplateSection;
+import org.wso2.carbon.identity.event.handler.notification.template.PlaceholderContext;
+import org.wso2.carbon.identity.event.handler.notification.template.TemplateCompiler;
 
 import java.io.Serializable;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Matcher;
 
+/**
+ * Notification rendered from a template. The subject, body and footer are rendered on first access.
+ */
 public class Notification implements Serializable {
 
     private String sendTo;
     private String sendFrom;
     private EmailTemplate template;
+    private CompiledNotificationTemplate compiledTemplate;
     private String subject;
     private String body;
     private String footer;
     private Map<String, String> placeHolderData;
 
+    private CompiledTemplateSection subjectSection;
+    private CompiledTemplateSection bodySection;
+    private CompiledTemplateSection footerSection;
+
     protected Notification(EmailNotificationBuilder builder) {
         this.sendTo = builder.sendTo;
         this.sendFrom = builder.sendFrom;
+
+        // The placeholder data is copied since the content is rendered lazily, and callers keep adding entries to
+        // their map after building the notification.
+        if (builder.placeHolderData instanceof PlaceholderContext) {
+            // A snapshot of a placeholder context does not copy the data.
+            this.placeHolderData = ((PlaceholderContext) builder.placeHolderData).snapshot();
+        } else {
+            this.placeHolderData = builder.placeHolderData != null ? new HashMap<>(builder.placeHolderData) :
+                    new HashMap<String, String>();
+        }
+        if (builder.compiledTemplate != null) {
+            // The template is already parsed, hence only the placeholders have to be resolved.
+            this.compiledTemplate = builder.compiledTemplate;
+            this.template = builder.template != null ? builder.template : compiledTemplate.toEmailTemplate();
+            this.bodySection = compiledTemplate.getBody();
+            this.subjectSection = compiledTemplate.getSubject();
+            this.footerSection = compiledTemplate.getFooter();
+            return;
+        }
         this.template = builder.template;
-        this.placeHolderData = builder.placeHolderData;
-        this.body = replaceTags(template.getBody(), placeHolderData);
+        // The content is parsed once and all the placeholders are replaced in a single pass, instead of running a
+        // regex replacement over the whole content for each entry of the tags data.
+        this.bodySection = TemplateCompiler.compile(template.getBody());
         if (StringUtils.isNotEmpty(template.getSubject())) {
-            this.subject = replaceTags(template.getSubject(), placeHolderData);
+            this.subjectSection = TemplateCompiler.compile(template.getSubject());
         }
         if (StringUtils.isNotEmpty(template.getFooter())) {
-            this.footer = replaceTags(template.getFooter(), placeHolderData);
+            this.footerSection = TemplateCompiler.compile(template.getFooter());
         }
     }
 
-    private static String replaceTags(String content, Map<String, String> tagsData) {
-
-        for (Map.Entry<String, String> entry : tagsData.entrySet()) {
-            try {
-
-                // In email templates the placeholders in a URL, are defined in the format of {{url:key}} -
-                // eg:{{url:user-name}}, So that the values should be URL Encoded
-                content = content.replaceAll("\\{\\{url:" + entry.getKey() + "\\}\\}", URLEncoder.encode(entry.getValue(),
-                        "UTF-8"));
-            } catch (UnsupportedEncodingException e) {
-                throw NotificationRuntimeException.error(e.getMessage(), e);
-            }
-
-            // Backslashes (\) and dollar signs ($) in the replacement string is not treated as a literals.
-            content = content.replaceAll("\\{\\{" + entry.getKey() + "\\}\\}", Matcher.quoteReplacement(entry
-                    .getValue()));
-        }
-        return content;
-    }
-
     public String getSendTo() {
         return this.sendTo;
     }
@@ -85,15 +94,37 @@ public class Notification implements Serializable {
         return this.template;
     }
 
+    /**
+     * Get the compiled template of the notification. The template is compiled on first access if the notification
+     * was not built from a compiled template.
+     *
+     * @return Compiled notification template
+     */
+    public CompiledNotificationTemplate getCompiledTemplate() {
+        if (compiledTemplate == null) {
+            compiledTemplate = CompiledNotificationTemplate.compile(template);
+        }
+        return compiledTemplate;
+    }
+
     public String getSubject() {
+        if (subject == null && subjectSection != null) {
+            subject = subjectSection.render(placeHolderData);
+        }
         return this.subject;
     }
 
     public String getBody() {
+        if (body == null && bodySection != null) {
+            body = bodySection.render(placeHolderData);
+        }
         return this.body;
     }
 
     public String getFooter() {
+        if (footer == null && footerSection != null) {
+            footer = footerSection.render(placeHolderData);
+        }
         return this.footer;
     }
 
@@ -103,6 +134,7 @@ public class Notification implements Serializable {
         private String sendTo;
         private String sendFrom;
         private EmailTemplate template;
+        private CompiledNotificationTemplate compiledTemplate;
         private Map<String, String> placeHolderData;
 
         public EmailNotificationBuilder(String sendTo) {
@@ -113,6 +145,16 @@ public class Notification implements Serializable {
             this.template = template;
         }
 
+        /**
+         * Set a compiled template to render the notification from. When a compiled template is set, the template
+         * content is not parsed again and the email template defaults to the one built from the compiled template.
+         *
+         * @param compiledTemplate Compiled notification template
+         */
+        public void setCompiledTemplate(CompiledNotificationTemplate compiledTemplate) {
+            this.compiledTemplate = compiledTemplate;
+        }
+
         public void setSendFrom(String sendFrom) {
             this.sendFrom = sendFrom;
         }
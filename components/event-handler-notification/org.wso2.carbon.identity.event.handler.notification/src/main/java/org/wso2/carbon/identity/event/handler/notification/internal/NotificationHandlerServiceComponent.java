@@ -20,17 +20,29 @@ package org.wso2.carbon.identity.event.handler.notification.internal;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.service.component.ComponentContext;
+import org.wso2.carbon.core.ServerStartupObserver;
 import org.wso2.carbon.event.publisher.core.EventPublisherService;
 import org.wso2.carbon.event.stream.core.EventStreamService;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
 import org.wso2.carbon.identity.event.handler.notification.DefaultNotificationHandler;
 import org.wso2.carbon.identity.event.handler.notification.NotificationHandler;
+import org.wso2.carbon.identity.event.handler.notification.UserClaimCacheInvalidationHandler;
+import org.wso2.carbon.identity.event.handler.notification.bulk.BulkNotificationService;
+import org.wso2.carbon.identity.event.handler.notification.bulk.BulkNotificationServiceImpl;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.BatchingEventPublisher;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.DeadLetterService;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.DeadLetterStore;
+import org.wso2.carbon.identity.event.handler.notification.listener.CompiledTemplateCacheListener;
 import org.wso2.carbon.identity.event.handler.notification.listener.NotificationEventTenantListener;
+import org.wso2.carbon.identity.event.handler.notification.listener.NotificationOutboxReplayObserver;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationStatisticsReporter;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
 import org.wso2.carbon.identity.governance.service.notification.NotificationTemplateManager;
 import org.wso2.carbon.registry.core.service.RegistryService;
 import org.wso2.carbon.stratos.common.listeners.TenantMgtListener;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.email.mgt.EmailTemplateManager;
+import org.wso2.carbon.email.mgt.NotificationTemplateChangeListener;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -45,12 +57,37 @@ public class NotificationHandlerServiceComponent {
 
     private static final Log log = LogFactory.getLog(NotificationHandlerServiceComponent.class);
 
+    private BulkNotificationServiceImpl bulkNotificationService;
+    private NotificationHandler notificationHandler;
+    private DefaultNotificationHandler defaultNotificationHandler;
+
     @Activate
     protected void activate(ComponentContext context) {
         try {
-            context.getBundleContext().registerService(AbstractEventHandler.class.getName(), new NotificationHandler(), null);
-            context.getBundleContext().registerService(AbstractEventHandler.class.getName(), new DefaultNotificationHandler(), null);
+            // Server placeholders of identity.xml only change on a restart, hence they are read once.
+            NotificationUtil.reloadConfigFilePlaceholders();
+            BatchingEventPublisher.getInstance().start();
+            BatchingEventPublisher.getInstance().openOutbox();
+            // Notifications which were not published before the node stopped are published again once the server
+            // has started.
+            context.getBundleContext().registerService(ServerStartupObserver.class.getName(),
+                    new NotificationOutboxReplayObserver(), null);
+            notificationHandler = new NotificationHandler();
+            defaultNotificationHandler = new DefaultNotificationHandler();
+            context.getBundleContext().registerService(AbstractEventHandler.class.getName(), notificationHandler, null);
+            context.getBundleContext().registerService(AbstractEventHandler.class.getName(),
+                    defaultNotificationHandler, null);
+            context.getBundleContext().registerService(AbstractEventHandler.class.getName(),
+                    new UserClaimCacheInvalidationHandler(), null);
             context.getBundleContext().registerService(TenantMgtListener.class.getName(), new NotificationEventTenantListener(), null);
+            context.getBundleContext().registerService(NotificationTemplateChangeListener.class.getName(),
+                    new CompiledTemplateCacheListener(), null);
+            bulkNotificationService = new BulkNotificationServiceImpl();
+            context.getBundleContext().registerService(BulkNotificationService.class.getName(),
+                    bulkNotificationService, null);
+            context.getBundleContext().registerService(DeadLetterService.class.getName(),
+                    DeadLetterStore.getInstance(), null);
+            NotificationStatisticsReporter.getInstance().start();
         } catch (Throwable e) {
             log.error("Error occurred while activating Notification Handler Service Component", e);
         }
@@ -61,6 +98,24 @@ public class NotificationHandlerServiceComponent {
 
     @Deactivate
     protected void deactivate(ComponentContext context) {
+
+        // Notifications queued for asynchronous dispatch are sent before the bundle stops.
+        if (notificationHandler != null) {
+            notificationHandler.shutdown();
+            notificationHandler = null;
+        }
+        if (defaultNotificationHandler != null) {
+            defaultNotificationHandler.shutdown();
+            defaultNotificationHandler = null;
+        }
+
+        if (bulkNotificationService != null) {
+            bulkNotificationService.shutdown();
+            bulkNotificationService = null;
+        }
+        NotificationStatisticsReporter.getInstance().shutdown();
+        // Stopped last, as the handlers publish through it while draining.
+        BatchingEventPublisher.getInstance().shutdown();
         if (log.isDebugEnabled()) {
             log.debug("Notification Handler bundle is de-activated");
         }
@@ -18,11 +18,16 @@
 
 package org.wso2.carbon.identity.event.handler.notification.listener;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.event.output.adapter.core.OutputEventAdapterConfiguration;
 import org.wso2.carbon.event.publisher.core.config.EventPublisherConfiguration;
 import org.wso2.carbon.event.publisher.core.config.mapping.TextOutputMapping;
 import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.cache.TenantUrlContextCache;
+import org.wso2.carbon.identity.event.handler.notification.cache.UserClaimCache;
+import org.wso2.carbon.identity.event.handler.notification.cache.UserStoreManagerCache;
 import org.wso2.carbon.identity.event.handler.notification.internal.NotificationHandlerDataHolder;
 import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
 import org.wso2.carbon.stratos.common.beans.TenantInfoBean;
@@ -35,6 +40,8 @@ import java.util.Map;
 
 public class NotificationEventTenantListener implements TenantMgtListener {
 
+    private static final Log log = LogFactory.getLog(NotificationEventTenantListener.class);
+
     @Override
     public void onTenantCreate(TenantInfoBean tenantInfoBean) throws StratosException {
 
@@ -43,11 +50,15 @@ public class NotificationEventTenantListener implements TenantMgtListener {
     @Override
     public void onTenantUpdate(TenantInfoBean tenantInfoBean) throws StratosException {
 
+        // The user realm of the tenant is reloaded on a tenant update.
+        UserStoreManagerCache.getInstance().clearTenant(tenantInfoBean.getTenantId());
+        TenantUrlContextCache.getInstance().clearTenant(tenantInfoBean.getTenantDomain());
     }
 
     @Override
     public void onTenantDelete(int i) {
 
+        clearTenantCaches(i);
     }
 
     @Override
@@ -77,6 +88,7 @@ public class NotificationEventTenantListener implements TenantMgtListener {
     @Override
     public void onTenantDeactivation(int i) throws StratosException {
 
+        clearTenantCaches(i);
     }
 
     @Override
@@ -94,6 +106,32 @@ public class NotificationEventTenantListener implements TenantMgtListener {
 
     }
 
+    private void clearTenantCaches(int tenantId) {
+
+        UserStoreManagerCache.getInstance().clearTenant(tenantId);
+        UserClaimCache.getInstance().clearTenant(tenantId);
+        clearTenantUrls(tenantId);
+    }
+
+    private void clearTenantUrls(int tenantId) {
+
+        String tenantDomain = null;
+        try {
+            tenantDomain = NotificationHandlerDataHolder.getInstance().getRealmService().getTenantManager()
+                    .getDomain(tenantId);
+        } catch (UserStoreException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Error while resolving the domain of tenant: " + tenantId, e);
+            }
+        }
+        if (tenantDomain != null) {
+            TenantUrlContextCache.getInstance().clearTenant(tenantDomain);
+        } else {
+            // The tenant can no longer be resolved, hence the urls of all the tenants are rebuilt.
+            TenantUrlContextCache.getInstance().clear();
+        }
+    }
+
     private EventPublisherConfiguration getEventPublisherConfig() {
         EventPublisherConfiguration eventPublisherConfiguration = new EventPublisherConfiguration();
         eventPublisherConfiguration.setEventPublisherName(NotificationConstants.EmailNotification.EVENT_PUBLISHER_NAME);
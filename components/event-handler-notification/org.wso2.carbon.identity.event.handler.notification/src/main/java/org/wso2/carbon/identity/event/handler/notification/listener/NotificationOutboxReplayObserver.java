@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.listener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.core.ServerStartupObserver;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.BatchingEventPublisher;
+
+/**
+ * Publishes the notification events of the outbox which were not published before the node stopped, once the server
+ * startup is completed. The events are published in the flows of their tenants, whose event streams are not available
+ * while the bundle is activated.
+ */
+public class NotificationOutboxReplayObserver implements ServerStartupObserver {
+
+    private static final Log log = LogFactory.getLog(NotificationOutboxReplayObserver.class);
+
+    @Override
+    public void completingServerStartup() {
+
+    }
+
+    @Override
+    public void completedServerStartup() {
+
+        try {
+            BatchingEventPublisher.getInstance().replayOutbox();
+        } catch (RuntimeException e) {
+            log.error("Error while publishing the notification events recovered from the notification outbox.", e);
+        }
+    }
+}
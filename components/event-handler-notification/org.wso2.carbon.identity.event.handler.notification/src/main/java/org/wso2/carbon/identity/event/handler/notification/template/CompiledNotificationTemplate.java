@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.email.mgt.model.EmailTemplate;
+import org.wso2.carbon.email.mgt.util.TemplateContentCodec;
+import org.wso2.carbon.identity.governance.model.NotificationTemplate;
+import org.wso2.carbon.identity.governance.service.notification.NotificationChannels;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, pre-parsed form of a notification template. Compiling a template once and reusing it avoids parsing the
+ * template content and extracting its placeholders for every notification.
+ */
+public final class CompiledNotificationTemplate implements Serializable {
+
+    private static final long serialVersionUID = 3361047810913562617L;
+
+    private final String notificationChannel;
+    private final String templateType;
+    private final String templateDisplayName;
+    private final String locale;
+    private final String contentType;
+
+    private final String subjectTemplate;
+    private final String bodyTemplate;
+    private final String footerTemplate;
+
+    private final CompiledTemplateSection subject;
+    private final CompiledTemplateSection body;
+    private final CompiledTemplateSection footer;
+    private final Set<String> placeholderNames;
+    private final List<TemplatePlaceholder> placeholderIndex;
+    private final String revision;
+
+    private CompiledNotificationTemplate(String notificationChannel, String templateType, String templateDisplayName,
+                                         String locale, String contentType, String subjectTemplate,
+                                         String bodyTemplate, String footerTemplate) {
+
+        this.notificationChannel = notificationChannel;
+        this.templateType = templateType;
+        this.templateDisplayName = templateDisplayName;
+        this.locale = locale;
+        this.contentType = contentType;
+        this.subjectTemplate = subjectTemplate;
+        this.bodyTemplate = bodyTemplate;
+        this.footerTemplate = footerTemplate;
+
+        // Having a body is mandatory. Subject and footer are only rendered when they have content.
+        this.body = bodyTemplate != null ? TemplateCompiler.compile(bodyTemplate) : null;
+        this.subject = StringUtils.isNotEmpty(subjectTemplate) ? TemplateCompiler.compile(subjectTemplate) : null;
+        this.footer = StringUtils.isNotEmpty(footerTemplate) ? TemplateCompiler.compile(footerTemplate) : null;
+
+        Map<String, TemplatePlaceholder> index = new LinkedHashMap<>();
+        addPlaceholders(index, body);
+        addPlaceholders(index, subject);
+        addPlaceholders(index, footer);
+        this.placeholderNames = Collections.unmodifiableSet(new LinkedHashSet<>(index.keySet()));
+        this.placeholderIndex = Collections.unmodifiableList(new ArrayList<>(index.values()));
+        this.revision = TemplateContentCodec.hash(contentType, subjectTemplate, bodyTemplate, footerTemplate);
+    }
+
+    /**
+     * Compile a notification template retrieved from the notification template manager. Subject, footer and content
+     * type are only considered for EMAIL notification templates.
+     *
+     * @param notificationTemplate {@link org.wso2.carbon.identity.governance.model.NotificationTemplate} object
+     * @return Compiled notification template
+     */
+    public static CompiledNotificationTemplate compile(NotificationTemplate notificationTemplate) {
+
+        String channel = notificationTemplate.getNotificationChannel();
+        if (NotificationChannels.EMAIL_CHANNEL.getChannelType().equals(channel)) {
+            return new CompiledNotificationTemplate(channel, notificationTemplate.getType(),
+                    notificationTemplate.getDisplayName(), notificationTemplate.getLocale(),
+                    notificationTemplate.getContentType(), notificationTemplate.getSubject(),
+                    notificationTemplate.getBody(), notificationTemplate.getFooter());
+        }
+        return new CompiledNotificationTemplate(channel, notificationTemplate.getType(),
+                notificationTemplate.getDisplayName(), notificationTemplate.getLocale(), null, null,
+                notificationTemplate.getBody(), null);
+    }
+
+    /**
+     * Compile an email template retrieved from the email template manager.
+     *
+     * @param emailTemplate {@link org.wso2.carbon.email.mgt.model.EmailTemplate} object
+     * @return Compiled notification template
+     */
+    public static CompiledNotificationTemplate compile(EmailTemplate emailTemplate) {
+
+        return new CompiledNotificationTemplate(NotificationChannels.EMAIL_CHANNEL.getChannelType(),
+                emailTemplate.getTemplateType(), emailTemplate.getTemplateDisplayName(), emailTemplate.getLocale(),
+                emailTemplate.getEmailContentType(), emailTemplate.getSubject(), emailTemplate.getBody(),
+                emailTemplate.getFooter());
+    }
+
+    /**
+     * Build an email template model of the compiled template. A new object is returned on each invocation as the
+     * email template model is mutable.
+     *
+     * @return {@link org.wso2.carbon.email.mgt.model.EmailTemplate} object
+     */
+    public EmailTemplate toEmailTemplate() {
+
+        EmailTemplate emailTemplate = new EmailTemplate();
+        emailTemplate.setTemplateDisplayName(templateDisplayName);
+        emailTemplate.setTemplateType(templateType);
+        emailTemplate.setLocale(locale);
+        emailTemplate.setBody(bodyTemplate);
+        emailTemplate.setSubject(subjectTemplate);
+        emailTemplate.setFooter(footerTemplate);
+        emailTemplate.setEmailContentType(contentType);
+        return emailTemplate;
+    }
+
+    private static void addPlaceholders(Map<String, TemplatePlaceholder> index, CompiledTemplateSection section) {
+
+        if (section != null) {
+            for (TemplatePlaceholder placeholder : section.getPlaceholders()) {
+                if (!index.containsKey(placeholder.getName())) {
+                    index.put(placeholder.getName(), placeholder);
+                }
+            }
+        }
+    }
+
+    public String getNotificationChannel() {
+
+        return notificationChannel;
+    }
+
+    public String getTemplateType() {
+
+        return templateType;
+    }
+
+    public String getTemplateDisplayName() {
+
+        return templateDisplayName;
+    }
+
+    public String getLocale() {
+
+        return locale;
+    }
+
+    /**
+     * Get the content type of the template. The content type is already normalized to have the UTF-8 charset by the
+     * template manager.
+     *
+     * @return Content type
+     */
+    public String getContentType() {
+
+        return contentType;
+    }
+
+    public String getSubjectTemplate() {
+
+        return subjectTemplate;
+    }
+
+    public String getBodyTemplate() {
+
+        return bodyTemplate;
+    }
+
+    public String getFooterTemplate() {
+
+        return footerTemplate;
+    }
+
+    public CompiledTemplateSection getSubject() {
+
+        return subject;
+    }
+
+    public CompiledTemplateSection getBody() {
+
+        return body;
+    }
+
+    public CompiledTemplateSection getFooter() {
+
+        return footer;
+    }
+
+    /**
+     * Get the names of all the placeholders referenced by the subject, body and footer of the template.
+     *
+     * @return Unmodifiable set of placeholder names
+     */
+    public Set<String> getPlaceholderNames() {
+
+        return placeholderNames;
+    }
+
+    /**
+     * Get the distinct placeholders of the subject, body and footer of the template. Each placeholder is already
+     * classified and has its server placeholder key or claim URI derived.
+     *
+     * @return Unmodifiable list of placeholders
+     */
+    public List<TemplatePlaceholder> getPlaceholderIndex() {
+
+        return placeholderIndex;
+    }
+
+    /**
+     * Get the revision of the template, which is derived from the template content. Templates with the same content
+     * have the same revision on all the nodes.
+     *
+     * @return Revision of the template
+     */
+    public String getRevision() {
+
+        return revision;
+    }
+}
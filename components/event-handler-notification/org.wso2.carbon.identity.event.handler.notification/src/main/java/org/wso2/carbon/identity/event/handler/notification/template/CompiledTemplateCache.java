@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.util.NotificationUtil;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of compiled notification templates of all the tenants, keyed by tenant domain, notification
+ * channel, template type and the requested locale. All the locales of a template type are evicted by the template
+ * manager through {@link #invalidate(String, String, String, String)} whenever a template of the type is added or
+ * deleted.
+ * <p>
+ * Each eviction advances the generation of the cache. A template is read with the generation taken before the read,
+ * and is not kept in the cache if an eviction happened meanwhile, since the template may have been read before the
+ * change it was evicted for.
+ */
+public class CompiledTemplateCache {
+
+    private static final Log log = LogFactory.getLog(CompiledTemplateCache.class);
+
+    private static final CompiledTemplateCache instance = new CompiledTemplateCache();
+
+    private final Map<TemplateCacheKey, CompiledNotificationTemplate> cache = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final AtomicLong generation = new AtomicLong();
+
+    private CompiledTemplateCache() {
+
+        this(NotificationUtil.getIntProperty(NotificationConstants.TEMPLATE_CACHE_CAPACITY_PROPERTY,
+                NotificationConstants.DEFAULT_TEMPLATE_CACHE_CAPACITY));
+    }
+
+    CompiledTemplateCache(int capacity) {
+
+        this.capacity = capacity;
+    }
+
+    public static CompiledTemplateCache getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Get the compiled template of the given template type and locale.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel
+     * @param templateType        Template type
+     * @param locale              Requested locale
+     * @return Compiled template, or null if the template is not cached
+     */
+    public CompiledNotificationTemplate getValueFromCache(String tenantDomain, String notificationChannel,
+                                                          String templateType, String locale) {
+
+        return cache.get(new TemplateCacheKey(tenantDomain, notificationChannel, templateType, locale));
+    }
+
+    /**
+     * Get the generation of the cache, which is to be taken before reading a template from the template manager and
+     * given back when the template is added to the cache.
+     *
+     * @return Generation of the cache
+     */
+    public long getGeneration() {
+
+        return generation.get();
+    }
+
+    /**
+     * Add a compiled template to the cache. The locale is the locale requested from the template manager, which can
+     * differ from the locale of the template if the manager falls back to the default locale. The template is not
+     * kept if templates were evicted since the given generation.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel
+     * @param templateType        Template type
+     * @param locale              Requested locale
+     * @param compiledTemplate    Compiled template
+     * @param readGeneration      Generation of the cache taken before the template was read
+     */
+    public void addToCache(String tenantDomain, String notificationChannel, String templateType, String locale,
+                           CompiledNotificationTemplate compiledTemplate, long readGeneration) {
+
+        if (capacity <= 0 || compiledTemplate == null) {
+            return;
+        }
+        if (cache.size() >= capacity) {
+            // Templates are cheap to recompile, hence an arbitrary entry is evicted to stay within the capacity.
+            Iterator<TemplateCacheKey> iterator = cache.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        TemplateCacheKey key = new TemplateCacheKey(tenantDomain, notificationChannel, templateType, locale);
+        cache.put(key, compiledTemplate);
+        // An eviction which advanced the generation before the put did not see this entry, hence it is removed here.
+        // An eviction after this check removes the entry itself.
+        if (generation.get() != readGeneration) {
+            cache.remove(key, compiledTemplate);
+        }
+    }
+
+    /**
+     * Evict the compiled templates of all the locales of the given template type. Entries are keyed by the requested
+     * locale, and a template added in one locale can change the template another locale falls back to, such as a
+     * fr_FR template for fr_CA which fell back to en_US. Hence a change of any locale evicts the whole template type.
+     *
+     * @param tenantDomain        Tenant domain
+     * @param notificationChannel Notification channel
+     * @param templateType        Template type
+     * @param locale              Changed locale, or null if the template type was deleted
+     */
+    public void invalidate(String tenantDomain, String notificationChannel, String templateType, String locale) {
+
+        TemplateCacheKey changedKey = new TemplateCacheKey(tenantDomain, notificationChannel, templateType, null);
+        generation.incrementAndGet();
+        cache.keySet().removeIf(key -> key.isSameTemplateType(changedKey));
+        if (log.isDebugEnabled()) {
+            log.debug("Evicted compiled templates of type: " + templateType + " of channel: " + notificationChannel
+                    + " for locale: " + locale + " in tenant: " + tenantDomain);
+        }
+    }
+
+    /**
+     * Evict all the compiled templates of all the tenants.
+     */
+    public void clear() {
+
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * Cache key of a compiled template. Template types and locales are compared in their normalized form, since both
+     * are case insensitive in the template manager.
+     */
+    private static final class TemplateCacheKey {
+
+        private final String tenantDomain;
+        private final String notificationChannel;
+        private final String templateType;
+        private final String locale;
+
+        private TemplateCacheKey(String tenantDomain, String notificationChannel, String templateType,
+                                 String locale) {
+
+            this.tenantDomain = tenantDomain;
+            this.notificationChannel = notificationChannel;
+            this.templateType = templateType != null ?
+                    StringUtils.deleteWhitespace(templateType).toLowerCase(Locale.ENGLISH) : null;
+            this.locale = locale != null ? locale.toLowerCase(Locale.ENGLISH) : null;
+        }
+
+        private boolean isSameTemplateType(TemplateCacheKey other) {
+
+            return Objects.equals(tenantDomain, other.tenantDomain)
+                    && Objects.equals(notificationChannel, other.notificationChannel)
+                    && Objects.equals(templateType, other.templateType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TemplateCacheKey)) {
+                return false;
+            }
+            TemplateCacheKey that = (TemplateCacheKey) o;
+            return isSameTemplateType(that) && Objects.equals(locale, that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Objects.hash(tenantDomain, notificationChannel, templateType, locale);
+        }
+    }
+}
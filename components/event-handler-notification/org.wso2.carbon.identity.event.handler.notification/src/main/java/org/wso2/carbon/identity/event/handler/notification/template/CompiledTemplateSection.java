@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A subject, body or footer of a notification template parsed into literal and placeholder segments.
+ * The section is immutable and can be rendered concurrently by any number of threads.
+ */
+public final class CompiledTemplateSection implements Serializable {
+
+    private static final long serialVersionUID = 5460324587235710913L;
+
+    // Expected average length of a resolved placeholder value, used to presize the render buffer.
+    private static final int ESTIMATED_VALUE_LENGTH = 24;
+
+    // literals[i] is followed by placeholders[i]. Hence there is always one more literal than placeholders.
+    private final String[] literals;
+    private final TemplatePlaceholder[] placeholders;
+    private final int literalLength;
+
+    CompiledTemplateSection(String[] literals, TemplatePlaceholder[] placeholders) {
+
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Get the placeholders of the section in the order they appear in the content.
+     *
+     * @return Placeholders of the section
+     */
+    public List<TemplatePlaceholder> getPlaceholders() {
+
+        return Collections.unmodifiableList(Arrays.asList(placeholders));
+    }
+
+    /**
+     * Render the section by replacing each placeholder with the matching value of the placeholder data. Placeholders
+     * without a value are kept as they are.
+     *
+     * @param placeholderData Placeholder data
+     * @return Rendered content
+     */
+    public String render(Map<String, String> placeholderData) {
+
+        if (placeholders.length == 0) {
+            return literals[0];
+        }
+        StringBuilder builder = new StringBuilder(literalLength + placeholders.length * ESTIMATED_VALUE_LENGTH);
+        builder.append(literals[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            TemplatePlaceholder placeholder = placeholders[i];
+            String value = placeholder.resolve(placeholderData);
+            builder.append(value != null ? value : placeholder.getToken());
+            builder.append(literals[i + 1]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Render the section into the given sink without building the rendered content as an intermediate string.
+     *
+     * @param placeholderData Placeholder data
+     * @param out             Sink to append the rendered content to
+     * @throws IOException If appending to the sink fails
+     */
+    public void render(Map<String, String> placeholderData, Appendable out) throws IOException {
+
+        out.append(literals[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            TemplatePlaceholder placeholder = placeholders[i];
+            String value = placeholder.resolve(placeholderData);
+            out.append(value != null ? value : placeholder.getToken());
+            out.append(literals[i + 1]);
+        }
+    }
+}
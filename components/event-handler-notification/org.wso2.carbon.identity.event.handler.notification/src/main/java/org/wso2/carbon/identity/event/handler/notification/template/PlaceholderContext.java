@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Placeholder data of a notification, layered over the properties of the event instead of copying them. Values added
+ * while building the notification, such as resolved claims, server placeholders and template outputs, are kept in a
+ * writable layer above the event properties, and static data of the subscription is overlaid above all of them. Only
+ * the String valued event properties are visible through the context.
+ * <p>
+ * Lookups walk the layers from the top. A flat map is only built by {@link #toFlatMap()}, when the data is published.
+ */
+public class PlaceholderContext extends AbstractMap<String, String> implements Serializable {
+
+    private static final long serialVersionUID = -2715804462046517833L;
+
+    // Marks a value removed from the context while it is still present in a lower layer.
+    private static final String REMOVED = new String("");
+
+    // Entries added to the placeholder data on top of the placeholders of the template, such as the server urls and
+    // the notification properties of the published data.
+    private static final int ADDITIONAL_ENTRIES = 24;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final transient Map<String, ?> eventProperties;
+    private transient PlaceholderContext parent;
+    private transient Map<String, String> values;
+    private transient Map<String, String> overlay = Collections.emptyMap();
+    private transient int expectedSize = DEFAULT_CAPACITY;
+    private final transient boolean readOnly;
+
+    /**
+     * Create a context over the given event properties.
+     *
+     * @param eventProperties Event properties. Values which are not Strings are not visible through the context
+     */
+    public PlaceholderContext(Map<String, ?> eventProperties) {
+
+        this(eventProperties, null, null, false);
+    }
+
+    private PlaceholderContext(Map<String, ?> eventProperties, PlaceholderContext parent, Map<String, String> values,
+                               boolean readOnly) {
+
+        this.eventProperties = eventProperties != null ? eventProperties : Collections.<String, Object>emptyMap();
+        this.parent = parent;
+        this.values = values;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Size the storage of the values added to the context for the placeholders of the given template. This has no
+     * effect once a value is added.
+     *
+     * @param template Compiled template of the notification
+     */
+    public void presize(CompiledNotificationTemplate template) {
+
+        expectedSize = template.getPlaceholderIndex().size() + ADDITIONAL_ENTRIES;
+    }
+
+    /**
+     * Overlay the given data above all the other values of the context. The map is not copied, hence it should not be
+     * changed while the context is in use.
+     *
+     * @param overlay Data to overlay, such as the static data of the subscription
+     */
+    public void setOverlay(Map<String, String> overlay) {
+
+        checkWritable();
+        this.overlay = overlay != null ? overlay : Collections.<String, String>emptyMap();
+    }
+
+    /**
+     * Take an immutable snapshot of the current values of the context. The values are not copied. Instead, the
+     * current values become a read only layer shared by the snapshot and this context, and values added to this
+     * context afterwards are not visible through the snapshot.
+     *
+     * @return Snapshot of the context
+     */
+    public PlaceholderContext snapshot() {
+
+        PlaceholderContext snapshot = new PlaceholderContext(eventProperties, parent, values, true);
+        snapshot.overlay = overlay;
+        if (values != null) {
+            parent = snapshot;
+            values = null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Build a flat map of all the entries of the context.
+     *
+     * @return New map of the entries of the context
+     */
+    public Map<String, String> toFlatMap() {
+
+        return toFlatMap(0);
+    }
+
+    /**
+     * Build a flat map of all the entries of the context, with room for the given number of entries to be added.
+     *
+     * @param additionalEntries Number of entries the caller adds to the map
+     * @return New map of the entries of the context
+     */
+    public Map<String, String> toFlatMap(int additionalEntries) {
+
+        Map<String, String> flatMap = new HashMap<>((eventProperties.size() + getLayerSize() + overlay.size() +
+                additionalEntries) * 4 / 3 + 1);
+        copyTo(flatMap);
+        return flatMap;
+    }
+
+    @Override
+    public String get(Object key) {
+
+        String value = overlay.get(key);
+        if (value != null) {
+            return value;
+        }
+        return getBelowOverlay(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+
+        if (overlay.containsKey(key)) {
+            return true;
+        }
+        for (PlaceholderContext context = this; context != null; context = context.parent) {
+            if (context.values != null && context.values.containsKey(key)) {
+                return context.values.get(key) != REMOVED;
+            }
+        }
+        return eventProperties.get(key) instanceof String;
+    }
+
+    @Override
+    public String put(String key, String value) {
+
+        checkWritable();
+        String previous = get(key);
+        if (values == null) {
+            values = new HashMap<>(expectedSize * 4 / 3 + 1);
+        }
+        values.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public String remove(Object key) {
+
+        checkWritable();
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String previous = get(key);
+        if (values == null) {
+            values = new HashMap<>(expectedSize * 4 / 3 + 1);
+        }
+        // The entry can be present in a lower layer, hence it is hidden rather than removed.
+        values.put((String) key, REMOVED);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+
+        throw new UnsupportedOperationException("Placeholder context can not be cleared.");
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+
+        return Collections.unmodifiableMap(toFlatMap()).entrySet();
+    }
+
+    private String getBelowOverlay(Object key) {
+
+        for (PlaceholderContext context = this; context != null; context = context.parent) {
+            if (context.values != null && context.values.containsKey(key)) {
+                String value = context.values.get(key);
+                return value != REMOVED ? value : null;
+            }
+        }
+        Object value = eventProperties.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    private void copyTo(Map<String, String> flatMap) {
+
+        for (Map.Entry<String, ?> entry : eventProperties.entrySet()) {
+            if (entry.getValue() instanceof String) {
+                flatMap.put(entry.getKey(), (String) entry.getValue());
+            }
+        }
+        copyLayers(this, flatMap);
+        flatMap.putAll(overlay);
+    }
+
+    private static void copyLayers(PlaceholderContext context, Map<String, String> flatMap) {
+
+        if (context == null) {
+            return;
+        }
+        // Lower layers are copied first, so that the values of the upper layers take precedence.
+        copyLayers(context.parent, flatMap);
+        if (context.values != null) {
+            for (Map.Entry<String, String> entry : context.values.entrySet()) {
+                if (entry.getValue() == REMOVED) {
+                    flatMap.remove(entry.getKey());
+                } else {
+                    flatMap.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    private int getLayerSize() {
+
+        int size = 0;
+        for (PlaceholderContext context = this; context != null; context = context.parent) {
+            if (context.values != null) {
+                size += context.values.size();
+            }
+        }
+        return size;
+    }
+
+    private void checkWritable() {
+
+        if (readOnly) {
+            throw new UnsupportedOperationException("Placeholder context snapshot is read only.");
+        }
+    }
+
+    private Object writeReplace() {
+
+        // The event properties can hold values which are not serializable, hence only the entries are serialized.
+        return toFlatMap();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+/**
+ * Kinds of placeholders supported in notification templates.
+ */
+public enum PlaceholderType {
+
+    /**
+     * {{server.placeholder.key}} resolved from the EmailTemplatePlaceholders of identity.xml.
+     */
+    SERVER,
+
+    /**
+     * {{user.claim.identity.name}} resolved from the identity claim http://wso2.org/claims/identity/name.
+     */
+    IDENTITY_CLAIM,
+
+    /**
+     * {{user.claim.name}} resolved from the claim http://wso2.org/claims/name.
+     */
+    USER_CLAIM,
+
+    /**
+     * {{url:key}} resolved from the URL encoded value of key.
+     */
+    URL,
+
+    /**
+     * Any other placeholder, resolved from the event properties.
+     */
+    PLAIN
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.wso2.carbon.identity.event.handler.notification.template.TemplatePlaceholder.CLOSING_TAG;
+import static org.wso2.carbon.identity.event.handler.notification.template.TemplatePlaceholder.OPENING_TAG;
+
+/**
+ * Parses notification template content into {@link CompiledTemplateSection}s.
+ */
+public class TemplateCompiler {
+
+    private TemplateCompiler() {
+
+    }
+
+    /**
+     * Parse the given template content into literal and placeholder segments. A placeholder is the shortest
+     * {{name}} sequence within a single line, which is the same set of placeholders that is matched by the
+     * {{(.*?)}} expression used when extracting placeholders.
+     *
+     * @param content Template content
+     * @return Compiled template section
+     */
+    public static CompiledTemplateSection compile(String content) {
+
+        List<String> literals = new ArrayList<>();
+        List<TemplatePlaceholder> placeholders = new ArrayList<>();
+
+        int literalStart = 0;
+        // Opening tags that start before this index have already been considered, so a backward search never scans
+        // the same characters twice. This keeps the compilation linear for content with many "}}" and no "{{".
+        int searchFloor = 0;
+        int openingIndex = -1;
+        int closingIndex = content.indexOf(CLOSING_TAG);
+        while (closingIndex >= 0) {
+            // The nearest opening tag is used so that "{{{name}}" resolves to "{" followed by {{name}}.
+            int nearestOpeningIndex = lastIndexOfOpeningTag(content, closingIndex - OPENING_TAG.length(),
+                    searchFloor);
+            if (nearestOpeningIndex >= 0) {
+                openingIndex = nearestOpeningIndex;
+            }
+            searchFloor = Math.max(searchFloor, closingIndex - 1);
+            int nextSearchIndex = closingIndex + 1;
+            if (openingIndex >= literalStart) {
+                String name = content.substring(openingIndex + OPENING_TAG.length(), closingIndex);
+                if (isValidPlaceholderName(name)) {
+                    literals.add(content.substring(literalStart, openingIndex));
+                    placeholders.add(new TemplatePlaceholder(name));
+                    literalStart = closingIndex + CLOSING_TAG.length();
+                    searchFloor = literalStart;
+                    nextSearchIndex = literalStart;
+                }
+            }
+            closingIndex = content.indexOf(CLOSING_TAG, nextSearchIndex);
+        }
+        literals.add(content.substring(literalStart));
+        return new CompiledTemplateSection(literals.toArray(new String[0]),
+                placeholders.toArray(new TemplatePlaceholder[0]));
+    }
+
+    /**
+     * Find the last opening tag that starts at or before the given index and not before the given floor.
+     *
+     * @param content   Template content
+     * @param fromIndex Index to start the backward search from
+     * @param floor     Lowest index an opening tag can start at
+     * @return Index of the opening tag or -1 if there is none in the range
+     */
+    private static int lastIndexOfOpeningTag(String content, int fromIndex, int floor) {
+
+        for (int i = fromIndex; i >= floor; i--) {
+            if (content.startsWith(OPENING_TAG, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isValidPlaceholderName(String name) {
+
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
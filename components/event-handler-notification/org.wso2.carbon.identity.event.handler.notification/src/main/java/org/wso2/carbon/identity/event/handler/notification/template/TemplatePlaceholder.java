@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.exception.NotificationRuntimeException;
+
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Map;
+
+/**
+ * A single {{placeholder}} occurrence of a notification template.
+ */
+public final class TemplatePlaceholder implements Serializable {
+
+    private static final long serialVersionUID = -2287018469134236744L;
+
+    static final String OPENING_TAG = "{{";
+    static final String CLOSING_TAG = "}}";
+
+    // In email templates the placeholders in a URL, are defined in the format of {{url:key}} - eg:{{url:user-name}},
+    // So that the values should be URL Encoded.
+    private static final String URL_ENCODED_PREFIX = "url:";
+
+    private static final String IDENTITY_CLAIM_PLACEHOLDER = NotificationConstants.EmailNotification.USER_CLAIM_PREFIX
+            + "." + NotificationConstants.EmailNotification.IDENTITY_CLAIM_PREFIX;
+
+    private final String name;
+    private final String token;
+    private final String urlEncodedKey;
+    private final PlaceholderType type;
+    private final String serverPlaceholderKey;
+    private final String claimUri;
+
+    TemplatePlaceholder(String name) {
+
+        this.name = name;
+        this.token = OPENING_TAG + name + CLOSING_TAG;
+        if (name.startsWith(URL_ENCODED_PREFIX) && name.length() > URL_ENCODED_PREFIX.length()) {
+            this.urlEncodedKey = name.substring(URL_ENCODED_PREFIX.length());
+        } else {
+            this.urlEncodedKey = null;
+        }
+
+        // Derive the server placeholder key and the claim URI the same way they were derived from the placeholder
+        // name for each notification, so that resolving the placeholder value needs no string processing.
+        if (name.startsWith(NotificationConstants.EmailNotification.IDENTITY_TEMPLATE_VALUE_PREFIX)) {
+            this.serverPlaceholderKey = name.substring(name.lastIndexOf(".") + 1);
+        } else {
+            this.serverPlaceholderKey = null;
+        }
+        if (name.contains(IDENTITY_CLAIM_PLACEHOLDER)) {
+            this.claimUri = NotificationConstants.EmailNotification.WSO2_CLAIM_URI
+                    + NotificationConstants.EmailNotification.IDENTITY_CLAIM_PREFIX + "/"
+                    + name.substring(name.indexOf(".", name.indexOf("identity")) + 1);
+        } else if (name.contains(NotificationConstants.EmailNotification.USER_CLAIM_PREFIX)) {
+            this.claimUri = NotificationConstants.EmailNotification.WSO2_CLAIM_URI
+                    + name.substring(name.indexOf(".", name.indexOf("claim")) + 1);
+        } else {
+            this.claimUri = null;
+        }
+        this.type = resolveType();
+    }
+
+    private PlaceholderType resolveType() {
+
+        if (serverPlaceholderKey != null) {
+            return PlaceholderType.SERVER;
+        } else if (name.contains(IDENTITY_CLAIM_PLACEHOLDER)) {
+            return PlaceholderType.IDENTITY_CLAIM;
+        } else if (claimUri != null) {
+            return PlaceholderType.USER_CLAIM;
+        } else if (urlEncodedKey != null) {
+            return PlaceholderType.URL;
+        }
+        return PlaceholderType.PLAIN;
+    }
+
+    /**
+     * Get the name of the placeholder, ie. the text between the curly braces.
+     *
+     * @return Placeholder name
+     */
+    public String getName() {
+
+        return name;
+    }
+
+    /**
+     * Get the placeholder as it appears in the template content.
+     *
+     * @return Placeholder token
+     */
+    public String getToken() {
+
+        return token;
+    }
+
+    /**
+     * Get the data key of a {{url:key}} placeholder.
+     *
+     * @return Data key whose value should be URL encoded, or null if this is not a URL placeholder
+     */
+    public String getUrlEncodedKey() {
+
+        return urlEncodedKey;
+    }
+
+    /**
+     * Get the kind of the placeholder.
+     *
+     * @return Placeholder type
+     */
+    public PlaceholderType getType() {
+
+        return type;
+    }
+
+    /**
+     * Get the key of a {{server.placeholder.key}} placeholder in the EmailTemplatePlaceholders of identity.xml.
+     *
+     * @return Server placeholder key, or null if this is not a server placeholder
+     */
+    public String getServerPlaceholderKey() {
+
+        return serverPlaceholderKey;
+    }
+
+    /**
+     * Get the URI of the claim a {{user.claim.name}} or {{user.claim.identity.name}} placeholder is resolved from.
+     *
+     * @return Claim URI, or null if this is not a claim placeholder
+     */
+    public String getClaimUri() {
+
+        return claimUri;
+    }
+
+    /**
+     * Resolve the value of the placeholder from the given placeholder data.
+     *
+     * @param placeholderData Placeholder data
+     * @return Resolved value or null if the placeholder data does not have a value for this placeholder
+     */
+    String resolve(Map<String, String> placeholderData) {
+
+        if (urlEncodedKey != null) {
+            String value = placeholderData.get(urlEncodedKey);
+            if (value != null) {
+                try {
+                    return URLEncoder.encode(value, "UTF-8");
+                } catch (UnsupportedEncodingException e) {
+                    throw NotificationRuntimeException.error(e.getMessage(), e);
+                }
+            }
+        }
+        return placeholderData.get(name);
+    }
+
+    @Override
+    public String toString() {
+
+        return token;
+    }
+}
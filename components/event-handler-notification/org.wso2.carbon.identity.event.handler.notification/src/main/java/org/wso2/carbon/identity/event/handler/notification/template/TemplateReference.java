@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Objects;
+
+/**
+ * Compact reference to the template a notification was rendered from, published instead of the raw template content
+ * when the template reference payload mode is enabled. The reference is formatted as
+ * {@code tenantDomain/channel/templateType/locale/revision}, where the revision is the content hash of the template,
+ * so that a consumer can resolve the template from the template manager and verify that it is the same revision.
+ */
+public final class TemplateReference {
+
+    private static final char SEPARATOR = '/';
+    private static final int FIELD_COUNT = 5;
+
+    private final String tenantDomain;
+    private final String notificationChannel;
+    private final String templateType;
+    private final String locale;
+    private final String revision;
+
+    public TemplateReference(String tenantDomain, String notificationChannel, String templateType, String locale,
+                             String revision) {
+
+        this.tenantDomain = tenantDomain;
+        this.notificationChannel = notificationChannel;
+        this.templateType = templateType;
+        this.locale = locale;
+        this.revision = revision;
+    }
+
+    /**
+     * Build the reference of a compiled template.
+     *
+     * @param tenantDomain     Tenant domain of the template
+     * @param compiledTemplate Compiled template
+     * @return Template reference
+     */
+    public static TemplateReference of(String tenantDomain, CompiledNotificationTemplate compiledTemplate) {
+
+        return new TemplateReference(tenantDomain, compiledTemplate.getNotificationChannel(),
+                compiledTemplate.getTemplateType(), compiledTemplate.getLocale(), compiledTemplate.getRevision());
+    }
+
+    /**
+     * Parse a reference formatted by {@link #toString()}.
+     *
+     * @param reference Formatted reference
+     * @return Template reference, or null if the value is not a template reference
+     */
+    public static TemplateReference parse(String reference) {
+
+        if (StringUtils.isBlank(reference)) {
+            return null;
+        }
+        String[] fields = StringUtils.splitPreserveAllTokens(reference, SEPARATOR);
+        if (fields.length != FIELD_COUNT) {
+            return null;
+        }
+        return new TemplateReference(StringUtils.trimToNull(fields[0]), StringUtils.trimToNull(fields[1]),
+                StringUtils.trimToNull(fields[2]), StringUtils.trimToNull(fields[3]),
+                StringUtils.trimToNull(fields[4]));
+    }
+
+    public String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    public String getNotificationChannel() {
+
+        return notificationChannel;
+    }
+
+    public String getTemplateType() {
+
+        return templateType;
+    }
+
+    public String getLocale() {
+
+        return locale;
+    }
+
+    public String getRevision() {
+
+        return revision;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TemplateReference)) {
+            return false;
+        }
+        TemplateReference that = (TemplateReference) o;
+        return Objects.equals(tenantDomain, that.tenantDomain)
+                && Objects.equals(notificationChannel, that.notificationChannel)
+                && Objects.equals(templateType, that.templateType) && Objects.equals(locale, that.locale)
+                && Objects.equals(revision, that.revision);
+    }
+
+    @Override
+    public int hashCode() {
+
+        return Objects.hash(tenantDomain, notificationChannel, templateType, locale, revision);
+    }
+
+    @Override
+    public String toString() {
+
+        return StringUtils.defaultString(tenantDomain) + SEPARATOR + StringUtils.defaultString(notificationChannel) +
+                SEPARATOR + StringUtils.defaultString(templateType) + SEPARATOR + StringUtils.defaultString(locale) +
+                SEPARATOR + StringUtils.defaultString(revision);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.cache.UserClaimCache;
+import org.wso2.carbon.identity.event.handler.notification.dispatch.NotificationDeduplicator;
+
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs the statistics of the notification caches and of the suppressed duplicate notifications at the interval
+ * configured in identity.xml.
+ */
+public class NotificationStatisticsReporter {
+
+    private static final Log log = LogFactory.getLog(NotificationStatisticsReporter.class);
+
+    private static final NotificationStatisticsReporter instance = new NotificationStatisticsReporter();
+
+    private ScheduledThreadPoolExecutor executor;
+
+    private NotificationStatisticsReporter() {
+
+    }
+
+    public static NotificationStatisticsReporter getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Start logging the statistics, if a positive report interval is configured.
+     */
+    public synchronized void start() {
+
+        int interval = NotificationUtil.getIntProperty(NotificationConstants.STATISTICS_REPORT_INTERVAL_PROPERTY,
+                NotificationConstants.DEFAULT_STATISTICS_REPORT_INTERVAL_SECONDS);
+        if (interval <= 0 || executor != null) {
+            return;
+        }
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "NotificationStatisticsReporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::report, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop logging the statistics.
+     */
+    public synchronized void shutdown() {
+
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Build the current statistics of the notification caches and of the suppressed duplicate notifications.
+     *
+     * @return Statistics, or an empty string if there is nothing to report
+     */
+    public String getStatistics() {
+
+        StringBuilder statistics = new StringBuilder();
+        UserClaimCache userClaimCache = UserClaimCache.getInstance();
+        if (userClaimCache.isEnabled()) {
+            statistics.append("User claim cache - size: ").append(userClaimCache.getSize())
+                    .append(", hits: ").append(userClaimCache.getHitCount())
+                    .append(", misses: ").append(userClaimCache.getMissCount()).append(". ");
+        }
+        NotificationDeduplicator deduplicator = NotificationDeduplicator.getInstance();
+        Map<String, Long> suppressedCounts = deduplicator.getSuppressedCounts();
+        if (deduplicator.isEnabled() && !suppressedCounts.isEmpty()) {
+            statistics.append("Suppressed duplicate notifications within ").append(deduplicator.getWindowSeconds())
+                    .append(" seconds - ").append(suppressedCounts).append(". ");
+        }
+        return statistics.toString().trim();
+    }
+
+    private void report() {
+
+        try {
+            String statistics = getStatistics();
+            if (!statistics.isEmpty()) {
+                log.info("Notification statistics: " + statistics);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error while reporting the notification statistics.", e);
+        }
+    }
+}
@@ -31,8 +31,6 @@ import org.wso2.carbon.event.publisher.core.config.EventPublisherConfiguration;
 import org.wso2.carbon.event.publisher.core.exception.EventPublisherConfigurationException;
 import org.wso2.carbon.event.stream.core.EventStreamService;
 import org.wso2.carbon.event.stream.core.exception.EventStreamConfigurationException;
-import org.wso2.carbon.identity.application.authentication.framework.config.ConfigurationFacade;
-import org.wso2.carbon.identity.core.ServiceURLBuilder;
 import org.wso2.carbon.identity.core.URLBuilderException;
 import org.wso2.carbon.identity.core.util.IdentityConfigParser;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
@@ -41,22 +39,38 @@ import org.wso2.carbon.identity.event.IdentityEventConstants;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+import org.wso2.carbon.identity.event.handler.notification.cache.TenantUrlContextCache;
+import org.wso2.carbon.identity.event.handler.notification.cache.UserClaimCache;
+import org.wso2.carbon.identity.event.handler.notification.cache.UserStoreManagerCache;
 import org.wso2.carbon.identity.event.handler.notification.email.bean.Notification;
 import org.wso2.carbon.identity.event.handler.notification.exception.NotificationRuntimeException;
 import org.wso2.carbon.identity.event.handler.notification.internal.NotificationHandlerDataHolder;
+import org.wso2.carbon.identity.event.handler.notification.template.CompiledNotificationTemplate;
+import org.wso2.carbon.identity.event.handler.notification.template.CompiledTemplateCache;
+import org.wso2.carbon.identity.event.handler.notification.template.PlaceholderContext;
+import org.wso2.carbon.identity.event.handler.notification.template.TemplatePlaceholder;
+import org.wso2.carbon.identity.event.handler.notification.template.TemplateReference;
+import org.wso2.carbon.identity.governance.exceptions.notiification.NotificationTemplateManagerException;
+import org.wso2.carbon.identity.governance.model.NotificationTemplate;
 import org.wso2.carbon.identity.governance.model.UserIdentityClaim;
+import org.wso2.carbon.identity.governance.service.notification.NotificationChannels;
 import org.wso2.carbon.user.api.Claim;
+import org.wso2.carbon.user.api.UserRealm;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.api.UserStoreManager;
 import org.wso2.carbon.user.core.UserCoreConstants;
 import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
+import org.wso2.carbon.user.core.model.UserClaimSearchEntry;
 import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.user.core.util.UserCoreUtil;
 
 import javax.xml.namespace.QName;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -73,67 +87,259 @@ public class NotificationUtil {
     private static final Log log = LogFactory.getLog(NotificationUtil.class);
 
     private static final String USER_IDENTITY_CLAIMS = "UserIdentityClaims";
+    // Snapshot of the server placeholders of identity.xml, which is replaced as a whole on reload.
+    private static volatile Map<String, String> configFilePlaceholders;
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\{\\{(.*?)\\}\\}");
 
     public static Map<String, String> getUserClaimValues(String userName, UserStoreManager userStoreManager) {
 
-        Claim[] userClaims;
         Map<String, String> claimsMap = new HashMap<String, String>();
         try {
-            userClaims = userStoreManager.getUserClaimValues(userName, UserCoreConstants.DEFAULT_PROFILE);
+            Claim[] userClaims = userStoreManager.getUserClaimValues(userName, UserCoreConstants.DEFAULT_PROFILE);
             if (userClaims != null) {
                 for (Claim userClaim : userClaims) {
                     claimsMap.put(userClaim.getClaimUri(), userClaim.getValue());
                 }
             }
-            UserIdentityClaim userIdentityClaims =
-                    (UserIdentityClaim) IdentityUtil.threadLocalProperties.get().get(USER_IDENTITY_CLAIMS);
-            Map<String, String> userIdentityDataMap;
-            if (userIdentityClaims == null) {
-                userIdentityDataMap = new HashMap<>();
-            } else {
-                userIdentityDataMap = userIdentityClaims.getUserIdentityDataMap();
+            addUserIdentityClaims(claimsMap);
+        } catch (UserStoreException e) {
+            logClaimRetrievalError(userName, userStoreManager, e);
+        }
+
+        return claimsMap;
+    }
+
+    /**
+     * Get the values of the given claims of the user. Only the requested claims are read from the user store, while
+     * the identity claims of the current flow are added as they are available without a user store call. Claims
+     * which were read recently for the same user are served from the {@link UserClaimCache}.
+     *
+     * @param userName         Username
+     * @param userStoreManager User store manager of the user
+     * @param claimUris        URIs of the claims to be read
+     * @return Map of claim URIs and claim values. Claims without a value are not included
+     */
+    public static Map<String, String> getUserClaimValues(String userName, UserStoreManager userStoreManager,
+                                                         Collection<String> claimUris) {
+
+        Map<String, String> claimsMap = new HashMap<>();
+        try {
+            UserClaimCache userClaimCache = UserClaimCache.getInstance();
+            Collection<String> claimsToRead = claimUris;
+            int tenantId = 0;
+            String domainName = null;
+            long generation = 0;
+            if (userClaimCache.isEnabled()) {
+                tenantId = userStoreManager.getTenantId();
+                domainName = getUserStoreDomainName(userStoreManager);
+                generation = userClaimCache.getGeneration(tenantId, domainName, userName);
+                UserClaimCache.CachedClaims cachedClaims = userClaimCache.getValueFromCache(tenantId, domainName,
+                        userName, claimUris);
+                if (cachedClaims != null) {
+                    claimsToRead = new HashSet<>(claimUris);
+                    claimsToRead.removeAll(cachedClaims.getClaimUris());
+                    for (String claimUri : claimUris) {
+                        String value = cachedClaims.getClaims().get(claimUri);
+                        if (value != null) {
+                            claimsMap.put(claimUri, value);
+                        }
+                    }
+                }
             }
-            for (String key : userIdentityDataMap.keySet()) {
-                if (!claimsMap.containsKey(key)) {
-                    claimsMap.put(key, userIdentityDataMap.get(key));
+            if (!claimsToRead.isEmpty()) {
+                Map<String, String> userClaims = userStoreManager.getUserClaimValues(userName,
+                        claimsToRead.toArray(new String[0]), UserCoreConstants.DEFAULT_PROFILE);
+                if (userClaims == null) {
+                    userClaims = Collections.emptyMap();
                 }
+                claimsMap.putAll(userClaims);
+                userClaimCache.addToCache(tenantId, domainName, userName, claimsToRead, userClaims, generation);
             }
+            // Identity claims of the current flow are not cached, as they are specific to the flow.
+            addUserIdentityClaims(claimsMap);
         } catch (UserStoreException e) {
-            String domainNameProperty = getUserStoreDomainName(userStoreManager);
-            String message = null;
-            if (StringUtils.isNotBlank(domainNameProperty)) {
-                message = "Error occurred while retrieving user claim values for user " + userName + " in user store "
-                        + domainNameProperty + " in tenant " + getTenantDomain(userStoreManager);
+            logClaimRetrievalError(userName, userStoreManager, e);
+        }
+        return claimsMap;
+    }
+
+    public static Map<String, String> getUserClaimValues(String userName, String domainName, String tenantDomain)
+            throws IdentityEventException {
+
+        return getUserClaimValues(userName, getUserStoreManager(userName, domainName, tenantDomain));
+    }
+
+    /**
+     * Get the values of the given claims of a user of the given user store domain and tenant.
+     *
+     * @param userName     Username
+     * @param domainName   User store domain of the user
+     * @param tenantDomain Tenant domain of the user
+     * @param claimUris    URIs of the claims to be read
+     * @return Map of claim URIs and claim values. Claims without a value are not included
+     * @throws IdentityEventException If the user store manager of the user cannot be resolved
+     */
+    public static Map<String, String> getUserClaimValues(String userName, String domainName, String tenantDomain,
+                                                         Collection<String> claimUris)
+            throws IdentityEventException {
+
+        return getUserClaimValues(userName, getUserStoreManager(userName, domainName, tenantDomain), claimUris);
+    }
+
+    /**
+     * Get the values of the given claims of many users of the same user store domain and tenant. Claims which were
+     * read recently are served from the {@link UserClaimCache}, while the claims of the remaining users are read from
+     * the user store in a single call where the user store manager supports it.
+     *
+     * @param userNames    Usernames without the user store domain
+     * @param domainName   User store domain of the users
+     * @param tenantDomain Tenant domain of the users
+     * @param claimUris    URIs of the claims to be read
+     * @return Map of usernames to their claim URIs and claim values. Claims without a value are not included
+     * @throws IdentityEventException If the user store manager of the users cannot be resolved
+     */
+    public static Map<String, Map<String, String>> getUsersClaimValues(Collection<String> userNames,
+                                                                       String domainName, String tenantDomain,
+                                                                       Collection<String> claimUris)
+            throws IdentityEventException {
+
+        UserStoreManager userStoreManager = getUserStoreManager(null, domainName, tenantDomain);
+        if (userStoreManager == null) {
+            throw new IdentityEventException("User store: " + domainName + " is not available in tenant: "
+                    + tenantDomain);
+        }
+        Map<String, Map<String, String>> usersClaims = new HashMap<>(userNames.size() * 4 / 3 + 1);
+        if (claimUris.isEmpty()) {
+            for (String userName : userNames) {
+                usersClaims.put(userName, new HashMap<String, String>());
+            }
+            return usersClaims;
+        }
+
+        UserClaimCache userClaimCache = UserClaimCache.getInstance();
+        int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
+        List<String> usersToRead = new ArrayList<>();
+        Map<String, Long> generations = new HashMap<>();
+        for (String userName : userNames) {
+            UserClaimCache.CachedClaims cachedClaims = userClaimCache.getValueFromCache(tenantId, domainName,
+                    userName, claimUris);
+            if (cachedClaims != null && cachedClaims.getClaimUris().containsAll(claimUris)) {
+                Map<String, String> claimsMap = new HashMap<>();
+                for (String claimUri : claimUris) {
+                    String value = cachedClaims.getClaims().get(claimUri);
+                    if (value != null) {
+                        claimsMap.put(claimUri, value);
+                    }
+                }
+                usersClaims.put(userName, claimsMap);
             } else {
-                message = "Error occurred while retrieving user claim values for user " + userName + " in tenant "
-                        + getTenantDomain(userStoreManager);
+                usersToRead.add(userName);
+                generations.put(userName, userClaimCache.getGeneration(tenantId, domainName, userName));
             }
-            log.error(message, e);
+        }
+        if (usersToRead.isEmpty()) {
+            return usersClaims;
         }
 
-        return claimsMap;
+        if (!(userStoreManager instanceof org.wso2.carbon.user.core.UserStoreManager)) {
+            for (String userName : usersToRead) {
+                usersClaims.put(userName, getUserClaimValues(userName, userStoreManager, claimUris));
+            }
+            return usersClaims;
+        }
+        try {
+            UserClaimSearchEntry[] searchEntries = ((org.wso2.carbon.user.core.UserStoreManager) userStoreManager)
+                    .getUsersClaimValues(usersToRead.toArray(new String[0]), claimUris.toArray(new String[0]),
+                            UserCoreConstants.DEFAULT_PROFILE);
+            if (searchEntries != null) {
+                for (UserClaimSearchEntry searchEntry : searchEntries) {
+                    if (searchEntry == null || searchEntry.getUserName() == null) {
+                        continue;
+                    }
+                    Map<String, String> claimsMap = searchEntry.getClaims() != null ?
+                            new HashMap<>(searchEntry.getClaims()) : new HashMap<String, String>();
+                    String userName = UserCoreUtil.removeDomainFromName(searchEntry.getUserName());
+                    usersClaims.put(userName, claimsMap);
+                    // A user returned with a name which was not requested is not cached, as its generation is unknown.
+                    Long generation = generations.get(userName);
+                    if (generation != null) {
+                        userClaimCache.addToCache(tenantId, domainName, userName, claimUris, claimsMap, generation);
+                    }
+                }
+            }
+            // Users which do not exist in the user store are not returned by the user store manager.
+            for (String userName : usersToRead) {
+                if (!usersClaims.containsKey(userName)) {
+                    usersClaims.put(userName, new HashMap<String, String>());
+                }
+            }
+        } catch (UserStoreException e) {
+            String message = "Error occurred while retrieving user claim values of " + usersToRead.size() + " users " +
+                    "in user store " + domainName + " in tenant " + tenantDomain;
+            throw new IdentityEventException(message, e);
+        }
+        return usersClaims;
     }
 
-    public static Map<String, String> getUserClaimValues(String userName, String domainName, String tenantDomain)
+    private static UserStoreManager getUserStoreManager(String userName, String domainName, String tenantDomain)
             throws IdentityEventException {
 
+        UserStoreManagerCache userStoreManagerCache = UserStoreManagerCache.getInstance();
+        UserStoreManagerCache.ResolvedUserStoreManager resolved =
+                userStoreManagerCache.getValueFromCache(tenantDomain, domainName);
+        if (resolved != null) {
+            return resolved.getUserStoreManager();
+        }
+
         RealmService realmService = NotificationHandlerDataHolder.getInstance().getRealmService();
         int tenantId = IdentityTenantUtil.getTenantId(tenantDomain);
         UserStoreManager userStoreManager = null;
         try {
-            userStoreManager = realmService.getTenantUserRealm(tenantId).getUserStoreManager();
+            UserRealm userRealm = realmService.getTenantUserRealm(tenantId);
+            userStoreManager = userRealm.getUserStoreManager();
             if (userStoreManager == null) {
                 String message = "Error occurred while retrieving userStoreManager for tenant " + tenantDomain;
                 throw new IdentityEventException(message);
             } else if (userStoreManager instanceof AbstractUserStoreManager) {
                 userStoreManager = ((AbstractUserStoreManager) userStoreManager).getSecondaryUserStoreManager(domainName);
             }
+            userStoreManagerCache.addToCache(tenantDomain, domainName, tenantId, userRealm, userStoreManager);
         } catch (UserStoreException e) {
             String message = "Error occurred while retrieving user claim values for user " + userName + " in user " +
                     "store " + domainName + " in tenant " + tenantDomain;
             throw new IdentityEventException(message, e);
         }
-        return getUserClaimValues(userName, userStoreManager);
+        return userStoreManager;
+    }
+
+    private static void addUserIdentityClaims(Map<String, String> claimsMap) {
+
+        UserIdentityClaim userIdentityClaims =
+                (UserIdentityClaim) IdentityUtil.threadLocalProperties.get().get(USER_IDENTITY_CLAIMS);
+        if (userIdentityClaims == null) {
+            return;
+        }
+        Map<String, String> userIdentityDataMap = userIdentityClaims.getUserIdentityDataMap();
+        for (String key : userIdentityDataMap.keySet()) {
+            if (!claimsMap.containsKey(key)) {
+                claimsMap.put(key, userIdentityDataMap.get(key));
+            }
+        }
+    }
+
+    private static void logClaimRetrievalError(String userName, UserStoreManager userStoreManager,
+                                               UserStoreException e) {
+
+        String domainNameProperty = getUserStoreDomainName(userStoreManager);
+        String message = null;
+        if (StringUtils.isNotBlank(domainNameProperty)) {
+            message = "Error occurred while retrieving user claim values for user " + userName + " in user store "
+                    + domainNameProperty + " in tenant " + getTenantDomain(userStoreManager);
+        } else {
+            message = "Error occurred while retrieving user claim values for user " + userName + " in tenant "
+                    + getTenantDomain(userStoreManager);
+        }
+        log.error(message, e);
     }
 
     /**
@@ -147,72 +353,87 @@ public class NotificationUtil {
     public static Map<String, String> getPlaceholderValues(EmailTemplate emailTemplate,
                                                            Map<String, String> placeHolderData, Map<String, String> userClaims) {
 
-        Map<String, String> configFilePlaceholders = getConfigFilePlaceholders();
+        return getPlaceholderValues(CompiledNotificationTemplate.compile(emailTemplate), placeHolderData,
+                userClaims != null && !userClaims.isEmpty() ? userClaims : null);
+    }
 
-        // Having a body is mandatory.
-        List<String> placeHolders = new ArrayList<>(extractPlaceHolders(emailTemplate.getBody()));
-        if (StringUtils.isNotEmpty(emailTemplate.getSubject())) {
-            placeHolders.addAll(extractPlaceHolders(emailTemplate.getSubject()));
-        }
-        if (StringUtils.isNotEmpty(emailTemplate.getFooter())) {
-            placeHolders.addAll(extractPlaceHolders(emailTemplate.getFooter()));
-        }
+    /**
+     * Set place holder values for a compiled notification template. The placeholders of the template are already
+     * extracted when the template is compiled.
+     *
+     * @param compiledTemplate {@link CompiledNotificationTemplate}
+     * @param placeHolderData  List of place holder data
+     * @param userClaims       List of user claims, or null if the claims of the user are not available. Claim
+     *                         placeholders without a value in the user claims are resolved to an empty value
+     * @return Place holder data
+     */
+    public static Map<String, String> getPlaceholderValues(CompiledNotificationTemplate compiledTemplate,
+                                                           Map<String, String> placeHolderData,
+                                                           Map<String, String> userClaims) {
 
-        for (String placeHolder : placeHolders) {
+        Map<String, String> configFilePlaceholders = getConfigFilePlaceholders();
+
+        boolean hasUserClaims = userClaims != null;
+        for (TemplatePlaceholder placeholder : compiledTemplate.getPlaceholderIndex()) {
             // Setting config file place holders.
-            if (placeHolder.startsWith(NotificationConstants.EmailNotification.IDENTITY_TEMPLATE_VALUE_PREFIX)) {
-                String key = placeHolder.substring(placeHolder.lastIndexOf(".") + 1);
-                String value = configFilePlaceholders.getOrDefault(key, "");
-                placeHolderData.put(placeHolder, value);
+            if (placeholder.getServerPlaceholderKey() != null) {
+                String value = configFilePlaceholders.getOrDefault(placeholder.getServerPlaceholderKey(), "");
+                placeHolderData.put(placeholder.getName(), value);
             }
-            if (userClaims != null && !userClaims.isEmpty()) {
-                if (placeHolder.contains(NotificationConstants.EmailNotification.USER_CLAIM_PREFIX + "."
-                        + NotificationConstants.EmailNotification.IDENTITY_CLAIM_PREFIX)) {
-                    String identityClaim = userClaims.get(NotificationConstants.EmailNotification.WSO2_CLAIM_URI
-                            + NotificationConstants.EmailNotification.IDENTITY_CLAIM_PREFIX + "/" + placeHolder
-                            .substring(placeHolder.indexOf(".", placeHolder.indexOf("identity")) + 1));
-                    if (StringUtils.isNotEmpty(identityClaim)) {
-                        placeHolderData.put(placeHolder, identityClaim);
-                    } else {
-                        placeHolderData.put(placeHolder, "");
-                    }
-                } else if (placeHolder.contains(NotificationConstants.EmailNotification.USER_CLAIM_PREFIX)) {
-                    String userClaim = userClaims
-                            .get(NotificationConstants.EmailNotification.WSO2_CLAIM_URI + placeHolder
-                                    .substring(placeHolder.indexOf(".", placeHolder.indexOf("claim")) + 1));
-                    if (StringUtils.isNotEmpty(userClaim)) {
-                        placeHolderData.put(placeHolder, userClaim);
-                    } else {
-                        placeHolderData.put(placeHolder, "");
-                    }
+            if (hasUserClaims && placeholder.getClaimUri() != null) {
+                String claimValue = userClaims.get(placeholder.getClaimUri());
+                if (StringUtils.isNotEmpty(claimValue)) {
+                    placeHolderData.put(placeholder.getName(), claimValue);
+                } else {
+                    placeHolderData.put(placeholder.getName(), "");
                 }
             }
         }
-        // Building the server url.
-        String serverURL;
-        String carbonUrlWithUserTenant;
-        String accountRecoveryEndpointURL = ConfigurationFacade.getInstance().getAccountRecoveryEndpointPath();
-        String authenticationEndpointURL = ConfigurationFacade.getInstance().getAuthenticationEndpointURL();
+        // The server urls are built once per tenant and reused for all the notifications.
+        TenantUrlContextCache.TenantUrlContext urlContext;
         try {
-            serverURL = ServiceURLBuilder.create().build().getAbsolutePublicURL();
-            carbonUrlWithUserTenant = ServiceURLBuilder.create().build().getAbsolutePublicUrlWithoutPath();
-            if (IdentityTenantUtil.isTenantQualifiedUrlsEnabled()) {
-                carbonUrlWithUserTenant = ServiceURLBuilder.create().build().getAbsolutePublicUrlWithoutPath() + "/t" +
-                        "/" + placeHolderData.get("tenant-domain");
-            }
+            urlContext = TenantUrlContextCache.getInstance().getTenantUrlContext(placeHolderData.get("tenant-domain"));
         } catch (URLBuilderException e) {
             throw NotificationRuntimeException.error("Error while building the server url.", e);
         }
-
-        placeHolderData.put(ACCOUNT_RECOVERY_ENDPOINT_PLACEHOLDER, accountRecoveryEndpointURL);
-        placeHolderData.put(AUTHENTICATION_ENDPOINT_PLACEHOLDER, authenticationEndpointURL);
-        placeHolderData.put(CARBON_PRODUCT_URL_TEMPLATE_PLACEHOLDER, serverURL);
-        placeHolderData.put(CARBON_PRODUCT_URL_WITH_USER_TENANT_TEMPLATE_PLACEHOLDER, carbonUrlWithUserTenant);
+        placeHolderData.put(ACCOUNT_RECOVERY_ENDPOINT_PLACEHOLDER, urlContext.getAccountRecoveryEndpointUrl());
+        placeHolderData.put(AUTHENTICATION_ENDPOINT_PLACEHOLDER, urlContext.getAuthenticationEndpointUrl());
+        placeHolderData.put(CARBON_PRODUCT_URL_TEMPLATE_PLACEHOLDER, urlContext.getServerUrl());
+        placeHolderData.put(CARBON_PRODUCT_URL_WITH_USER_TENANT_TEMPLATE_PLACEHOLDER,
+                urlContext.getServerUrlWithUserTenant());
         return placeHolderData;
     }
 
+    /**
+     * Get the server placeholders configured in the EmailTemplatePlaceholders element of identity.xml. The
+     * placeholders are read once and shared as an immutable snapshot.
+     *
+     * @return Unmodifiable map of server placeholder keys and values
+     */
     public static Map<String, String> getConfigFilePlaceholders() {
 
+        Map<String, String> placeholders = configFilePlaceholders;
+        if (placeholders == null) {
+            placeholders = reloadConfigFilePlaceholders();
+        }
+        return placeholders;
+    }
+
+    /**
+     * Read the server placeholders from identity.xml and replace the snapshot returned by
+     * {@link #getConfigFilePlaceholders()}.
+     *
+     * @return Unmodifiable map of server placeholder keys and values
+     */
+    public static Map<String, String> reloadConfigFilePlaceholders() {
+
+        Map<String, String> placeholders = readConfigFilePlaceholders();
+        configFilePlaceholders = placeholders;
+        return placeholders;
+    }
+
+    private static Map<String, String> readConfigFilePlaceholders() {
+
         IdentityConfigParser configParser = IdentityConfigParser.getInstance();
         OMElement placeHolderElem = configParser.getConfigElement(
                 NotificationConstants.EmailNotification.TEMPLATE_PLACEHOLDERS_ELEM);
@@ -226,24 +447,22 @@ public class NotificationUtil {
             return Collections.emptyMap();
         }
 
+        QName keyAttribute = new QName(NotificationConstants.EmailNotification.TEMPLATE_PLACEHOLDER_KEY_ATTRIB);
         Map<String, String> placeholderMap = new HashMap<>();
         while (iterator.hasNext()) {
             OMElement omElement = (OMElement) iterator.next();
             if (omElement != null) {
-                String key = omElement.getAttributeValue(
-                        new QName(NotificationConstants.EmailNotification.TEMPLATE_PLACEHOLDER_KEY_ATTRIB));
+                String key = omElement.getAttributeValue(keyAttribute);
                 String value = omElement.getText();
                 placeholderMap.put(key, value);
             }
         }
-        return placeholderMap;
+        return Collections.unmodifiableMap(placeholderMap);
     }
 
     public static List<String> extractPlaceHolders(String value) {
 
-        String exp = "\\{\\{(.*?)\\}\\}";
-        Pattern pattern = Pattern.compile(exp);
-        Matcher matcher = pattern.matcher(value);
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(value);
         List<String> placeHolders = new ArrayList<>();
         while (matcher.find()) {
             String group = matcher.group().replace("{{", "").replace("}}", "");
@@ -252,6 +471,82 @@ public class NotificationUtil {
         return placeHolders;
     }
 
+    /**
+     * Read an integer property of identity.xml.
+     *
+     * @param propertyName Name of the property
+     * @param defaultValue Value to be used if the property is not configured or is not a valid integer
+     * @return Configured value or the default value
+     */
+    public static int getIntProperty(String propertyName, int defaultValue) {
+
+        String value = IdentityUtil.getProperty(propertyName);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value: " + value + " configured for " + propertyName + ". Using the default value: "
+                    + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Read a boolean property of identity.xml.
+     *
+     * @param propertyName Name of the property
+     * @param defaultValue Value to be used if the property is not configured
+     * @return Configured value or the default value
+     */
+    public static boolean getBooleanProperty(String propertyName, boolean defaultValue) {
+
+        String value = IdentityUtil.getProperty(propertyName);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Check whether a reference to the template is published with the notification events instead of the raw template
+     * content. The rendered subject, body and footer are published in both modes.
+     *
+     * @return True if the template reference payload mode is enabled in identity.xml
+     */
+    public static boolean isTemplateReferencePayloadEnabled() {
+
+        return TemplatePayloadMode.TEMPLATE_REFERENCE;
+    }
+
+    /**
+     * Add the template data of a notification to the data published with the event. The raw subject, body and footer
+     * templates are added, unless the template reference payload mode is enabled, in which case only a
+     * {@link TemplateReference} of the template is added.
+     *
+     * @param arbitraryDataMap Data published with the event
+     * @param template         Compiled template of the notification
+     * @param tenantDomain     Tenant domain of the template
+     */
+    public static void addTemplateData(Map<String, String> arbitraryDataMap, CompiledNotificationTemplate template,
+                                       String tenantDomain) {
+
+        if (isTemplateReferencePayloadEnabled()) {
+            arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_TEMPLATE_REFERENCE,
+                    TemplateReference.of(tenantDomain, template).toString());
+            return;
+        }
+        arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_BODY_TEMPLATE,
+                template.getBodyTemplate());
+        if (!NotificationChannels.SMS_CHANNEL.getChannelType().equals(template.getNotificationChannel())) {
+            arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_SUBJECT_TEMPLATE,
+                    template.getSubjectTemplate());
+            arbitraryDataMap.put(NotificationConstants.EmailNotification.ARBITRARY_FOOTER_TEMPLATE,
+                    template.getFooterTemplate());
+        }
+    }
+
     public static String getUserStoreDomainName(UserStoreManager userStoreManager) {
 
         String domainNameProperty = null;
@@ -335,27 +630,98 @@ public class NotificationUtil {
             }
         }
 
-        EmailTemplate emailTemplate;
-        try {
-            emailTemplate = NotificationHandlerDataHolder.getInstance().getEmailTemplateManager().getEmailTemplate(notificationEvent, locale, tenantDomain);
-        } catch (I18nEmailMgtException e) {
-            String message = "Error when retrieving template from tenant registry.";
-            throw NotificationRuntimeException.error(message, e);
+        String emailChannel = NotificationChannels.EMAIL_CHANNEL.getChannelType();
+        CompiledNotificationTemplate compiledTemplate = getCachedTemplate(emailChannel, notificationEvent, locale,
+                tenantDomain);
+        if (compiledTemplate == null) {
+            EmailTemplate emailTemplate;
+            try {
+                emailTemplate = NotificationHandlerDataHolder.getInstance().getEmailTemplateManager()
+                        .getEmailTemplate(notificationEvent, locale, tenantDomain);
+            } catch (I18nEmailMgtException e) {
+                String message = "Error when retrieving template from tenant registry.";
+                throw NotificationRuntimeException.error(message, e);
+            }
+            compiledTemplate = CompiledNotificationTemplate.compile(emailTemplate);
+            addTemplateToCache(emailChannel, notificationEvent, locale, tenantDomain, compiledTemplate);
         }
 
+        if (placeHolderData instanceof PlaceholderContext) {
+            ((PlaceholderContext) placeHolderData).presize(compiledTemplate);
+        }
         // This is added to change the copyright year in the email templates dynamically.
         int currentYear = Calendar.getInstance().get(Calendar.YEAR);
         placeHolderData.put("current-year", String.valueOf(currentYear));
 
-        NotificationUtil.getPlaceholderValues(emailTemplate, placeHolderData, userClaims);
+        NotificationUtil.getPlaceholderValues(compiledTemplate, placeHolderData,
+                userClaims.isEmpty() ? null : userClaims);
 
         Notification.EmailNotificationBuilder builder =
                 new Notification.EmailNotificationBuilder(sendTo);
         builder.setSendFrom(sendFrom);
-        builder.setTemplate(emailTemplate);
+        builder.setCompiledTemplate(compiledTemplate);
         builder.setPlaceHolderData(placeHolderData);
         Notification emailNotification = builder.build();
         return emailNotification;
     }
-}
 
+    /**
+     * Get the compiled notification template of the given template type and locale. The template is read from the
+     * notification template manager and compiled only if it is not already cached.
+     *
+     * @param notificationChannel Notification channel
+     * @param templateType        Template type
+     * @param locale              Locale
+     * @param tenantDomain        Tenant domain
+     * @return Compiled notification template
+     * @throws NotificationTemplateManagerException Error getting the notification template
+     */
+    public static CompiledNotificationTemplate getCompiledNotificationTemplate(String notificationChannel,
+                                                                               String templateType, String locale,
+                                                                               String tenantDomain)
+            throws NotificationTemplateManagerException {
+
+        CompiledNotificationTemplate compiledTemplate = getCachedTemplate(notificationChannel, templateType, locale,
+                tenantDomain);
+        if (compiledTemplate == null) {
+            // The generation is taken before the read, so that a template changed during the read is not cached.
+            long generation = CompiledTemplateCache.getInstance().getGeneration();
+            NotificationTemplate notificationTemplate = NotificationHandlerDataHolder.getInstance()
+                    .getNotificationTemplateManager()
+                    .getNotificationTemplate(notificationChannel, templateType, locale, tenantDomain);
+            compiledTemplate = CompiledNotificationTemplate.compile(notificationTemplate);
+            addTemplateToCache(notificationChannel, templateType, locale, tenantDomain, compiledTemplate, generation);
+        }
+        return compiledTemplate;
+    }
+
+    private static CompiledNotificationTemplate getCachedTemplate(String notificationChannel, String templateType,
+                                                                  String locale, String tenantDomain) {
+
+        if (StringUtils.isBlank(tenantDomain)) {
+            return null;
+        }
+        return CompiledTemplateCache.getInstance().getValueFromCache(tenantDomain, notificationChannel, templateType,
+                locale);
+    }
+
+    private static void addTemplateToCache(String notificationChannel, String templateType, String locale,
+                                           String tenantDomain, CompiledNotificationTemplate compiledTemplate,
+                                           long generation) {
+
+        // Template changes are notified with the tenant domain, hence templates of an unknown tenant are not cached.
+        if (StringUtils.isNotBlank(tenantDomain)) {
+            CompiledTemplateCache.getInstance().addToCache(tenantDomain, notificationChannel, templateType, locale,
+                    compiledTemplate, generation);
+        }
+    }
+
+    /**
+     * Payload mode of the notification events, read from identity.xml on first use.
+     */
+    private static final class TemplatePayloadMode {
+
+        private static final boolean TEMPLATE_REFERENCE = getBooleanProperty(
+                NotificationConstants.PUBLISHER_TEMPLATE_REFERENCE_PAYLOAD_PROPERTY, false);
+    }
+}
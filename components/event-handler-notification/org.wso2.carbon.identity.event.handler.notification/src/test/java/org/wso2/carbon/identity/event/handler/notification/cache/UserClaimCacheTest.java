@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.cache;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test cases of the caching and eviction of the user claims read to render notifications.
+ */
+public class UserClaimCacheTest {
+
+    private static final int TENANT_ID = 1;
+    private static final String DOMAIN_NAME = "PRIMARY";
+    private static final String USER_NAME = "john";
+    private static final String OTHER_USER_NAME = "jane";
+    private static final String EMAIL_CLAIM = "http://wso2.org/claims/emailaddress";
+    private static final List<String> CLAIM_URIS = Collections.singletonList(EMAIL_CLAIM);
+
+    private UserClaimCache cache;
+
+    @BeforeMethod
+    public void setUp() {
+
+        cache = new UserClaimCache(true, 100, 60);
+    }
+
+    @Test
+    public void testClaimsAreCached() {
+
+        addToCache(USER_NAME, "old@wso2.com", cache.getGeneration(TENANT_ID, DOMAIN_NAME, USER_NAME));
+        Assert.assertEquals(getEmail(USER_NAME), "old@wso2.com");
+
+        cache.clearCacheEntry(TENANT_ID, DOMAIN_NAME, USER_NAME);
+        Assert.assertNull(cache.getValueFromCache(TENANT_ID, DOMAIN_NAME, USER_NAME, CLAIM_URIS));
+    }
+
+    @Test
+    public void testClaimsReadBeforeEvictionAreNotCached() {
+
+        // The claims are read, then the user is updated and evicted before the read claims are added to the cache.
+        long generation = cache.getGeneration(TENANT_ID, DOMAIN_NAME, USER_NAME);
+        cache.clearCacheEntry(TENANT_ID, DOMAIN_NAME, USER_NAME);
+        addToCache(USER_NAME, "old@wso2.com", generation);
+        Assert.assertNull(cache.getValueFromCache(TENANT_ID, DOMAIN_NAME, USER_NAME, CLAIM_URIS),
+                "Claims read before the eviction of the user should not be cached.");
+
+        // Claims read after the eviction are cached.
+        addToCache(USER_NAME, "new@wso2.com", cache.getGeneration(TENANT_ID, DOMAIN_NAME, USER_NAME));
+        Assert.assertEquals(getEmail(USER_NAME), "new@wso2.com");
+    }
+
+    @Test
+    public void testClaimsReadBeforeTenantEvictionAreNotCached() {
+
+        long generation = cache.getGeneration(TENANT_ID, DOMAIN_NAME, OTHER_USER_NAME);
+        cache.clearTenant(TENANT_ID);
+        addToCache(OTHER_USER_NAME, "jane@wso2.com", generation);
+        Assert.assertNull(cache.getValueFromCache(TENANT_ID, DOMAIN_NAME, OTHER_USER_NAME, CLAIM_URIS));
+    }
+
+    private void addToCache(String userName, String email, long generation) {
+
+        Map<String, String> claims = Collections.singletonMap(EMAIL_CLAIM, email);
+        cache.addToCache(TENANT_ID, DOMAIN_NAME, userName, CLAIM_URIS, claims, generation);
+    }
+
+    private String getEmail(String userName) {
+
+        UserClaimCache.CachedClaims cachedClaims = cache.getValueFromCache(TENANT_ID, DOMAIN_NAME, userName,
+                CLAIM_URIS);
+        Assert.assertNotNull(cachedClaims);
+        return cachedClaims.getClaims().get(EMAIL_CLAIM);
+    }
+}
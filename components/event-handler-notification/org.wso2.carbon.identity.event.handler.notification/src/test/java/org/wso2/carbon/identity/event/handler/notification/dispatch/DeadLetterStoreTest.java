@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test cases of the replay of the notification dead letters.
+ */
+public class DeadLetterStoreTest {
+
+    private static final String STREAM_ID = "id_gov_notify_stream:1.0.0";
+    private static final int CAPACITY = 2;
+
+    private File directory;
+    private File spillFile;
+    private List<String> published;
+    private int failAt;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+
+        directory = Files.createTempDirectory("notification-dead-letter").toFile();
+        spillFile = new File(directory, "dead-letters.dat");
+        published = new ArrayList<>();
+        failAt = -1;
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testReplayPublishesMemoryAndSpilledLetters() {
+
+        DeadLetterStore store = newStore();
+        for (int i = 1; i <= 4; i++) {
+            Assert.assertTrue(store.add(newDeadLetter(String.valueOf(i))));
+        }
+        Assert.assertEquals(store.getDeadLetterCount(), 4);
+
+        Assert.assertEquals(store.replayDeadLetters(), 4);
+        Collections.sort(published);
+        Assert.assertEquals(published, Arrays.asList("1", "2", "3", "4"));
+        Assert.assertEquals(store.getDeadLetterCount(), 0);
+        Assert.assertEquals(directory.listFiles().length, 0, "The replayed spill file should be deleted.");
+    }
+
+    @Test
+    public void testFailedReplayKeepsTheLetters() {
+
+        DeadLetterStore store = newStore();
+        for (int i = 1; i <= 5; i++) {
+            store.add(newDeadLetter(String.valueOf(i)));
+        }
+        // The event stream fails on the third dead letter and on all the ones after it.
+        failAt = 2;
+
+        Assert.assertEquals(store.replayDeadLetters(), 2);
+        Assert.assertEquals(published.size(), 2);
+        Assert.assertEquals(store.getDeadLetterCount(), 3, "The letters which failed should be kept.");
+
+        failAt = -1;
+        List<String> first = new ArrayList<>(published);
+        published.clear();
+        Assert.assertEquals(store.replayDeadLetters(), 3);
+        List<String> all = new ArrayList<>(first);
+        all.addAll(published);
+        Collections.sort(all);
+        Assert.assertEquals(all, Arrays.asList("1", "2", "3", "4", "5"),
+                "Each dead letter should be published exactly once.");
+        Assert.assertEquals(store.getDeadLetterCount(), 0);
+    }
+
+    @Test
+    public void testUnfinishedReplayIsReplayedAgain() {
+
+        DeadLetterStore store = newStore();
+        for (int i = 1; i <= 3; i++) {
+            store.add(newDeadLetter(String.valueOf(i)));
+        }
+        store.shutdown();
+        // A replay file left by a replay which did not complete is replayed along with the spill file.
+        Assert.assertTrue(spillFile.renameTo(new File(spillFile.getPath() + ".replay")));
+        DeadLetterStore restarted = newStore();
+        restarted.add(newDeadLetter("4"));
+        restarted.add(newDeadLetter("5"));
+        restarted.add(newDeadLetter("6"));
+
+        Assert.assertEquals(restarted.replayDeadLetters(), 5);
+        List<String> unfinished = new ArrayList<>(published.subList(0, 3));
+        Collections.sort(unfinished);
+        Assert.assertEquals(unfinished, Arrays.asList("1", "2", "3"));
+        // The spilled dead letter is replayed once the unfinished replay is completed.
+        Assert.assertEquals(restarted.getDeadLetterCount(), 1);
+        published.clear();
+        Assert.assertEquals(restarted.replayDeadLetters(), 1);
+        Assert.assertEquals(published, Collections.singletonList("6"));
+    }
+
+    private DeadLetterStore newStore() {
+
+        return new DeadLetterStore(CAPACITY, spillFile, letter -> {
+            if (failAt >= 0 && published.size() >= failAt) {
+                throw new IllegalStateException("Event stream is not available.");
+            }
+            published.add(letter.getEvent().getArbitraryDataMap().get("code"));
+        });
+    }
+
+    private static DeadLetter newDeadLetter(String code) {
+
+        Event event = new Event();
+        event.setStreamId(STREAM_ID);
+        event.setTimeStamp(System.currentTimeMillis());
+        Map<String, String> arbitraryDataMap = new HashMap<>();
+        arbitraryDataMap.put("code", code);
+        event.setArbitraryDataMap(arbitraryDataMap);
+        return new DeadLetter(event, NotificationPriority.NORMAL, 1, "wso2.com", 4, "Publish failed",
+                System.currentTimeMillis());
+    }
+}
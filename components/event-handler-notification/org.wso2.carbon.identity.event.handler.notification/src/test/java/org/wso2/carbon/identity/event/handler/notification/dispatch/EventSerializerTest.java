@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test cases of the binary form of the notification events kept on the local disk.
+ */
+public class EventSerializerTest {
+
+    private static final String STREAM_ID = "id_gov_notify_stream:1.0.0";
+    private static final int TENANT_ID = 1;
+    private static final String TENANT_DOMAIN = "wso2.com";
+
+    @Test
+    public void testRoundTrip() throws Exception {
+
+        Map<String, String> arbitraryDataMap = new HashMap<>();
+        arbitraryDataMap.put("send-to", "john@wso2.com");
+        arbitraryDataMap.put("body", "Bonjour \u00e9");
+        arbitraryDataMap.put("footer", null);
+        Event event = createEvent(arbitraryDataMap);
+
+        EventSerializer.TenantEvent tenantEvent = EventSerializer.deserialize(EventSerializer.serialize(event,
+                TENANT_ID, TENANT_DOMAIN));
+        Assert.assertEquals(tenantEvent.getTenantId(), TENANT_ID);
+        Assert.assertEquals(tenantEvent.getTenantDomain(), TENANT_DOMAIN);
+        Assert.assertEquals(tenantEvent.getEvent().getStreamId(), STREAM_ID);
+        Assert.assertEquals(tenantEvent.getEvent().getTimeStamp(), event.getTimeStamp());
+        Assert.assertEquals(tenantEvent.getEvent().getArbitraryDataMap(), arbitraryDataMap);
+    }
+
+    @Test
+    public void testEventWithoutArbitraryData() throws Exception {
+
+        EventSerializer.TenantEvent tenantEvent = EventSerializer.deserialize(EventSerializer.serialize(
+                createEvent(null), TENANT_ID, TENANT_DOMAIN));
+        Assert.assertNull(tenantEvent.getEvent().getArbitraryDataMap());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testUnknownVersionIsRejected() throws Exception {
+
+        byte[] data = EventSerializer.serialize(createEvent(new HashMap<String, String>()), TENANT_ID, TENANT_DOMAIN);
+        data[0] = 0;
+        EventSerializer.deserialize(data);
+    }
+
+    private static Event createEvent(Map<String, String> arbitraryDataMap) {
+
+        Event event = new Event();
+        event.setTimeStamp(System.currentTimeMillis());
+        event.setStreamId(STREAM_ID);
+        event.setArbitraryDataMap(arbitraryDataMap);
+        return event;
+    }
+}
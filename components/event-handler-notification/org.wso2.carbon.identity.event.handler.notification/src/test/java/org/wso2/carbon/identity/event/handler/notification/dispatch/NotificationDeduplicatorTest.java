@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.event.IdentityEventConstants;
+import org.wso2.carbon.identity.event.handler.notification.NotificationConstants;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test cases of the suppression of identical notifications sent within the deduplication window.
+ */
+public class NotificationDeduplicatorTest {
+
+    private static final String STREAM_ID = "id_gov_notify_stream:1.0.0";
+    private static final String TEMPLATE_TYPE = "resendaccountconfirmation";
+    private static final String OTHER_TEMPLATE_TYPE = "passwordreset";
+    private static final int WINDOW_SECONDS = 30;
+    private static final int CAPACITY = 16;
+
+    // Current time of the deduplicator, in nanoseconds.
+    private long now;
+    private NotificationDeduplicator deduplicator;
+
+    @BeforeMethod
+    public void setUp() {
+
+        now = TimeUnit.DAYS.toNanos(1);
+        deduplicator = new NotificationDeduplicator(true, WINDOW_SECONDS, CAPACITY, null, () -> now);
+    }
+
+    @Test
+    public void testDuplicateWithinWindowIsSuppressed() {
+
+        Assert.assertFalse(deduplicator.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "john", "1234")));
+        advanceSeconds(WINDOW_SECONDS - 1);
+        Assert.assertTrue(deduplicator.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "john", "1234")));
+
+        // Notifications which differ in the stream, the user, the code or the template type are not duplicates.
+        Assert.assertFalse(deduplicator.isDuplicate("id_gov_sms_notify_stream:1.0.0",
+                createData(TEMPLATE_TYPE, "john", "1234")));
+        Assert.assertFalse(deduplicator.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "jane", "1234")));
+        Assert.assertFalse(deduplicator.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "john", "5678")));
+        Assert.assertFalse(deduplicator.isDuplicate(STREAM_ID, createData(OTHER_TEMPLATE_TYPE, "john", "1234")));
+    }
+
+    @Test
+    public void testContentIsComparedWithoutCode() {
+
+        Map<String, String> data = createData(TEMPLATE_TYPE, "john", null);
+        data.put(NotificationConstants.EmailNotification.ARBITRARY_BODY, "Body");
+        Assert.assertFalse(deduplicator.isDuplicate(STREAM_ID, data));
+        Assert.assertTrue(deduplicator.isDuplicate(STREAM_ID, new HashMap<>(data)));
+
+        data.put(NotificationConstants.EmailNotification.ARBITRARY_BODY, "Other body");
+        Assert.assertFalse(deduplicator.isDuplicate(STREAM_ID, data));
+    }
+
+    @Test
+    public void testDuplicateAfterWindowIsSent() {
+
+        Assert.assertFalse(deduplicator.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "john", "1234")));
+        advanceSeconds(WINDOW_SECONDS - 1);
+        Assert.assertTrue(deduplicator.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "john", "1234")));
+        // The window starts when the notification is sent, and is not extended by the suppressed duplicates.
+        advanceSeconds(1);
+        Assert.assertFalse(deduplicator.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "john", "1234")));
+        // The notification sent after the window starts a new window.
+        Assert.assertTrue(deduplicator.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "john", "1234")));
+    }
+
+    @Test
+    public void testFingerprintCollisions() {
+
+        long slot = 5;
+        long fingerprint = (0x12345678L << 32) | slot;
+        // Same slot of the table, but a different upper half of the fingerprint.
+        long collidingFingerprint = (0xFEDCBA98L << 32) | (slot + CAPACITY);
+
+        Assert.assertFalse(deduplicator.record(fingerprint));
+        Assert.assertTrue(deduplicator.record(fingerprint));
+        Assert.assertFalse(deduplicator.record(collidingFingerprint), "A fingerprint with a different upper half " +
+                "should not be taken as a duplicate.");
+        Assert.assertTrue(deduplicator.record(collidingFingerprint));
+        // The colliding fingerprint replaced the first one, hence the first one is sent again rather than suppressed.
+        Assert.assertFalse(deduplicator.record(fingerprint));
+
+        // Fingerprints in other slots are not affected.
+        long otherFingerprint = (0x12345678L << 32) | (slot + 1);
+        Assert.assertFalse(deduplicator.record(otherFingerprint));
+        Assert.assertTrue(deduplicator.record(fingerprint));
+        Assert.assertTrue(deduplicator.record(otherFingerprint));
+    }
+
+    @Test
+    public void testSuppressedCounts() {
+
+        for (int i = 0; i < 3; i++) {
+            deduplicator.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "john", "1234"));
+        }
+        deduplicator.isDuplicate(STREAM_ID, createData(OTHER_TEMPLATE_TYPE, "john", "1234"));
+        deduplicator.isDuplicate(STREAM_ID, createData(OTHER_TEMPLATE_TYPE, "john", "1234"));
+
+        Assert.assertEquals(deduplicator.getSuppressedCount(TEMPLATE_TYPE), 2);
+        Assert.assertEquals(deduplicator.getSuppressedCount(OTHER_TEMPLATE_TYPE), 1);
+        Assert.assertEquals(deduplicator.getSuppressedCount("accountconfirmation"), 0);
+        Map<String, Long> expected = new HashMap<>();
+        expected.put(TEMPLATE_TYPE, 2L);
+        expected.put(OTHER_TEMPLATE_TYPE, 1L);
+        Assert.assertEquals(deduplicator.getSuppressedCounts(), expected);
+    }
+
+    @Test
+    public void testDisabledDeduplicator() {
+
+        NotificationDeduplicator disabled = new NotificationDeduplicator(false, WINDOW_SECONDS, CAPACITY, null,
+                () -> now);
+        Assert.assertFalse(disabled.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "john", "1234")));
+        Assert.assertFalse(disabled.isDuplicate(STREAM_ID, createData(TEMPLATE_TYPE, "john", "1234")));
+        Assert.assertTrue(disabled.getSuppressedCounts().isEmpty());
+    }
+
+    private void advanceSeconds(long seconds) {
+
+        now += TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    private static Map<String, String> createData(String templateType, String userName, String code) {
+
+        Map<String, String> data = new HashMap<>();
+        data.put(NotificationConstants.TEMPLATE_TYPE, templateType);
+        data.put(IdentityEventConstants.EventProperty.TENANT_DOMAIN, "carbon.super");
+        data.put(IdentityEventConstants.EventProperty.USER_STORE_DOMAIN, "PRIMARY");
+        data.put(IdentityEventConstants.EventProperty.USER_NAME, userName);
+        data.put(NotificationConstants.EmailNotification.ARBITRARY_SEND_TO, userName + "@wso2.com");
+        if (code != null) {
+            data.put(NotificationConstants.DEFAULT_DEDUPLICATION_CODE_PROPERTY, code);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test cases of the recovery of the notification events from the outbox.
+ */
+public class NotificationOutboxTest {
+
+    private static final String STREAM_ID = "id_gov_notify_stream:1.0.0";
+    private static final int SEGMENT_SIZE = 64 * 1024;
+    private static final int HEADER_LENGTH = 9;
+
+    private File directory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+
+        directory = Files.createTempDirectory("notification-outbox").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testRecoverPendingEvents() {
+
+        NotificationOutbox outbox = newOutbox();
+        Assert.assertTrue(outbox.open().isEmpty());
+        outbox.append(newEvent("1"), -1234, "carbon.super");
+        outbox.append(newEvent("2"), 1, "wso2.com");
+        outbox.append(newEvent("3"), 2, "abc.com");
+        Assert.assertEquals(outbox.getPendingCount(), 3);
+        outbox.close();
+
+        List<NotificationOutbox.Entry> entries = newOutbox().open();
+        Assert.assertEquals(getCodes(entries), new String[]{"1", "2", "3"});
+        Assert.assertEquals(entries.get(1).getEvent().getStreamId(), STREAM_ID);
+        Assert.assertEquals(entries.get(0).getTenantId(), -1234);
+        Assert.assertEquals(entries.get(0).getTenantDomain(), "carbon.super");
+        Assert.assertEquals(entries.get(1).getTenantId(), 1);
+        Assert.assertEquals(entries.get(1).getTenantDomain(), "wso2.com");
+        Assert.assertEquals(entries.get(2).getTenantId(), 2);
+        Assert.assertEquals(entries.get(2).getTenantDomain(), "abc.com");
+    }
+
+    @Test
+    public void testAcknowledgedEventsAreNotRecovered() {
+
+        NotificationOutbox outbox = newOutbox();
+        outbox.open();
+        List<NotificationOutbox.Entry> appended = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            appended.add(outbox.append(newEvent(String.valueOf(i)), 1, "wso2.com"));
+        }
+        outbox.acknowledge(appended.get(0));
+        outbox.acknowledge(appended.get(2));
+        // Acknowledging twice does not change the pending count.
+        outbox.acknowledge(appended.get(2));
+        Assert.assertEquals(outbox.getPendingCount(), 2);
+        outbox.close();
+
+        NotificationOutbox recovered = newOutbox();
+        List<NotificationOutbox.Entry> entries = recovered.open();
+        Assert.assertEquals(getCodes(entries), new String[]{"2", "4"});
+        Assert.assertEquals(recovered.getPendingCount(), 2);
+        for (NotificationOutbox.Entry entry : entries) {
+            recovered.acknowledge(entry);
+        }
+        recovered.close();
+
+        // A recovered segment is deleted once all of its events are acknowledged.
+        Assert.assertEquals(getSegments().length, 0);
+        Assert.assertTrue(newOutbox().open().isEmpty());
+    }
+
+    @Test
+    public void testTornRecordEndsSegment() throws IOException {
+
+        NotificationOutbox outbox = newOutbox();
+        outbox.open();
+        for (int i = 1; i <= 3; i++) {
+            outbox.append(newEvent(String.valueOf(i)), 1, "wso2.com");
+        }
+        outbox.close();
+
+        File[] segments = getSegments();
+        Assert.assertEquals(segments.length, 1);
+        try (RandomAccessFile file = new RandomAccessFile(segments[0], "rw")) {
+            // Corrupt the last byte of the second record, as if the node stopped while writing it.
+            int firstLength = file.readInt();
+            long secondOffset = HEADER_LENGTH + firstLength;
+            file.seek(secondOffset);
+            int secondLength = file.readInt();
+            long lastByte = secondOffset + HEADER_LENGTH + secondLength - 1;
+            file.seek(lastByte);
+            int value = file.read();
+            file.seek(lastByte);
+            file.write(value ^ 0xFF);
+        }
+
+        // Records after the torn record are not recovered either, as the torn record ends the segment.
+        List<NotificationOutbox.Entry> entries = newOutbox().open();
+        Assert.assertEquals(getCodes(entries), new String[]{"1"});
+    }
+
+    @Test
+    public void testRecordPastSegmentEndIsNotRecovered() throws IOException {
+
+        NotificationOutbox outbox = newOutbox();
+        outbox.open();
+        outbox.append(newEvent("1"), 1, "wso2.com");
+        outbox.close();
+
+        File[] segments = getSegments();
+        try (RandomAccessFile file = new RandomAccessFile(segments[0], "rw")) {
+            int firstLength = file.readInt();
+            // A length which runs past the end of the segment.
+            file.seek(HEADER_LENGTH + firstLength);
+            file.writeInt(SEGMENT_SIZE);
+        }
+
+        Assert.assertEquals(getCodes(newOutbox().open()), new String[]{"1"});
+    }
+
+    private NotificationOutbox newOutbox() {
+
+        return new NotificationOutbox(directory, SEGMENT_SIZE, 10, false);
+    }
+
+    private File[] getSegments() {
+
+        File[] segments = directory.listFiles((dir, name) -> name.endsWith(".journal"));
+        return segments != null ? segments : new File[0];
+    }
+
+    private static Event newEvent(String code) {
+
+        Event event = new Event();
+        event.setStreamId(STREAM_ID);
+        event.setTimeStamp(System.currentTimeMillis());
+        Map<String, String> arbitraryDataMap = new HashMap<>();
+        arbitraryDataMap.put("code", code);
+        arbitraryDataMap.put("send-to", "john@wso2.com");
+        event.setArbitraryDataMap(arbitraryDataMap);
+        return event;
+    }
+
+    private static String[] getCodes(List<NotificationOutbox.Entry> entries) {
+
+        String[] codes = new String[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            codes[i] = entries.get(i).getEvent().getArbitraryDataMap().get("code");
+        }
+        return codes;
+    }
+}
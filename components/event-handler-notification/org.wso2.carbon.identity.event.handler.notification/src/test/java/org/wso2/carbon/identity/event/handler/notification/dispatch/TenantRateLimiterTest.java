@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.dispatch;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test cases of the delay and hard cap behaviour of the per tenant rate limits.
+ */
+public class TenantRateLimiterTest {
+
+    private static final String HANDLER_NAME = "testHandler";
+    private static final String TENANT_DOMAIN = "wso2.com";
+    private static final String OTHER_TENANT_DOMAIN = "abc.com";
+    private static final int MAX_DELAYED = 1000;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    // Allowed drift of a delay, as the delay is measured against the time the token was taken.
+    private static final long TOLERANCE = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    public void testTenantWithoutRate() {
+
+        TenantRateLimiter rateLimiter = TenantRateLimiter.fromProperties(HANDLER_NAME, new Properties());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), 0);
+        }
+        Assert.assertEquals(rateLimiter.getDelayedCount(TENANT_DOMAIN), 0);
+        Assert.assertEquals(rateLimiter.getWeight(TENANT_DOMAIN), 1);
+    }
+
+    @Test
+    public void testDelayOverBurst() {
+
+        TenantRateLimiter rateLimiter = TenantRateLimiter.fromProperties(HANDLER_NAME,
+                getProperties(null, "1", "2", null));
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), 0);
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), 0);
+        assertDelay(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), SECOND);
+        assertDelay(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), 2 * SECOND);
+        Assert.assertEquals(rateLimiter.getDelayedCount(TENANT_DOMAIN), 2);
+        Assert.assertEquals(rateLimiter.getDroppedCount(TENANT_DOMAIN), 0);
+
+        // The bucket of a tenant does not affect the other tenants.
+        Assert.assertEquals(rateLimiter.acquire(OTHER_TENANT_DOMAIN, MAX_DELAYED), 0);
+    }
+
+    @Test
+    public void testHardCap() {
+
+        TenantRateLimiter rateLimiter = TenantRateLimiter.fromProperties(HANDLER_NAME,
+                getProperties(null, "1", "1", "3"));
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), 0);
+        for (int i = 1; i <= 3; i++) {
+            assertDelay(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), i * SECOND);
+        }
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), TenantRateLimiter.REJECTED);
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), TenantRateLimiter.REJECTED);
+        Assert.assertEquals(rateLimiter.getDelayedCount(TENANT_DOMAIN), 3);
+        Assert.assertEquals(rateLimiter.getDroppedCount(TENANT_DOMAIN), 2);
+    }
+
+    @Test
+    public void testHardCapBoundedByCaller() {
+
+        // The default hard cap is larger than the share of the queue the tenant can hold.
+        TenantRateLimiter rateLimiter = TenantRateLimiter.fromProperties(HANDLER_NAME,
+                getProperties(null, "1", "1", null));
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, 2), 0);
+        assertDelay(rateLimiter.acquire(TENANT_DOMAIN, 2), SECOND);
+        assertDelay(rateLimiter.acquire(TENANT_DOMAIN, 2), 2 * SECOND);
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, 2), TenantRateLimiter.REJECTED);
+    }
+
+    @Test
+    public void testRejectedNotificationTakesNoToken() {
+
+        TenantRateLimiter rateLimiter = TenantRateLimiter.fromProperties(HANDLER_NAME,
+                getProperties(null, "1", "1", null));
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, 0), 0);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, 0), TenantRateLimiter.REJECTED);
+        }
+        // The rejected notifications did not advance the bucket, hence the next one waits a single interval.
+        assertDelay(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), SECOND);
+    }
+
+    @Test
+    public void testReleasedTokenIsTakenAgain() {
+
+        TenantRateLimiter rateLimiter = TenantRateLimiter.fromProperties(HANDLER_NAME,
+                getProperties(null, "1", "1", null));
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), 0);
+        long delay = rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED);
+        assertDelay(delay, SECOND);
+        rateLimiter.release(TENANT_DOMAIN, delay);
+        Assert.assertEquals(rateLimiter.getDelayedCount(TENANT_DOMAIN), 0);
+        // The returned token does not delay the next notification any further.
+        assertDelay(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), SECOND);
+    }
+
+    @Test
+    public void testMaxDelay() {
+
+        TenantRateLimiter rateLimiter = TenantRateLimiter.fromProperties(HANDLER_NAME,
+                getProperties(null, "1", "1", null));
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, 1500, TimeUnit.MILLISECONDS), 0);
+        assertDelay(rateLimiter.acquire(TENANT_DOMAIN, 1500, TimeUnit.MILLISECONDS), SECOND);
+        Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, 1500, TimeUnit.MILLISECONDS),
+                TenantRateLimiter.REJECTED);
+        Assert.assertEquals(rateLimiter.getDelayedCount(TENANT_DOMAIN), 1);
+    }
+
+    @Test
+    public void testTenantOverride() {
+
+        Properties properties = getProperties(null, "1", "1", null);
+        properties.putAll(getProperties(TENANT_DOMAIN, "1000", "5", null));
+        properties.setProperty(getKey(TENANT_DOMAIN, "weight"), "3");
+        TenantRateLimiter rateLimiter = TenantRateLimiter.fromProperties(HANDLER_NAME, properties);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(rateLimiter.acquire(TENANT_DOMAIN, MAX_DELAYED), 0);
+        }
+        Assert.assertEquals(rateLimiter.getWeight(TENANT_DOMAIN), 3);
+
+        Assert.assertEquals(rateLimiter.acquire(OTHER_TENANT_DOMAIN, MAX_DELAYED), 0);
+        assertDelay(rateLimiter.acquire(OTHER_TENANT_DOMAIN, MAX_DELAYED), SECOND);
+        Assert.assertEquals(rateLimiter.getWeight(OTHER_TENANT_DOMAIN), 1);
+    }
+
+    private static void assertDelay(long delay, long expected) {
+
+        Assert.assertTrue(delay <= expected && delay > expected - TOLERANCE,
+                "Expected a delay of about " + expected + " nanoseconds but was " + delay);
+    }
+
+    private static Properties getProperties(String tenantDomain, String rate, String burst, String hardCap) {
+
+        Properties properties = new Properties();
+        properties.setProperty(getKey(tenantDomain, "rate"), rate);
+        properties.setProperty(getKey(tenantDomain, "burst"), burst);
+        if (hardCap != null) {
+            properties.setProperty(getKey(tenantDomain, "hardCap"), hardCap);
+        }
+        return properties;
+    }
+
+    private static String getKey(String tenantDomain, String name) {
+
+        return HANDLER_NAME + "." + TenantRateLimiter.TENANT_LIMIT_PROPERTY + "." +
+                (tenantDomain != null ? tenantDomain + "." : "") + name;
+    }
+}
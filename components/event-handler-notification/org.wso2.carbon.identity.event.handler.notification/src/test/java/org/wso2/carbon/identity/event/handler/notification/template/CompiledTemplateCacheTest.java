@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.governance.model.NotificationTemplate;
+
+/**
+ * Test cases of the eviction of the compiled notification templates.
+ */
+public class CompiledTemplateCacheTest {
+
+    private static final String TENANT_DOMAIN = "wso2.com";
+    private static final String CHANNEL = "EMAIL";
+    private static final String TYPE = "accountconfirmation";
+    private static final String OTHER_TYPE = "passwordreset";
+
+    @Test
+    public void testChangeEvictsFallbackLocales() {
+
+        CompiledTemplateCache cache = new CompiledTemplateCache(100);
+        // fr_CA falls back to the en_US template, as there is no fr_CA or fr_FR template.
+        cache.addToCache(TENANT_DOMAIN, CHANNEL, TYPE, "fr_CA", compile(TYPE, "en_US"), cache.getGeneration());
+        cache.addToCache(TENANT_DOMAIN, CHANNEL, TYPE, "en_US", compile(TYPE, "en_US"), cache.getGeneration());
+        cache.addToCache(TENANT_DOMAIN, CHANNEL, OTHER_TYPE, "fr_CA", compile(OTHER_TYPE, "en_US"),
+                cache.getGeneration());
+        cache.addToCache("abc.com", CHANNEL, TYPE, "fr_CA", compile(TYPE, "en_US"), cache.getGeneration());
+
+        // Adding a fr_FR template changes the template fr_CA falls back to.
+        cache.invalidate(TENANT_DOMAIN, CHANNEL, TYPE, "fr_FR");
+
+        Assert.assertNull(cache.getValueFromCache(TENANT_DOMAIN, CHANNEL, TYPE, "fr_CA"));
+        Assert.assertNull(cache.getValueFromCache(TENANT_DOMAIN, CHANNEL, TYPE, "en_US"));
+        Assert.assertNotNull(cache.getValueFromCache(TENANT_DOMAIN, CHANNEL, OTHER_TYPE, "fr_CA"),
+                "Other template types should stay cached.");
+        Assert.assertNotNull(cache.getValueFromCache("abc.com", CHANNEL, TYPE, "fr_CA"),
+                "Templates of other tenants should stay cached.");
+    }
+
+    @Test
+    public void testTemplateReadBeforeEvictionIsNotCached() {
+
+        CompiledTemplateCache cache = new CompiledTemplateCache(100);
+        long generation = cache.getGeneration();
+        CompiledNotificationTemplate staleTemplate = compile(TYPE, "en_US");
+        // The template is changed after it was read, but before it is added to the cache.
+        cache.invalidate(TENANT_DOMAIN, CHANNEL, TYPE, "en_US");
+        cache.addToCache(TENANT_DOMAIN, CHANNEL, TYPE, "en_US", staleTemplate, generation);
+        Assert.assertNull(cache.getValueFromCache(TENANT_DOMAIN, CHANNEL, TYPE, "en_US"),
+                "A template read before an eviction should not be cached.");
+
+        cache.addToCache(TENANT_DOMAIN, CHANNEL, TYPE, "en_US", compile(TYPE, "en_US"), cache.getGeneration());
+        Assert.assertNotNull(cache.getValueFromCache(TENANT_DOMAIN, CHANNEL, TYPE, "en_US"));
+    }
+
+    private static CompiledNotificationTemplate compile(String type, String locale) {
+
+        NotificationTemplate template = new NotificationTemplate();
+        template.setNotificationChannel(CHANNEL);
+        template.setType(type);
+        template.setLocale(locale);
+        template.setContentType("text/html");
+        template.setSubject("Subject");
+        template.setBody("Hi {{user-name}}");
+        template.setFooter("Footer");
+        return CompiledNotificationTemplate.compile(template);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test cases of the layering, snapshot and remove semantics of the placeholder context.
+ */
+public class PlaceholderContextTest {
+
+    private Map<String, Object> eventProperties;
+
+    @BeforeMethod
+    public void setUp() {
+
+        eventProperties = new HashMap<>();
+        eventProperties.put("user-name", "john");
+        eventProperties.put("tenant-domain", "carbon.super");
+        eventProperties.put("user-store-manager", new Object());
+    }
+
+    @Test
+    public void testLayers() {
+
+        PlaceholderContext context = new PlaceholderContext(eventProperties);
+        // Only the String valued event properties are visible.
+        Assert.assertEquals(context.get("user-name"), "john");
+        Assert.assertNull(context.get("user-store-manager"));
+        Assert.assertFalse(context.containsKey("user-store-manager"));
+
+        Assert.assertEquals(context.put("user-name", "jane"), "john");
+        Assert.assertEquals(context.get("user-name"), "jane");
+        // The event properties are not copied, nor changed.
+        Assert.assertEquals(eventProperties.get("user-name"), "john");
+
+        context.setOverlay(Collections.singletonMap("user-name", "static"));
+        Assert.assertEquals(context.get("user-name"), "static");
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("user-name", "static");
+        expected.put("tenant-domain", "carbon.super");
+        Assert.assertEquals(context.toFlatMap(), expected);
+        Assert.assertEquals(context.size(), 2);
+    }
+
+    @Test
+    public void testRemove() {
+
+        PlaceholderContext context = new PlaceholderContext(eventProperties);
+        context.put("code", "1234");
+
+        Assert.assertEquals(context.remove("user-name"), "john");
+        Assert.assertNull(context.get("user-name"));
+        Assert.assertFalse(context.containsKey("user-name"));
+        Assert.assertFalse(context.toFlatMap().containsKey("user-name"));
+        // The event property of the removed entry is kept.
+        Assert.assertEquals(eventProperties.get("user-name"), "john");
+
+        Assert.assertEquals(context.remove("code"), "1234");
+        Assert.assertFalse(context.containsKey("code"));
+        Assert.assertNull(context.remove("unknown"));
+        Assert.assertNull(context.remove(1));
+
+        // A removed entry can be added again.
+        Assert.assertNull(context.put("user-name", "jane"));
+        Assert.assertEquals(context.get("user-name"), "jane");
+        Assert.assertTrue(context.containsKey("user-name"));
+    }
+
+    @Test
+    public void testSnapshot() {
+
+        PlaceholderContext context = new PlaceholderContext(eventProperties);
+        context.put("code", "1234");
+        PlaceholderContext snapshot = context.snapshot();
+
+        context.put("code", "5678");
+        context.put("subject", "Welcome");
+        context.remove("user-name");
+        context.setOverlay(Collections.singletonMap("tenant-domain", "wso2.com"));
+
+        // Changes made to the context after the snapshot are not visible through the snapshot.
+        Assert.assertEquals(snapshot.get("code"), "1234");
+        Assert.assertNull(snapshot.get("subject"));
+        Assert.assertEquals(snapshot.get("user-name"), "john");
+        Assert.assertEquals(snapshot.get("tenant-domain"), "carbon.super");
+
+        Assert.assertEquals(context.get("code"), "5678");
+        Assert.assertEquals(context.get("subject"), "Welcome");
+        Assert.assertNull(context.get("user-name"));
+        Assert.assertEquals(context.get("tenant-domain"), "wso2.com");
+
+        // A later snapshot sees the values of the earlier layers along with the later changes.
+        PlaceholderContext laterSnapshot = context.snapshot();
+        context.put("code", "0000");
+        Assert.assertEquals(laterSnapshot.get("code"), "5678");
+        Assert.assertFalse(laterSnapshot.containsKey("user-name"));
+        Assert.assertEquals(snapshot.get("code"), "1234");
+    }
+
+    @Test
+    public void testSnapshotIsReadOnly() {
+
+        PlaceholderContext snapshot = new PlaceholderContext(eventProperties).snapshot();
+        assertUnsupported(() -> snapshot.put("code", "1234"));
+        assertUnsupported(() -> snapshot.remove("user-name"));
+        assertUnsupported(() -> snapshot.setOverlay(Collections.<String, String>emptyMap()));
+        assertUnsupported(() -> snapshot.entrySet().clear());
+        assertUnsupported(snapshot::clear);
+        Assert.assertEquals(snapshot.get("user-name"), "john");
+    }
+
+    @Test
+    public void testSerializedAsFlatMap() throws Exception {
+
+        PlaceholderContext context = new PlaceholderContext(eventProperties);
+        context.put("code", "1234");
+        context.remove("tenant-domain");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(context);
+        }
+        Object deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = in.readObject();
+        }
+        Map<String, String> expected = new HashMap<>();
+        expected.put("user-name", "john");
+        expected.put("code", "1234");
+        Assert.assertEquals(deserialized, expected);
+    }
+
+    private static void assertUnsupported(Runnable operation) {
+
+        try {
+            operation.run();
+            Assert.fail("Expected the operation to be unsupported.");
+        } catch (UnsupportedOperationException e) {
+            // Expected.
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.event.handler.notification.template;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.net.URLEncoder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+/**
+ * Test cases of the compilation and rendering of notification template content.
+ */
+public class TemplateCompilerTest {
+
+    private static final Map<String, String> PLACEHOLDER_DATA = new LinkedHashMap<>();
+
+    static {
+        PLACEHOLDER_DATA.put("user-name", "john");
+        PLACEHOLDER_DATA.put("confirmation-code", "a b&c=d");
+        PLACEHOLDER_DATA.put("tenant-domain", "$1 \\ carbon.super");
+        PLACEHOLDER_DATA.put("a", "V");
+    }
+
+    @DataProvider(name = "templateContent")
+    public Object[][] templateContent() {
+
+        return new Object[][]{
+                {""},
+                {"No placeholders"},
+                {"Hi {{user-name}}, your code is {{confirmation-code}}"},
+                {"https://localhost/confirm?user={{url:user-name}}&code={{url:confirmation-code}}"},
+                {"{{{user-name}}}"},
+                {"{{user-name}}{{user-name}}{{unknown}}"},
+                {"{{}} {{ }} {{user-\nname}} {{user-name"},
+                {"Tenant: {{tenant-domain}}"},
+                {"<style>.a{color:red}}.b{{margin:0}}</style>{{user-name}}"},
+                {"}}}}{{{{a}}}}{{url:}}{{url:a}}"},
+        };
+    }
+
+    @Test(dataProvider = "templateContent")
+    public void testRenderMatchesRegexReplacement(String content) throws Exception {
+
+        Assert.assertEquals(TemplateCompiler.compile(content).render(PLACEHOLDER_DATA),
+                replaceWithRegex(content, PLACEHOLDER_DATA));
+    }
+
+    @Test(dataProvider = "templateContent")
+    public void testRenderIntoAppendableMatchesRender(String content) throws Exception {
+
+        CompiledTemplateSection section = TemplateCompiler.compile(content);
+        StringBuilder out = new StringBuilder();
+        section.render(PLACEHOLDER_DATA, out);
+        Assert.assertEquals(out.toString(), section.render(PLACEHOLDER_DATA));
+    }
+
+    @Test
+    public void testRandomContentMatchesRegexReplacement() throws Exception {
+
+        String alphabet = "{}a\n :url";
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder content = new StringBuilder();
+            int length = random.nextInt(24);
+            for (int j = 0; j < length; j++) {
+                content.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            Assert.assertEquals(TemplateCompiler.compile(content.toString()).render(PLACEHOLDER_DATA),
+                    replaceWithRegex(content.toString(), PLACEHOLDER_DATA), "Content: " + content);
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testCompileIsLinearForClosingTagsWithoutOpeningTags() {
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            content.append(".c").append(i).append("{color:red}}");
+        }
+        content.append("{{user-name}}");
+
+        CompiledTemplateSection section = TemplateCompiler.compile(content.toString());
+        Assert.assertEquals(section.getPlaceholders().size(), 1);
+        Assert.assertEquals(section.getPlaceholders().get(0).getName(), "user-name");
+    }
+
+    /**
+     * The placeholder replacement that was used before the templates were compiled, kept as the reference output.
+     */
+    private static String replaceWithRegex(String content, Map<String, String> tagsData) throws Exception {
+
+        for (Map.Entry<String, String> entry : tagsData.entrySet()) {
+            content = content.replaceAll("\\{\\{url:" + entry.getKey() + "\\}\\}", URLEncoder.encode(entry.getValue(),
+                    "UTF-8"));
+            content = content.replaceAll("\\{\\{" + entry.getKey() + "\\}\\}", Matcher.quoteReplacement(entry
+                    .getValue()));
+        }
+        return content;
+    }
+}